@@ -16,6 +16,8 @@ import com.google.appinventor.client.editor.youngandroid.YailGenerationException
 import com.google.appinventor.client.explorer.project.Project;
 import com.google.appinventor.client.settings.project.ProjectSettings;
 import com.google.appinventor.shared.rpc.BlocksTruncatedException;
+import com.google.appinventor.shared.rpc.project.ChecksumedFileException;
+import com.google.appinventor.shared.rpc.project.FileDelta;
 import com.google.appinventor.shared.rpc.project.FileDescriptorWithContent;
 import com.google.appinventor.shared.rpc.project.ProjectRootNode;
 import com.google.common.collect.Maps;
@@ -25,6 +27,7 @@ import com.google.gwt.user.client.Timer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -62,6 +65,11 @@ public final class EditorManager {
   private boolean autoSaveIsScheduled;
   private long autoSaveRequestTime;
 
+  // The content of each file as last saved by this session, keyed by
+  // savedContentKey(projectId, fileId). Later saves of the file send only
+  // what changed since.
+  private final Map<String, String> savedContent;
+
   private class DateHolder {
     long date;
     long projectId;
@@ -76,6 +84,7 @@ public final class EditorManager {
     dirtyProjectSettings = new HashSet<ProjectSettings>();
     dirtyFileEditors = new HashSet<FileEditor>();
     pendingFileEditors = new HashMap<String,FileEditor>();
+    savedContent = new HashMap<String, String>();
 
     autoSaveTimer = new Timer() {
       @Override
@@ -153,6 +162,7 @@ public final class EditorManager {
         if (fileEditor != null) {
           dirtyFileEditors.remove(fileEditor);
         }
+        savedContent.remove(savedContentKey(projectId, fileId));
       }
       projectEditor.closeFileEditors(fileIds);
     }
@@ -172,6 +182,12 @@ public final class EditorManager {
     ProjectSettings projectSettings = project.getSettings();
     dirtyProjectSettings.remove(projectSettings);
     openProjectEditors.remove(projectId);
+    String prefix = savedContentKey(projectId, "");
+    for (Iterator<String> it = savedContent.keySet().iterator(); it.hasNext(); ) {
+      if (it.next().startsWith(prefix)) {
+        it.remove();
+      }
+    }
   }
 
   /**
@@ -395,11 +411,16 @@ public final class EditorManager {
         final long projectId = fileDescriptor.getProjectId();
         final String fileId = fileDescriptor.getFileId();
         final String content = fileDescriptor.getContent();
-        Ode.CLog("Saving fileId " + fileId + " for projectId " + projectId);
-        Ode.getInstance().getProjectService().save2(Ode.getInstance().getSessionId(),
-          projectId, fileId, false, content, new OdeAsyncCallback<Long>(MESSAGES.saveErrorMultipleFiles()) {
+        final String key = savedContentKey(projectId, fileId);
+        final FileDelta delta = computeDelta(savedContent.get(key), content);
+        Ode.CLog("Saving fileId " + fileId + " for projectId " + projectId
+            + (delta != null ? " (" + delta.getSize() + " changed characters)" : ""));
+        OdeAsyncCallback<Long> callback = new OdeAsyncCallback<Long>(MESSAGES.saveErrorMultipleFiles()) {
+            private boolean sentDelta = delta != null;
+
             @Override
             public void onSuccess(Long date) {
+              savedContent.put(key, content);
               if (dateHolder.date != 0) {
                 // This sets the project modification time to that of one of
                 // the successful file saves. It doesn't really matter which
@@ -416,6 +437,16 @@ public final class EditorManager {
             }
             @Override
             public void onFailure(Throwable caught) {
+              // We no longer know what the server has, so the next save sends the whole file.
+              savedContent.remove(key);
+              if (sentDelta && caught instanceof ChecksumedFileException) {
+                // The file was changed by someone else, or the delta was corrupted.
+                // Either way, save the whole file instead.
+                sentDelta = false;
+                Ode.getInstance().getProjectService().save2(Ode.getInstance().getSessionId(),
+                    projectId, fileId, false, content, this);
+                return;
+              }
               // Here is where we handle BlocksTruncatedException
               if (caught instanceof BlocksTruncatedException) {
                 Ode.getInstance().blocksTruncatedDialog(projectId, fileId, content, this);
@@ -438,8 +469,36 @@ public final class EditorManager {
                 afterSavingFiles.execute();   // of files saved (or not in this case)
               }
             }
-          });
+          };
+        if (delta != null) {
+          Ode.getInstance().getProjectService().saveDelta(Ode.getInstance().getSessionId(),
+              projectId, fileId, false, delta, callback);
+        } else {
+          Ode.getInstance().getProjectService().save2(Ode.getInstance().getSessionId(),
+              projectId, fileId, false, content, callback);
+        }
       }
     }
   }
+
+  private static String savedContentKey(long projectId, String fileId) {
+    return projectId + "/" + fileId;
+  }
+
+  /**
+   * Returns the change from the saved content of a file to its new content,
+   * or null if the whole file should be sent instead.
+   */
+  private static FileDelta computeDelta(String saved, String content) {
+    if (saved == null) {
+      return null;
+    }
+    try {
+      FileDelta delta = FileDelta.compute(saved, content);
+      // A delta carrying most of the file saves little and costs the server a read.
+      return delta.getSize() * 2 < content.length() ? delta : null;
+    } catch (ChecksumedFileException e) {
+      return null;
+    }
+  }
 }
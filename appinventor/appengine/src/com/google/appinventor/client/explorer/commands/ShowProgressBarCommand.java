@@ -37,7 +37,11 @@ public class ShowProgressBarCommand extends ChainableCommand {
   private String target;
   private ChainableCommand nextCommand;
   private final String buildRequestTime;
-  private static final int WAIT_INTERVAL_MILLIS = 5000;
+  // The server holds each request until the progress changes, so this only spaces out the
+  // requests that return without a change.
+  private static final int WAIT_INTERVAL_MILLIS = 1000;
+  // The progress last shown, or -1 before the first result
+  private int lastProgress = -1;
   private ProjectNode projectNode;
   private ProgressBarDialogBox minPB;
   private String serviceName;
@@ -90,7 +94,6 @@ public class ShowProgressBarCommand extends ChainableCommand {
                   execute(node);
                 }
               };
-            // TODO(user): Maybe do an exponential backoff here.
             timer.schedule(WAIT_INTERVAL_MILLIS);
           }
         }
@@ -101,7 +104,12 @@ public class ShowProgressBarCommand extends ChainableCommand {
           executionFailedOrCanceled();
         }
     };
-    ode.getProjectService().getBuildResult(node.getProjectId(), target, callback);
+    if (lastProgress < 0) {
+      ode.getProjectService().getBuildResult(node.getProjectId(), target, callback);
+    } else {
+      ode.getProjectService().waitForBuildResult(node.getProjectId(), target, lastProgress,
+          callback);
+    }
   }
 
   /**
@@ -162,6 +170,9 @@ public class ShowProgressBarCommand extends ChainableCommand {
       }
     }
     minPB.setProgress(currentProgress, labelContent);
+    if (success) {
+      lastProgress = currentProgress;
+    }
     return success;
   }
 
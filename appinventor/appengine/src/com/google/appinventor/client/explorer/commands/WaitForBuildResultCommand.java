@@ -39,7 +39,9 @@ public class WaitForBuildResultCommand extends ChainableCommand {
 
   // The build target
   private final String target;
-  private static final int WAIT_INTERVAL_MILLIS = 10000;
+  // The server holds each request until the build is done, so this only spaces out the requests
+  // that return without a result.
+  private static final int WAIT_INTERVAL_MILLIS = 1000;
   private final String buildRequestTime;
 
   /**
@@ -118,7 +120,6 @@ public class WaitForBuildResultCommand extends ChainableCommand {
               execute(node);
             }
           };
-          // TODO(user): Maybe do an exponential backoff here.
           timer.schedule(WAIT_INTERVAL_MILLIS);
         }
       }
@@ -130,7 +131,7 @@ public class WaitForBuildResultCommand extends ChainableCommand {
       }
     };
 
-    ode.getProjectService().getBuildResult(node.getProjectId(), target, callback);
+    ode.getProjectService().waitForBuildResult(node.getProjectId(), target, -1, callback);
   }
 
   private static YoungAndroidBlocksNode findBlocksNode(YoungAndroidProjectNode projectRootNode,
@@ -653,6 +653,12 @@ public final class YoungAndroidFormUpgrader {
       // No properties need to be modified to upgrade to version 8.
       srcCompVersion = 8;
     }
+    if (srcCompVersion < 9) {
+      // The StartStreaming and StopStreaming methods, BytesDropped property and DataReceived
+      // event were added.
+      // No properties need to be modified to upgrade to version 9.
+      srcCompVersion = 9;
+    }
     return srcCompVersion;
   }
 
@@ -679,6 +685,12 @@ public final class YoungAndroidFormUpgrader {
       // No properties need to be modified to upgrade to version 5.
       srcCompVersion = 5;
     }
+    if (srcCompVersion < 6) {
+      // The StartStreaming and StopStreaming methods, BytesDropped property and DataReceived
+      // event were added.
+      // No properties need to be modified to upgrade to version 6.
+      srcCompVersion = 6;
+    }
     return srcCompVersion;
   }
   private static int upgradeSliderProperties(Map<String, JSONValue> componentProperties,
@@ -1754,6 +1766,11 @@ public final class YoungAndroidFormUpgrader {
       // Added Property: GetEntries
       srcCompVersion = 3;
     }
+
+    if (srcCompVersion < 4) {
+      // Added Property: FlushInterval and Method: Flush
+      srcCompVersion = 4;
+    }
     return srcCompVersion;
   }
 
@@ -1998,6 +2015,11 @@ public final class YoungAndroidFormUpgrader {
       // Properties related to this component have now been upgraded to version 9
       srcCompVersion = 9;
     }
+    if (srcCompVersion < 10) {
+      // The CacheResponses property and the ClearCache method were added.
+      // No properties need to be modified to upgrade to version 10.
+      srcCompVersion = 10;
+    }
     return srcCompVersion;
   }
 
@@ -2163,6 +2185,11 @@ public final class YoungAndroidFormUpgrader {
       // UpdateDone event and ProvideUpdateDone property were added
       srcCompVersion = 2;
     }
+    if (srcCompVersion < 3) {
+      // Version 3
+      // CacheValues property was added
+      srcCompVersion = 3;
+    }
     return srcCompVersion;
   }
 
@@ -15,6 +15,7 @@ import com.google.appinventor.shared.storage.StorageUtil;
 import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.ZipEntry;
@@ -70,6 +71,19 @@ public final class FileExporterImpl implements FileExporter {
       includeProjectHistory, includeAndroidKeystore, zipName, includeYail, includeScreenShots, forGallery, fatalError);
   }
 
+  @Override
+  public int writeProjectSourceZip(String userId, long projectId,
+    boolean includeProjectHistory,
+    boolean includeAndroidKeystore,
+    boolean includeYail,
+    boolean includeScreenShots,
+    boolean fatalError,
+    boolean forGallery,
+    OutputStream out) throws IOException {
+    return storageIo.writeProjectSourceZip(userId, projectId, includeProjectHistory,
+      includeAndroidKeystore, includeYail, includeScreenShots, forGallery, fatalError, out);
+  }
+
   @Override
   public ProjectSourceZip exportSelectedProjectsSourceZip(String userId,
       String zipName, List<Long> projectIds) throws IOException {
@@ -26,6 +26,7 @@ import com.google.appinventor.shared.rpc.project.ChecksumedFileException;
 import com.google.appinventor.shared.rpc.project.ChecksumedLoadFile;
 import com.google.appinventor.shared.rpc.project.FileDescriptor;
 import com.google.appinventor.shared.rpc.project.FileDescriptorWithContent;
+import com.google.appinventor.shared.rpc.project.FileDelta;
 import com.google.appinventor.shared.rpc.project.NewProjectParameters;
 import com.google.appinventor.shared.rpc.project.ProjectRootNode;
 import com.google.appinventor.shared.rpc.project.ProjectService;
@@ -667,6 +668,27 @@ public class ProjectServiceImpl extends OdeRemoteServiceServlet implements Proje
         content);
   }
 
+  /**
+   * Saves the content of the file associated with a node in the project tree,
+   * given as a change to its saved content.
+   *
+   * @param sessionId current session id
+   * @param projectId  project root node ID
+   * @param fileId  project node whose source should be saved
+   * @param force  whether to save a blocks file that was truncated
+   * @param delta  the change to the saved content
+   * @return modification date for project
+   */
+  @Override
+  public long saveDelta(String sessionId, long projectId, String fileId, boolean force,
+      FileDelta delta) throws InvalidSessionException, BlocksTruncatedException,
+      ChecksumedFileException {
+    validateSessionId(sessionId);
+    final String userId = userInfoProvider.getUserId();
+    return getProjectRpcImpl(userId, projectId).saveDelta(userId, projectId, fileId, force,
+        delta);
+  }
+
   /**
    * Saves the contents of multiple files.
    *
@@ -733,6 +755,23 @@ public class ProjectServiceImpl extends OdeRemoteServiceServlet implements Proje
       userInfoProvider.getUser(), projectId, target);
   }
 
+  /**
+   * Waits for the result of a build command for the project.
+   *
+   * @param projectId  project ID
+   * @param target  build target (optional, implementation dependent)
+   * @param progress  the progress last seen by the client, or -1 to wait for the build to be done
+   *
+   * @return  results of build, as for {@link #getBuildResult(long, String)}
+   */
+  @Override
+  public RpcResult waitForBuildResult(long projectId, String target, int progress) {
+    // Dispatch
+    final String userId = userInfoProvider.getUserId();
+    return getProjectRpcImpl(userId, projectId).waitForBuildResult(
+      userInfoProvider.getUser(), projectId, target, progress);
+  }
+
   /*
    * Write the serialized response out to stdout. This is a very unusual thing
    * to do, but it allows us to create a static file version of the response
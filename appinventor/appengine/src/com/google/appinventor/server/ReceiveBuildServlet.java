@@ -8,8 +8,10 @@ package com.google.appinventor.server;
 
 import com.google.appinventor.server.encryption.EncryptionException;
 import com.google.appinventor.server.project.utils.Security;
+import com.google.appinventor.server.project.youngandroid.BuildStatusRegistry;
 import com.google.appinventor.server.storage.StorageIo;
 import com.google.appinventor.server.storage.StorageIoInstanceHolder;
+import com.google.appinventor.server.util.TransferStats;
 import com.google.appinventor.shared.storage.StorageUtil;
 import com.google.common.io.ByteStreams;
 
@@ -38,6 +40,7 @@ public class ReceiveBuildServlet extends OdeServlet {
 
   private final OdeAuthFilter odeFilter = new OdeAuthFilter();
   private final transient StorageIo storageIo = StorageIoInstanceHolder.getInstance();
+  private final transient BuildStatusRegistry buildStatus = BuildStatusRegistry.getInstance();
 
   @Override
   public void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
@@ -60,33 +63,46 @@ public class ReceiveBuildServlet extends OdeServlet {
 
     // Set the user in the OdeFilter, which is used everywhere as the UserInfoProvider.
     odeFilter.setUserFromUserId(userId, false, false);
+    TransferStats.CountingInputStream download = TransferStats.track(req.getInputStream());
     try {
       String buildFileDirPath = uriComponents[4];
-      ZipInputStream zipInputStream = new ZipInputStream(req.getInputStream());
+      ZipInputStream zipInputStream = new ZipInputStream(download);
+      boolean receivedOutputs = false;
       while (true) {
         ZipEntry zipEntry = zipInputStream.getNextEntry();
         if (zipEntry == null) {
           break;
         }
         String fileName = zipEntry.getName();
-        byte[] fileBytes = ByteStreams.toByteArray(zipInputStream);
         if (StorageUtil.ANDROID_KEYSTORE_FILENAME.equals(fileName)) {
           LOG.info("Saving android.keystore for user: " + userId);
           storageIo.addFilesToUser(userId, StorageUtil.ANDROID_KEYSTORE_FILENAME);
-          storageIo.uploadRawUserFile(userId, fileName, fileBytes);
+          storageIo.uploadRawUserFile(userId, fileName, ByteStreams.toByteArray(zipInputStream));
         } else if (fileName.equals("build.status")) {
+          byte[] fileBytes = ByteStreams.toByteArray(zipInputStream);
           int progress = Integer.parseInt((new String(fileBytes)).trim());
           LOG.info("Received a build.status file contents = " + progress);
           storageIo.storeBuildStatus(userId, projectId, progress);
+          buildStatus.notifyWaiters();
         } else {
           String filePath = buildFileDirPath + "/" + fileName;
           LOG.info("Saving build output files: " + filePath);
           storageIo.addOutputFilesToProject(userId, projectId, filePath);
-          storageIo.uploadRawFileForce(projectId, filePath, userId, fileBytes);
+          // Build outputs go to GCS, so they are copied from the request
+          // rather than read into memory.
+          storageIo.uploadRawFileForce(projectId, filePath, userId, zipInputStream);
           storageIo.storeBuildStatus(userId, projectId, 0); // Reset for the next build
+          receivedOutputs = true;
         }
       }
+      if (receivedOutputs) {
+        // Only now are all of the outputs stored, so clients can read the result.
+        buildStatus.buildFinished(userId, projectId, buildFileDirPath);
+      }
+      LOG.info("Received " + download.getCount() + " bytes from the build server, "
+          + TransferStats.summary());
     } finally {
+      download.close();
       odeFilter.removeUser();
     }
   }
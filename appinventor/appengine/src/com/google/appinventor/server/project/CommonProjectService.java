@@ -11,6 +11,7 @@ import com.google.appinventor.shared.rpc.BlocksTruncatedException;
 import com.google.appinventor.shared.rpc.RpcResult;
 import com.google.appinventor.shared.rpc.project.ChecksumedLoadFile;
 import com.google.appinventor.shared.rpc.project.ChecksumedFileException;
+import com.google.appinventor.shared.rpc.project.FileDelta;
 import com.google.appinventor.shared.rpc.project.NewProjectParameters;
 import com.google.appinventor.shared.rpc.project.ProjectRootNode;
 import com.google.appinventor.shared.rpc.project.TextFile;
@@ -302,6 +303,34 @@ public abstract class CommonProjectService {
     }
   }
 
+  /**
+   * Saves the content of the file associated with a node in the project tree,
+   * given as a change to its saved content. A change that leaves the content
+   * as it is isn't written.
+   *
+   * @param userId the user id
+   * @param projectId  project root node ID
+   * @param fileId  project node whose source should be saved
+   * @param force  as for {@link #save2(String, long, String, boolean, String)}
+   * @param delta  the change to the saved content
+   * @return modification date for project
+   * @throws ChecksumedFileException if the delta doesn't apply to the saved
+   *     content
+   *
+   * @see com.google.appinventor.shared.rpc.project.ProjectService#saveDelta(String, long, String, boolean, FileDelta)
+   */
+  public long saveDelta(String userId, long projectId, String fileId, boolean force,
+      FileDelta delta) throws BlocksTruncatedException, ChecksumedFileException {
+    // Applying the delta checks that the saved content is what the client
+    // thinks it is, even when there is nothing to write.
+    String content = delta.apply(storageIo.downloadFile(userId, projectId, fileId,
+        StorageUtil.DEFAULT_CHARSET));
+    if (delta.isEmpty()) {
+      return storageIo.getProjectDateModified(userId, projectId);
+    }
+    return save2(userId, projectId, fileId, force, content);
+  }
+
   /**
    * Saves a screenshot of a current blocks editor. This is called from the client side
    * whenever the user leaves a blocks editor. The data is shipped to us in base64 encoding
@@ -350,6 +379,20 @@ public abstract class CommonProjectService {
    */
   public abstract RpcResult getBuildResult(User user, long projectId, String target);
 
+  /**
+   * Waits for the result of a build command for the project. Project types that cannot tell
+   * when a build is done return the current result at once.
+   *
+   * @param user the User that owns the {@code projectId}.
+   * @param projectId  project id to be built
+   * @param target  build target (optional, implementation dependent.
+   * @param progress  the progress last seen by the client, or -1 to wait for the build to be done
+   * @return  build results, as for {@link #getBuildResult(User, long, String)}
+   */
+  public RpcResult waitForBuildResult(User user, long projectId, String target, int progress) {
+    return getBuildResult(user, projectId, target);
+  }
+
   public TextFile importMedia(String userId, long projectId, String urlString, boolean save) throws IOException {
     InputStream is = null;
     try {
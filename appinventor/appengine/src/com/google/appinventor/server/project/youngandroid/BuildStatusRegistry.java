@@ -0,0 +1,116 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.server.project.youngandroid;
+
+import com.google.appengine.api.memcache.ErrorHandlers;
+import com.google.appengine.api.memcache.Expiration;
+import com.google.appengine.api.memcache.MemcacheService;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.logging.Level;
+
+/**
+ * Tracks the builds that are waiting for their results from the build server.
+ *
+ * <p>Without it, every check for a build result lists the output files of the project in the
+ * datastore, although the build server posts the results only once, at the end of the build.
+ * A build is marked pending when it is sent to the build server and done when the build server
+ * has posted its output files, so checks for a pending build need only memcache. The state is
+ * kept in memcache so that all instances share it. A build whose state is unknown, for instance
+ * because memcache evicted it, must be checked in the datastore as before.</p>
+ *
+ * <p>Requests waiting for a build on this instance are woken as soon as the build server posts
+ * to this instance. Posts received by other instances are seen when waiters recheck memcache.</p>
+ */
+public final class BuildStatusRegistry {
+  private static final String KEY_PREFIX = "a5e0c0f2-buildpending-";
+
+  // Builds that are still pending after this are checked in the datastore again.
+  private static final Expiration PENDING_EXPIRATION = Expiration.byDeltaSeconds(60 * 60);
+
+  private static final BuildStatusRegistry INSTANCE =
+      new BuildStatusRegistry(MemcacheServiceFactory.getMemcacheService());
+
+  private final MemcacheService memcache;
+  private final Object monitor = new Object();
+
+  public static BuildStatusRegistry getInstance() {
+    return INSTANCE;
+  }
+
+  @VisibleForTesting
+  BuildStatusRegistry(MemcacheService memcache) {
+    this.memcache = memcache;
+    memcache.setErrorHandler(ErrorHandlers.getConsistentLogAndContinue(Level.INFO));
+  }
+
+  /**
+   * Marks a build as sent to the build server.
+   *
+   * @param userId the user that owns the project
+   * @param projectId the project being built
+   * @param buildDir the project directory that receives the outputs of the build
+   */
+  public void buildStarted(String userId, long projectId, String buildDir) {
+    memcache.put(key(userId, projectId, buildDir), Boolean.TRUE, PENDING_EXPIRATION);
+    notifyWaiters();
+  }
+
+  /**
+   * Marks a build as done, because the build server has posted its outputs or because the
+   * build could not be sent.
+   *
+   * @param userId the user that owns the project
+   * @param projectId the project being built
+   * @param buildDir the project directory that receives the outputs of the build
+   */
+  public void buildFinished(String userId, long projectId, String buildDir) {
+    memcache.delete(key(userId, projectId, buildDir));
+    notifyWaiters();
+  }
+
+  /**
+   * Wakes the requests waiting on this instance, for instance because the progress of a build
+   * has changed.
+   */
+  public void notifyWaiters() {
+    synchronized (monitor) {
+      monitor.notifyAll();
+    }
+  }
+
+  /**
+   * Checks whether a build is known to be waiting for its results.
+   *
+   * @param userId the user that owns the project
+   * @param projectId the project being built
+   * @param buildDir the project directory that receives the outputs of the build
+   * @return true if the build is pending, false if it is done or its state is unknown
+   */
+  public boolean isPending(String userId, long projectId, String buildDir) {
+    return Boolean.TRUE.equals(memcache.get(key(userId, projectId, buildDir)));
+  }
+
+  /**
+   * Waits until a build handled by this instance changes, or until the timeout elapses.
+   *
+   * @param timeoutMillis the longest time to wait, in milliseconds
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public void await(long timeoutMillis) throws InterruptedException {
+    if (timeoutMillis <= 0) {
+      return;
+    }
+    synchronized (monitor) {
+      monitor.wait(timeoutMillis);
+    }
+  }
+
+  private static String key(String userId, long projectId, String buildDir) {
+    return KEY_PREFIX + userId + "/" + projectId + "/" + buildDir;
+  }
+}
@@ -25,6 +25,7 @@ import com.google.appinventor.server.project.CommonProjectService;
 import com.google.appinventor.server.project.utils.Security;
 import com.google.appinventor.server.properties.json.ServerJsonParser;
 import com.google.appinventor.server.storage.StorageIo;
+import com.google.appinventor.server.util.TransferStats;
 import com.google.appinventor.server.util.UriBuilder;
 import com.google.appinventor.shared.properties.json.JSONParser;
 import com.google.appinventor.shared.properties.json.JSONUtil;
@@ -58,6 +59,7 @@ import com.google.appinventor.shared.youngandroid.YoungAndroidSourceAnalyzer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
 import java.util.Locale;
 import org.json.JSONException;
@@ -67,9 +69,11 @@ import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.net.ConnectException;
@@ -103,6 +107,9 @@ public final class YoungAndroidProjectService extends CommonProjectService {
   private static final String ERROR_LARGE_PROJECT =
       "Sorry, can't package projects larger than %1$d MB. Yours is %2$3.2f MB.";
 
+  // The size of the chunks in which a project is sent to the build server.
+  private static final int STREAMING_CHUNK_SIZE = 64 * 1024;
+
   // Project folder prefixes
   public static final String SRC_FOLDER = YoungAndroidSourceAnalyzer.SRC_FOLDER;
   protected static final String ASSETS_FOLDER = "assets";
@@ -127,6 +134,13 @@ public final class YoungAndroidProjectService extends CommonProjectService {
   // Build folder path
   private static final String BUILD_FOLDER = "build";
 
+  // How long waitForBuildResult holds a request, well within the App Engine request deadline.
+  private static final long BUILD_RESULT_WAIT_MILLIS = 20000;
+  // How often a waiting request rechecks memcache for builds handled by other instances.
+  private static final long MEMCACHE_CHECK_INTERVAL_MILLIS = 1000;
+  // How often a waiting request checks the datastore for a build whose state is unknown.
+  private static final long DATASTORE_CHECK_INTERVAL_MILLIS = 10000;
+
   public static final String PROJECT_KEYSTORE_LOCATION = "android.keystore";
 
   // host[:port] to use for connecting to the build server
@@ -143,6 +157,8 @@ public final class YoungAndroidProjectService extends CommonProjectService {
   private static final String galleryLocation = Flag.createFlag("gallery.location", "http://localhost:9001").get();
   private static final String galleryId = Flag.createFlag("gallery.id", "").get();
 
+  private final BuildStatusRegistry buildStatus = BuildStatusRegistry.getInstance();
+
   public YoungAndroidProjectService(StorageIo storageIo) {
     super(YoungAndroidProjectNode.YOUNG_ANDROID_PROJECT_TYPE, storageIo);
   }
@@ -509,6 +525,24 @@ public final class YoungAndroidProjectService extends CommonProjectService {
   public RpcResult build(User user, long projectId, String nonce, String target,
       boolean secondBuildserver, boolean isAab) {
     String userId = user.getUserId();
+    String outputFileDir = BUILD_FOLDER + '/' + target;
+    // The build is marked pending before it is sent, since the build server may post its results
+    // before the request to start it returns.
+    buildStatus.buildStarted(userId, projectId, outputFileDir);
+    RpcResult result = null;
+    try {
+      result = sendBuild(user, projectId, nonce, target, secondBuildserver, isAab);
+      return result;
+    } finally {
+      if (result == null || !result.succeeded()) {
+        buildStatus.buildFinished(userId, projectId, outputFileDir);
+      }
+    }
+  }
+
+  private RpcResult sendBuild(User user, long projectId, String nonce, String target,
+      boolean secondBuildserver, boolean isAab) {
+    String userId = user.getUserId();
     String projectName = storageIo.getProjectName(userId, projectId);
     String outputFileDir = BUILD_FOLDER + '/' + target;
 
@@ -523,7 +557,7 @@ public final class YoungAndroidProjectService extends CommonProjectService {
       storageIo.deleteFile(userId, projectId, buildOutputFile);
     }
     URL buildServerUrl = null;
-    ProjectSourceZip zipFile = null;
+    SizeLimitedOutputStream zipFile = null;
     try {
       buildServerUrl = new URL(getBuildServerUrlStr(
           user.getUserEmail(),
@@ -535,26 +569,46 @@ public final class YoungAndroidProjectService extends CommonProjectService {
       HttpURLConnection connection = (HttpURLConnection) buildServerUrl.openConnection();
       connection.setDoOutput(true);
       connection.setRequestMethod("POST");
-
-      BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(connection.getOutputStream());
-      FileExporter fileExporter = new FileExporterImpl();
-      zipFile = fileExporter.exportProjectSourceZip(userId, projectId, false,
-          /* includeAndroidKeystore */ true,
-        projectName + ".aia", true, false, true, false);
-      // The code below tests the size of the compressed project before
-      // we send it off to the buildserver. When using URLFetch we know that
-      // this size is limited to 10MB based on Google's documentation.
-      // It isn't clear if this is also enforced in the Java 8 environment
-      // when not using URLFetch. However we are being conservative for now.
-      // Keep in mind that large projects can lead to large APK files which
-      // may not be loadable into many memory restricted devices, so we
-      // may not want to encourage large projects...
-      if (zipFile.getContent().length > MAX_PROJECT_SIZE.get() * MB) {
-        return fileTooBigResult(zipFile.getContent().length);
+      // The project is zipped straight into the request as its files are
+      // read from storage, so neither the files nor the zip are held in
+      // memory. Chunked mode keeps the connection from buffering the body
+      // to compute its length.
+      connection.setChunkedStreamingMode(STREAMING_CHUNK_SIZE);
+
+      TransferStats.CountingOutputStream upload = TransferStats.track(connection.getOutputStream());
+      // The size of the compressed project is limited as it is sent. When
+      // using URLFetch we know that this size is limited to 10MB based on
+      // Google's documentation. It isn't clear if this is also enforced in
+      // the Java 8 environment when not using URLFetch. However we are being
+      // conservative for now. Keep in mind that large projects can lead to
+      // large APK files which may not be loadable into many memory restricted
+      // devices, so we may not want to encourage large projects...
+      zipFile = new SizeLimitedOutputStream(
+          new BufferedOutputStream(upload, STREAMING_CHUNK_SIZE), MAX_PROJECT_SIZE.get() * MB);
+      boolean sent = false;
+      try {
+        FileExporter fileExporter = new FileExporterImpl();
+        fileExporter.writeProjectSourceZip(userId, projectId, false,
+            /* includeAndroidKeystore */ true, true, false, true, false, zipFile);
+        if (zipFile.isOverLimit()) {
+          return fileTooBigResult(zipFile.getCount());
+        }
+        zipFile.close();
+        sent = true;
+      } finally {
+        if (!sent) {
+          // Drop the connection so that the build server never sees the end
+          // of the truncated request.
+          connection.disconnect();
+          try {
+            upload.close();
+          } catch (IOException e) {
+            // The connection is already gone
+          }
+        }
       }
-      bufferedOutputStream.write(zipFile.getContent());
-      bufferedOutputStream.flush();
-      bufferedOutputStream.close();
+      LOG.info("Sent " + upload.getCount() + " bytes to the build server, "
+          + TransferStats.summary());
 
       int responseCode = 0;
       responseCode = connection.getResponseCode();
@@ -607,7 +661,7 @@ public final class YoungAndroidProjectService extends CommonProjectService {
       return new RpcResult(false, "", e.getMessage());
     } catch (IOException e) {
       // As of App Engine 1.9.0 we get these when UrlFetch is asked to send too much data
-      int zipFileLength = zipFile == null ? -1 : zipFile.getContent().length;
+      long zipFileLength = zipFile == null ? -1 : zipFile.getCount();
       if (zipFileLength >= MAX_PROJECT_SIZE.get() * MB) {
         return fileTooBigResult(zipFileLength);
       } else {
@@ -622,7 +676,7 @@ public final class YoungAndroidProjectService extends CommonProjectService {
       // big) and ApiProxyException. There may be others.
       Throwable wrappedException = e;
       if (e instanceof ApiProxy.RequestTooLargeException && zipFile != null) {
-        int zipFileLength = zipFile.getContent().length;
+        long zipFileLength = zipFile.getCount();
         if (zipFileLength >= MAX_PROJECT_SIZE.get() * MB) {
           return fileTooBigResult(zipFileLength);
         } else {
@@ -814,6 +868,44 @@ public final class YoungAndroidProjectService extends CommonProjectService {
     }
   }
 
+  /**
+   * An output stream that stops forwarding bytes once more than a given
+   * number of bytes have been written to it, but keeps counting them, so
+   * that the full size of what was written is known.
+   */
+  private static class SizeLimitedOutputStream extends FilterOutputStream {
+    private final long limit;
+    private long count = 0;
+
+    SizeLimitedOutputStream(OutputStream out, long limit) {
+      super(out);
+      this.limit = limit;
+    }
+
+    long getCount() {
+      return count;
+    }
+
+    boolean isOverLimit() {
+      return count > limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      count += len;
+      if (count > limit) {
+        // The request won't be sent, so just count the rest.
+        out = ByteStreams.nullOutputStream();
+      }
+      out.write(b, off, len);
+    }
+  }
+
   /*
    * Reads the UTF-8 content from the given input stream.
    */
@@ -844,6 +936,56 @@ public final class YoungAndroidProjectService extends CommonProjectService {
    */
   @Override
   public RpcResult getBuildResult(User user, long projectId, String target) {
+    if (buildStatus.isPending(user.getUserId(), projectId, BUILD_FOLDER + '/' + target)) {
+      return pendingBuildResult(user, projectId, target);
+    }
+    return readBuildResult(user, projectId, target);
+  }
+
+  /**
+   * Waits for the build results of the given user's project. This returns as soon as the build is
+   * done or its progress differs from {@code progress}, or after {@link #BUILD_RESULT_WAIT_MILLIS}.
+   *
+   * @param user the User that owns the {@code projectId}.
+   * @param projectId  project id to be built
+   * @param target  build target (optional, implementation dependent)
+   * @param progress  the progress last seen by the client, or -1 to wait for the build to be done
+   * @return an RpcResult as for {@link #getBuildResult(User, long, String)}
+   */
+  @Override
+  public RpcResult waitForBuildResult(User user, long projectId, String target, int progress) {
+    String userId = user.getUserId();
+    String buildDir = BUILD_FOLDER + '/' + target;
+    long deadline = System.currentTimeMillis() + BUILD_RESULT_WAIT_MILLIS;
+    long nextDatastoreCheck = 0;
+    RpcResult result = null;
+    try {
+      while (true) {
+        long now = System.currentTimeMillis();
+        if (buildStatus.isPending(userId, projectId, buildDir)) {
+          result = pendingBuildResult(user, projectId, target);
+        } else if (now >= nextDatastoreCheck) {
+          // Either the build is done or memcache has lost track of it.
+          result = readBuildResult(user, projectId, target);
+          nextDatastoreCheck = now + DATASTORE_CHECK_INTERVAL_MILLIS;
+        }
+        if (result.getResult() != -1 || now >= deadline
+            || (progress >= 0 && !Integer.toString(progress).equals(result.getOutput()))) {
+          return result;
+        }
+        buildStatus.await(Math.min(MEMCACHE_CHECK_INTERVAL_MILLIS, deadline - now));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return result;
+    }
+  }
+
+  private RpcResult pendingBuildResult(User user, long projectId, String target) {
+    return new RpcResult(-1, Integer.toString(getCurrentProgress(user, projectId, target)), "");
+  }
+
+  private RpcResult readBuildResult(User user, long projectId, String target) {
     String userId = user.getUserId();
     String buildOutputFileName = BUILD_FOLDER + '/' + target + '/' + "build.out";
     List<String> outputFiles = storageIo.getProjectOutputFiles(userId, projectId);
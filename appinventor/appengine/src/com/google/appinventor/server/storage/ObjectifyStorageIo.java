@@ -76,6 +76,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 
 // GCS imports
+import com.google.appengine.tools.cloudstorage.GcsFileMetadata;
 import com.google.appengine.tools.cloudstorage.GcsFileOptions;
 import com.google.appengine.tools.cloudstorage.GcsFilename;
 import com.google.appengine.tools.cloudstorage.GcsInputChannel;
@@ -87,8 +88,10 @@ import com.google.appengine.tools.cloudstorage.RetryParams;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -139,6 +142,9 @@ public class ObjectifyStorageIo implements StorageIo {
 
   private static final long TWENTYFOURHOURS = 24*3600*1000; // 24 hours in milliseconds
 
+  // The size of the buffer used to copy files into a project zip.
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
   private static final boolean DEBUG = Flag.createFlag("appinventor.debugging", false).get();
 
   // Use this class to define the work of a job that can be
@@ -1411,6 +1417,72 @@ public class ObjectifyStorageIo implements StorageIo {
     }
   }
 
+  @Override
+  public long uploadRawFileForce(final long projectId, final String fileName, final String userId,
+      InputStream content) throws IOException {
+    if (!useGCSforFile(fileName, 0)) {
+      // Files kept in the datastore are small and need to be in memory anyway.
+      return uploadRawFileForce(projectId, fileName, userId, ByteStreams.toByteArray(content));
+    }
+    validateGCS();
+    final Result<FileData.RoleEnum> role = new Result<FileData.RoleEnum>();
+    final Result<Long> modTime = new Result<Long>();
+    final String gcsName = makeGCSfileName(fileName, projectId);
+    try {
+      runJobWithRetries(new JobRetryHelper() {
+        @Override
+        public void run(Objectify datastore) {
+          FileData fd = datastore.find(projectFileKey(projectKey(projectId), fileName));
+          Preconditions.checkState(fd != null);
+          checkFileOwner(fd, userId, projectId);
+          role.t = fd.role;
+        }
+      }, false);
+      // The stream can only be read once, so it is copied to GCS outside of
+      // the job, which may be retried.
+      GcsOutputChannel outputChannel = gcsService.createOrReplace(
+          new GcsFilename(getGcsBucketToUse(role.t), gcsName), GcsFileOptions.getDefaultInstance());
+      try {
+        ByteStreams.copy(content, Channels.newOutputStream(outputChannel));
+      } finally {
+        outputChannel.close();
+      }
+      runJobWithRetries(new JobRetryHelper() {
+        @Override
+        public void run(Objectify datastore) {
+          Key<FileData> key = projectFileKey(projectKey(projectId), fileName);
+          FileData fd = datastore.find(key);
+          Preconditions.checkState(fd != null);
+          checkFileOwner(fd, userId, projectId);
+          fd.isGCS = true;
+          fd.gcsName = gcsName;
+          // If the content was previously stored in the datastore, clear it out.
+          fd.content = null;
+          fd.isBlob = false;
+          fd.blobstorePath = null;
+          if (fd.userId == null || fd.userId.equals("")) {
+            fd.userId = userId;
+          }
+          datastore.put(fd);
+          memcache.put(key.getString(), fd); // Store the updated data in memcache
+          modTime.t = updateProjectModDate(datastore, projectId);
+        }
+      }, false);
+    } catch (ObjectifyException e) {
+      throw CrashReport.createAndLogError(LOG, null,
+          collectProjectErrorInfo(userId, projectId, fileName), e);
+    }
+    return modTime.t;
+  }
+
+  private void checkFileOwner(FileData fd, String userId, long projectId) {
+    if (fd.userId != null && !fd.userId.equals("") && !fd.userId.equals(userId)) {
+      throw CrashReport.createAndLogError(LOG, null,
+        collectUserProjectErrorInfo(userId, projectId),
+        new UnauthorizedAccessException(userId, projectId, null));
+    }
+  }
+
   @Override
   public long uploadRawFile(final long projectId, final String fileName, final String userId,
       final boolean force, final byte[] content) throws BlocksTruncatedException {
@@ -1799,6 +1871,46 @@ public class ObjectifyStorageIo implements StorageIo {
     final boolean includeScreenShots,
     final boolean forGallery,
     final boolean fatalError) throws IOException {
+    ByteArrayOutputStream zipFile = new ByteArrayOutputStream();
+    Result<String> projectName = new Result<String>();
+    int fileCount = writeProjectSourceZip(userId, projectId, includeProjectHistory,
+        includeAndroidKeystore, includeYail, includeScreenShots, forGallery, fatalError, zipFile,
+        projectName);
+    if (zipName == null) {
+      zipName = projectName.t + ".aia";
+    }
+    ProjectSourceZip projectSourceZip =
+        new ProjectSourceZip(zipName, zipFile.toByteArray(), fileCount);
+    projectSourceZip.setMetadata(projectName.t);
+    return projectSourceZip;
+  }
+
+  @Override
+  public int writeProjectSourceZip(final String userId, final long projectId,
+    final boolean includeProjectHistory,
+    final boolean includeAndroidKeystore,
+    final boolean includeYail,
+    final boolean includeScreenShots,
+    final boolean forGallery,
+    final boolean fatalError,
+    OutputStream zipFile) throws IOException {
+    return writeProjectSourceZip(userId, projectId, includeProjectHistory, includeAndroidKeystore,
+        includeYail, includeScreenShots, forGallery, fatalError, zipFile, new Result<String>());
+  }
+
+  // Writes the zip to zipFile one file at a time, copying each file from
+  // the datastore, Blobstore or GCS as it goes, so that neither the files
+  // nor the archive are held in memory. The project name is returned in
+  // projectName.
+  private int writeProjectSourceZip(final String userId, final long projectId,
+    final boolean includeProjectHistory,
+    final boolean includeAndroidKeystore,
+    final boolean includeYail,
+    final boolean includeScreenShots,
+    final boolean forGallery,
+    final boolean fatalError,
+    OutputStream zipFile,
+    final Result<String> projectName) throws IOException {
     final boolean forBuildserver = includeAndroidKeystore && includeYail;
     validateGCS();
     final Result<Integer> fileCount = new Result<Integer>();
@@ -1810,12 +1922,10 @@ public class ObjectifyStorageIo implements StorageIo {
     // to avoid problems reading blobs in a transaction with the wrong
     // entity group.
     final List<FileData> fileData = new ArrayList<FileData>();
-    final Result<String> projectName = new Result<String>();
     final Map<String, Integer> screens = new HashMap<String, Integer>();
     projectName.t = null;
     String fileName = null;
 
-    ByteArrayOutputStream zipFile = new ByteArrayOutputStream();
     final ZipOutputStream out = new ZipOutputStream(zipFile);
     out.setComment("Built with MIT App Inventor");
 
@@ -1885,82 +1995,22 @@ public class ObjectifyStorageIo implements StorageIo {
       // blobs in the job.
       for (FileData fd : fileData) {
         fileName = fd.fileName;
-        byte[] data = null;
+        out.putNextEntry(new ZipEntry(fileName));
         if (fd.isBlob) {
           try {
             if (fd.blobKey == null) {
               throw new BlobReadException("blobKey is null");
             }
-            data = getBlobstoreBytes(fd.blobKey);
+            copyBlobstoreBytes(fd.blobKey, out);
           } catch (BlobReadException e) {
             throw CrashReport.createAndLogError(LOG, null,
                 collectProjectErrorInfo(userId, projectId, fileName), e);
           }
         } else if (isTrue(fd.isGCS)) {
-          try {
-            int count;
-            boolean npfHappened = false;
-            boolean recovered = false;
-            for (count = 0; count < 5; count++) {
-              GcsFilename gcsFileName = new GcsFilename(getGcsBucketToUse(fd.role), fd.gcsName);
-              int bytesRead = 0;
-              int fileSize = 0;
-              ByteBuffer resultBuffer;
-              try {
-                fileSize = (int) gcsService.getMetadata(gcsFileName).getLength();
-                resultBuffer = ByteBuffer.allocate(fileSize);
-                GcsInputChannel readChannel = gcsService.openReadChannel(gcsFileName, 0);
-                try {
-                  while (bytesRead < fileSize) {
-                    bytesRead += readChannel.read(resultBuffer);
-                    if (bytesRead < fileSize) {
-                      if (DEBUG) {
-                        LOG.log(Level.INFO, "readChannel: bytesRead = " + bytesRead + " fileSize = " + fileSize);
-                      }
-                    }
-                  }
-                  recovered = true;
-                  data = resultBuffer.array();
-                  break;        // We got the data, break out of the loop!
-                } finally {
-                  readChannel.close();
-                }
-              } catch (NullPointerException e) {
-                // This happens if the object in GCS is non-existent, which would happen
-                // when people uploaded a zero length object. As of this change, we now
-                // store zero length objects into GCS, but there are plenty of older objects
-                // that are missing in GCS.
-                LOG.log(Level.WARNING, "exportProjectFile: NPF recorded for " + fd.gcsName);
-                npfHappened = true;
-                resultBuffer = ByteBuffer.allocate(0);
-                data = resultBuffer.array();
-              }
-            }
-
-            // report out on how things went above
-            if (npfHappened) {    // We lost at least once
-              if (recovered) {
-                LOG.log(Level.WARNING, "recovered from NPF in exportProjectFile filename = " + fd.gcsName +
-                  " count = " + count);
-              } else {
-                LOG.log(Level.WARNING, "FATAL NPF in exportProjectFile filename = " + fd.gcsName);
-                if (fatalError) {
-                  throw new IOException("FATAL Error reading file from GCS filename = " + fd.gcsName);
-                }
-              }
-            }
-          } catch (IOException e) {
-            throw CrashReport.createAndLogError(LOG, null,
-              collectProjectErrorInfo(userId, projectId, fileName), e);
-          }
-        } else {
-          data = fd.content;
-        }
-        if (data == null) {     // This happens if file creation is interrupted
-          data = new byte[0];
+          copyGcsFile(userId, projectId, fd, out, fatalError);
+        } else if (fd.content != null) { // null if file creation is interrupted
+          out.write(fd.content, 0, fd.content.length);
         }
-        out.putNextEntry(new ZipEntry(fileName));
-        out.write(data, 0, data.length);
         out.closeEntry();
         fileCount.t++;
       }
@@ -1989,42 +2039,131 @@ public class ObjectifyStorageIo implements StorageIo {
     }
 
     if (includeAndroidKeystore) {
+      // The keystore is only looked up in the job. It is written to the zip
+      // afterwards, because a retried job would write it to zipFile twice.
+      final Result<byte[]> keystore = new Result<byte[]>();
       try {
         runJobWithRetries(new JobRetryHelper() {
             @Override
             public void run(Objectify datastore) {
-              try {
-                Key<UserData> userKey = userKey(userId);
-                for (UserFileData ufd : datastore.query(UserFileData.class).ancestor(userKey)) {
-                  if (ufd.fileName.equals(StorageUtil.ANDROID_KEYSTORE_FILENAME) &&
-                      (ufd.content.length > 0)) {
-                    out.putNextEntry(new ZipEntry(StorageUtil.ANDROID_KEYSTORE_FILENAME));
-                    out.write(ufd.content, 0, ufd.content.length);
-                    out.closeEntry();
-                    fileCount.t++;
-                  }
+              keystore.t = null;
+              Key<UserData> userKey = userKey(userId);
+              for (UserFileData ufd : datastore.query(UserFileData.class).ancestor(userKey)) {
+                if (ufd.fileName.equals(StorageUtil.ANDROID_KEYSTORE_FILENAME) &&
+                    (ufd.content.length > 0)) {
+                  keystore.t = ufd.content;
                 }
-              } catch (IOException e) {
-                throw CrashReport.createAndLogError(LOG, null,
-                    collectProjectErrorInfo(userId, projectId,
-                        StorageUtil.ANDROID_KEYSTORE_FILENAME), e);
               }
             }
         }, false);
       } catch (ObjectifyException e) {
         throw CrashReport.createAndLogError(LOG, null, collectUserErrorInfo(userId), e);
       }
+      if (keystore.t != null) {
+        out.putNextEntry(new ZipEntry(StorageUtil.ANDROID_KEYSTORE_FILENAME));
+        out.write(keystore.t, 0, keystore.t.length);
+        out.closeEntry();
+        fileCount.t++;
+      }
     }
 
-    out.close();
+    out.finish();               // The caller owns zipFile
+    return fileCount.t;
+  }
 
-    if (zipName == null) {
-      zipName = projectName.t + ".aia";
+  // Note: like getBlobstoreBytes, this must be called outside of any transaction.
+  private void copyBlobstoreBytes(String blobKeyString, OutputStream out)
+      throws BlobReadException, IOException {
+    BlobKey blobKey = new BlobKey(blobKeyString);
+    InputStream blobInputStream;
+    try {
+      blobInputStream = new BlobstoreInputStream(blobKey);
+    } catch (IOException e) {
+      throw new BlobReadException(e, "Error trying to read blob from " + blobKey);
+    }
+    try {
+      copyFrom(blobInputStream, out);
+    } catch (SourceReadException e) {
+      throw new BlobReadException(e.getCause(), "Error trying to read blob from " + blobKey);
+    } finally {
+      blobInputStream.close();
+    }
+  }
+
+  /*
+   * Copies a file stored in GCS to out. Objects that are missing from GCS,
+   * as older zero length uploads are, are treated as empty files unless
+   * fatalError is set.
+   */
+  private void copyGcsFile(String userId, long projectId, FileData fd, OutputStream out,
+      boolean fatalError) throws IOException {
+    GcsFilename gcsFileName = new GcsFilename(getGcsBucketToUse(fd.role), fd.gcsName);
+    GcsInputChannel readChannel;
+    try {
+      // The metadata is null if the object is missing. Look a few times, in
+      // case that is a transient problem, before treating the file as empty.
+      GcsFileMetadata metadata = null;
+      int count;
+      for (count = 0; count < 5 && metadata == null; count++) {
+        metadata = gcsService.getMetadata(gcsFileName);
+      }
+      if (count > 1 || metadata == null) { // We lost at least once
+        if (metadata != null) {
+          LOG.log(Level.WARNING, "recovered from NPF in exportProjectFile filename = " +
+            fd.gcsName + " count = " + count);
+        } else {
+          LOG.log(Level.WARNING, "FATAL NPF in exportProjectFile filename = " + fd.gcsName);
+          if (fatalError) {
+            throw new IOException("FATAL Error reading file from GCS filename = " + fd.gcsName);
+          }
+          return;
+        }
+      }
+      readChannel = gcsService.openReadChannel(gcsFileName, 0);
+    } catch (IOException e) {
+      throw CrashReport.createAndLogError(LOG, null,
+        collectProjectErrorInfo(userId, projectId, fd.fileName), e);
+    }
+    try {
+      copyFrom(Channels.newInputStream(readChannel), out);
+    } catch (SourceReadException e) {
+      throw CrashReport.createAndLogError(LOG, null,
+        collectProjectErrorInfo(userId, projectId, fd.fileName), e.getCause());
+    } finally {
+      readChannel.close();
+    }
+  }
+
+  /*
+   * Copies in to out. Errors reading in are thrown as a SourceReadException,
+   * so that callers can report them while passing on errors writing out,
+   * which belong to whoever is receiving the stream.
+   */
+  private static void copyFrom(InputStream in, OutputStream out) throws IOException {
+    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+    while (true) {
+      int n;
+      try {
+        n = in.read(buffer);
+      } catch (IOException e) {
+        throw new SourceReadException(e);
+      }
+      if (n < 0) {
+        return;
+      }
+      out.write(buffer, 0, n);
+    }
+  }
+
+  private static class SourceReadException extends IOException {
+    SourceReadException(IOException cause) {
+      super(cause);
+    }
+
+    @Override
+    public IOException getCause() {
+      return (IOException) super.getCause();
     }
-    ProjectSourceZip projectSourceZip =
-        new ProjectSourceZip(zipName, zipFile.toByteArray(), fileCount.t);
-    projectSourceZip.setMetadata(projectName.t);
-    return projectSourceZip;
   }
 
   @Override
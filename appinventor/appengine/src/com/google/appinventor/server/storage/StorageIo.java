@@ -19,6 +19,7 @@ import com.google.appinventor.shared.rpc.user.SplashConfig;
 
 import java.io.InputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -442,6 +443,18 @@ public interface StorageIo {
    */
   long uploadRawFileForce(long projectId, String fileId, String userId, byte[] content);
 
+  /**
+   * Uploads a file from a stream. Files stored in GCS, such as build
+   * outputs, are copied to it without being held in memory.
+   * @param projectId  project ID
+   * @param fileId  file ID
+   * @param userId the user who owns the file
+   * @param content  file content, which is read to its end but not closed
+   * @return modification date for project
+   */
+  long uploadRawFileForce(long projectId, String fileId, String userId, InputStream content)
+      throws IOException;
+
   /**
    * Deletes a file.
    * @param userId a user Id (the request is made on behalf of this user)
@@ -543,6 +556,25 @@ public interface StorageIo {
     final boolean forGallery,
     final boolean fatalError) throws IOException;
 
+  /**
+   * Writes project files as a zip archive to a stream, reading each file
+   * from storage as it is written so that the archive is never held in
+   * memory. The flags are those of
+   * {@link #exportProjectSourceZip(String, long, boolean, boolean, String, boolean, boolean,
+   * boolean, boolean)}.
+   *
+   * @param out the stream to write the archive to, which is left open
+   * @return the number of files in the archive
+   */
+  int writeProjectSourceZip(String userId, long projectId,
+    boolean includeProjectHistory,
+    boolean includeAndroidKeystore,
+    boolean includeYail,
+    boolean includeScreenShots,
+    boolean forGallery,
+    boolean fatalError,
+    OutputStream out) throws IOException;
+
   /**
    * Find a user's id given their email address. Note that this query is case
    * sensitive!
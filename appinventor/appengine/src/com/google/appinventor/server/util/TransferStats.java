@@ -0,0 +1,210 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.server.util;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes moved by the streaming transfers between storage and the
+ * build server, across all requests served by this instance.
+ *
+ * <p>A transfer is a stream returned by one of the {@code track} methods. It
+ * is in progress from its creation until it is closed, and the bytes it has
+ * moved until then are counted as in flight.</p>
+ */
+public final class TransferStats {
+  private static final AtomicInteger activeTransfers = new AtomicInteger();
+  private static final AtomicLong bytesInFlight = new AtomicLong();
+  private static final AtomicLong bytesTransferred = new AtomicLong();
+
+  private TransferStats() {
+  }
+
+  /**
+   * Returns a stream that writes to out and counts what is written.
+   */
+  public static CountingOutputStream track(OutputStream out) {
+    return new CountingOutputStream(out);
+  }
+
+  /**
+   * Returns a stream that reads from in and counts what is read.
+   */
+  public static CountingInputStream track(InputStream in) {
+    return new CountingInputStream(in);
+  }
+
+  /**
+   * Returns the number of transfers in progress.
+   */
+  public static int getActiveTransfers() {
+    return activeTransfers.get();
+  }
+
+  /**
+   * Returns the number of bytes moved so far by the transfers in progress.
+   */
+  public static long getBytesInFlight() {
+    return bytesInFlight.get();
+  }
+
+  /**
+   * Returns the number of bytes moved by all transfers.
+   */
+  public static long getBytesTransferred() {
+    return bytesTransferred.get();
+  }
+
+  /**
+   * Returns the statistics in a form suitable for logging.
+   */
+  public static String summary() {
+    return "transfers in progress = " + getActiveTransfers()
+        + ", bytes in flight = " + getBytesInFlight()
+        + ", bytes transferred = " + getBytesTransferred();
+  }
+
+  /**
+   * The count of a single tracked stream.
+   */
+  private static final class Transfer {
+    private long count = 0;
+    private boolean finished = false;
+
+    Transfer() {
+      activeTransfers.incrementAndGet();
+    }
+
+    synchronized void add(long n) {
+      if (n > 0) {
+        count += n;
+        bytesTransferred.addAndGet(n);
+        if (!finished) {
+          bytesInFlight.addAndGet(n);
+        }
+      }
+    }
+
+    synchronized long getCount() {
+      return count;
+    }
+
+    // Returns false if the transfer had already finished.
+    synchronized boolean finish() {
+      if (finished) {
+        return false;
+      }
+      finished = true;
+      bytesInFlight.addAndGet(-count);
+      activeTransfers.decrementAndGet();
+      return true;
+    }
+  }
+
+  /**
+   * An output stream that counts the bytes written to it.
+   */
+  public static final class CountingOutputStream extends FilterOutputStream {
+    private final Transfer transfer = new Transfer();
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     */
+    public long getCount() {
+      return transfer.getCount();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      transfer.add(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      transfer.add(len);
+    }
+
+    /**
+     * Closes the stream and ends the transfer. Only the first call has any
+     * effect.
+     */
+    @Override
+    public void close() throws IOException {
+      if (transfer.finish()) {
+        super.close();
+      }
+    }
+  }
+
+  /**
+   * An input stream that counts the bytes read from it.
+   */
+  public static final class CountingInputStream extends FilterInputStream {
+    private final Transfer transfer = new Transfer();
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    /**
+     * Returns the number of bytes read so far.
+     */
+    public long getCount() {
+      return transfer.getCount();
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = in.read();
+      if (b >= 0) {
+        transfer.add(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = in.read(b, off, len);
+      transfer.add(n);
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = in.skip(n);
+      transfer.add(skipped);
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;             // A reset would count bytes twice
+    }
+
+    /**
+     * Closes the stream and ends the transfer. Only the first call has any
+     * effect.
+     */
+    @Override
+    public void close() throws IOException {
+      if (transfer.finish()) {
+        super.close();
+      }
+    }
+  }
+}
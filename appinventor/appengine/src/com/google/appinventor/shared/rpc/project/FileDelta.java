@@ -0,0 +1,104 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.shared.rpc.project;
+
+import java.io.Serializable;
+
+/**
+ * A change to a text file, which the client sends instead of the whole file
+ * when only part of it has changed since it was last saved. The change
+ * replaces one region of the file, which covers the edits usually made
+ * between two autosaves.
+ *
+ * <p>The delta carries the checksums of the content it applies to and of
+ * the content it produces, computed as for {@link ChecksumedLoadFile}, so
+ * that the server only applies it to the content the client last saved and
+ * can check the result.</p>
+ */
+public final class FileDelta implements Serializable {
+
+  // For serialization
+  private static final long serialVersionUID = 3270419387236254011L;
+
+  private String baseChecksum;
+  private int start;
+  private int removed;
+  private String inserted;
+  private String checksum;
+
+  /**
+   * Default constructor (for serialization only).
+   */
+  @SuppressWarnings("unused")
+  private FileDelta() {
+  }
+
+  private FileDelta(String baseChecksum, int start, int removed, String inserted,
+      String checksum) {
+    this.baseChecksum = baseChecksum;
+    this.start = start;
+    this.removed = removed;
+    this.inserted = inserted;
+    this.checksum = checksum;
+  }
+
+  /**
+   * Computes the delta that turns one version of a file into another.
+   *
+   * @param base the content the server has
+   * @param content the new content
+   * @return the delta
+   */
+  public static FileDelta compute(String base, String content) throws ChecksumedFileException {
+    int limit = Math.min(base.length(), content.length());
+    int prefix = 0;
+    while (prefix < limit && base.charAt(prefix) == content.charAt(prefix)) {
+      prefix++;
+    }
+    int suffix = 0;
+    while (suffix < limit - prefix
+        && base.charAt(base.length() - 1 - suffix) == content.charAt(content.length() - 1 - suffix)) {
+      suffix++;
+    }
+    return new FileDelta(ChecksumedLoadFile.checksum(base), prefix,
+        base.length() - prefix - suffix, content.substring(prefix, content.length() - suffix),
+        ChecksumedLoadFile.checksum(content));
+  }
+
+  /**
+   * Applies this delta.
+   *
+   * @param base the current content of the file
+   * @return the new content of the file
+   * @throws ChecksumedFileException if base is not the content the delta
+   *     was computed from, or if the result is not the expected content
+   */
+  public String apply(String base) throws ChecksumedFileException {
+    if (!ChecksumedLoadFile.checksum(base).equals(baseChecksum)
+        || start + removed > base.length()) {
+      throw new ChecksumedFileException("Delta doesn't apply to the saved content");
+    }
+    String content = base.substring(0, start) + inserted + base.substring(start + removed);
+    if (!ChecksumedLoadFile.checksum(content).equals(checksum)) {
+      throw new ChecksumedFileException("Checksum doesn't match after applying delta");
+    }
+    return content;
+  }
+
+  /**
+   * Returns whether applying this delta leaves the content unchanged.
+   */
+  public boolean isEmpty() {
+    return removed == 0 && inserted.isEmpty();
+  }
+
+  /**
+   * Returns the number of characters of content carried by this delta.
+   */
+  public int getSize() {
+    return inserted.length();
+  }
+}
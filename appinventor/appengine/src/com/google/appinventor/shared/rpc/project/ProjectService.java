@@ -296,6 +296,24 @@ public interface ProjectService extends RemoteService {
   long save2(String sessionId, long projectId, String fileId, boolean force, String content) throws InvalidSessionException,
       BlocksTruncatedException;
 
+  /**
+   * Saves the content of the file associated with a node in the project tree,
+   * given as a change to the content it had when last loaded or saved.
+   *
+   * @param sessionId current session id
+   * @param projectId  project ID
+   * @param fileId  project node whose source should be saved
+   * @param force  as for {@link #save2(String, long, String, boolean, String)}
+   * @param delta  the change to the saved content
+   * @return modification date for project
+   * @throws ChecksumedFileException if the delta doesn't apply to the saved
+   *     content, in which case the client should save the whole file
+   *
+   * @see #save2(String, long, String, boolean, String)
+   */
+  long saveDelta(String sessionId, long projectId, String fileId, boolean force, FileDelta delta)
+      throws InvalidSessionException, BlocksTruncatedException, ChecksumedFileException;
+
   /**
    * Saves the contents of multiple files.
    *
@@ -345,6 +363,21 @@ public interface ProjectService extends RemoteService {
    */
   RpcResult getBuildResult(long projectId, String target);
 
+  /**
+   * Waits for the result of a build command for the project from the back-end.
+   * The call returns as soon as the build is done or its progress differs from
+   * {@code progress}, or after about 20 seconds, so that clients can issue it
+   * again at once instead of polling {@link #getBuildResult(long, String)}.
+   *
+   * @param projectId  project ID
+   * @param target  build target (optional, implementation dependent)
+   * @param progress  the progress last seen by the caller, or -1 to wait for
+   *                  the build to be done
+   *
+   * @return  results of build, as for {@link #getBuildResult(long, String)}
+   */
+  RpcResult waitForBuildResult(long projectId, String target, int progress);
+
   /**
    * Adds a new file to the given project.
    *
@@ -162,6 +162,11 @@ public interface ProjectServiceAsync {
    */
   void save2(String sessionId, long projectId, String fileId, boolean force, String source, AsyncCallback<Long> callback);
 
+  /**
+   * @see ProjectService#saveDelta(String, long, String, boolean, FileDelta)
+   */
+  void saveDelta(String sessionId, long projectId, String fileId, boolean force, FileDelta delta, AsyncCallback<Long> callback);
+
   /**
    * @see ProjectService#save(String, List)
    */
@@ -184,6 +189,12 @@ public interface ProjectServiceAsync {
    */
   void getBuildResult(long projectId, String target, AsyncCallback<RpcResult> callback);
 
+  /**
+   * @see ProjectService#waitForBuildResult(long, String, int)
+   */
+  void waitForBuildResult(long projectId, String target, int progress,
+      AsyncCallback<RpcResult> callback);
+
   /**
    * @see ProjectService#addFile(long, String)
    */
@@ -0,0 +1,64 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.server.project.youngandroid;
+
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+import com.google.appengine.tools.development.testing.LocalMemcacheServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the BuildStatusRegistry class.
+ */
+public class BuildStatusRegistryTest extends TestCase {
+  private final LocalServiceTestHelper helper =
+      new LocalServiceTestHelper(new LocalMemcacheServiceTestConfig());
+  private BuildStatusRegistry registry;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    helper.setUp();
+    registry = new BuildStatusRegistry(MemcacheServiceFactory.getMemcacheService());
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    helper.tearDown();
+    super.tearDown();
+  }
+
+  public void testBuildLifecycle() {
+    assertFalse(registry.isPending("user", 1, "build/Android"));
+    registry.buildStarted("user", 1, "build/Android");
+    assertTrue(registry.isPending("user", 1, "build/Android"));
+    assertFalse(registry.isPending("user", 2, "build/Android"));
+    assertFalse(registry.isPending("user", 1, "build/Android-aab"));
+    registry.buildFinished("user", 1, "build/Android");
+    assertFalse(registry.isPending("user", 1, "build/Android"));
+  }
+
+  public void testNotifyWakesWaiters() throws Exception {
+    registry.buildStarted("user", 1, "build/Android");
+    Thread builder = new Thread() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          return;
+        }
+        registry.notifyWaiters();
+      }
+    };
+    long start = System.currentTimeMillis();
+    builder.start();
+    registry.await(10000);
+    assertTrue(System.currentTimeMillis() - start < 10000);
+    builder.join();
+  }
+}
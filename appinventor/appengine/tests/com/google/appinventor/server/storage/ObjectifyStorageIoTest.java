@@ -21,8 +21,11 @@ import com.google.appinventor.shared.rpc.user.User;
 import com.google.appinventor.shared.storage.StorageUtil;
 
 import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -31,7 +34,11 @@ import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.json.JSONObject;
 
@@ -576,6 +583,46 @@ public class ObjectifyStorageIoTest extends LocalDatastoreTestCase {
     sourcesFiles = storage.getProjectSourceFiles(USER_ID, projectId);
     assertFalse(sourcesFiles.contains(YAIL_FILE_NAME2));
   }
+
+  public void testWriteProjectZipMatchesExport() throws BlocksTruncatedException, IOException {
+    final String USER_ID = "1910";
+    final String USER_EMAIL = "newuser1910@test.com";
+    storage.getUser(USER_ID, USER_EMAIL);
+    long projectId = createProject(USER_ID, PROJECT_NAME, FAKE_PROJECT_TYPE, FORM_QUALIFIED_NAME);
+    storage.addSourceFilesToProject(USER_ID, projectId, false, SCM_FILE_NAME1);
+    storage.uploadFile(projectId, SCM_FILE_NAME1, USER_ID, FILE_CONTENT1, StorageUtil.DEFAULT_CHARSET);
+    storage.addSourceFilesToProject(USER_ID, projectId, false, ASSET_FILE_NAME1);
+    storage.uploadRawFile(projectId, ASSET_FILE_NAME1, USER_ID, true, ASSET_FILE_CONTENT1);
+    ProjectSourceZip zipFile = storage.exportProjectSourceZip(USER_ID, projectId, false,
+        false, null, false, false, false, false);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int fileCount = storage.writeProjectSourceZip(USER_ID, projectId, false, false, false, false,
+        false, false, out);
+    assertEquals(zipFile.getFileCount(), fileCount);
+    assertEquals(readZip(zipFile.getContent()), readZip(out.toByteArray()));
+  }
+
+  // Returns the entries of a zip as a map from names to contents.
+  private static Map<String, String> readZip(byte[] zip) throws IOException {
+    Map<String, String> entries = new HashMap<String, String>();
+    ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip));
+    for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+      entries.put(entry.getName(), Arrays.toString(ByteStreams.toByteArray(in)));
+    }
+    return entries;
+  }
+
+  public void testUploadRawFileFromStream() throws IOException {
+    final String USER_ID = "1920";
+    final String USER_EMAIL = "newuser1920@test.com";
+    storage.getUser(USER_ID, USER_EMAIL);
+    long projectId = createProject(USER_ID, PROJECT_NAME, FAKE_PROJECT_TYPE, FORM_QUALIFIED_NAME);
+    storage.addOutputFilesToProject(USER_ID, projectId, FILE_NAME_OUTPUT);
+    storage.uploadRawFileForce(projectId, FILE_NAME_OUTPUT, USER_ID,
+        new ByteArrayInputStream(FILE_CONTENT_OUTPUT));
+    assertTrue(Arrays.equals(FILE_CONTENT_OUTPUT,
+        storage.downloadRawFile(USER_ID, projectId, FILE_NAME_OUTPUT)));
+  }
   /*
    * Fail on the Nth call to runJobWithRetries, where N is the value of the
    * failingRun argument to the constructor. Also allows counting
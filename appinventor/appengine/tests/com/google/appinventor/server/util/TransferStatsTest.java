@@ -0,0 +1,54 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.server.util;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Tests {@link TransferStats}.
+ *
+ */
+public class TransferStatsTest extends TestCase {
+  public void testOutputIsCountedInFlightUntilClosed() throws IOException {
+    long inFlight = TransferStats.getBytesInFlight();
+    long transferred = TransferStats.getBytesTransferred();
+    int active = TransferStats.getActiveTransfers();
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    TransferStats.CountingOutputStream out = TransferStats.track(target);
+    out.write(new byte[100], 10, 50);
+    out.write(1);
+    assertEquals(51, out.getCount());
+    assertEquals(51, target.size());
+    assertEquals(inFlight + 51, TransferStats.getBytesInFlight());
+    assertEquals(active + 1, TransferStats.getActiveTransfers());
+    out.close();
+    out.close();
+    assertEquals(inFlight, TransferStats.getBytesInFlight());
+    assertEquals(active, TransferStats.getActiveTransfers());
+    assertEquals(transferred + 51, TransferStats.getBytesTransferred());
+  }
+
+  public void testInputIsCounted() throws IOException {
+    long inFlight = TransferStats.getBytesInFlight();
+    TransferStats.CountingInputStream in =
+        TransferStats.track(new ByteArrayInputStream(new byte[1000]));
+    byte[] buffer = new byte[300];
+    assertEquals(300, in.read(buffer));
+    assertEquals(0, in.read());
+    assertEquals(100, in.skip(100));
+    while (in.read(buffer) >= 0) {
+      // Read to the end
+    }
+    assertEquals(1000, in.getCount());
+    assertEquals(inFlight + 1000, TransferStats.getBytesInFlight());
+    in.close();
+    assertEquals(inFlight, TransferStats.getBytesInFlight());
+  }
+}
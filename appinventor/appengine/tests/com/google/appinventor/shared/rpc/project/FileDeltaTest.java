@@ -0,0 +1,51 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.shared.rpc.project;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link FileDelta}.
+ */
+public class FileDeltaTest extends TestCase {
+  public void testApplyChange() throws ChecksumedFileException {
+    String base = "<xml><block type=\"a\"/><block type=\"b\"/></xml>";
+    String content = "<xml><block type=\"a\"/><block type=\"c\"/><block type=\"b\"/></xml>";
+    FileDelta delta = FileDelta.compute(base, content);
+    assertFalse(delta.isEmpty());
+    assertEquals(content, delta.apply(base));
+    assertTrue(delta.getSize() < 20);
+  }
+
+  public void testRepeatedCharacters() throws ChecksumedFileException {
+    assertEquals("aaaa", FileDelta.compute("aa", "aaaa").apply("aa"));
+    assertEquals("a", FileDelta.compute("aaa", "a").apply("aaa"));
+    assertEquals("", FileDelta.compute("abc", "").apply("abc"));
+    assertEquals("abc", FileDelta.compute("", "abc").apply(""));
+  }
+
+  public void testUnchanged() throws ChecksumedFileException {
+    FileDelta delta = FileDelta.compute("abc", "abc");
+    assertTrue(delta.isEmpty());
+    assertEquals("abc", delta.apply("abc"));
+  }
+
+  public void testWrongBase() throws ChecksumedFileException {
+    FileDelta delta = FileDelta.compute("abc", "abd");
+    try {
+      delta.apply("xbc");
+      fail();
+    } catch (ChecksumedFileException e) {
+      // expected
+    }
+    try {
+      FileDelta.compute("abc", "abc").apply("abd");
+      fail();
+    } catch (ChecksumedFileException e) {
+      // expected
+    }
+  }
+}
@@ -1688,7 +1688,12 @@ Blockly.Versioning.AllUpgradeMaps =
 
     // The BluetoothClient.NoLocationNeeded property was added.
     // No blocks need to be modified to upgrade to version 8.
-    8: "noUpgrade"
+    8: "noUpgrade",
+
+    // The BluetoothClient.StartStreaming and StopStreaming methods, BytesDropped property and
+    // DataReceived event were added.
+    // No blocks need to be modified to upgrade to version 9.
+    9: "noUpgrade"
 
   }, // End BluetoothClient upgraders
 
@@ -1714,7 +1719,12 @@ Blockly.Versioning.AllUpgradeMaps =
 
     // The BluetoothServer.Secure property was added.
     // No blocks need to be modified to upgrade to version 5.
-    5: "noUpgrade"
+    5: "noUpgrade",
+
+    // The BluetoothServer.StartStreaming and StopStreaming methods, BytesDropped property and
+    // DataReceived event were added.
+    // No blocks need to be modified to upgrade to version 6.
+    6: "noUpgrade"
 
   }, // End BluetoothServer upgraders
 
@@ -1912,7 +1922,10 @@ Blockly.Versioning.AllUpgradeMaps =
     // This is initial version. Placeholder for future upgrades
     1: "noUpgrade",
     // UpdateDone event was added.
-    2: "noUpgrade"
+    2: "noUpgrade",
+
+    // CacheValues property was added.
+    3: "noUpgrade"
 
   },
 
@@ -3281,7 +3294,10 @@ Blockly.Versioning.AllUpgradeMaps =
     2: "noUpgrade",
 
     //Added blocks GetEntries
-    3: "noUpgrade"
+    3: "noUpgrade",
+
+    //Added Property: FlushInterval and block Flush
+    4: "noUpgrade"
 
   }, // End TinyDB upgraders
 
@@ -3463,7 +3479,10 @@ Blockly.Versioning.AllUpgradeMaps =
     8: "noUpgrade",
 
     // AI2: Added ResponseTextEncoding property
-    9: "noUpgrade"
+    9: "noUpgrade",
+
+    // AI2: Added CacheResponses property and ClearCache method
+    10: "noUpgrade"
 
   }, // End Web upgraders
 
@@ -6,11 +6,15 @@
 
 package com.google.appinventor.buildserver;
 
+import com.google.appinventor.buildserver.context.ComponentRegistry;
 import com.google.appinventor.buildserver.stats.SimpleStatReporter;
 import com.google.appinventor.buildserver.stats.StatCalculator;
 import com.google.appinventor.buildserver.stats.StatCalculator.Stats;
 import com.google.appinventor.buildserver.stats.StatReporter;
 import com.google.appinventor.buildserver.tasks.android.AndroidBuildFactory;
+import com.google.appinventor.buildserver.util.BuildCache;
+import com.google.appinventor.buildserver.util.D8CompilerPool;
+import com.google.appinventor.buildserver.util.KawaCompilerPool;
 import com.google.appinventor.common.version.GitBuildId;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.ByteStreams;
@@ -75,7 +79,8 @@ import javax.ws.rs.core.Response;
 // The Java class will be hosted at the URI path "/buildserver"
 @Path("/buildserver")
 public class BuildServer {
-  private ProjectBuilder projectBuilder = new ProjectBuilder(statReporter);
+  private ProjectBuilder projectBuilder = new ProjectBuilder(statReporter,
+      commandLineOptions.maxParallelTasks, buildCache);
   private String hostname = getEtcHostname();
 
   public static class ProgressReporter {
@@ -144,6 +149,18 @@ public class BuildServer {
       usage = "Maximum number of builds that can run in parallel. O means unlimited.")
     int maxSimultaneousBuilds = 0;  // The default is unlimited.
 
+    @Option(name = "--maxQueuedBuilds",
+      usage = "Maximum number of builds that can wait for a free slot. 0 means builds are rejected when all slots are busy.")
+    int maxQueuedBuilds = 20;
+
+    @Option(name = "--maxParallelTasks",
+      usage = "Maximum number of independent tasks of a single build that can run in parallel.")
+    int maxParallelTasks = 4;
+
+    @Option(name = "--d8Workers",
+      usage = "Maximum number of d8 compilations run at once inside the build server. 0 runs d8 in a child process instead.")
+    int d8Workers = 4;
+
     @Option(name = "--port",
       usage = "The port number to bind to on the local machine.")
     int port = 9990;
@@ -161,6 +178,14 @@ public class BuildServer {
             usage = "the directory to cache the pre-dexed libraries")
     String dexCacheDir = null;
 
+    @Option(name = "--buildCacheDir",
+        usage = "the directory to cache build outputs for reuse by later builds")
+    String buildCacheDir = null;
+
+    @Option(name = "--buildCacheSizeMb",
+        usage = "the maximum size of the build cache, in MB")
+    int buildCacheSizeMb = 2048;
+
     @Option(name = "--statreporter",
         usage = "the reporter to use for collecting stats")
     String statReporter = "com.google.appinventor.buildserver.stats.SimpleStatReporter";
@@ -179,6 +204,10 @@ public class BuildServer {
   private static final MediaType ZIP_MEDIA_TYPE =
     new MediaType("application", "zip", ImmutableMap.of("charset", "utf-8"));
 
+  // Response headers describing where an accepted build stands in the build queue.
+  private static final String QUEUE_POSITION_HEADER = "X-Build-Queue-Position";
+  private static final String ESTIMATED_WAIT_HEADER = "X-Build-Estimated-Wait-Ms";
+
   private static final AtomicInteger buildCount = new AtomicInteger(0);
 
   // The number of build requests for this server run
@@ -196,6 +225,9 @@ public class BuildServer {
   // The reporter for gathering build stats.
   private static StatReporter statReporter;
 
+  // The cache of build outputs shared by all builds, or null if disabled.
+  private static BuildCache buildCache;
+
   //The number of failed build requests for this server run
   private static int maximumActiveBuildTasks = 0;
 
@@ -203,7 +235,7 @@ public class BuildServer {
   // NOTE(lizlooney) - the buildExecutor must be created after the command line options are
   // processed in main(). If it is created here, the number of simultaneous builds will always be
   // the default value, even if the --maxSimultaneousBuilds option is on the command line.
-  private static NonQueuingExecutor buildExecutor;
+  private static FairQueuingExecutor buildExecutor;
 
   // The input zip file. It will be deleted in cleanUp.
   private File inputZip;
@@ -329,6 +361,42 @@ public class BuildServer {
     maximumActiveBuildTasks = Math.max(maximumActiveBuildTasks, buildExecutor.getActiveTaskCount());
     variables.put("maximum-simultaneous-build-tasks-occurred", maximumActiveBuildTasks + "");
     variables.put("active-build-tasks", buildExecutor.getActiveTaskCount() + "");
+    variables.put("maximum-queued-build-tasks-allowed", buildExecutor.getMaxQueuedTasks() + "");
+    variables.put("queued-build-tasks", buildExecutor.getQueuedTaskCount() + "");
+    variables.put("queued-build-users", buildExecutor.getQueuedUserCount() + "");
+    variables.put("build-queue-memory-deferrals", buildExecutor.getMemoryDeferrals() + "");
+    variables.put("average-build-time-ms", buildExecutor.getAverageBuildMillis() + "");
+    variables.put("average-queue-wait-ms", buildExecutor.getAverageWaitMillis() + "");
+    variables.put("estimated-queue-wait-ms", buildExecutor.getEstimatedWaitMillis() + "");
+
+    // Kawa compiler pool
+    KawaCompilerPool kawaPool = KawaCompilerPool.getInstance();
+    if (kawaPool != null) {
+      variables.put("kawa-workers-max", kawaPool.getMaxWorkers() + "");
+      variables.put("kawa-workers-live", kawaPool.getLiveWorkers() + "");
+      variables.put("kawa-workers-idle", kawaPool.getIdleWorkers() + "");
+      variables.put("kawa-workers-started", kawaPool.getWorkersStarted() + "");
+      variables.put("kawa-compilations", kawaPool.getCompilations() + "");
+      variables.put("kawa-warm-hits", kawaPool.getWarmHits() + "");
+    }
+
+    // In-process d8
+    D8CompilerPool d8Pool = D8CompilerPool.getInstance();
+    if (d8Pool != null) {
+      variables.put("d8-workers-max", d8Pool.getMaxWorkers() + "");
+      variables.put("d8-compilations", d8Pool.getCompilations() + "");
+      variables.put("d8-failures", d8Pool.getFailures() + "");
+    }
+
+    // Build cache
+    if (buildCache != null) {
+      variables.put("build-cache-entries", buildCache.getEntryCount() + "");
+      variables.put("build-cache-size-bytes", buildCache.getSizeBytes() + "");
+      variables.put("build-cache-max-bytes", buildCache.getMaxBytes() + "");
+      variables.put("build-cache-hits", buildCache.getHits() + "");
+      variables.put("build-cache-misses", buildCache.getMisses() + "");
+      variables.put("build-cache-evictions", buildCache.getEvictions() + "");
+    }
 
     return mapToHtml(variables);
   }
@@ -550,7 +618,10 @@ public class BuildServer {
    *     YoungAndroidProjectService.build.
    * @param callbackUrlStr An url to send the build results back to.
    * @param inputZipFile  The zip file representing the App Inventor source code.
-   * @return a status response, typically OK (200) or SERVICE_UNAVAILABLE (503).
+   * @return a status response, typically OK (200) or SERVICE_UNAVAILABLE (503). An OK response
+   *     carries the build's position in the build queue (0 if it started right away) and the
+   *     estimated wait until it starts. A SERVICE_UNAVAILABLE response carries a Retry-After
+   *     header.
    */
   @POST
   @Path("build-all-from-zip-async")
@@ -660,11 +731,12 @@ public class BuildServer {
             }
           }
         };
+      FairQueuingExecutor.Admission admission;
       try {
-        buildExecutor.execute(buildTask);
+        admission = buildExecutor.submit(userName == null ? "" : userName, buildTask);
       } catch (RejectedExecutionException e) {
-        // This request was rejected because all threads in the build
-        // executor are busy.
+        // This request was rejected because all build slots are busy
+        // and the queue is full.
         rejectedAsyncBuildRequests.incrementAndGet();
         cleanUp();
         // Here, we use SERVICE_UNAVAILABLE (response code 503), which
@@ -672,9 +744,18 @@ public class BuildServer {
         // currently unable to handle the request due to a temporary
         // overloading or maintenance of the server. The implication
         // is that this is a temporary condition which will be
-        // alleviated after some delay."
-        return Response.status(Response.Status.SERVICE_UNAVAILABLE).type(MediaType.TEXT_PLAIN_TYPE).entity("The build server is currently at maximum capacity.").build();
+        // alleviated after some delay." Retry-After tells the client
+        // how long that delay is likely to be.
+        long retryAfterSeconds = (buildExecutor.getEstimatedWaitMillis() + 999) / 1000;
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE).type(MediaType.TEXT_PLAIN_TYPE)
+          .header("Retry-After", retryAfterSeconds)
+          .entity("The build server is currently at maximum capacity.").build();
       }
+      // The position is 0 if the build started right away.
+      return Response.ok().type(MediaType.TEXT_PLAIN_TYPE)
+        .header(QUEUE_POSITION_HEADER, admission.getPosition())
+        .header(ESTIMATED_WAIT_HEADER, admission.getEstimatedWaitMillis())
+        .entity("" + admission.getPosition()).build();
     }
     // Note: The code below should no longer be invoked. Progress reports
     // are now handled via a callback mechanism. The "50" here is just a plug
@@ -794,6 +875,11 @@ public class BuildServer {
       }
     }
 
+    if (commandLineOptions.buildCacheDir != null) {
+      buildCache = new BuildCache(new File(commandLineOptions.buildCacheDir),
+          commandLineOptions.buildCacheSizeMb * 1024L * 1024L);
+    }
+
     // Add a Shutdown Hook. In a container swarm, the swarm orchestrator
     // may choose to shutdown a container (running a buildserver) as part
     // of load balancing and other maintenance tasks. It will send a
@@ -812,7 +898,7 @@ public class BuildServer {
             return;
           }
           while (true) {
-            int tasks = buildExecutor.getActiveTaskCount();
+            int tasks = buildExecutor.getActiveTaskCount() + buildExecutor.getQueuedTaskCount();
             if (tasks <= 0) {
               try {
                 Thread.sleep(10000); // One final wait so people can get
@@ -832,8 +918,21 @@ public class BuildServer {
 
     // Now that the command line options have been processed, we can create the buildExecutor.
     AndroidBuildFactory.install();
+    // Parse the build info of the built-in components once, rather than in the first build.
+    try {
+      ComponentRegistry.getBuiltIn();
+    } catch (JSONException e) {
+      throw new IllegalStateException("Unable to parse component build info", e);
+    }
     // TODO(ewpatton): Enable iOS build factory here when published
-    buildExecutor = new NonQueuingExecutor(commandLineOptions.maxSimultaneousBuilds);
+    // Each build needs enough free memory for its largest child process (Kawa or d8).
+    buildExecutor = new FairQueuingExecutor(commandLineOptions.maxSimultaneousBuilds,
+        commandLineOptions.maxQueuedBuilds, commandLineOptions.childProcessRamMb * 1024L * 1024L);
+    // Resident Kawa compilers are only used when the number of builds is bounded, since each
+    // worker holds on to up to childProcessRamMb of memory.
+    KawaCompilerPool.install(commandLineOptions.maxSimultaneousBuilds);
+    // d8 runs in the server's own heap when the pool is enabled.
+    D8CompilerPool.install(commandLineOptions.d8Workers);
 
     int port = commandLineOptions.port;
     final ResourceConfig rc = new ResourceConfig(BuildServer.class);
@@ -847,6 +946,7 @@ public class BuildServer {
     } else {
       LOG.info("Maximum simultaneous builds = " + commandLineOptions.maxSimultaneousBuilds);
     }
+    LOG.info("Maximum queued builds = " + commandLineOptions.maxQueuedBuilds);
     LOG.info("Visit: http://" + hostAddress + ":" + port +
       "/buildserver/health for server health");
     LOG.info("Visit: http://" + hostAddress + ":" + port +
@@ -9,11 +9,18 @@ package com.google.appinventor.buildserver;
 import com.google.appinventor.buildserver.context.CompilerContext;
 import com.google.appinventor.buildserver.context.Paths;
 import com.google.appinventor.buildserver.interfaces.Task;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,6 +33,10 @@ import java.util.logging.Logger;
  * style pattern, where receives build information, and then
  * {@link Task} can be added.</p>
  *
+ * <p>Tasks run in the order they were added unless they declare their inputs with
+ * {@link DependsOn}, in which case independent tasks may run concurrently on up to
+ * {@link CompilerContext#getParallelism()} threads.</p>
+ *
  * @see CompilerContext
  *
  * @author diego@barreiro.xyz (Diego Barreiro)
@@ -108,8 +119,9 @@ public class Compiler<P extends Paths, T extends CompilerContext<P>> implements
   public Boolean call() {
     // Initializes progress to 0.
     context.getReporter().setProgress(0);
+    context.setCompiler(this);
     context.getStatReporter().startBuild(this);
-    int numTasks = this.tasks.size();
+    final int numTasks = this.tasks.size();
 
     // If no tasks, we technically have successfully built everything.
     if (numTasks == 0) {
@@ -118,75 +130,194 @@ public class Compiler<P extends Paths, T extends CompilerContext<P>> implements
       return true;
     }
 
+    int parallelism = Math.min(context.getParallelism(), numTasks);
+    if (parallelism <= 1) {
+      for (int i = 0; i < numTasks; i++) {
+        if (!runTask(this.tasks.get(i))) {
+          return false;
+        }
+        // Update progress depending on the number of steps.
+        context.getReporter().setProgress(((i + 1) * 100) / numTasks);
+      }
+      return true;
+    }
+
+    // Independent tasks run concurrently on a bounded pool. A task becomes ready once all of the
+    // tasks it depends on have succeeded. After a failure no new tasks are started, but the ones
+    // already running are allowed to finish.
+    List<List<Integer>> dependents = new ArrayList<>();
+    int[] waitingOn = new int[numTasks];
+    for (int i = 0; i < numTasks; i++) {
+      dependents.add(new ArrayList<Integer>());
+    }
     for (int i = 0; i < numTasks; i++) {
-      // We accept Classes, but not initialized ones.
-      Class<? extends Task<?>> task = this.tasks.get(i);
-      String taskName = task.getSimpleName();
-
-      // We try to initialize a Task instance.
-      Object taskObject;
-      try {
-        taskObject = task.newInstance();
-      } catch (IllegalAccessException | InstantiationException e) {
-        LOG.log(Level.SEVERE, "Could not create new task " + taskName, e);
-        context.getReporter().error("Could not create new task " + taskName);
-        return false;
+      for (int dependency : getDependencies(i)) {
+        dependents.get(dependency).add(i);
+        waitingOn[i]++;
       }
+    }
 
-      // Task's will have an annotation to make sure they only run in
-      // the specified build type. If no annotation present, we throw
-      // a warning.
-      if (task.isAnnotationPresent(BuildType.class)) {
-        BuildType buildType = task.getAnnotation(BuildType.class);
-        switch (ext) {
-          case BuildType.AAB_EXTENSION:
-            if (!buildType.aab()) {
-              context.getReporter().error("Task " + taskName + " does not support builds on AABs!");
-              return false;
-            }
-            break;
-          default:
-          case BuildType.APK_EXTENSION:
-            if (!buildType.apk()) {
-              context.getReporter().error("Task " + taskName + " does not support builds on APKs!");
-              return false;
-            }
-            break;
+    final AtomicInteger threadCount = new AtomicInteger(0);
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "compiler-task-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+    try {
+      int running = 0;
+      int completed = 0;
+      boolean failed = false;
+      for (int i = 0; i < numTasks; i++) {
+        if (waitingOn[i] == 0) {
+          submitTask(completion, i);
+          running++;
         }
-      } else {
-        context.getReporter().warn("Task " + taskName + " does not contain build type targets!");
       }
+      while (running > 0) {
+        int index = completion.take().get();
+        running--;
+        if (index < 0) {
+          failed = true;
+          continue;
+        }
+        completed++;
+        context.getReporter().setProgress((completed * 100) / numTasks);
+        if (failed) {
+          continue;
+        }
+        for (int dependent : dependents.get(index)) {
+          if (--waitingOn[dependent] == 0) {
+            submitTask(completion, dependent);
+            running++;
+          }
+        }
+      }
+      return !failed && completed == numTasks;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.log(Level.SEVERE, "Interrupted while waiting for tasks", e);
+      return false;
+    } catch (ExecutionException e) {
+      LOG.log(Level.SEVERE, "Unexpected error running tasks", e);
+      return false;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Computes the indices of the tasks that the task at {@code index} depends on.
+   */
+  private Set<Integer> getDependencies(int index) {
+    Class<? extends Task<? super T>> task = this.tasks.get(index);
+    Set<Integer> result = new TreeSet<>();
+    DependsOn dependsOn = task.getAnnotation(DependsOn.class);
+    if (dependsOn == null) {
+      for (int i = 0; i < index; i++) {
+        result.add(i);
+      }
+      return result;
+    }
+    for (Class<?> dependency : dependsOn.value()) {
+      int i = this.tasks.indexOf(dependency);
+      if (i > index) {
+        // Can't wait on something that was added later; fall back to the sequential order.
+        LOG.warning("Task " + task.getSimpleName() + " depends on later task "
+            + dependency.getSimpleName());
+        for (int j = 0; j < index; j++) {
+          result.add(j);
+        }
+      } else if (i >= 0) {
+        result.add(i);
+      }
+    }
+    return result;
+  }
 
-      // Get the current time to know the time needed to execute it.
-      context.getReporter().taskStart(taskName);
-      context.getStatReporter().nextStage(this, task.getSimpleName());
-      long start = System.currentTimeMillis();
-
-      // And then invoke the execute(ExecutorContext) method to run the Task.
-      TaskResult result;
-      try {
-        Method execute = task.getMethod("execute", CompilerContext.class);
-        result = (TaskResult) execute.invoke(taskObject, context);
-      } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-        context.getReporter().taskError(-1);
-        LOG.log(Level.SEVERE, "Error running task " + task, e);
-        return false;
+  private void submitTask(CompletionService<Integer> completion, final int index) {
+    completion.submit(new Callable<Integer>() {
+      @Override
+      public Integer call() {
+        return runTask(tasks.get(index)) ? index : -1;
       }
-      double endTime = (System.currentTimeMillis() - start) / 1000.0;
-
-      // Make sure result is success, else we'll throw an error and don't run
-      // more tasks.
-      if (result == null || !result.isSuccess()) {
-        context.getReporter().error(result == null || result.getError() == null
-            ? "Unknown exception" : result.getError().getMessage(), true);
-        context.getReporter().taskError(endTime);
-        return false;
+    });
+  }
+
+  /**
+   * Runs a single task, reporting its progress and timing.
+   *
+   * @param task the task to run
+   * @return true if the task succeeded, otherwise false
+   */
+  private boolean runTask(Class<? extends Task<? super T>> task) {
+    String taskName = task.getSimpleName();
+
+    // We try to initialize a Task instance.
+    Task<? super T> taskObject;
+    try {
+      taskObject = task.newInstance();
+    } catch (IllegalAccessException | InstantiationException e) {
+      LOG.log(Level.SEVERE, "Could not create new task " + taskName, e);
+      context.getReporter().error("Could not create new task " + taskName);
+      return false;
+    }
+
+    // Task's will have an annotation to make sure they only run in
+    // the specified build type. If no annotation present, we throw
+    // a warning.
+    if (task.isAnnotationPresent(BuildType.class)) {
+      BuildType buildType = task.getAnnotation(BuildType.class);
+      switch (ext) {
+        case BuildType.AAB_EXTENSION:
+          if (!buildType.aab()) {
+            context.getReporter().error("Task " + taskName + " does not support builds on AABs!");
+            return false;
+          }
+          break;
+        default:
+        case BuildType.APK_EXTENSION:
+          if (!buildType.apk()) {
+            context.getReporter().error("Task " + taskName + " does not support builds on APKs!");
+            return false;
+          }
+          break;
       }
+    } else {
+      context.getReporter().warn("Task " + taskName + " does not contain build type targets!");
+    }
 
-      // Update progress depending on the number of steps.
-      context.getReporter().setProgress(((i + 1) * 100) / numTasks);
-      context.getReporter().taskSuccess(endTime);
+    // Get the current time to know the time needed to execute it.
+    context.getReporter().taskStart(taskName);
+    context.getStatReporter().nextStage(this, taskName);
+    long start = System.currentTimeMillis();
+
+    // And then invoke the execute(ExecutorContext) method to run the Task.
+    TaskResult result;
+    try {
+      result = taskObject.execute(context);
+    } catch (RuntimeException e) {
+      context.getReporter().taskError(-1);
+      LOG.log(Level.SEVERE, "Error running task " + task, e);
+      return false;
+    }
+    long duration = System.currentTimeMillis() - start;
+    double endTime = duration / 1000.0;
+    context.getStatReporter().stageCompleted(this, taskName, duration);
+
+    // Make sure result is success, else we'll throw an error and don't run
+    // more tasks.
+    if (result == null || !result.isSuccess()) {
+      context.getReporter().error(result == null || result.getError() == null
+          ? "Unknown exception" : result.getError().getMessage(), true);
+      context.getReporter().taskError(endTime);
+      return false;
     }
+
+    context.getReporter().taskSuccess(endTime);
     return true;
   }
 
@@ -0,0 +1,29 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver;
+
+import com.google.appinventor.buildserver.interfaces.Task;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the tasks whose output the annotated task consumes. The {@link Compiler} may run the
+ * annotated task as soon as all of the listed tasks that are part of the build have succeeded,
+ * possibly at the same time as other tasks. Listed tasks that are not part of the build (for
+ * example, RunAapt in an AAB build) are ignored, and an empty list means the task has no
+ * dependencies at all.
+ *
+ * <p>Tasks without this annotation depend on every task added to the compiler before them,
+ * which preserves the strictly sequential behavior.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface DependsOn {
+  @SuppressWarnings("rawtypes")
+  Class<? extends Task>[] value();
+}
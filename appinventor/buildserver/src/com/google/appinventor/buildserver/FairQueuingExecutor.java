@@ -0,0 +1,374 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+package com.google.appinventor.buildserver;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * An {@link Executor} for builds that queues the builds it cannot start right away.
+ *
+ * <p>A build is started when fewer than the maximum number of builds are running and the machine
+ * has enough available memory for the child processes of one more build. Otherwise it waits in
+ * a bounded queue, and builds are only rejected once the queue is full. Queued builds are
+ * started round-robin across users, so a user who submits many builds cannot hold up everybody
+ * else.</p>
+ *
+ * <p>Each submission returns an {@link Admission} with the build's place in the queue and an
+ * estimate of its wait, based on a moving average of recent build times.</p>
+ */
+final class FairQueuingExecutor implements Executor {
+  // Weight of the newest sample in the moving averages of build and wait times.
+  private static final double SMOOTHING = 0.2;
+
+  // Assumed build time until the first build completes.
+  private static final long INITIAL_BUILD_MILLIS = 60 * 1000;
+
+  // Builds started within this interval are assumed to not have allocated their memory yet.
+  private static final long RAMP_UP_MILLIS = 15 * 1000;
+
+  // Logging support
+  private static final Logger LOG = Logger.getLogger(FairQueuingExecutor.class.getName());
+
+  /**
+   * The outcome of submitting a build.
+   */
+  static final class Admission {
+    private final int position;
+    private final long estimatedWaitMillis;
+
+    Admission(int position, long estimatedWaitMillis) {
+      this.position = position;
+      this.estimatedWaitMillis = estimatedWaitMillis;
+    }
+
+    /**
+     * Gets the position of the build in the queue at the time it was submitted.
+     *
+     * @return 0 if the build started right away, otherwise its 1-based position in the queue
+     */
+    int getPosition() {
+      return position;
+    }
+
+    /**
+     * Gets the estimated time until the build starts.
+     */
+    long getEstimatedWaitMillis() {
+      return estimatedWaitMillis;
+    }
+  }
+
+  private static final class QueuedTask {
+    private final Runnable runnable;
+    private final long enqueueTime;
+    // Whether the task has been counted in memoryDeferrals.
+    private boolean deferredForMemory = false;
+
+    QueuedTask(Runnable runnable, long enqueueTime) {
+      this.runnable = runnable;
+      this.enqueueTime = enqueueTime;
+    }
+  }
+
+  // The maximum number of active tasks. O means unlimited.
+  private final int maxActiveTasks;
+  // The maximum number of queued tasks. 0 means tasks are rejected rather than queued.
+  private final int maxQueuedTasks;
+  // The memory needed to start a task, in bytes. 0 disables memory based admission.
+  private final long memoryPerTask;
+  private final LongSupplier availableMemory;
+
+  private final ExecutorService threads = Executors.newCachedThreadPool(new ThreadFactory() {
+    private final AtomicInteger count = new AtomicInteger(0);
+
+    @Override
+    public Thread newThread(Runnable r) {
+      return new Thread(r, "build-" + count.incrementAndGet());
+    }
+  });
+
+  // All of the fields below are guarded by lock.
+  private final Object lock = new Object();
+  // The queued tasks of each user. Users are served in the order of this map, and a user that
+  // has been served moves to the end.
+  private final LinkedHashMap<String, ArrayDeque<QueuedTask>> queues = new LinkedHashMap<>();
+  private final ArrayDeque<Long> recentStartTimes = new ArrayDeque<>();
+  private int queuedTaskCount = 0;
+  private int activeTaskCount = 0;
+  private int completedTaskCount = 0;
+  private int memoryDeferrals = 0;
+  private double averageBuildMillis = INITIAL_BUILD_MILLIS;
+  private double averageWaitMillis = 0;
+
+  /**
+   * Creates a FairQueuingExecutor that measures the available memory of this machine.
+   *
+   * @param maxActiveTasks the maximum number of active tasks, or 0 for unlimited
+   * @param maxQueuedTasks the maximum number of queued tasks
+   * @param memoryPerTask the available memory needed to start a task, in bytes, or 0 to ignore
+   *                      memory
+   */
+  FairQueuingExecutor(int maxActiveTasks, int maxQueuedTasks, long memoryPerTask) {
+    this(maxActiveTasks, maxQueuedTasks, memoryPerTask, new LongSupplier() {
+      @Override
+      public long getAsLong() {
+        return getAvailablePhysicalMemory();
+      }
+    });
+  }
+
+  FairQueuingExecutor(int maxActiveTasks, int maxQueuedTasks, long memoryPerTask,
+      LongSupplier availableMemory) {
+    this.maxActiveTasks = maxActiveTasks;
+    this.maxQueuedTasks = maxQueuedTasks;
+    this.memoryPerTask = memoryPerTask;
+    this.availableMemory = availableMemory;
+  }
+
+  @Override
+  public void execute(Runnable runnable) {
+    submit("", runnable);
+  }
+
+  /**
+   * Starts or queues a build.
+   *
+   * @param user the user requesting the build, for fair scheduling
+   * @param runnable the build
+   * @return the position of the build in the queue and its estimated wait
+   * @throws RejectedExecutionException if the build can't be started and the queue is full
+   */
+  Admission submit(String user, Runnable runnable) {
+    synchronized (lock) {
+      dispatch();
+      if (queuedTaskCount == 0 && canStart()) {
+        start(new QueuedTask(runnable, System.currentTimeMillis()));
+        return new Admission(0, 0);
+      }
+      if (queuedTaskCount >= maxQueuedTasks) {
+        throw new RejectedExecutionException("Build queue is full");
+      }
+      ArrayDeque<QueuedTask> queue = queues.get(user);
+      if (queue == null) {
+        queue = new ArrayDeque<>();
+        queues.put(user, queue);
+      }
+      queue.addLast(new QueuedTask(runnable, System.currentTimeMillis()));
+      queuedTaskCount++;
+      recordMemoryDeferral();
+      int position = getPosition(user, queue.size() - 1) + 1;
+      LOG.info("Queued build for " + user + " at position " + position);
+      return new Admission(position, estimateWait(position));
+    }
+  }
+
+  public int getMaxActiveTasks() {
+    return maxActiveTasks;
+  }
+
+  public int getMaxQueuedTasks() {
+    return maxQueuedTasks;
+  }
+
+  public int getActiveTaskCount() {
+    synchronized (lock) {
+      return activeTaskCount;
+    }
+  }
+
+  public int getQueuedTaskCount() {
+    synchronized (lock) {
+      return queuedTaskCount;
+    }
+  }
+
+  public int getQueuedUserCount() {
+    synchronized (lock) {
+      return queues.size();
+    }
+  }
+
+  public int getCompletedTaskCount() {
+    synchronized (lock) {
+      return completedTaskCount;
+    }
+  }
+
+  /**
+   * Gets the number of queued builds that were held back for lack of memory.
+   */
+  public int getMemoryDeferrals() {
+    synchronized (lock) {
+      return memoryDeferrals;
+    }
+  }
+
+  public long getAverageBuildMillis() {
+    synchronized (lock) {
+      return (long) averageBuildMillis;
+    }
+  }
+
+  public long getAverageWaitMillis() {
+    synchronized (lock) {
+      return (long) averageWaitMillis;
+    }
+  }
+
+  /**
+   * Gets the estimated wait of a build submitted now.
+   */
+  public long getEstimatedWaitMillis() {
+    synchronized (lock) {
+      if (queuedTaskCount == 0 && canStart()) {
+        return 0;
+      }
+      return estimateWait(queuedTaskCount + 1);
+    }
+  }
+
+  // Must be called with the lock held.
+  private boolean canStart() {
+    return hasTaskSlot() && hasMemory();
+  }
+
+  // Must be called with the lock held.
+  private boolean hasTaskSlot() {
+    return maxActiveTasks == 0 || activeTaskCount < maxActiveTasks;
+  }
+
+  // Must be called with the lock held.
+  private boolean hasMemory() {
+    if (memoryPerTask == 0 || activeTaskCount == 0) {
+      // With nothing running there is no completion to wait for, so always make progress.
+      return true;
+    }
+    long now = System.currentTimeMillis();
+    while (!recentStartTimes.isEmpty() && recentStartTimes.peekFirst() < now - RAMP_UP_MILLIS) {
+      recentStartTimes.removeFirst();
+    }
+    // Builds that started recently will still claim their share of the memory that is free now.
+    return availableMemory.getAsLong() >= memoryPerTask * (recentStartTimes.size() + 1);
+  }
+
+  // Must be called with the lock held.
+  private void start(final QueuedTask task) {
+    final long startTime = System.currentTimeMillis();
+    averageWaitMillis += SMOOTHING * ((startTime - task.enqueueTime) - averageWaitMillis);
+    recentStartTimes.addLast(startTime);
+    activeTaskCount++;
+    threads.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          task.runnable.run();
+        } finally {
+          synchronized (lock) {
+            activeTaskCount--;
+            completedTaskCount++;
+            averageBuildMillis += SMOOTHING
+                * ((System.currentTimeMillis() - startTime) - averageBuildMillis);
+            dispatch();
+          }
+        }
+      }
+    });
+  }
+
+  // Starts queued tasks while there is capacity. Must be called with the lock held.
+  private void dispatch() {
+    while (queuedTaskCount > 0 && canStart()) {
+      Iterator<Map.Entry<String, ArrayDeque<QueuedTask>>> it = queues.entrySet().iterator();
+      Map.Entry<String, ArrayDeque<QueuedTask>> next = it.next();
+      it.remove();
+      QueuedTask task = next.getValue().removeFirst();
+      if (!next.getValue().isEmpty()) {
+        queues.put(next.getKey(), next.getValue());
+      }
+      queuedTaskCount--;
+      start(task);
+    }
+    recordMemoryDeferral();
+  }
+
+  /**
+   * Counts the next queued task as held back for lack of memory if it can't start although a
+   * task slot is free. Each task is counted once however long it waits. Must be called with the
+   * lock held, after dispatching.
+   */
+  private void recordMemoryDeferral() {
+    if (queuedTaskCount > 0 && hasTaskSlot()) {
+      QueuedTask next = queues.values().iterator().next().peekFirst();
+      if (!next.deferredForMemory) {
+        next.deferredForMemory = true;
+        memoryDeferrals++;
+      }
+    }
+  }
+
+  /**
+   * Computes the number of queued tasks that will start before the {@code index}-th queued task
+   * of {@code user}. Must be called with the lock held.
+   */
+  private int getPosition(String user, int index) {
+    int position = 0;
+    boolean before = true;
+    for (Map.Entry<String, ArrayDeque<QueuedTask>> entry : queues.entrySet()) {
+      if (entry.getKey().equals(user)) {
+        position += index;
+        before = false;
+      } else {
+        // Users ahead in the rotation get one more turn than the users behind.
+        position += Math.min(entry.getValue().size(), before ? index + 1 : index);
+      }
+    }
+    return position;
+  }
+
+  // Must be called with the lock held.
+  private long estimateWait(int position) {
+    int slots = maxActiveTasks == 0 ? Math.max(activeTaskCount, 1) : maxActiveTasks;
+    return (long) (averageBuildMillis * ((position - 1) / slots + 1));
+  }
+
+  /**
+   * Gets the memory available to new processes on this machine, in bytes. On Linux this
+   * includes reclaimable page cache, which the free memory reported by the JVM does not.
+   */
+  private static long getAvailablePhysicalMemory() {
+    try (BufferedReader reader = new BufferedReader(new FileReader("/proc/meminfo"))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("MemAvailable:")) {
+          String[] parts = line.trim().split("\\s+");
+          return Long.parseLong(parts[1]) * 1024;
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      // Not Linux, fall back to the JVM's view
+    }
+    OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+    if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) osBean).getFreePhysicalMemorySize();
+    }
+    return Long.MAX_VALUE;
+  }
+}
@@ -12,6 +12,7 @@ import com.google.appinventor.components.common.FileScope;
 import com.google.appinventor.components.common.Permission;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -85,54 +86,60 @@ public class FormPropertiesAnalyzer {
   }
 
   /**
-   * Returns the Set of component types used in the given form file source.
+   * The information the build needs from a form file.
    */
-  public static Set<String> getComponentTypesFromFormFile(String source) {
-    Set<String> componentTypes = new HashSet<String>();
-    JSONObject propertiesObject = parseSourceFile(source);
-    try {
-      collectComponentTypes(propertiesObject.getJSONObject("Properties"), componentTypes);
-    } catch (JSONException e) {
-      throw new IllegalArgumentException("Unable to parse file - invalid $JSON section syntax");
+  public static final class FormInfo {
+    private final Set<String> componentTypes = new HashSet<>();
+    private final Map<String, Set<String>> componentProperties = new HashMap<>();
+    private String orientation;
+
+    private FormInfo() {
     }
-    return componentTypes;
-  }
 
-  private static void collectComponentTypes(JSONObject componentProperties,
-      Set<String> componentTypes) throws JSONException {
-    String componentType = componentProperties.getString("$Type");
-    componentTypes.add(componentType);
+    /**
+     * Returns the types of the components in the form, including the form itself.
+     */
+    public Set<String> getComponentTypes() {
+      return Collections.unmodifiableSet(componentTypes);
+    }
 
-    // Recursive call to collect nested components.
-    if (componentProperties.has("$Components")) {
-      JSONArray components = componentProperties.getJSONArray("$Components");
-      for (int i = 0; i < components.length(); i++) {
-        collectComponentTypes(components.getJSONObject(i), componentTypes);
-      }
+    /**
+     * Returns a mapping of component types to the properties set in the designer, that is,
+     * those that don't have their default value.
+     */
+    public Map<String, Set<String>> getComponentProperties() {
+      return Collections.unmodifiableMap(componentProperties);
+    }
+
+    /**
+     * Returns the screen orientation chosen for the form.
+     */
+    public String getOrientation() {
+      return orientation;
     }
   }
 
   /**
-   * Extracts a mapping from component to set of blocks used from the Form's
-   * Scheme (.scm) file, which is actually a JSON dictionary contained within
-   * a block comment. Any property that is expressed in the properties section
-   * (i.e., not the default value) is considered used by the function.
+   * Analyzes a form file, walking its components once.
    *
    * @param source Source contents of the Scheme file
-   * @return A mapping of component type names to sets of blocks used
+   * @return the component types, designer properties and orientation of the form
    */
-  public static Map<String, Set<String>> getComponentBlocksFromSchemeFile(String source) {
-    Map<String, Set<String>> result = new HashMap<>();
+  public static FormInfo analyzeFormFile(String source) {
+    FormInfo info = new FormInfo();
     JSONObject propertiesObject = parseSourceFile(source);
     try {
+      propertiesObject = propertiesObject.getJSONObject("Properties");
+      info.orientation = propertiesObject.optString("ScreenOrientation", "unspecified");
       Queue<JSONObject> toProcess = new LinkedList<JSONObject>();
-      toProcess.add(propertiesObject.getJSONObject("Properties"));
+      toProcess.add(propertiesObject);
       while ((propertiesObject = toProcess.poll()) != null) {
         String type = propertiesObject.getString("$Type");
-        if (!result.containsKey(type)) {
-          result.put(type, new HashSet<String>());
+        info.componentTypes.add(type);
+        if (!info.componentProperties.containsKey(type)) {
+          info.componentProperties.put(type, new HashSet<String>());
         }
-        Set<String> typeProps = result.get(type);
+        Set<String> typeProps = info.componentProperties.get(type);
         Iterator<String> it = propertiesObject.keys();
         while (it.hasNext()) {
           String key = it.next();
@@ -150,7 +157,27 @@ public class FormPropertiesAnalyzer {
     } catch (JSONException e) {
       throw new IllegalArgumentException("Unable to parse file - invalid $JSON section syntax");
     }
-    return result;
+    return info;
+  }
+
+  /**
+   * Returns the Set of component types used in the given form file source.
+   */
+  public static Set<String> getComponentTypesFromFormFile(String source) {
+    return new HashSet<String>(analyzeFormFile(source).componentTypes);
+  }
+
+  /**
+   * Extracts a mapping from component to set of blocks used from the Form's
+   * Scheme (.scm) file, which is actually a JSON dictionary contained within
+   * a block comment. Any property that is expressed in the properties section
+   * (i.e., not the default value) is considered used by the function.
+   *
+   * @param source Source contents of the Scheme file
+   * @return A mapping of component type names to sets of blocks used
+   */
+  public static Map<String, Set<String>> getComponentBlocksFromSchemeFile(String source) {
+    return analyzeFormFile(source).componentProperties;
   }
 
   /**
@@ -434,17 +461,4 @@ public class FormPropertiesAnalyzer {
       throw new IllegalStateException(e);
     }
   }
-
-  /**
-   * Computes a mapping from form name to desired orientation set by the user.
-   *
-   * @param source the contents of a .scm file
-   * @return screen orientation map
-   * @throws JSONException if the form's properties field is missing
-   */
-  public static String getFormOrientation(String source) throws JSONException {
-    JSONObject propertiesObject = parseSourceFile(source);
-    JSONObject props = propertiesObject.getJSONObject("Properties");
-    return props.optString("ScreenOrientation", "unspecified");
-  }
 }
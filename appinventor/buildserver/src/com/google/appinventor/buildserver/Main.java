@@ -8,6 +8,7 @@ package com.google.appinventor.buildserver;
 
 import com.google.appinventor.buildserver.stats.NullStatReporter;
 import com.google.appinventor.buildserver.tasks.android.AndroidBuildFactory;
+import com.google.appinventor.buildserver.util.BuildCache;
 
 import java.io.File;
 import java.io.IOException;
@@ -46,10 +47,22 @@ public final class Main {
         usage = "Maximum ram that can be used by a child processes, in MB.")
     int childProcessRamMb = 2048;
 
+    @Option(name = "--maxParallelTasks",
+        usage = "Maximum number of independent build tasks that can run in parallel.")
+    int maxParallelTasks = 1;
+
     @Option(name = "--dexCacheDir",
         usage = "the directory to cache the pre-dexed libraries")
     String dexCacheDir = null;
 
+    @Option(name = "--buildCacheDir",
+        usage = "the directory to cache build outputs for reuse by later builds")
+    String buildCacheDir = null;
+
+    @Option(name = "--buildCacheSizeMb",
+        usage = "the maximum size of the build cache, in MB")
+    int buildCacheSizeMb = 2048;
+
     @Option(name = "--includeDangerousPermissions",
         usage = "Add extra features not allowed in the Google Play store.")
     boolean includeDangerousPermissions = false;
@@ -104,10 +117,21 @@ public final class Main {
       }
     }
 
+    BuildCache buildCache = null;
+    if (commandLineOptions.buildCacheDir != null) {
+      try {
+        buildCache = new BuildCache(new File(commandLineOptions.buildCacheDir),
+            commandLineOptions.buildCacheSizeMb * 1024L * 1024L);
+      } catch (IOException e) {
+        throw new IllegalArgumentException(e);
+      }
+    }
+
     AndroidBuildFactory.install();
     // TODO(ewpatton): Install iOS build factory once published
 
-    ProjectBuilder projectBuilder = new ProjectBuilder(new NullStatReporter());
+    ProjectBuilder projectBuilder = new ProjectBuilder(new NullStatReporter(),
+        commandLineOptions.maxParallelTasks, buildCache);
     ZipFile zip = null;
     try {
       zip = new ZipFile(commandLineOptions.inputZipFile);
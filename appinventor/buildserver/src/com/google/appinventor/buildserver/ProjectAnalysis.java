@@ -0,0 +1,266 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver;
+
+import com.google.appinventor.buildserver.FormPropertiesAnalyzer.ComponentBlocksExtractor;
+import com.google.appinventor.buildserver.FormPropertiesAnalyzer.FormInfo;
+import com.google.appinventor.buildserver.FormPropertiesAnalyzer.PermissionBlockExtractor;
+import com.google.appinventor.buildserver.FormPropertiesAnalyzer.ScopeBlockExtractor;
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * The information a build needs from the form (.scm) and blocks (.bky) files of a project: the
+ * components used, the blocks and designer properties used for each component type, the
+ * permissions needed by helper blocks, and the orientation of each screen.
+ *
+ * <p>Each file is read and parsed once, with all of its analyses done in the same pass. Since
+ * the analysis of a file depends only on its content, it is cached by content hash, so that
+ * rebuilding a project, as the companion does after each change, only parses the files that
+ * changed.</p>
+ */
+final class ProjectAnalysis {
+  private static final String FORM_EXTENSION = YoungAndroidConstants.FORM_PROPERTIES_EXTENSION;
+  private static final String BLOCKS_EXTENSION = ".bky";
+  private static final String SIMPLE_COMPONENTS = "/files/simple_components.json";
+
+  private static final Cache<HashCode, FormInfo> FORMS = CacheBuilder.newBuilder()
+      .maximumSize(2048)
+      .build();
+  private static final Cache<HashCode, BlocksInfo> BLOCKS = CacheBuilder.newBuilder()
+      .maximumSize(2048)
+      .build();
+
+  // Names of the built-in components mapped to their types, loaded on first use.
+  private static volatile Map<String, String> simpleComponentTypes;
+
+  private final Set<String> componentTypes = new HashSet<>();
+  private final Map<String, Set<String>> componentBlocks = new HashMap<>();
+  private final Set<String> blockPermissions = new HashSet<>();
+  private final Map<String, String> formOrientations = new HashMap<>();
+
+  /**
+   * The results of analyzing a blocks file.
+   */
+  private static final class BlocksInfo {
+    final Map<String, Set<String>> componentBlocks;
+    final Set<String> permissions;
+    final Set<String> scopes;
+
+    BlocksInfo(String source) {
+      ComponentBlocksExtractor componentBlocksExtractor = new ComponentBlocksExtractor();
+      PermissionBlockExtractor permissionBlockExtractor = new PermissionBlockExtractor();
+      ScopeBlockExtractor scopeBlockExtractor = new ScopeBlockExtractor();
+      FormPropertiesAnalyzer.analyzeBlocks(source, componentBlocksExtractor,
+          permissionBlockExtractor, scopeBlockExtractor);
+      componentBlocks = Collections.unmodifiableMap(componentBlocksExtractor.getResult());
+      permissions = ImmutableSet.copyOf(permissionBlockExtractor.getResult());
+      scopes = ImmutableSet.copyOf(scopeBlockExtractor.getResult());
+    }
+  }
+
+  private ProjectAnalysis() {
+  }
+
+  /**
+   * Analyzes the source files of a project.
+   *
+   * @param files the files of the project
+   * @param assetsDir the assets directory of the project, which holds its extensions
+   * @return the analysis
+   * @throws IOException if a file can't be read
+   * @throws JSONException if the description of a component is malformed
+   */
+  static ProjectAnalysis analyze(List<String> files, File assetsDir)
+      throws IOException, JSONException {
+    Map<String, String> nameTypeMap = createNameTypeMap(assetsDir);
+    ProjectAnalysis analysis = new ProjectAnalysis();
+    for (String f : files) {
+      if (f.endsWith(FORM_EXTENSION)) {
+        String formName = f.substring(f.lastIndexOf(File.separator) + 1,
+            f.length() - FORM_EXTENSION.length());
+        analysis.addForm(formName, analyzeForm(new File(f)), nameTypeMap);
+      } else if (f.endsWith(BLOCKS_EXTENSION)) {
+        analysis.addBlocks(analyzeBlocks(new File(f)));
+      }
+    }
+    return analysis;
+  }
+
+  /**
+   * Returns the types of the components used by the project.
+   */
+  Set<String> getComponentTypes() {
+    return componentTypes;
+  }
+
+  /**
+   * Returns a mapping of component types to the blocks of each type used in the project.
+   * Properties specified in the designer are considered blocks for this purpose.
+   */
+  Map<String, Set<String>> getComponentBlocks() {
+    return componentBlocks;
+  }
+
+  /**
+   * Returns the permissions requested by permission helper blocks, and those needed to access
+   * the file scopes named by scope helper blocks.
+   */
+  Set<String> getBlockPermissions() {
+    return blockPermissions;
+  }
+
+  /**
+   * Returns the orientation of each screen, keyed by screen name.
+   */
+  Map<String, String> getFormOrientations() {
+    return formOrientations;
+  }
+
+  private void addForm(String formName, FormInfo form, Map<String, String> nameTypeMap) {
+    for (String compName : form.getComponentTypes()) {
+      componentTypes.add(nameTypeMap.get(compName));
+    }
+    addComponentBlocks(form.getComponentProperties());
+    formOrientations.put(formName, form.getOrientation());
+  }
+
+  private void addBlocks(BlocksInfo blocks) {
+    addComponentBlocks(blocks.componentBlocks);
+    blockPermissions.addAll(blocks.permissions);
+    for (String scope : blocks.scopes) {
+      switch (scope) {
+        case "Shared":
+          blockPermissions.add("android.permission.READ_MEDIA_AUDIO");
+          blockPermissions.add("android.permission.READ_MEDIA_IMAGES");
+          blockPermissions.add("android.permission.READ_MEDIA_VIDEO");
+          blockPermissions.add("android.permission.READ_EXTERNAL_STORAGE");
+          blockPermissions.add("android.permission.WRITE_EXTERNAL_STORAGE");
+          break;
+        case "Legacy":
+          blockPermissions.add("android.permission.READ_EXTERNAL_STORAGE");
+          blockPermissions.add("android.permission.WRITE_EXTERNAL_STORAGE");
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  // The sets of a cached analysis are shared, so they are copied rather than merged into.
+  private void addComponentBlocks(Map<String, Set<String>> blocks) {
+    for (Map.Entry<String, Set<String>> entry : blocks.entrySet()) {
+      Set<String> typeBlocks = componentBlocks.get(entry.getKey());
+      if (typeBlocks == null) {
+        componentBlocks.put(entry.getKey(), new HashSet<>(entry.getValue()));
+      } else {
+        typeBlocks.addAll(entry.getValue());
+      }
+    }
+  }
+
+  private static FormInfo analyzeForm(File file) throws IOException {
+    byte[] content = Files.toByteArray(file);
+    HashCode hash = Hashing.sha1().hashBytes(content);
+    FormInfo form = FORMS.getIfPresent(hash);
+    if (form == null) {
+      form = FormPropertiesAnalyzer.analyzeFormFile(new String(content, Charsets.UTF_8));
+      FORMS.put(hash, form);
+    }
+    return form;
+  }
+
+  private static BlocksInfo analyzeBlocks(File file) throws IOException {
+    byte[] content = Files.toByteArray(file);
+    HashCode hash = Hashing.sha1().hashBytes(content);
+    BlocksInfo blocks = BLOCKS.getIfPresent(hash);
+    if (blocks == null) {
+      blocks = new BlocksInfo(new String(content, Charsets.UTF_8));
+      BLOCKS.put(hash, blocks);
+    }
+    return blocks;
+  }
+
+  /**
+   * In ode code, component names are used to identify a component though the
+   * variables storing component names appear to be "type". While there's no
+   * harm in ode, here in build server, they need to be separated.
+   * This method returns a name-type map, mapping the component names used in
+   * ode to the corresponding type, aka fully qualified name. The type will be
+   * used to build apk.
+   */
+  private static Map<String, String> createNameTypeMap(File assetsDir)
+      throws IOException, JSONException {
+    Map<String, String> nameTypeMap = new HashMap<>(getSimpleComponentTypes());
+
+    File extCompsDir = new File(assetsDir, "external_comps");
+    if (!extCompsDir.exists()) {
+      return nameTypeMap;
+    }
+
+    for (File extCompDir : extCompsDir.listFiles()) {
+      if (!extCompDir.isDirectory()) {
+        continue;
+      }
+
+      File extCompJsonFile = new File(extCompDir, "component.json");
+      if (extCompJsonFile.exists()) {
+        JSONObject extCompJson = new JSONObject(Resources.toString(
+            extCompJsonFile.toURI().toURL(), Charsets.UTF_8));
+        nameTypeMap.put(extCompJson.getString("name"),
+            extCompJson.getString("type"));
+      } else {  // multi-extension package
+        extCompJsonFile = new File(extCompDir, "components.json");
+        if (extCompJsonFile.exists()) {
+          JSONArray extCompJson = new JSONArray(Resources.toString(
+              extCompJsonFile.toURI().toURL(), Charsets.UTF_8));
+          for (int i = 0; i < extCompJson.length(); i++) {
+            JSONObject extCompDescriptor = extCompJson.getJSONObject(i);
+            nameTypeMap.put(extCompDescriptor.getString("name"),
+                extCompDescriptor.getString("type"));
+          }
+        }
+      }
+    }
+
+    return nameTypeMap;
+  }
+
+  private static Map<String, String> getSimpleComponentTypes() throws IOException, JSONException {
+    Map<String, String> types = simpleComponentTypes;
+    if (types == null) {
+      Map<String, String> map = new HashMap<>();
+      JSONArray simpleCompsJson = new JSONArray(Resources.toString(
+          ProjectAnalysis.class.getResource(SIMPLE_COMPONENTS), Charsets.UTF_8));
+      for (int i = 0; i < simpleCompsJson.length(); ++i) {
+        JSONObject simpleCompJson = simpleCompsJson.getJSONObject(i);
+        map.put(simpleCompJson.getString("name"), simpleCompJson.getString("type"));
+      }
+      // Racing builds may both load the map, which is harmless.
+      types = ImmutableMap.copyOf(map);
+      simpleComponentTypes = types;
+    }
+    return types;
+  }
+}
@@ -6,40 +6,29 @@
 
 package com.google.appinventor.buildserver;
 
-import static com.google.appinventor.buildserver.context.Resources.RUNTIME_FILES_DIR;
 import static com.google.appinventor.buildserver.util.ProjectUtils.PROJECT_DIRECTORY;
 
-import com.google.appinventor.buildserver.FormPropertiesAnalyzer.BlockXmlAnalyzer;
-import com.google.appinventor.buildserver.FormPropertiesAnalyzer.ComponentBlocksExtractor;
-import com.google.appinventor.buildserver.FormPropertiesAnalyzer.PermissionBlockExtractor;
-import com.google.appinventor.buildserver.FormPropertiesAnalyzer.ScopeBlockExtractor;
 import com.google.appinventor.buildserver.context.CompilerContext;
+import com.google.appinventor.buildserver.context.ComponentRegistry;
 import com.google.appinventor.buildserver.context.Paths;
 import com.google.appinventor.buildserver.stats.StatReporter;
 import com.google.appinventor.buildserver.tasks.common.BuildFactory;
+import com.google.appinventor.buildserver.util.BuildCache;
 import com.google.appinventor.buildserver.util.Execution;
 
 import com.google.appinventor.buildserver.util.ProjectUtils;
 import com.google.appinventor.common.utils.StringUtils;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.google.common.io.Files;
-import com.google.common.io.Resources;
 
 import java.io.File;
 import java.io.IOException;
 
-import java.nio.charset.StandardCharsets;
-
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -51,10 +40,6 @@ import java.util.zip.ZipFile;
 
 import org.apache.commons.io.FileUtils;
 
-import org.codehaus.jettison.json.JSONArray;
-import org.codehaus.jettison.json.JSONException;
-import org.codehaus.jettison.json.JSONObject;
-
 /**
  * Provides support for building Young Android projects.
  *
@@ -85,8 +70,6 @@ public final class ProjectBuilder {
   private static final String CODEBLOCKS_SOURCE_EXTENSION =
       YoungAndroidConstants.CODEBLOCKS_SOURCE_EXTENSION;
 
-  private static final String ALL_COMPONENT_TYPES = RUNTIME_FILES_DIR + "simple_components.txt";
-
   public File getOutputApk() {
     return outputApk;
   }
@@ -96,9 +79,24 @@ public final class ProjectBuilder {
   }
 
   private final StatReporter statReporter;
+  private final int maxParallelTasks;
+  private final BuildCache buildCache;
 
   public ProjectBuilder(StatReporter statReporter) {
+    this(statReporter, 1, null);
+  }
+
+  /**
+   * Creates a ProjectBuilder.
+   *
+   * @param statReporter the reporter for gathering build stats
+   * @param maxParallelTasks the maximum number of independent build tasks to run at once
+   * @param buildCache the cache of outputs from earlier builds, or null to build from scratch
+   */
+  public ProjectBuilder(StatReporter statReporter, int maxParallelTasks, BuildCache buildCache) {
     this.statReporter = statReporter;
+    this.maxParallelTasks = maxParallelTasks;
+    this.buildCache = buildCache;
   }
 
   Result build(String userName, ZipFile inputZip, File outputDir, String outputFileName,
@@ -139,42 +137,16 @@ public final class ProjectBuilder {
         File buildTmpDir = new File(projectRoot, "build/tmp");
         buildTmpDir.mkdirs();
 
-        Set<String> componentTypes = getComponentTypes(sourceFiles, project.getAssetsDirectory());
+        ProjectAnalysis analysis = ProjectAnalysis.analyze(sourceFiles,
+            project.getAssetsDirectory());
+        Set<String> componentTypes = analysis.getComponentTypes();
         if (isForCompanion) {
-          componentTypes.addAll(getAllComponentTypes());
+          componentTypes.addAll(ComponentRegistry.getBuiltIn().getTypes());
         }
         if (extraExtensions != null) {
           System.err.println("Including extension: " + Arrays.toString(extraExtensions));
           Collections.addAll(componentTypes, extraExtensions);
         }
-        ComponentBlocksExtractor componentBlocksExtractor = new ComponentBlocksExtractor();
-        PermissionBlockExtractor permissionBlockExtractor = new PermissionBlockExtractor();
-        ScopeBlockExtractor scopeBlockExtractor = new ScopeBlockExtractor();
-        analyzeBlockFiles(sourceFiles, componentBlocksExtractor, permissionBlockExtractor,
-            scopeBlockExtractor);
-        Map<String, Set<String>> componentBlocks = componentBlocksExtractor.getResult();
-        Map<String, Set<String>> componentProperties = getComponentDesignerProperties(sourceFiles);
-        mergeMaps(componentBlocks, componentProperties);
-        Set<String> extraPermissions = permissionBlockExtractor.getResult();
-        Set<String> usedScopes = scopeBlockExtractor.getResult();
-        for (String scope : usedScopes) {
-          switch (scope) {
-            case "Shared":
-              extraPermissions.add("android.permission.READ_MEDIA_AUDIO");
-              extraPermissions.add("android.permission.READ_MEDIA_IMAGES");
-              extraPermissions.add("android.permission.READ_MEDIA_VIDEO");
-              extraPermissions.add("android.permission.READ_EXTERNAL_STORAGE");
-              extraPermissions.add("android.permission.WRITE_EXTERNAL_STORAGE");
-              break;
-            case "Legacy":
-              extraPermissions.add("android.permission.READ_EXTERNAL_STORAGE");
-              extraPermissions.add("android.permission.WRITE_EXTERNAL_STORAGE");
-              break;
-            default:
-              break;
-          }
-        }
-        Map<String, String> formOrientations = getScreenOrientations(sourceFiles);
 
         // Generate the compiler context
         Reporter r = new Reporter(reporter);
@@ -182,9 +154,9 @@ public final class ProjectBuilder {
             new CompilerContext.Builder<Paths, CompilerContext<Paths>>(project, ext)
                 .withClass(factory.getContextClass())
                 .withTypes(componentTypes)
-                .withBlocks(componentBlocks)
-                .withBlockPermissions(extraPermissions)
-                .withFormOrientations(formOrientations)
+                .withBlocks(analysis.getComponentBlocks())
+                .withBlockPermissions(analysis.getBlockPermissions())
+                .withFormOrientations(analysis.getFormOrientations())
                 .withReporter(r)
                 .withStatReporter(statReporter)
                 .withCompanion(isForCompanion)
@@ -192,7 +164,9 @@ public final class ProjectBuilder {
                 .withDangerousPermissions(includeDangerousPermissions)
                 .withKeystore(keyStorePath)
                 .withRam(childProcessRam)
+                .withParallelism(maxParallelTasks)
                 .withCache(dexCachePath)
+                .withBuildCache(buildCache)
                 .withOutput(outputFileName)
                 .build();
 
@@ -245,145 +219,6 @@ public final class ProjectBuilder {
     }
   }
 
-  private static Set<String> getAllComponentTypes() throws IOException {
-    Set<String> compSet = Sets.newHashSet();
-    String[] components = Resources.toString(
-        ProjectBuilder.class.getResource(ALL_COMPONENT_TYPES), Charsets.UTF_8).split("\n");
-    for (String component : components) {
-      compSet.add(component);
-    }
-    return compSet;
-  }
-
-  private static Map<String, String> getScreenOrientations(List<String> files)
-      throws IOException, JSONException {
-    Map<String, String> result = new HashMap<>();
-    final int extLength = FORM_PROPERTIES_EXTENSION.length();
-    for (String f : files) {
-      if (f.endsWith(FORM_PROPERTIES_EXTENSION)) {
-        File scmFile = new File(f);
-        String scmContent = new String(Files.toByteArray(scmFile),
-            StandardCharsets.UTF_8);
-        String formName = f.substring(f.lastIndexOf(SEPARATOR) + 1, f.length() - extLength);
-        result.put(formName, FormPropertiesAnalyzer.getFormOrientation(scmContent));
-      }
-    }
-    return result;
-  }
-
-  private static Set<String> getComponentTypes(List<String> files, File assetsDir)
-      throws IOException, JSONException {
-    Map<String, String> nameTypeMap = createNameTypeMap(assetsDir);
-
-    Set<String> componentTypes = Sets.newHashSet();
-    for (String f : files) {
-      if (f.endsWith(".scm")) {
-        File scmFile = new File(f);
-        String scmContent = new String(Files.toByteArray(scmFile),
-            PathUtil.DEFAULT_CHARSET);
-        for (String compName : getTypesFromScm(scmContent)) {
-          componentTypes.add(nameTypeMap.get(compName));
-        }
-      }
-    }
-    return componentTypes;
-  }
-
-  private static void analyzeBlockFiles(List<String> files, BlockXmlAnalyzer<?>... analyzers)
-      throws IOException {
-    for (String f : files) {
-      if (f.endsWith(".bky")) {
-        File bkyFile = new File(f);
-        String bkyContent = Files.toString(bkyFile, StandardCharsets.UTF_8);
-        FormPropertiesAnalyzer.analyzeBlocks(bkyContent, analyzers);
-      }
-    }
-  }
-
-  /**
-   * Constructs a mapping of component types to the blocks of each type used in
-   * the project files. Properties specified in the designer are considered
-   * blocks for the purposes of this operation.
-   *
-   * @param files A list of files contained in the project.
-   * @return A mapping of component type names to sets of block names used in
-   *         the project
-   * @throws IOException if any of the files named in {@code files} cannot be
-   *                     read
-   */
-  private static Map<String, Set<String>> getComponentDesignerProperties(List<String> files)
-      throws IOException {
-    Map<String, Set<String>> result = new HashMap<>();
-    for (String f : files) {
-      if (f.endsWith(".scm")) {
-        File scmFile = new File(f);
-        String scmContent = Files.toString(scmFile, StandardCharsets.UTF_8);
-        for (Map.Entry<String, Set<String>> entry :
-            FormPropertiesAnalyzer.getComponentBlocksFromSchemeFile(scmContent).entrySet()) {
-          if (result.containsKey(entry.getKey())) {
-            result.get(entry.getKey()).addAll(entry.getValue());
-          } else {
-            result.put(entry.getKey(), entry.getValue());
-          }
-        }
-      }
-    }
-    return result;
-  }
-
-  /**
-   * In ode code, component names are used to identify a component though the
-   * variables storing component names appear to be "type". While there's no
-   * harm in ode, here in build server, they need to be separated.
-   * This method returns a name-type map, mapping the component names used in
-   * ode to the corresponding type, aka fully qualified name. The type will be
-   * used to build apk.
-   */
-  private static Map<String, String> createNameTypeMap(File assetsDir)
-      throws IOException, JSONException {
-    Map<String, String> nameTypeMap = Maps.newHashMap();
-
-    JSONArray simpleCompsJson = new JSONArray(Resources.toString(ProjectBuilder.
-        class.getResource("/files/simple_components.json"), Charsets.UTF_8));
-    for (int i = 0; i < simpleCompsJson.length(); ++i) {
-      JSONObject simpleCompJson = simpleCompsJson.getJSONObject(i);
-      nameTypeMap.put(simpleCompJson.getString("name"),
-          simpleCompJson.getString("type"));
-    }
-
-    File extCompsDir = new File(assetsDir, "external_comps");
-    if (!extCompsDir.exists()) {
-      return nameTypeMap;
-    }
-
-    for (File extCompDir : extCompsDir.listFiles()) {
-      if (!extCompDir.isDirectory()) {
-        continue;
-      }
-
-      File extCompJsonFile = new File(extCompDir, "component.json");
-      if (extCompJsonFile.exists()) {
-        JSONObject extCompJson = new JSONObject(Resources.toString(
-            extCompJsonFile.toURI().toURL(), Charsets.UTF_8));
-        nameTypeMap.put(extCompJson.getString("name"),
-            extCompJson.getString("type"));
-      } else {  // multi-extension package
-        extCompJsonFile = new File(extCompDir, "components.json");
-        if (extCompJsonFile.exists()) {
-          JSONArray extCompJson = new JSONArray(Resources.toString(
-              extCompJsonFile.toURI().toURL(), Charsets.UTF_8));
-          for (int i = 0; i < extCompJson.length(); i++) {
-            JSONObject extCompDescriptor = extCompJson.getJSONObject(i);
-            nameTypeMap.put(extCompDescriptor.getString("name"),
-                extCompDescriptor.getString("type"));
-          }
-        }
-      }
-    }
-
-    return nameTypeMap;
-  }
-
   static String createKeyStore(String userName, File projectRoot, String keystoreFileName)
       throws IOException {
     File keyStoreFile = new File(projectRoot.getPath(), keystoreFileName);
@@ -414,11 +249,6 @@ public final class ProjectBuilder {
     return null;
   }
 
-  @VisibleForTesting
-  static Set<String> getTypesFromScm(String scm) {
-    return FormPropertiesAnalyzer.getComponentTypesFromFormFile(scm);
-  }
-
   @VisibleForTesting
   static String processCompilerOutput(String output, String srcPath) {
     // First, remove references to the temp source directory from the messages.
@@ -517,16 +347,4 @@ public final class ProjectBuilder {
     sb.append('"');
     return sb.toString();
   }
-
-  private static void mergeMaps(Map<String, Set<String>> dest, Map<String, Set<String>> src) {
-    for (Map.Entry<String, Set<String>> entry : src.entrySet()) {
-      String key = entry.getKey();
-      Set<String> value = entry.getValue();
-      if (dest.containsKey(key)) {
-        dest.get(key).addAll(value);
-      } else {
-        dest.put(key, value);
-      }
-    }
-  }
 }
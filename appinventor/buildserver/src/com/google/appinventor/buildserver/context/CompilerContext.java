@@ -6,16 +6,17 @@
 
 package com.google.appinventor.buildserver.context;
 
+import com.google.appinventor.buildserver.Compiler;
 import com.google.appinventor.buildserver.Project;
 import com.google.appinventor.buildserver.Reporter;
 import com.google.appinventor.buildserver.stats.StatReporter;
+import com.google.appinventor.buildserver.util.BuildCache;
 
 import java.io.File;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.codehaus.jettison.json.JSONArray;
 
 public class CompilerContext<P extends Paths> {
   Project project;
@@ -35,12 +36,14 @@ public class CompilerContext<P extends Paths> {
   boolean includeDangerousPermissions;
   String keystoreFilePath;
   int childProcessRam;
+  int parallelism;
   String dexCacheDir;
+  BuildCache buildCache;
+  Compiler<?, ?> compiler;
   String outputFileName;
 
-  JSONArray simpleCompsBuildInfo;
-  JSONArray extCompsBuildInfo;
-  JSONArray buildInfo;
+  ComponentRegistry simpleComponents;
+  ComponentRegistry extComponents;
   Set<String> simpleCompTypes;  // types needed by the project
   Set<String> extCompTypes; // types needed by the project
 
@@ -64,7 +67,9 @@ public class CompilerContext<P extends Paths> {
     private boolean includeDangerousPermissions = false;
     private String keystoreFilePath;
     private int childProcessRam = 2048;
+    private int parallelism = 1;
     private String dexCacheDir = null;
+    private BuildCache buildCache = null;
     private String outputFileName = null;
 
     private Class<? extends T> clazz;
@@ -129,11 +134,29 @@ public class CompilerContext<P extends Paths> {
       return this;
     }
 
+    /**
+     * Sets the maximum number of independent tasks that the compiler may run at the same time.
+     * A value of 1 runs all tasks sequentially.
+     */
+    public Builder<R, T> withParallelism(int parallelism) {
+      this.parallelism = parallelism;
+      return this;
+    }
+
     public Builder<R, T> withCache(String dexCacheDir) {
       this.dexCacheDir = dexCacheDir;
       return this;
     }
 
+    /**
+     * Sets the cache used to reuse the outputs of build stages whose inputs have not changed
+     * since an earlier build. A null cache disables reuse.
+     */
+    public Builder<R, T> withBuildCache(BuildCache buildCache) {
+      this.buildCache = buildCache;
+      return this;
+    }
+
     public Builder<R, T> withOutput(String outputFileName) {
       this.outputFileName = outputFileName;
       return this;
@@ -180,8 +203,10 @@ public class CompilerContext<P extends Paths> {
       context.includeDangerousPermissions = includeDangerousPermissions;
       context.keystoreFilePath = keystoreFilePath;
       context.dexCacheDir = dexCacheDir;
+      context.buildCache = buildCache;
       context.outputFileName = outputFileName;
       context.childProcessRam = childProcessRam;
+      context.parallelism = parallelism;
 
       context.paths.setOutputFileName(outputFileName);
       if (project != null) {  // For testing only!
@@ -192,7 +217,8 @@ public class CompilerContext<P extends Paths> {
       context.resources = new Resources();
       context.componentInfo = new ComponentInfo();
 
-      context.extTypePathCache = new HashMap<>();
+      // Tasks running concurrently may resolve extension paths at the same time
+      context.extTypePathCache = new ConcurrentHashMap<>();
 
       System.out.println(this);
 
@@ -256,28 +282,41 @@ public class CompilerContext<P extends Paths> {
     return childProcessRam;
   }
 
+  public int getParallelism() {
+    return parallelism;
+  }
+
   public String getDexCacheDir() {
     return dexCacheDir;
   }
 
-  public String getOutputFileName() {
-    return outputFileName;
+  public BuildCache getBuildCache() {
+    return buildCache;
   }
 
-  public JSONArray getBuildInfo() {
-    return buildInfo;
+  public String getOutputFileName() {
+    return outputFileName;
   }
 
-  public void setBuildInfo(JSONArray buildInfo) {
-    this.buildInfo = buildInfo;
+  public ComponentRegistry getSimpleComponents() {
+    return simpleComponents;
   }
 
-  public JSONArray getSimpleCompsBuildInfo() {
-    return simpleCompsBuildInfo;
+  public ComponentRegistry getExtComponents() {
+    return extComponents;
   }
 
-  public JSONArray getExtCompsBuildInfo() {
-    return extCompsBuildInfo;
+  /**
+   * Returns the build information of a component type used by the project,
+   * or null if there is none.
+   */
+  public ComponentRegistry.Component getComponent(String type) {
+    if (extCompTypes.contains(type)) {
+      return extComponents.get(type);
+    } else if (simpleCompTypes.contains(type)) {
+      return simpleComponents.get(type);
+    }
+    return null;
   }
 
   public Set<String> getSimpleCompTypes() {
@@ -292,12 +331,12 @@ public class CompilerContext<P extends Paths> {
     return paths;
   }
 
-  public void setSimpleCompsBuildInfo(JSONArray simpleCompsBuildInfo) {
-    this.simpleCompsBuildInfo = simpleCompsBuildInfo;
+  public void setSimpleComponents(ComponentRegistry simpleComponents) {
+    this.simpleComponents = simpleComponents;
   }
 
-  public void setExtCompsBuildInfo(JSONArray extCompsBuildInfo) {
-    this.extCompsBuildInfo = extCompsBuildInfo;
+  public void setExtComponents(ComponentRegistry extComponents) {
+    this.extComponents = extComponents;
   }
 
   public void setSimpleCompTypes(Set<String> simpleCompTypes) {
@@ -308,6 +347,26 @@ public class CompilerContext<P extends Paths> {
     this.extCompTypes = extCompTypes;
   }
 
+  /**
+   * Sets the compiler running the build, which identifies the build to the stat reporter.
+   */
+  public void setCompiler(Compiler<?, ?> compiler) {
+    this.compiler = compiler;
+  }
+
+  /**
+   * Records the time spent in part of a task, such as dexing one library, as a stage of the
+   * build. Parts of a task may overlap and run on other threads.
+   *
+   * @param stage the name of the stage
+   * @param duration the time spent in the stage, in milliseconds
+   */
+  public void recordStat(String stage, long duration) {
+    if (statReporter != null && compiler != null) {
+      statReporter.stageCompleted(compiler, stage, duration);
+    }
+  }
+
   public String getResource(String resource) {
     return resources.getResource(resource);
   }
@@ -345,10 +404,11 @@ public class CompilerContext<P extends Paths> {
         + ", includeDangerousPermissions=" + includeDangerousPermissions
         + ", keystoreFilePath='" + keystoreFilePath + '\''
         + ", childProcessRam=" + childProcessRam
+        + ", parallelism=" + parallelism
         + ", dexCacheDir='" + dexCacheDir + '\''
         + ", outputFileName='" + outputFileName + '\''
-        + ", simpleCompsBuildInfo=" + simpleCompsBuildInfo
-        + ", extCompsBuildInfo=" + extCompsBuildInfo
+        + ", simpleComponents=" + simpleComponents
+        + ", extComponents=" + extComponents
         + ", simpleCompTypes=" + simpleCompTypes
         + ", extCompTypes=" + extCompTypes
         + ", extTypePathCache=" + extTypePathCache
@@ -0,0 +1,304 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver.context;
+
+import com.google.appinventor.buildserver.Compiler;
+import com.google.appinventor.components.common.ComponentDescriptorConstants;
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.codehaus.jettison.json.JSONTokener;
+
+/**
+ * The build information of a set of components, as written to
+ * component_build_info.json by the annotation processor, indexed by
+ * component type.
+ *
+ * <p>Registries are immutable and shared by concurrent builds. The registry
+ * of the built-in components is parsed once per process, and the registries
+ * of extensions are kept by the hash of their build info so that builds of
+ * projects using the same extension don't parse it again.</p>
+ */
+public final class ComponentRegistry {
+  private static final String COMP_BUILD_INFO = Resources.RUNTIME_FILES_DIR
+      + "simple_components_build_info.json";
+  private static final String SUPPORT_AARS = Resources.RUNTIME_FILES_DIR + "aars.txt";
+  private static final String SUPPORT_JARS = Resources.RUNTIME_FILES_DIR + "jars.txt";
+
+  private static final Object BUILT_IN_LOCK = new Object();
+  private static volatile ComponentRegistry builtIn;
+
+  // Extension registries keyed by the hash of their build info.
+  private static final Cache<String, ComponentRegistry> EXTENSIONS = CacheBuilder.newBuilder()
+      .maximumSize(1024)
+      .build();
+
+  /**
+   * The build information of one component type.
+   */
+  public static final class Component {
+    private final String type;
+    private final ImmutableMap<String, ImmutableSet<String>> infos;
+    private final ImmutableMap<String, ImmutableMap<String, Set<String>>> conditionals;
+    private final JSONObject json;
+
+    private Component(JSONObject json) throws JSONException {
+      this.type = json.getString("type");
+      this.json = json;
+
+      ImmutableMap.Builder<String, ImmutableSet<String>> infos = ImmutableMap.builder();
+      Iterator<?> keys = json.keys();
+      while (keys.hasNext()) {
+        String key = (String) keys.next();
+        JSONArray array = json.optJSONArray(key);
+        if (array != null) {
+          ImmutableSet.Builder<String> values = ImmutableSet.builder();
+          for (int i = 0; i < array.length(); i++) {
+            String value = array.getString(i);
+            if (!value.isEmpty()) {
+              values.add(value);
+            }
+          }
+          infos.put(key, values.build());
+        }
+      }
+      this.infos = infos.build();
+
+      ImmutableMap.Builder<String, ImmutableMap<String, Set<String>>> conditionals =
+          ImmutableMap.builder();
+      JSONObject conditionalsJson = json.optJSONObject(
+          ComponentDescriptorConstants.CONDITIONALS_TARGET);
+      if (conditionalsJson != null) {
+        keys = conditionalsJson.keys();
+        while (keys.hasNext()) {
+          String target = (String) keys.next();
+          JSONObject blocksJson = conditionalsJson.optJSONObject(target);
+          if (blocksJson == null
+              || ComponentDescriptorConstants.PERMISSION_CONSTRAINTS_TARGET.equals(target)) {
+            continue;
+          }
+          ImmutableMap.Builder<String, Set<String>> blocks = ImmutableMap.builder();
+          Iterator<?> blockNames = blocksJson.keys();
+          while (blockNames.hasNext()) {
+            String blockName = (String) blockNames.next();
+            JSONArray array = blocksJson.optJSONArray(blockName);
+            ImmutableSet.Builder<String> values = ImmutableSet.builder();
+            for (int i = 0; array != null && i < array.length(); i++) {
+              values.add(array.optString(i));
+            }
+            blocks.put(blockName, values.build());
+          }
+          conditionals.put(target, blocks.build());
+        }
+      }
+      this.conditionals = conditionals.build();
+    }
+
+    /**
+     * Returns the fully qualified type of the component.
+     */
+    public String getType() {
+      return type;
+    }
+
+    /**
+     * Returns the non-empty values the component declares for an annotation
+     * target, such as {@link ComponentDescriptorConstants#PERMISSIONS_TARGET}.
+     *
+     * @param target the annotation target
+     * @return the values, or null if the component doesn't specify the target
+     */
+    public Set<String> getInfo(String target) {
+      return infos.get(target);
+    }
+
+    /**
+     * Returns the values the component needs for an annotation target when
+     * particular blocks are used.
+     *
+     * @param target the annotation target
+     * @return a map from block names to values, or null if there are none
+     */
+    public Map<String, Set<String>> getConditionals(String target) {
+      return conditionals.get(target);
+    }
+
+    /**
+     * Returns the declared permission constraints of the component, or null.
+     * The returned object must not be modified.
+     */
+    public JSONObject getPermissionConstraints() {
+      return json.optJSONObject(ComponentDescriptorConstants.PERMISSION_CONSTRAINTS_TARGET);
+    }
+
+    /**
+     * Returns the permission constraints of the component that apply when
+     * particular blocks are used, keyed by block name, or null. The returned
+     * object must not be modified.
+     */
+    public JSONObject getConditionalPermissionConstraints() {
+      JSONObject conditionalsJson = json.optJSONObject(
+          ComponentDescriptorConstants.CONDITIONALS_TARGET);
+      return conditionalsJson == null ? null : conditionalsJson.optJSONObject(
+          ComponentDescriptorConstants.PERMISSION_CONSTRAINTS_TARGET);
+    }
+  }
+
+  private final ImmutableMap<String, Component> components;
+  private final ImmutableList<String> supportAars;
+  private final ImmutableList<String> supportJars;
+
+  private ComponentRegistry(ImmutableMap<String, Component> components,
+      ImmutableList<String> supportAars, ImmutableList<String> supportJars) {
+    this.components = components;
+    this.supportAars = supportAars;
+    this.supportJars = supportJars;
+  }
+
+  /**
+   * Returns the registry of the built-in components, loading it on first use.
+   *
+   * @throws IOException if the build info of the components can't be read
+   * @throws JSONException if the build info of the components is malformed
+   */
+  public static ComponentRegistry getBuiltIn() throws IOException, JSONException {
+    ComponentRegistry registry = builtIn;
+    if (registry == null) {
+      synchronized (BUILT_IN_LOCK) {
+        registry = builtIn;
+        if (registry == null) {
+          String json = com.google.common.io.Resources.toString(
+              Objects.requireNonNull(Compiler.class.getResource(COMP_BUILD_INFO)),
+              Charsets.UTF_8);
+          registry = new ComponentRegistry(parse(json), readList(SUPPORT_AARS),
+              readList(SUPPORT_JARS));
+          builtIn = registry;
+        }
+      }
+    }
+    return registry;
+  }
+
+  /**
+   * Returns the registry of the components in an extension.
+   *
+   * @param jsonFile the component_build_info.json or component_build_infos.json
+   *     file of the extension
+   * @throws IOException if the file can't be read
+   * @throws JSONException if the file is malformed
+   */
+  public static ComponentRegistry forExtension(File jsonFile) throws IOException, JSONException {
+    String json = Files.toString(jsonFile, Charsets.UTF_8);
+    String key = Hashing.sha1().hashString(json, Charsets.UTF_8).toString();
+    ComponentRegistry registry = EXTENSIONS.getIfPresent(key);
+    if (registry == null) {
+      registry = new ComponentRegistry(parse(json), ImmutableList.<String>of(),
+          ImmutableList.<String>of());
+      EXTENSIONS.put(key, registry);
+    }
+    return registry;
+  }
+
+  /**
+   * Returns a registry holding the components of all the given registries.
+   * Later registries take precedence.
+   */
+  public static ComponentRegistry merge(Iterable<ComponentRegistry> registries) {
+    Map<String, Component> components = new LinkedHashMap<>();
+    for (ComponentRegistry registry : registries) {
+      components.putAll(registry.components);
+    }
+    return new ComponentRegistry(ImmutableMap.copyOf(components), ImmutableList.<String>of(),
+        ImmutableList.<String>of());
+  }
+
+  /**
+   * Returns the component with the given type, or null if it isn't in this
+   * registry.
+   */
+  public Component get(String type) {
+    return components.get(type);
+  }
+
+  /**
+   * Returns the types of the components in this registry.
+   */
+  public Set<String> getTypes() {
+    return components.keySet();
+  }
+
+  /**
+   * Returns the AAR libraries that every app includes, from aars.txt. Only
+   * the built-in registry has any.
+   */
+  public ImmutableList<String> getSupportAars() {
+    return supportAars;
+  }
+
+  /**
+   * Returns the names of the jar libraries that every app includes, relative
+   * to the runtime files directory, from jars.txt. Only the built-in registry
+   * has any.
+   */
+  public ImmutableList<String> getSupportJars() {
+    return supportJars;
+  }
+
+  @Override
+  public String toString() {
+    return "ComponentRegistry{types=" + components.keySet() + '}';
+  }
+
+  private static ImmutableMap<String, Component> parse(String json) throws JSONException {
+    Map<String, Component> components = new LinkedHashMap<>();
+    Object value = new JSONTokener(json).nextValue();
+    if (value instanceof JSONObject) {
+      Component component = new Component((JSONObject) value);
+      components.put(component.getType(), component);
+    } else if (value instanceof JSONArray) {
+      JSONArray infos = (JSONArray) value;
+      for (int i = 0; i < infos.length(); i++) {
+        Component component = new Component(infos.getJSONObject(i));
+        components.put(component.getType(), component);
+      }
+    }
+    return ImmutableMap.copyOf(components);
+  }
+
+  // Reads the lines of a resource up to the first empty line.
+  private static ImmutableList<String> readList(String resource) throws IOException {
+    ImmutableList.Builder<String> lines = ImmutableList.builder();
+    InputStream stream = Compiler.class.getResourceAsStream(resource);
+    if (stream == null) {
+      throw new IOException("Missing resource " + resource);
+    }
+    try (BufferedReader in = new BufferedReader(new InputStreamReader(stream))) {
+      String line;
+      while ((line = in.readLine()) != null && !line.isEmpty()) {
+        lines.add(line);
+      }
+    }
+    return lines.build();
+  }
+}
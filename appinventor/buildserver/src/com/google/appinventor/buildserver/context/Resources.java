@@ -7,7 +7,6 @@ package com.google.appinventor.buildserver.context;
 
 import com.google.appinventor.buildserver.Compiler;
 import com.google.appinventor.buildserver.PathUtil;
-import com.google.common.base.Charsets;
 import com.google.common.io.Files;
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -45,8 +44,6 @@ public class Resources {
   public static final String YAIL_RUNTIME = RUNTIME_FILES_DIR + "runtime.scm";
   private static final String DEFAULT_ICON = RUNTIME_FILES_DIR + "ya.png";
 
-  private static final String COMP_BUILD_INFO = RUNTIME_FILES_DIR
-      + "simple_components_build_info.json";
   private static final String BUNDLETOOL_JAR = RUNTIME_TOOLS_DIR + "bundletool.jar";
 
   public Resources() {
@@ -174,21 +171,6 @@ public class Resources {
     return ImageIO.read(Objects.requireNonNull(Compiler.class.getResource(DEFAULT_ICON)));
   }
 
-  /**
-   * Get the component build info.
-   *
-   * @return the build info for the built-in components
-   */
-  public String getCompBuildInfo() {
-    try {
-      return com.google.common.io.Resources.toString(
-          Objects.requireNonNull(Resources.class.getResource(COMP_BUILD_INFO)),
-          Charsets.UTF_8);
-    } catch (IOException e) {
-      return null;
-    }
-  }
-
   /**
    * Get the path to the aapt executable for the current platform.
    *
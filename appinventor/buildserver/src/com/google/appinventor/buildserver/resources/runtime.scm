@@ -103,6 +103,7 @@
          (SimplePropertyUtil:copyComponentProperties existing-component component-to-add))))))
 
 (define-alias SimpleForm <com.google.appinventor.components.runtime.Form>)
+(define-alias ComponentMethodCache <com.google.appinventor.components.runtime.util.ComponentMethodCache>)
 (define-alias TypeUtil <com.google.appinventor.components.runtime.util.TypeUtil>)
 
 (define (call-Initialize-of-components . component-names)
@@ -206,7 +207,7 @@
 ;;; (get-property 'Label1 'Text)
 (define (get-property component prop-name)
   (let ((component (coerce-to-component-and-verify component)))
-    (sanitize-return-value component prop-name (invoke component prop-name))))
+    (sanitize-return-value component prop-name (ComponentMethodCache:invoke component prop-name))))
 
 (define (coerce-to-component-and-verify possible-component)
   (let ((component (coerce-to-component possible-component)))
@@ -225,7 +226,7 @@
                  component-type
                  (*:getSimpleName (*:getClass possible-component)))
          "Problem with application")
-        (sanitize-return-value component prop-name (invoke component prop-name)))))
+        (sanitize-return-value component prop-name (ComponentMethodCache:invoke component prop-name)))))
 
 (define (set-and-coerce-property-and-check! possible-component comp-type prop-sym property-value property-type)
   (let ((component (coerce-to-component-of-type possible-component comp-type)))
@@ -1109,10 +1110,7 @@
     (let ((result
            (if (all-coercible? coerced-args)
                (try-catch
-                (apply invoke
-                       `(,component
-                         ,method-name
-                         ,@coerced-args))
+                (apply ComponentMethodCache:invoke component method-name coerced-args)
                 (exception PermissionException
                            (*:dispatchPermissionDeniedEvent (SimpleForm:getActiveForm) component method-name exception)))
                (generate-runtime-type-error method-name arglist))))
@@ -1132,11 +1130,8 @@
                         Object:class)))
     (if (all-coercible? coerced-args)
         (try-catch
-         (apply invoke
-                `(,component
-                  ,method-name
-                  ,@coerced-args
-                  ,continuation))
+         (apply ComponentMethodCache:invoke component method-name
+                `(,@coerced-args ,continuation))
          (exception PermissionException
            (*:dispatchPermissionDeniedEvent (SimpleForm:getActiveForm) component method-name exception)))
       (generate-runtime-type-error method-name arglist))))
@@ -1174,10 +1169,7 @@
                                      (list (get-display-representation possible-component)))
         (let ((result
                (if (all-coercible? coerced-args)
-                   (apply invoke
-                          `(,component-value
-                            ,method-name
-                            ,@coerced-args))
+                   (apply ComponentMethodCache:invoke component-value method-name coerced-args)
                    (generate-runtime-type-error method-name arglist))))
           ;; TODO(markf): this should probably be generalized but for now this is OK, I think
           (sanitize-return-value component-value method-name result)))))
@@ -1195,7 +1187,8 @@
                         Object:class)))
     (if (all-coercible? coerced-args)
         (try-catch
-         (apply invoke `(,component-value ,method-name ,@coerced-args ,continuation))
+         (apply ComponentMethodCache:invoke component-value method-name
+                `(,@coerced-args ,continuation))
          (exception PermissionException
            (*:dispatchPermissionDeniedEvent (SimpleForm:getActiveForm) component method-name exception)))
       (generate-runtime-type-error method-name arglist))))
@@ -1414,7 +1407,7 @@
     (android-log (format #f "coerced property value was: ~A " coerced-arg))
     (if (all-coercible? (list coerced-arg))
         (try-catch
-         (invoke comp prop-name coerced-arg)
+         (ComponentMethodCache:invoke comp prop-name coerced-arg)
          (exception PermissionException
                     (*:dispatchPermissionDeniedEvent (SimpleForm:getActiveForm) comp prop-name exception)))
         (generate-runtime-type-error prop-name (list property-value)))))
@@ -2494,8 +2487,11 @@ list, use the make-yail-list constructor with no arguments.
 
 
 ;; Implements the Blocks length operation
+;; YailLists cache their length, other candidates are walked
 (define (yail-list-length yail-list)
-  (length (yail-list-contents yail-list)))
+  (if (instance? yail-list YailList)
+      (*:size (as YailList yail-list))
+      (length (yail-list-contents yail-list))))
 
 ;; These are removed, to simplify the API to lists
 ;; ;; Implements the Blocks first operation
@@ -2540,7 +2536,9 @@ list, use the make-yail-list constructor with no arguments.
                  len
                  (get-display-representation yail-list))
          "Select list item: List index too large")
-    (list-ref (yail-list-contents yail-list) (- index 1)))))
+    (if (instance? yail-list YailList)
+        (*:getObject (as YailList yail-list) (as int (- index 1)))
+        (list-ref (yail-list-contents yail-list) (- index 1))))))
 
 
 ;; Implements the Blocks set list item operation
@@ -2559,7 +2557,9 @@ list, use the make-yail-list constructor with no arguments.
                  len
                  (get-display-representation yail-list))
          "List index too large")))
-  (set-car! (list-tail (yail-list-contents yail-list) (- index 1)) value))
+  (if (instance? yail-list YailList)
+      (*:setObject (as YailList yail-list) (as int (- index 1)) value)
+      (set-car! (list-tail (yail-list-contents yail-list) (- index 1)) value)))
 
 
 
@@ -2590,8 +2590,10 @@ list, use the make-yail-list constructor with no arguments.
                    len
                    (get-display-representation yail-list))
            "List index too large"))
-      (let ((pair-pointing-to-deletion (list-tail yail-list (- index2 1))))
-        (set-cdr! pair-pointing-to-deletion (cddr pair-pointing-to-deletion))))))
+      (if (instance? yail-list YailList)
+          (*:removeObject (as YailList yail-list) (as int (- index2 1)))
+          (let ((pair-pointing-to-deletion (list-tail yail-list (- index2 1))))
+            (set-cdr! pair-pointing-to-deletion (cddr pair-pointing-to-deletion)))))))
 
 
 ;; Implements the Blocks insert list item operation
@@ -2620,11 +2622,13 @@ list, use the make-yail-list constructor with no arguments.
                    (get-display-representation yail-list)
                    len+1)
            "List index too large"))
-      (let ((contents (yail-list-contents yail-list)))
-        (if (= index2 1)
-            (set-yail-list-contents! yail-list (cons item contents))
-            (let ((at-item (list-tail contents (- index2 2))))
-              (set-cdr! at-item (cons item (cdr at-item)))))))))
+      (if (instance? yail-list YailList)
+          (*:insertObject (as YailList yail-list) (as int (- index2 1)) item)
+          (let ((contents (yail-list-contents yail-list)))
+            (if (= index2 1)
+                (set-yail-list-contents! yail-list (cons item contents))
+                (let ((at-item (list-tail contents (- index2 2))))
+                  (set-cdr! at-item (cons item (cdr at-item))))))))))
 
 ;; Extends list A by appending the elements of list B to it
 ;; Modifies list A
@@ -2638,10 +2642,14 @@ list, use the make-yail-list constructor with no arguments.
     (if (null? l)
     '()
     (cons (car l) (list-copy (cdr l)))))
-  ;; We have to operate on the yail-list itself, not the contents, because
-  ;; the contents might be empty
-  (set-cdr! (list-tail yail-list-A (length (yail-list-contents yail-list-A)))
-        (list-copy (yail-list-contents yail-list-B))))
+  ;; YailLists know their last pair, so appending to them does not walk
+  ;; list A
+  (if (and (instance? yail-list-A YailList) (instance? yail-list-B YailList))
+      (*:appendList (as YailList yail-list-A) (as YailList yail-list-B))
+      ;; We have to operate on the yail-list itself, not the contents, because
+      ;; the contents might be empty
+      (set-cdr! (list-tail yail-list-A (length (yail-list-contents yail-list-A)))
+                (list-copy (yail-list-contents yail-list-B)))))
 
 
 ;; Extend list A by appending the items to it
@@ -29,6 +29,16 @@ public interface StatReporter {
    */
   void nextStage(Compiler compiler, String stage);
 
+  /**
+   * Indicate to the StatReporter that a stage of the build has finished. Stages of the same build
+   * may overlap when the compiler runs independent tasks concurrently.
+   *
+   * @param compiler the compilation process in progress
+   * @param stage the stage that finished
+   * @param duration the time spent in the stage, in milliseconds
+   */
+  void stageCompleted(Compiler compiler, String stage, long duration);
+
   /**
    * Indicate to the StatReporter that a build has finished and whether it was successful.
    *
@@ -6,6 +6,9 @@
 package com.google.appinventor.buildserver.tasks.android;
 
 import com.google.appinventor.buildserver.context.AndroidCompilerContext;
+import com.google.appinventor.buildserver.util.BuildCache;
+import java.io.File;
+import java.io.IOException;
 import java.util.Set;
 
 public class AndroidBuildUtils {
@@ -23,4 +26,24 @@ public class AndroidBuildUtils {
     }
     return minSdk;
   }
+
+  /**
+   * Starts a build cache key for a stage that packages the app's resources. The key covers the
+   * tool, the platform library, the manifest, the merged resources and the assets.
+   *
+   * @param context the build context
+   * @param stage the name of the stage
+   * @param tool the path of the tool run by the stage
+   * @return a key to which the stage can add its remaining inputs
+   * @throws IOException if one of the inputs cannot be read
+   */
+  static BuildCache.Key newResourcesKey(AndroidCompilerContext context, String stage,
+      String tool) throws IOException {
+    return context.getBuildCache().newKey(stage)
+        .putLibrary(new File(tool))
+        .putLibrary(new File(context.getResources().getAndroidRuntime()))
+        .putFile(context.getPaths().getManifest())
+        .putTree(context.getPaths().getMergedResDir())
+        .putTree(context.getPaths().getAssetsDir());
+  }
 }
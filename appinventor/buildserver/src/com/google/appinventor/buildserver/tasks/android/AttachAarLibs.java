@@ -6,9 +6,11 @@
 package com.google.appinventor.buildserver.tasks.android;
 
 import com.google.appinventor.buildserver.BuildType;
+import com.google.appinventor.buildserver.DependsOn;
 import com.google.appinventor.buildserver.TaskResult;
 import com.google.appinventor.buildserver.context.AndroidCompilerContext;
 import com.google.appinventor.buildserver.interfaces.AndroidTask;
+import com.google.appinventor.buildserver.tasks.common.LoadComponentInfo;
 import com.google.appinventor.buildserver.util.AARLibraries;
 import com.google.appinventor.buildserver.util.AARLibrary;
 import com.google.appinventor.buildserver.util.ExecutorUtils;
@@ -27,6 +29,7 @@ import java.util.Set;
  */
 
 @BuildType(apk = true, aab = true)
+@DependsOn(LoadComponentInfo.class)
 public class AttachAarLibs implements AndroidTask {
   @Override
   public TaskResult execute(AndroidCompilerContext context) {
@@ -51,10 +54,11 @@ public class AttachAarLibs implements AndroidTask {
           if (libname.endsWith(".aar")) {
             i.remove();
             if (!processedLibs.contains(libname)) {
-              // explode libraries into ${buildDir}/exploded-aars/<package>/
+              // explode libraries into ${buildDir}/exploded-aars/<package>/, reusing the files
+              // of earlier builds from the build cache
               AARLibrary aarLib = new AARLibrary(new File(context.getResource(
                   context.getResources().getRuntimeFilesDir() + libname)));
-              aarLib.unpackToDirectory(explodedBaseDir);
+              aarLib.unpackToDirectory(explodedBaseDir, context.getBuildCache());
               context.getComponentInfo().getExplodedAarLibs().add(aarLib);
               processedLibs.add(libname);
             }
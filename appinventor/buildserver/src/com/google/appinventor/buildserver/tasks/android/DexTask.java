@@ -14,20 +14,20 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 public abstract class DexTask {
   /**
    * Maps JAR file references to their precomputed hash code representing the target dex file
-   * created during pre-dexing.
+   * created during pre-dexing. Libraries are pre-dexed concurrently, so the map is concurrent.
    */
-  static final Map<File, String> PREDEX_CACHE = new HashMap<>();
+  static final Map<File, String> PREDEX_CACHE = new ConcurrentHashMap<>();
 
   /**
    * Retrieves the set of critical JARs in the build context.
@@ -6,6 +6,7 @@
 package com.google.appinventor.buildserver.tasks.android;
 
 import com.google.appinventor.buildserver.BuildType;
+import com.google.appinventor.buildserver.DependsOn;
 import com.google.appinventor.buildserver.Project;
 import com.google.appinventor.buildserver.Signatures;
 import com.google.appinventor.buildserver.TaskResult;
@@ -14,10 +15,15 @@ import com.google.appinventor.buildserver.context.AndroidCompilerContext;
 import com.google.appinventor.buildserver.context.AndroidPaths;
 import com.google.appinventor.buildserver.context.CompilerContext;
 import com.google.appinventor.buildserver.interfaces.AndroidTask;
+import com.google.appinventor.buildserver.util.AARLibraries;
+import com.google.appinventor.buildserver.util.AARLibrary;
+import com.google.appinventor.buildserver.util.BuildCache;
 import com.google.appinventor.buildserver.util.Execution;
 import com.google.appinventor.buildserver.util.ExecutorUtils;
+import com.google.appinventor.buildserver.util.KawaCompilerPool;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import com.google.common.io.Files;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -25,16 +31,29 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.io.FileUtils;
+
 /**
  * Compiles screen source files written in YAIL to Java class files.
  */
 @BuildType(apk = true, aab = true)
+@DependsOn({AttachAarLibs.class, RunAapt.class, RunAapt2.class})
 public class GenerateClasses implements AndroidTask {
+  // Name of the single output of the build cache entries written by this task.
+  private static final String CLASSES = "classes";
+
+  // Directory of the classes compiled from runtime.scm, relative to the classes directory.
+  private static final String RUNTIME_CLASSES_PREFIX = "com/google/youngandroid/";
+
   CompilerContext<AndroidPaths> context;
 
   @Override
@@ -152,35 +171,93 @@ public class GenerateClasses implements AndroidTask {
       context.getReporter().info("Libraries Classpath = " + classpath);
 
       String yailRuntime = context.getResources().getYailRuntime();
-      List<String> kawaCommandArgs = Lists.newArrayList();
+      String packageName = Signatures.getPackageName(context.getProject().getMainClass());
+      File classesDir = context.getPaths().getClassesDir();
+
+      // Restore the classes of the runtime and of any screen whose YAIL is unchanged since an
+      // earlier build, and only compile the rest.
+      BuildCache cache = context.getBuildCache();
+      BuildCache.Key runtimeKey = null;
+      Map<String, BuildCache.Key> screenKeys = new LinkedHashMap<>();
+      Set<String> restoredFiles = new HashSet<>();
+      boolean compileRuntime = true;
+      List<String> screensToCompile = sourceFileNames;
+      if (cache != null) {
+        String compilerInputs = hashCompilerInputs(cache, classpath.toString(), yailRuntime);
+        runtimeKey = cache.newKey("kawa-runtime").putString(compilerInputs);
+        compileRuntime = !cache.restore(runtimeKey,
+            Collections.singletonMap(CLASSES, classesDir));
+        screensToCompile = new ArrayList<>();
+        for (String sourceFileName : sourceFileNames) {
+          BuildCache.Key key = cache.newKey("kawa-screen")
+              .putString(compilerInputs)
+              .putString(packageName)
+              .putString(new File(sourceFileName).getName())
+              .putFile(new File(sourceFileName));
+          if (!cache.restore(key, Collections.singletonMap(CLASSES, classesDir))) {
+            screensToCompile.add(sourceFileName);
+            screenKeys.put(sourceFileName, key);
+          }
+        }
+        listFiles(classesDir, "", restoredFiles);
+        context.getReporter().info("Screens restored from build cache: "
+            + (sourceFileNames.size() - screensToCompile.size()) + " of "
+            + sourceFileNames.size());
+      }
+      if (!compileRuntime && screensToCompile.isEmpty()) {
+        return TaskResult.generateSuccess();
+      }
+
       int mx = context.getChildProcessRam() - 200;
-      Collections.addAll(kawaCommandArgs,
-          System.getProperty("java.home") + "/bin/java",
-          "-Dfile.encoding=UTF-8",
-          "-mx" + mx + "M",
-          "-cp", classpath.toString(),
-          "kawa.repl",
-          "-f", yailRuntime,
-          "-d", context.getPaths().getClassesDir().getAbsolutePath(),
-          "-P", Signatures.getPackageName(context.getProject().getMainClass()) + ".",
+      KawaCompilerPool pool = KawaCompilerPool.getInstance();
+      List<String> compileArgs = Lists.newArrayList();
+      Collections.addAll(compileArgs,
+          "-d", classesDir.getAbsolutePath(),
+          "-P", packageName + ".",
           "-C");
       // TODO(lizlooney) - we are currently using (and have always used) absolute paths for the
       // source file names. The resulting .class files contain references to the source file names,
       // including the name of the tmp directory that contains them. We may be able to avoid that
       // by using source file names that are relative to the project root and using the project
       // root as the working directory for the Kawa compiler process.
-      kawaCommandArgs.addAll(sourceFileNames);
-      kawaCommandArgs.add(yailRuntime);
-      String[] kawaCommandLine = kawaCommandArgs.toArray(new String[0]);
+      compileArgs.addAll(screensToCompile);
+      // The runtime is always loaded with -f, but its classes may have come from the cache.
+      if (compileRuntime) {
+        if (pool != null) {
+          // A resident compiler remembers every source path it has compiled, so give it a private
+          // copy of runtime.scm to compile into this build's classes directory.
+          File runtimeCopy = new File(context.getPaths().getTmpDir(), "runtime.scm");
+          Files.copy(new File(yailRuntime), runtimeCopy);
+          compileArgs.add(runtimeCopy.getAbsolutePath());
+        } else {
+          compileArgs.add(yailRuntime);
+        }
+      }
 
       // Capture Kawa compiler stderr. The ODE server parses out the warnings and errors and adds
       // them to the protocol buffer for logging purposes. (See
       // buildserver/ProjectBuilder.processCompilerOutout.
       ByteArrayOutputStream kawaOutputStream = new ByteArrayOutputStream();
       boolean kawaSuccess;
-      synchronized (context.getResources().getSyncKawaOrDx()) {
-        kawaSuccess = Execution.execute(null, kawaCommandLine,
-            System.out, new PrintStream(kawaOutputStream));
+      if (pool != null) {
+        // The pool bounds the number of concurrent compilers, so the global lock is not needed.
+        kawaSuccess = pool.compile(classpath.toString(), mx, yailRuntime, compileArgs,
+            new PrintStream(kawaOutputStream));
+      } else {
+        List<String> kawaCommandArgs = Lists.newArrayList();
+        Collections.addAll(kawaCommandArgs,
+            System.getProperty("java.home") + "/bin/java",
+            "-Dfile.encoding=UTF-8",
+            "-mx" + mx + "M",
+            "-cp", classpath.toString(),
+            "kawa.repl",
+            "-f", yailRuntime);
+        kawaCommandArgs.addAll(compileArgs);
+        String[] kawaCommandLine = kawaCommandArgs.toArray(new String[0]);
+        synchronized (context.getResources().getSyncKawaOrDx()) {
+          kawaSuccess = Execution.execute(null, kawaCommandLine,
+              System.out, new PrintStream(kawaOutputStream));
+        }
       }
       if (!kawaSuccess) {
         context.getReporter().error("Kawa compile has failed.", true);
@@ -198,25 +275,143 @@ public class GenerateClasses implements AndroidTask {
           return TaskResult.generateError("Can't find class file for Screen '" + screenName + "'");
         }
       }
+
+      if (cache != null && kawaSuccess) {
+        storeCompiledClasses(cache, restoredFiles, screenKeys, compileRuntime ? runtimeKey : null);
+      }
     } catch (IOException e) {
       return TaskResult.generateError(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return TaskResult.generateError(e);
     }
 
     return TaskResult.generateSuccess();
   }
 
+  /**
+   * Hashes the inputs shared by all Kawa compilations of this build: the contents of the class
+   * path and of the YAIL runtime.
+   */
+  private static String hashCompilerInputs(BuildCache cache, String classpath,
+      String yailRuntime) throws IOException {
+    BuildCache.Key key = cache.newKey("kawa");
+    for (String element : classpath.split(File.pathSeparator)) {
+      key.putLibrary(new File(element));
+    }
+    return key.putFile(new File(yailRuntime)).getName();
+  }
+
+  /**
+   * Stores the classes compiled in this build in the build cache. The classes of a screen are
+   * the class named after it and its inner classes, and the classes of the runtime live in their
+   * own package. If Kawa produced any other class, the outputs cannot be attributed reliably and
+   * nothing is stored.
+   *
+   * @param cache the build cache
+   * @param existingFiles the files in the classes directory before the compilation
+   * @param screenKeys the keys of the compiled screens, by source file name
+   * @param runtimeKey the key of the runtime, or null if the runtime was restored from the cache
+   */
+  private void storeCompiledClasses(BuildCache cache, Set<String> existingFiles,
+      Map<String, BuildCache.Key> screenKeys, BuildCache.Key runtimeKey) throws IOException {
+    File classesDir = context.getPaths().getClassesDir();
+    Set<String> compiledFiles = new HashSet<>();
+    listFiles(classesDir, "", compiledFiles);
+    compiledFiles.removeAll(existingFiles);
+
+    String packagePath = Signatures.getPackageName(context.getProject().getMainClass())
+        .replace('.', '/') + "/";
+    Map<BuildCache.Key, List<String>> outputs = new LinkedHashMap<>();
+    for (Map.Entry<String, BuildCache.Key> screen : screenKeys.entrySet()) {
+      String screenName = Files.getNameWithoutExtension(screen.getKey());
+      List<String> screenFiles = new ArrayList<>();
+      for (String path : compiledFiles) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        if (path.equals(packagePath + name)
+            && (name.equals(screenName + ".class") || name.startsWith(screenName + "$"))) {
+          screenFiles.add(path);
+        }
+      }
+      compiledFiles.removeAll(screenFiles);
+      outputs.put(screen.getValue(), screenFiles);
+    }
+    if (runtimeKey != null) {
+      List<String> runtimeFiles = new ArrayList<>();
+      for (String path : compiledFiles) {
+        if (path.startsWith(RUNTIME_CLASSES_PREFIX)) {
+          runtimeFiles.add(path);
+        }
+      }
+      compiledFiles.removeAll(runtimeFiles);
+      outputs.put(runtimeKey, runtimeFiles);
+    }
+    if (!compiledFiles.isEmpty()) {
+      context.getReporter().info("Not caching classes, unexpected output: " + compiledFiles);
+      return;
+    }
+
+    File stagingRoot = new File(context.getPaths().getTmpDir(), "buildcache");
+    int index = 0;
+    for (Map.Entry<BuildCache.Key, List<String>> output : outputs.entrySet()) {
+      File staging = new File(stagingRoot, Integer.toString(index++));
+      for (String path : output.getValue()) {
+        File target = new File(staging, path);
+        Files.createParentDirs(target);
+        Files.copy(new File(classesDir, path), target);
+      }
+      cache.store(output.getKey(), Collections.singletonMap(CLASSES, staging));
+    }
+  }
+
+  private static void listFiles(File dir, String prefix, Set<String> paths) {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        listFiles(child, prefix + child.getName() + "/", paths);
+      } else {
+        paths.add(prefix + child.getName());
+      }
+    }
+  }
+
   @VisibleForTesting
   boolean compileRClasses() {
-    if (context.getComponentInfo().getExplodedAarLibs().isEmpty()) {
+    AARLibraries libraries = context.getComponentInfo().getExplodedAarLibs();
+    if (libraries.isEmpty()) {
       return true;  // nothing to see here
     }
+    File classesDir = context.getPaths().getClassesDir();
+    String packageName = Signatures.getPackageName(context.getProject().getMainClass());
+    BuildCache cache = context.getBuildCache();
     int error;
     try {
-      error = context.getComponentInfo().getExplodedAarLibs().writeRClasses(
-          context.getPaths().getClassesDir(),
-          Signatures.getPackageName(context.getProject().getMainClass()),
-          context.getResources().getAppRTxt()
-      );
+      if (cache == null) {
+        error = libraries.writeRClasses(classesDir, packageName,
+            context.getResources().getAppRTxt());
+      } else {
+        // The R classes depend only on the symbols of the libraries and the app, so extension
+        // heavy projects usually find them in the cache.
+        BuildCache.Key key = newRClassesKey(cache, libraries);
+        Map<String, File> outputs = Collections.singletonMap(CLASSES, classesDir);
+        if (cache.restore(key, outputs)) {
+          libraries.setOutputDirectory(classesDir);
+          context.getReporter().info("R classes restored from build cache");
+          return true;
+        }
+        // Compile apart from the other classes so that only the R classes are stored.
+        File rClassesDir = ExecutorUtils.createDir(context.getPaths().getTmpDir(), "rclasses");
+        error = libraries.writeRClasses(rClassesDir, packageName,
+            context.getResources().getAppRTxt());
+        if (error == 0) {
+          cache.store(key, Collections.singletonMap(CLASSES, rClassesDir));
+          FileUtils.copyDirectory(rClassesDir, classesDir);
+          libraries.setOutputDirectory(classesDir);
+        }
+      }
     } catch (IOException | InterruptedException e) {
       context.getReporter().error("Error while compiling R classes", true);
       return false;
@@ -227,4 +422,34 @@ public class GenerateClasses implements AndroidTask {
     }
     return true;
   }
+
+  /**
+   * Makes the build cache key of the R classes, which covers the app's symbols and the package
+   * and symbols of each library.
+   */
+  private BuildCache.Key newRClassesKey(BuildCache cache, AARLibraries libraries)
+      throws IOException {
+    // The compiler targets the running Java version.
+    BuildCache.Key key = cache.newKey("rclasses")
+        .putString(System.getProperty("java.version"))
+        .putString(Signatures.getPackageName(context.getProject().getMainClass()))
+        .putFile(context.getResources().getAppRTxt());
+    List<AARLibrary> sorted = new ArrayList<>(libraries);
+    Collections.sort(sorted, new Comparator<AARLibrary>() {
+      @Override
+      public int compare(AARLibrary a, AARLibrary b) {
+        int result = a.getPackageName().compareTo(b.getPackageName());
+        return result != 0 ? result : a.getSimpleName().compareTo(b.getSimpleName());
+      }
+    });
+    for (AARLibrary library : sorted) {
+      key.putString(library.getPackageName());
+      if (library.getRTxt() != null) {
+        key.putFile(library.getRTxt());
+      } else {
+        key.putString("");
+      }
+    }
+    return key;
+  }
 }
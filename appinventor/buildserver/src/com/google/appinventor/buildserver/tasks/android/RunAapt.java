@@ -6,23 +6,30 @@
 package com.google.appinventor.buildserver.tasks.android;
 
 import com.google.appinventor.buildserver.BuildType;
+import com.google.appinventor.buildserver.DependsOn;
 import com.google.appinventor.buildserver.Signatures;
 import com.google.appinventor.buildserver.TaskResult;
 import com.google.appinventor.buildserver.YoungAndroidConstants;
 import com.google.appinventor.buildserver.context.AndroidCompilerContext;
 import com.google.appinventor.buildserver.interfaces.AndroidTask;
+import com.google.appinventor.buildserver.util.BuildCache;
 import com.google.appinventor.buildserver.util.Execution;
 import com.google.appinventor.buildserver.util.ExecutorUtils;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * compiler.aapt()
  */
 // RunAapt
 @BuildType(apk = true)
+@DependsOn({CreateManifest.class, MergeResources.class, AttachCompAssets.class,
+    SetupLibs.class})
 public class RunAapt implements AndroidTask {
   @Override
   public TaskResult execute(AndroidCompilerContext context) {
@@ -70,12 +77,36 @@ public class RunAapt implements AndroidTask {
       context.getResources().setAppRTxt(new File(symbolOutputDir, "R.txt"));
     }
     String[] aaptPackageCommandLine = aaptPackageCommandLineArgs.toArray(new String[0]);
+
+    BuildCache cache = context.getBuildCache();
+    BuildCache.Key key = null;
+    Map<String, File> outputs = new HashMap<>();
+    outputs.put("package", context.getPaths().getTmpPackageName());
+    outputs.put("src", sourceOutputDir);
+    outputs.put("symbols", symbolOutputDir);
+    if (cache != null) {
+      try {
+        key = AndroidBuildUtils.newResourcesKey(context, "aapt", aaptTool)
+            .putString(context.getComponentInfo().getExplodedAarLibs().isEmpty() ? ""
+                : Signatures.getPackageName(context.getProject().getMainClass()));
+      } catch (IOException e) {
+        return TaskResult.generateError(e);
+      }
+      if (cache.restore(key, outputs)) {
+        context.getReporter().info("Resources restored from build cache");
+        return TaskResult.generateSuccess();
+      }
+    }
+
     // Using System.err and System.out on purpose. Don't want to pollute build messages with
     // tools output
     if (!Execution.execute(null, aaptPackageCommandLine,
         System.out, System.err)) {
       return TaskResult.generateError("Error running AAPT");
     }
+    if (cache != null) {
+      cache.store(key, outputs);
+    }
 
     return TaskResult.generateSuccess();
   }
@@ -6,19 +6,26 @@
 package com.google.appinventor.buildserver.tasks.android;
 
 import com.google.appinventor.buildserver.BuildType;
+import com.google.appinventor.buildserver.DependsOn;
 import com.google.appinventor.buildserver.TaskResult;
 import com.google.appinventor.buildserver.YoungAndroidConstants;
 import com.google.appinventor.buildserver.context.AndroidCompilerContext;
 import com.google.appinventor.buildserver.context.AndroidPaths;
 import com.google.appinventor.buildserver.context.CompilerContext;
 import com.google.appinventor.buildserver.interfaces.AndroidTask;
+import com.google.appinventor.buildserver.util.BuildCache;
 import com.google.appinventor.buildserver.util.Execution;
 import com.google.appinventor.buildserver.util.ExecutorUtils;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @BuildType(aab = true)
+@DependsOn({CreateManifest.class, MergeResources.class, AttachCompAssets.class,
+    SetupLibs.class})
 public class RunAapt2 implements AndroidTask {
   CompilerContext<AndroidPaths> context;
   File resourcesZip;
@@ -39,18 +46,39 @@ public class RunAapt2 implements AndroidTask {
       return TaskResult.generateError("Could not find a suitable AAPT tool for this OS");
     }
 
+    resourcesZip = new File(context.getPaths().getResDir(), "resources.zip");
+    BuildCache cache = context.getBuildCache();
+    BuildCache.Key key = null;
+    Map<String, File> outputs = new HashMap<>();
+    outputs.put("resources", resourcesZip);
+    outputs.put("package", context.getPaths().getTmpPackageName());
+    outputs.put("symbols", symbolOutputDir);
+    if (cache != null) {
+      try {
+        key = AndroidBuildUtils.newResourcesKey(context, "aapt2", aapt2Tool);
+      } catch (IOException e) {
+        return TaskResult.generateError(e);
+      }
+      if (cache.restore(key, outputs)) {
+        context.getResources().setAppRTxt(new File(symbolOutputDir, "R.txt"));
+        context.getReporter().info("Resources restored from build cache");
+        return TaskResult.generateSuccess();
+      }
+    }
+
     if (!this.runAapt2Compile(aapt2Tool)) {
       return TaskResult.generateError("Error while compiling with AAPT2");
     }
     if (!this.runAapt2Link(aapt2Tool, symbolOutputDir)) {
       return TaskResult.generateError("Error while linking with AAPT2");
     }
+    if (cache != null) {
+      cache.store(key, outputs);
+    }
     return TaskResult.generateSuccess();
   }
 
   private boolean runAapt2Compile(String aapt2Tool) {
-    resourcesZip = new File(context.getPaths().getResDir(), "resources.zip");
-
     List<String> aapt2CommandLine = new ArrayList<>();
     aapt2CommandLine.add(aapt2Tool);
     aapt2CommandLine.add("compile");
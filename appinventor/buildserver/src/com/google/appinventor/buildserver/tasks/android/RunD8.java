@@ -6,21 +6,25 @@
 package com.google.appinventor.buildserver.tasks.android;
 
 import com.google.appinventor.buildserver.BuildType;
+import com.google.appinventor.buildserver.DependsOn;
 import com.google.appinventor.buildserver.TaskResult;
 import com.google.appinventor.buildserver.context.AndroidCompilerContext;
 import com.google.appinventor.buildserver.interfaces.AndroidTask;
+import com.google.appinventor.buildserver.util.BuildCache;
+import com.google.appinventor.buildserver.util.D8CompilerPool;
 import com.google.appinventor.buildserver.util.Execution;
 import com.google.appinventor.buildserver.util.ExecutorUtils;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.PrintStream;
-import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -28,10 +32,23 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import org.apache.commons.io.FileUtils;
 
 @BuildType(aab = true, apk = true)
+@DependsOn(GenerateClasses.class)
 public class RunD8 extends DexTask implements AndroidTask {
   private static final boolean USE_D8_PROGUARD_RULES = true;
+  private static final String DEX_OUTPUT = "dex";
+
+  // Pre-dex jobs that have not been collected yet, by their output, shared by all builds.
+  private static final ConcurrentMap<File, Future<Boolean>> PREDEX_JOBS =
+      new ConcurrentHashMap<>();
 
   @Override
   public TaskResult execute(AndroidCompilerContext context) {
@@ -39,36 +56,38 @@ public class RunD8 extends DexTask implements AndroidTask {
     final List<File> inputs = new ArrayList<>();
     try {
       recordForMainDex(context.getPaths().getClassesDir(), mainDexClasses);
-      inputs.add(preDexLibrary(context, recordForMainDex(
-          new File(context.getResources().getSimpleAndroidRuntimeJar()), mainDexClasses)));
-      inputs.add(preDexLibrary(context, recordForMainDex(
-          new File(context.getResources().getKawaRuntime()), mainDexClasses)));
+      List<File> libraries = new ArrayList<>();
+      libraries.add(recordForMainDex(
+          new File(context.getResources().getSimpleAndroidRuntimeJar()), mainDexClasses));
+      libraries.add(recordForMainDex(
+          new File(context.getResources().getKawaRuntime()), mainDexClasses));
 
       final Set<String> criticalJars = getCriticalJars(context);
 
       for (String jar : criticalJars) {
-        inputs.add(preDexLibrary(context, recordForMainDex(
-            new File(context.getResource(jar)), mainDexClasses)));
+        libraries.add(recordForMainDex(new File(context.getResource(jar)), mainDexClasses));
       }
 
       // Only include ACRA for the companion app
       if (context.isForCompanion()) {
-        inputs.add(preDexLibrary(context, recordForMainDex(
-            new File(context.getResources().getAcraRuntime()), mainDexClasses)));
+        libraries.add(recordForMainDex(
+            new File(context.getResources().getAcraRuntime()), mainDexClasses));
       }
 
       for (String jar : context.getResources().getSupportJars()) {
         if (criticalJars.contains(jar)) {  // already covered above
           continue;
         }
-        inputs.add(preDexLibrary(context, new File(context.getResource(jar))));
+        libraries.add(new File(context.getResource(jar)));
       }
 
       // Add the rest of the libraries in any order
       for (String lib : context.getComponentInfo().getUniqueLibsNeeded()) {
-        inputs.add(preDexLibrary(context, new File(lib)));
+        libraries.add(new File(lib));
       }
 
+      inputs.addAll(preDexLibraries(context, libraries));
+
       // Add extension libraries
       Set<String> addedExtJars = new HashSet<>();
       for (String type : context.getExtCompTypes()) {
@@ -127,8 +146,21 @@ public class RunD8 extends DexTask implements AndroidTask {
         mainDexClasses.add(context.getProject().getMainClass());
       }
 
+      // Reuse the dex files of an earlier build with the same classes and libraries
+      BuildCache cache = context.getBuildCache();
+      BuildCache.Key key = null;
+      boolean restored = false;
+      if (cache != null) {
+        key = newDexKey(context, inputs, mainDexClasses);
+        restored = cache.restore(key, Collections.singletonMap(DEX_OUTPUT,
+            context.getPaths().getTmpDir()));
+        if (restored) {
+          context.getReporter().info("Dex files restored from build cache");
+        }
+      }
+
       // Run the final DX step to include user's compiled screens
-      if (!runD8(context, inputs, mainDexClasses)) {
+      if (!restored && !runD8(context, inputs, mainDexClasses)) {
         return TaskResult.generateError("d8 failed.");
       }
 
@@ -137,6 +169,13 @@ public class RunD8 extends DexTask implements AndroidTask {
       if (files == null) {
         throw new FileNotFoundException("Could not find classes.dex");
       }
+      if (cache != null && !restored) {
+        File staging = ExecutorUtils.createDir(context.getPaths().getTmpDir(), "buildcache-dex");
+        for (File file : files) {
+          Files.copy(file.toPath(), new File(staging, file.getName()).toPath());
+        }
+        cache.store(key, Collections.singletonMap(DEX_OUTPUT, staging));
+      }
       Collections.addAll(context.getResources().getDexFiles(), files);
       return TaskResult.generateSuccess();
     } catch (IOException e) {
@@ -152,62 +191,78 @@ public class RunD8 extends DexTask implements AndroidTask {
    * @param inputs collection of input files. For a complete list of supported input types see
    *               <a href="https://developer.android.com/tools/d8">d8</a>.
    * @return true if the process succeeded
-   * @throws IOException if the dex file is unable to be moved to the {@code intermediateFileName}
+   * @throws IOException if the d8 arguments cannot be written
    */
   private static boolean runD8(AndroidCompilerContext context, Collection<File> inputs,
       Set<String> mainDexClasses) throws IOException {
     return runD8(context, inputs, mainDexClasses, context.getPaths().getTmpDir().getAbsolutePath(),
-        null);
+        false);
   }
 
   /**
-   * Run Android SDK's d8 program to create a dex file for the given collection of inputs.
+   * Run Android SDK's d8 program to create a dex file for the given collection of inputs. If the
+   * build server has a {@link D8CompilerPool}, d8 runs in process, otherwise in a child process.
    *
    * @param context the build context
    * @param inputs collection of input files. For a complete list of supported input types see
    *               <a href="https://developer.android.com/tools/d8">d8</a>.
    * @param outputDir the destination for the classes.dex file
-   * @param intermediateFileName an alternative name to use for the dex file when pre-dexing
+   * @param intermediate true when pre-dexing a library
    * @return true if the process succeeded
-   * @throws IOException if the dex file is unable to be moved to the {@code intermediateFileName}
+   * @throws IOException if the d8 arguments cannot be written
    */
   private static boolean runD8(AndroidCompilerContext context, Collection<File> inputs,
-      Set<String> mainDexClasses, String outputDir, String intermediateFileName)
+      Set<String> mainDexClasses, String outputDir, boolean intermediate)
       throws IOException {
-    List<String> arguments = new ArrayList<>();
-    List<String> javaArgs = new ArrayList<>();
-    arguments.add("java");
-    javaArgs.add("-Xmx" + context.getChildProcessRam() + "M");
-    javaArgs.add("-Xss8m");
-    javaArgs.add("-cp");
-    javaArgs.add(context.getResources().getD8Jar());
-    javaArgs.add("com.android.tools.r8.D8");
-    if (intermediateFileName != null) {
-      javaArgs.add("--intermediate");
+    List<String> d8Args = new ArrayList<>();
+    if (intermediate) {
+      d8Args.add("--intermediate");
     }
-    javaArgs.add("--lib");
-    javaArgs.add(context.getResources().getAndroidRuntime());
-    if (intermediateFileName == null) {
-      javaArgs.add("--classpath");
-      javaArgs.add(context.getPaths().getClassesDir().getAbsolutePath());
+    d8Args.add("--lib");
+    d8Args.add(context.getResources().getAndroidRuntime());
+    if (!intermediate) {
+      d8Args.add("--classpath");
+      d8Args.add(context.getPaths().getClassesDir().getAbsolutePath());
     }
-    javaArgs.add("--output");
-    javaArgs.add(outputDir);
-    javaArgs.add("--min-api");
-    javaArgs.add(Integer.toString(AndroidBuildUtils.computeMinSdk(context)));
+    d8Args.add("--output");
+    d8Args.add(outputDir);
+    d8Args.add("--min-api");
+    d8Args.add(Integer.toString(AndroidBuildUtils.computeMinSdk(context)));
     if (mainDexClasses != null) {
       if (USE_D8_PROGUARD_RULES) {
-        javaArgs.add("--main-dex-rules");
-        javaArgs.add(writeClassRules(context.getPaths().getClassesDir(), mainDexClasses));
+        d8Args.add("--main-dex-rules");
+        d8Args.add(writeClassRules(context.getPaths().getClassesDir(), mainDexClasses));
       } else {
-        javaArgs.add("--main-dex-list");
-        javaArgs.add(writeClassList(context.getPaths().getClassesDir(), mainDexClasses));
+        d8Args.add("--main-dex-list");
+        d8Args.add(writeClassList(context.getPaths().getClassesDir(), mainDexClasses));
       }
     }
     for (File input : inputs) {
-      javaArgs.add(input.getAbsolutePath());
+      d8Args.add(input.getAbsolutePath());
     }
-    File javaArgsFile = new File(context.getPaths().getTmpDir(), "d8arguments.txt");
+
+    D8CompilerPool pool = D8CompilerPool.getInstance();
+    if (pool != null) {
+      try {
+        return pool.compile(context.getResources().getD8Jar(), d8Args);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while running d8");
+      }
+    }
+
+    List<String> arguments = new ArrayList<>();
+    List<String> javaArgs = new ArrayList<>();
+    arguments.add("java");
+    javaArgs.add("-Xmx" + context.getChildProcessRam() + "M");
+    javaArgs.add("-Xss8m");
+    javaArgs.add("-cp");
+    javaArgs.add(context.getResources().getD8Jar());
+    javaArgs.add("com.android.tools.r8.D8");
+    javaArgs.addAll(d8Args);
+    // Libraries of the same build may be dexed concurrently, so each run gets its own file.
+    File javaArgsFile = File.createTempFile("d8arguments", ".txt",
+        context.getPaths().getTmpDir());
     try (PrintStream ps = new PrintStream(new FileOutputStream(javaArgsFile))) {
       for (String arg : javaArgs) {
         ps.println(arg);
@@ -215,42 +270,132 @@ public class RunD8 extends DexTask implements AndroidTask {
     }
     arguments.add("@" + javaArgsFile.getAbsolutePath());
     synchronized (context.getResources().getSyncKawaOrDx()) {
-      boolean result = Execution.execute(context.getPaths().getTmpDir(),
+      return Execution.execute(context.getPaths().getTmpDir(),
           arguments.toArray(new String[0]), System.out, System.err);
-      if (!result) {
-        return false;
-      }
     }
-    if (intermediateFileName != null) {
-      Files.move(FileSystems.getDefault().getPath(outputDir, "classes.dex"),
-          FileSystems.getDefault().getPath(outputDir, intermediateFileName));
+  }
+
+  /**
+   * Computes the build cache key of the final d8 step, which covers the compiled classes, the
+   * libraries and everything else that ends up on the d8 command line.
+   *
+   * @param context the build context
+   * @param inputs the inputs of the d8 step
+   * @param mainDexClasses the classes or rules that determine the main dex file
+   * @return the build cache key
+   * @throws IOException if one of the inputs cannot be read
+   */
+  private static BuildCache.Key newDexKey(AndroidCompilerContext context, List<File> inputs,
+      Set<String> mainDexClasses) throws IOException {
+    File classesDir = context.getPaths().getClassesDir();
+    BuildCache.Key key = context.getBuildCache().newKey("d8")
+        .putLibrary(new File(context.getResources().getD8Jar()))
+        .putLibrary(new File(context.getResources().getAndroidRuntime()))
+        .putString(Integer.toString(AndroidBuildUtils.computeMinSdk(context)))
+        .putString(new TreeSet<>(mainDexClasses).toString())
+        .putTree(classesDir);
+    String classesPath = classesDir.getAbsolutePath() + File.separator;
+    for (File input : inputs) {
+      if (!input.getAbsolutePath().startsWith(classesPath)) {
+        key.putLibrary(input);
+      }
     }
-    return true;
+    return key;
   }
 
   /**
-   * Dex the given {@code input} file and cache the results.
+   * Dexes the given libraries and caches the results. Libraries that are not in the dex cache
+   * are dexed in parallel when d8 runs in process. A library that another build is already
+   * dexing is waited for rather than dexed twice.
    *
    * @param context the build context
-   * @param input the input JAR file
-   * @return the path of the library to use as an input to the downstream d8 process
+   * @param libraries the input JAR files
+   * @return for each library, in order, the path to use as an input to the downstream d8
+   *     process: the pre-dexed library, or the library itself if it could not be dexed
    * @throws IOException if the d8 process fails due to an I/O issue
    */
-  private static File preDexLibrary(AndroidCompilerContext context, File input) throws IOException {
-    synchronized (PREDEX_CACHE) {
-      File cacheDir = new File(context.getDexCacheDir());
-      File dexedLib = getDexFileName(input, cacheDir);
+  private static List<File> preDexLibraries(final AndroidCompilerContext context,
+      List<File> libraries) throws IOException {
+    File cacheDir = new File(context.getDexCacheDir());
+    D8CompilerPool pool = D8CompilerPool.getInstance();
+    List<File> dexedLibs = new ArrayList<>();
+    List<Future<Boolean>> jobs = new ArrayList<>();
+    for (final File input : libraries) {
+      final File dexedLib = getDexFileName(input, cacheDir);
+      dexedLibs.add(dexedLib);
       if (dexedLib.isFile()) {
         context.getReporter().info(String.format("Using pre-dexed %1$s <- %2$s",
             dexedLib.getName(), input));
-      } else {
-        boolean success = runD8(context, Collections.singleton(input), null,
-            context.getDexCacheDir(), dexedLib.getName());
-        if (!success) {
-          return input;
+        jobs.add(null);
+        continue;
+      }
+      FutureTask<Boolean> job = new FutureTask<>(() -> preDexLibrary(context, input, dexedLib));
+      Future<Boolean> existing = PREDEX_JOBS.putIfAbsent(dexedLib, job);
+      if (existing == null) {
+        if (pool != null) {
+          pool.execute(job);
+        } else {
+          job.run();
         }
+        existing = job;
+      }
+      jobs.add(existing);
+    }
+
+    List<File> results = new ArrayList<>();
+    for (int i = 0; i < libraries.size(); i++) {
+      Future<Boolean> job = jobs.get(i);
+      boolean dexed = true;
+      if (job != null) {
+        try {
+          dexed = job.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while pre-dexing " + libraries.get(i));
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+          }
+          throw new IOException("Unable to pre-dex " + libraries.get(i), e.getCause());
+        } finally {
+          // Finished jobs are forgotten so that a failed library is retried by the next build.
+          if (job.isDone()) {
+            PREDEX_JOBS.remove(dexedLibs.get(i), job);
+          }
+        }
+      }
+      results.add(dexed ? dexedLibs.get(i) : libraries.get(i));
+    }
+    return results;
+  }
+
+  /**
+   * Dexes the given {@code input} file into the dex cache.
+   *
+   * @param context the build context
+   * @param input the input JAR file
+   * @param dexedLib the destination of the dexed library in the dex cache
+   * @return true if the library was dexed
+   * @throws IOException if the d8 process fails due to an I/O issue
+   */
+  private static boolean preDexLibrary(AndroidCompilerContext context, File input,
+      File dexedLib) throws IOException {
+    long start = System.currentTimeMillis();
+    // d8 always names its output classes.dex, so each library is dexed in a directory of its
+    // own and then moved into the cache under its final name.
+    File outputDir = Files.createTempDirectory(dexedLib.getParentFile().toPath(), "predex")
+        .toFile();
+    try {
+      if (!runD8(context, Collections.singleton(input), null, outputDir.getAbsolutePath(),
+          true)) {
+        return false;
       }
-      return dexedLib;
+      Files.move(new File(outputDir, "classes.dex").toPath(), dexedLib.toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+      return true;
+    } finally {
+      FileUtils.deleteQuietly(outputDir);
+      context.recordStat("PreDex " + input.getName(), System.currentTimeMillis() - start);
     }
   }
 }
@@ -6,6 +6,7 @@
 package com.google.appinventor.buildserver.tasks.android;
 
 import com.google.appinventor.buildserver.BuildType;
+import com.google.appinventor.buildserver.DependsOn;
 import com.google.appinventor.buildserver.DexExecTask;
 import com.google.appinventor.buildserver.TaskResult;
 import com.google.appinventor.buildserver.context.AndroidCompilerContext;
@@ -25,6 +26,7 @@ import java.util.Set;
  * compiler.runMultidex()
  */
 @BuildType(apk = true, aab = true)
+@DependsOn(GenerateClasses.class)
 public class RunMultidex extends DexTask implements AndroidTask {
   @Override
   public TaskResult execute(AndroidCompilerContext context) {
@@ -7,6 +7,7 @@ package com.google.appinventor.buildserver.tasks.android;
 
 import com.google.appinventor.buildserver.BuildType;
 import com.google.appinventor.buildserver.Compiler;
+import com.google.appinventor.buildserver.DependsOn;
 import com.google.appinventor.buildserver.TaskResult;
 import com.google.appinventor.buildserver.context.AndroidCompilerContext;
 import com.google.appinventor.buildserver.interfaces.AndroidTask;
@@ -21,6 +22,7 @@ import java.io.IOException;
  * Sets up any host system specific shared libraries.
  */
 @BuildType(apk = true, aab = true)
+@DependsOn({})
 public class SetupLibs implements AndroidTask {
   public static final String RUNTIME_TOOLS_DIR =
       com.google.appinventor.buildserver.context.Resources.RUNTIME_TOOLS_DIR;
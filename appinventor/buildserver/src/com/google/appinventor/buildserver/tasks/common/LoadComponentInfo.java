@@ -8,13 +8,14 @@ package com.google.appinventor.buildserver.tasks.common;
 import com.google.appinventor.buildserver.BuildType;
 import com.google.appinventor.buildserver.TaskResult;
 import com.google.appinventor.buildserver.context.CompilerContext;
+import com.google.appinventor.buildserver.context.ComponentRegistry;
 import com.google.appinventor.buildserver.interfaces.CommonTask;
 import com.google.appinventor.buildserver.util.ExecutorUtils;
 import com.google.appinventor.buildserver.util.PermissionConstraint;
 import com.google.appinventor.components.common.ComponentDescriptorConstants;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -23,7 +24,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
@@ -54,7 +54,8 @@ public class LoadComponentInfo implements CommonTask {
     this.context = context;
     this.conditionals = new ConcurrentHashMap<>();
 
-    if (!loadJsonInfo()) {
+    if (context.getSimpleComponents() == null || context.getExtComponents() == null) {
+      context.getReporter().error("There was an error loading component info", true);
       return TaskResult.generateError("Unable to load component information");
     }
 
@@ -386,17 +387,21 @@ public class LoadComponentInfo implements CommonTask {
     return true;
   }
 
-  private boolean loadJsonInfo() {
-    try {
-      context.setBuildInfo(new JSONArray(
-          "[" + context.getSimpleCompsBuildInfo().join(",") + ","
-              + context.getExtCompsBuildInfo().join(",") + "]"));
-      return true;
-    } catch (JSONException e) {
-      e.printStackTrace();
-      context.getReporter().error("There was an error loading component info", true);
-      return false;
+  /*
+   * Returns the build information of the components used by the project.
+   */
+  private List<ComponentRegistry.Component> getUsedComponents() {
+    List<ComponentRegistry.Component> components = new ArrayList<>();
+    for (String type : context.getSimpleCompTypes()) {
+      components.add(context.getSimpleComponents().get(type));
+    }
+    for (String type : context.getExtCompTypes()) {
+      ComponentRegistry.Component component = context.getExtComponents().get(type);
+      if (component != null) {
+        components.add(component);
+      }
     }
+    return components;
   }
 
   /*
@@ -409,79 +414,45 @@ public class LoadComponentInfo implements CommonTask {
         return;
       }
 
-      if (context.getBuildInfo() == null) {
-        loadJsonInfo();
-      }
-
-      final JSONArray buildInfo = context.getBuildInfo();
-
-      for (int i = 0; i < buildInfo.length(); ++i) {
-        JSONObject compJson = buildInfo.getJSONObject(i);
-        JSONArray infoArray = null;
-        String type = compJson.getString("type");
-        infoArray = compJson.optJSONArray(targetInfo);
-        if (infoArray == null) {
+      for (ComponentRegistry.Component component : getUsedComponents()) {
+        String type = component.getType();
+        Set<String> infoSet = component.getInfo(targetInfo);
+        if (infoSet == null) {
           context.getReporter().info("Component \"" + type + "\" does not specify " + targetInfo);
           // Continue to process other components
           continue;
         }
 
-        if (!context.getSimpleCompTypes().contains(type)
-            && !context.getExtCompTypes().contains(type)) {
-          continue;
-        }
-
-        Set<String> infoSet = Sets.newHashSet();
-        for (int j = 0; j < infoArray.length(); ++j) {
-          String info = infoArray.getString(j);
-          if (!info.isEmpty()) {
-            infoSet.add(info);
-          }
-        }
-
         if (!infoSet.isEmpty()) {
-          infoMap.put(type, infoSet);
+          // Copied, since later stages add to the sets in infoMap
+          infoMap.put(type, new HashSet<>(infoSet));
         }
 
-        processConditionalInfo(compJson, type, targetInfo);
+        processConditionalInfo(component, targetInfo);
       }
     }
   }
 
   /**
-   * Processes the conditional info from simple_components_build_info.json into
-   * a structure mapping annotation types to component names to block names to
-   * values.
+   * Records the conditional info of a component in a structure mapping
+   * annotation types to component names to block names to values.
    *
-   * @param compJson   Parsed component data from JSON
-   * @param type       The name of the type being processed
+   * @param component  The component being processed
    * @param targetInfo Name of the annotation target being processed (e.g.,
    *                   permissions). Any of: PERMISSIONS_TARGET,
    *                   BROADCAST_RECEIVERS_TARGET
    */
-  private void processConditionalInfo(JSONObject compJson, String type, String targetInfo) {
+  private void processConditionalInfo(ComponentRegistry.Component component, String targetInfo) {
     // Strip off the package name since SCM and BKY use unqualified names
+    String type = component.getType();
     type = type.substring(type.lastIndexOf('.') + 1);
 
-    JSONObject conditionals = compJson.optJSONObject(
-        ComponentDescriptorConstants.CONDITIONALS_TARGET);
-    if (conditionals != null) {
-      JSONObject jsonBlockMap = conditionals.optJSONObject(targetInfo);
-      if (jsonBlockMap != null) {
-        if (!this.conditionals.containsKey(targetInfo)) {
-          this.conditionals.put(targetInfo, new HashMap<String, Map<String, Set<String>>>());
-        }
-        Map<String, Set<String>> blockMap = new HashMap<>();
-        this.conditionals.get(targetInfo).put(type, blockMap);
-        for (String key : (List<String>) Lists.newArrayList(jsonBlockMap.keys())) {
-          JSONArray data = jsonBlockMap.optJSONArray(key);
-          HashSet<String> result = new HashSet<>();
-          for (int i = 0; i < data.length(); i++) {
-            result.add(data.optString(i));
-          }
-          blockMap.put(key, result);
-        }
+    Map<String, Set<String>> blockMap = component.getConditionals(targetInfo);
+    if (blockMap != null) {
+      if (!this.conditionals.containsKey(targetInfo)) {
+        this.conditionals.put(targetInfo, new HashMap<String, Map<String, Set<String>>>());
       }
+      this.conditionals.get(targetInfo).put(type, blockMap);
     }
   }
 
@@ -491,20 +462,9 @@ public class LoadComponentInfo implements CommonTask {
       return;
     }
 
-    final JSONArray buildInfo = context.getBuildInfo();
-    final Set<String> simpleCompTypes = context.getSimpleCompTypes();
-    final Set<String> extCompTypes = context.getExtCompTypes();
-
-    for (int i = 0; i < buildInfo.length(); i++) {
-      JSONObject compJson = buildInfo.getJSONObject(i);
-      String type = compJson.getString("type");
-      if (!simpleCompTypes.contains(type) && !extCompTypes.contains(type)) {
-        // Component type not used.
-        continue;
-      }
-
-      JSONObject infoObject = compJson.optJSONObject(
-          ComponentDescriptorConstants.PERMISSION_CONSTRAINTS_TARGET);
+    for (ComponentRegistry.Component component : getUsedComponents()) {
+      String type = component.getType();
+      JSONObject infoObject = component.getPermissionConstraints();
       if (infoObject != null) {
         // Handle declared constraints
         context.getComponentInfo().getPermissionConstraintsNeeded()
@@ -512,12 +472,7 @@ public class LoadComponentInfo implements CommonTask {
       }
 
       // Handle conditional constraints
-      infoObject = compJson.optJSONObject(ComponentDescriptorConstants.CONDITIONALS_TARGET);
-      if (infoObject == null) {
-        continue;
-      }
-      infoObject = infoObject.optJSONObject(
-          ComponentDescriptorConstants.PERMISSION_CONSTRAINTS_TARGET);
+      infoObject = component.getConditionalPermissionConstraints();
       if (infoObject == null) {
         continue;
       }
@@ -142,6 +142,16 @@ public class AARLibraries extends HashSet<AARLibrary> {
     return outputDir;
   }
 
+  /**
+   * Sets the directory holding the compiled R classes, for when they were not written by
+   * {@link #writeRClasses(File, String, File)} but restored from the build cache.
+   *
+   * @param outputDir the directory holding the R classes.
+   */
+  public void setOutputDirectory(File outputDir) {
+    this.outputDir = outputDir;
+  }
+
   /**
    * Gets a list of resource sets loaded from the AAR libraries in the collection. Note that this
    * is computed on every call (results are not cached), so it is recommended that the caller only
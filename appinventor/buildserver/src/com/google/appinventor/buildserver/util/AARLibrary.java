@@ -10,14 +10,17 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import javax.xml.xpath.XPathExpressionException;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
 import com.android.io.StreamException;
@@ -38,6 +41,9 @@ public class AARLibrary {
   private static final String LIBS_DIR = "libs/";
   private static final String JNI_DIR = "jni/";
 
+  // Name of the single output of the build cache entries written by this class.
+  private static final String EXPLODED = "exploded";
+
   /**
    * Path to the AAR file modeled by the AARLibrary.
    */
@@ -228,11 +234,43 @@ public class AARLibrary {
    *                     the file system.
    */
   public void unpackToDirectory(final File path) throws IOException {
+    unpackToDirectory(path, null);
+  }
+
+  /**
+   * Unpacks the Android Archive to a directory in the file system, as
+   * {@link #unpackToDirectory(File)} does. If a build cache is given, the files unpacked from
+   * the same archive by an earlier build are linked into place instead, and the archive is only
+   * unpacked, and then stored in the cache, the first time it is seen. Files linked from the
+   * cache must not be modified.
+   *
+   * @param path the path to where the archive will be unpacked.
+   * @param cache the build cache, or null to always unpack the archive.
+   * @throws IOException if any error occurs attempting to read the archive or write new files to
+   *                     the file system.
+   */
+  public void unpackToDirectory(final File path, final BuildCache cache) throws IOException {
     ZipFile zip = null;
     try {
       zip = new ZipFile(aarPath);
       packageName = extractPackageName(zip);
       basedir = new File(path, packageName);
+      BuildCache.Key key = null;
+      Map<String, File> outputs = Collections.singletonMap(EXPLODED, basedir);
+      // Another archive with the same package may already have been unpacked here, in which
+      // case the directory holds both and is not worth caching.
+      boolean cacheable = cache != null && !basedir.exists();
+      if (cacheable) {
+        key = cache.newKey("aar").putLibrary(aarPath);
+        if (cache.link(key, outputs)) {
+          catalogDirectory(basedir, "");
+          setResDirectory();
+          return;
+        }
+        // Drop anything linked before a failed restore so that unpacking can't write through a
+        // link into the cache.
+        FileUtils.deleteQuietly(basedir);
+      }
       if (!basedir.exists() && !basedir.mkdirs()) {
         throw new IOException("Unable to create directory for AAR package: " + basedir);
       }
@@ -262,15 +300,43 @@ public class AARLibrary {
           catalog(target);
         }
       }
-      resdir = new File(basedir, "res");
-      if (!resdir.exists()) {
-        resdir = null;
+      setResDirectory();
+      if (cacheable) {
+        cache.store(key, outputs);
       }
     } finally {
       IOUtils.closeQuietly(zip);
     }
   }
 
+  /**
+   * Catalogs the files under a directory restored from the build cache the same way as the
+   * files extracted from the archive.
+   *
+   * @param dir the directory to catalog.
+   * @param prefix the path of the directory relative to the base directory.
+   */
+  private void catalogDirectory(File dir, String prefix) throws IOException {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      throw new IOException("Unable to list " + dir);
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        catalogDirectory(child, prefix + child.getName() + "/");
+      } else {
+        catalog(new File(basedir, prefix + child.getName()));
+      }
+    }
+  }
+
+  private void setResDirectory() {
+    resdir = new File(basedir, "res");
+    if (!resdir.exists()) {
+      resdir = null;
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
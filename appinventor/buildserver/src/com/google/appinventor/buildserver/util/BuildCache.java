@@ -0,0 +1,419 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A content-addressed cache of build outputs that is shared by all builds run by this process.
+ *
+ * <p>Each entry is keyed by a {@link Key}, a hash of every input of a build stage. A stage that
+ * finds an entry for its key restores the outputs from the cache instead of running. Otherwise
+ * it runs as usual and stores its outputs for later builds. Since keys are derived from content
+ * rather than from project names, entries are never invalidated; unused entries are evicted in
+ * least recently used order once the cache grows beyond its disk budget.</p>
+ *
+ * <p>An entry is a directory under the cache root that holds one file or directory for each
+ * named output of the stage. Entries are assembled in a temporary directory and renamed into
+ * place, so a concurrent build never sees a partially written entry.</p>
+ */
+public final class BuildCache {
+  private static final Logger LOG = Logger.getLogger(BuildCache.class.getName());
+
+  private static final String TMP_PREFIX = ".tmp-";
+
+  private final File root;
+  private final long maxBytes;
+
+  // Entry names mapped to their size on disk, in least recently used order.
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalBytes = 0;
+
+  // Restores hold the read lock while copying so that eviction cannot delete an entry under them.
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // Hashes of library files, which are large and shared by most builds.
+  private final Cache<String, HashCode> libraryHashes = CacheBuilder.newBuilder()
+      .maximumSize(4096)
+      .build();
+
+  private final AtomicInteger hits = new AtomicInteger(0);
+  private final AtomicInteger misses = new AtomicInteger(0);
+  private final AtomicInteger evictions = new AtomicInteger(0);
+
+  /**
+   * Opens the cache rooted at {@code root}, creating the directory if needed. Entries left by a
+   * previous run of the server are retained, with their modification times as the access order.
+   *
+   * @param root the cache directory
+   * @param maxBytes the disk budget of the cache, in bytes
+   * @throws IOException if the cache directory cannot be created
+   */
+  public BuildCache(File root, long maxBytes) throws IOException {
+    Preconditions.checkArgument(maxBytes > 0, "maxBytes must be positive");
+    if (!root.isDirectory() && !root.mkdirs()) {
+      throw new IOException("Unable to create build cache dir " + root);
+    }
+    this.root = root;
+    this.maxBytes = maxBytes;
+    File[] existing = root.listFiles();
+    if (existing != null) {
+      Arrays.sort(existing, new Comparator<File>() {
+        @Override
+        public int compare(File a, File b) {
+          return Long.compare(a.lastModified(), b.lastModified());
+        }
+      });
+      for (File entry : existing) {
+        if (entry.getName().startsWith(TMP_PREFIX) || !entry.isDirectory()) {
+          FileUtils.deleteQuietly(entry);
+        } else {
+          long size = FileUtils.sizeOfDirectory(entry);
+          entries.put(entry.getName(), size);
+          totalBytes += size;
+        }
+      }
+    }
+    lock.writeLock().lock();
+    try {
+      evict();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Starts a new key for the given build stage.
+   *
+   * @param stage a short name for the stage, which prefixes the entry name
+   * @return a key to which the inputs of the stage are to be added
+   */
+  public Key newKey(String stage) {
+    return new Key(stage);
+  }
+
+  /**
+   * Copies the outputs stored under {@code key} to their destinations. Directory outputs are
+   * merged into any existing destination directory.
+   *
+   * @param key the key of the entry
+   * @param outputs the destinations of the outputs, by name
+   * @return true if every output was restored, or false if the stage needs to be run
+   */
+  public boolean restore(Key key, Map<String, File> outputs) {
+    return restore(key, outputs, false);
+  }
+
+  /**
+   * Like {@link #restore(Key, Map)}, but hard links the files of the entry into place rather
+   * than copying them, falling back to copies where the file system has no hard links or the
+   * destination is on another file system. Linked files share their storage with the cache, so
+   * the build must not modify them. A link keeps its data even if the entry is evicted later.
+   *
+   * @param key the key of the entry
+   * @param outputs the destinations of the outputs, by name
+   * @return true if every output was restored, or false if the stage needs to be run
+   */
+  public boolean link(Key key, Map<String, File> outputs) {
+    return restore(key, outputs, true);
+  }
+
+  private boolean restore(Key key, Map<String, File> outputs, boolean link) {
+    String name = key.getName();
+    lock.readLock().lock();
+    try {
+      boolean present;
+      synchronized (entries) {
+        present = entries.get(name) != null;
+      }
+      if (!present) {
+        misses.incrementAndGet();
+        return false;
+      }
+      File entry = new File(root, name);
+      for (Map.Entry<String, File> output : outputs.entrySet()) {
+        File source = new File(entry, output.getKey());
+        if (source.isDirectory()) {
+          if (link) {
+            linkDirectory(source, output.getValue());
+          } else {
+            FileUtils.copyDirectory(source, output.getValue());
+          }
+        } else if (source.isFile()) {
+          if (link) {
+            linkFile(source, output.getValue());
+          } else {
+            FileUtils.copyFile(source, output.getValue());
+          }
+        } else {
+          misses.incrementAndGet();
+          return false;
+        }
+      }
+      // Persist the access order for the next run of the server.
+      entry.setLastModified(System.currentTimeMillis());
+      hits.incrementAndGet();
+      return true;
+    } catch (IOException e) {
+      LOG.log(Level.WARNING, "Unable to restore build cache entry " + name, e);
+      misses.incrementAndGet();
+      return false;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Stores the outputs of a stage under {@code key}. Failures are logged and otherwise ignored
+   * since the cache is only an optimization.
+   *
+   * @param key the key of the entry
+   * @param outputs the outputs of the stage, by name
+   */
+  public void store(Key key, Map<String, File> outputs) {
+    String name = key.getName();
+    File tmp = new File(root, TMP_PREFIX + name + "-" + Thread.currentThread().getId());
+    try {
+      FileUtils.deleteQuietly(tmp);
+      if (!tmp.mkdir()) {
+        throw new IOException("Unable to create " + tmp);
+      }
+      for (Map.Entry<String, File> output : outputs.entrySet()) {
+        File source = output.getValue();
+        if (source.isDirectory()) {
+          FileUtils.copyDirectory(source, new File(tmp, output.getKey()));
+        } else {
+          FileUtils.copyFile(source, new File(tmp, output.getKey()));
+        }
+      }
+      long size = FileUtils.sizeOfDirectory(tmp);
+      if (size > maxBytes) {
+        return;
+      }
+      lock.writeLock().lock();
+      try {
+        if (entries.containsKey(name)) {
+          return;  // Another build stored the same outputs first
+        }
+        if (!tmp.renameTo(new File(root, name))) {
+          throw new IOException("Unable to move " + tmp + " into the build cache");
+        }
+        synchronized (entries) {
+          entries.put(name, size);
+        }
+        totalBytes += size;
+        evict();
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } catch (IOException e) {
+      LOG.log(Level.WARNING, "Unable to store build cache entry " + name, e);
+    } finally {
+      FileUtils.deleteQuietly(tmp);
+    }
+  }
+
+  public int getHits() {
+    return hits.get();
+  }
+
+  public int getMisses() {
+    return misses.get();
+  }
+
+  public int getEvictions() {
+    return evictions.get();
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public long getSizeBytes() {
+    lock.readLock().lock();
+    try {
+      return totalBytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int getEntryCount() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  // Must be called with the write lock held.
+  private void evict() {
+    synchronized (entries) {
+      Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+      while (totalBytes > maxBytes && it.hasNext()) {
+        Map.Entry<String, Long> eldest = it.next();
+        FileUtils.deleteQuietly(new File(root, eldest.getKey()));
+        totalBytes -= eldest.getValue();
+        it.remove();
+        evictions.incrementAndGet();
+      }
+    }
+  }
+
+  private static void linkDirectory(File source, File target) throws IOException {
+    File[] children = source.listFiles();
+    if (children == null) {
+      throw new IOException("Unable to list " + source);
+    }
+    if (!target.isDirectory() && !target.mkdirs()) {
+      throw new IOException("Unable to create " + target);
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        linkDirectory(child, new File(target, child.getName()));
+      } else {
+        linkFile(child, new File(target, child.getName()));
+      }
+    }
+  }
+
+  private static void linkFile(File source, File target) throws IOException {
+    Files.createParentDirs(target);
+    java.nio.file.Files.deleteIfExists(target.toPath());
+    try {
+      java.nio.file.Files.createLink(target.toPath(), source.toPath());
+    } catch (IOException | UnsupportedOperationException e) {
+      FileUtils.copyFile(source, target);
+    }
+  }
+
+  private HashCode hashLibrary(File file) throws IOException {
+    String stamp = file.getAbsolutePath() + File.pathSeparator + file.length()
+        + File.pathSeparator + file.lastModified();
+    HashCode hash = libraryHashes.getIfPresent(stamp);
+    if (hash == null) {
+      hash = Files.hash(file, Hashing.sha256());
+      libraryHashes.put(stamp, hash);
+    }
+    return hash;
+  }
+
+  /**
+   * The key of a cache entry. A key accumulates every input that can affect the outputs of a
+   * stage, and is then used for at most one lookup and one store.
+   */
+  public final class Key {
+    private final String stage;
+    private final Hasher hasher = Hashing.sha256().newHasher();
+    private String name = null;
+
+    private Key(String stage) {
+      this.stage = stage;
+    }
+
+    /**
+     * Adds a string, such as a command line flag or a package name, to the key.
+     */
+    public Key putString(String value) {
+      checkOpen();
+      hasher.putString(value, StandardCharsets.UTF_8);
+      hasher.putByte((byte) 0);
+      return this;
+    }
+
+    /**
+     * Adds the content of a file to the key. A missing file is recorded as such.
+     */
+    public Key putFile(File file) throws IOException {
+      checkOpen();
+      if (file.isFile()) {
+        hasher.putBytes(Files.hash(file, Hashing.sha256()).asBytes());
+      } else {
+        hasher.putByte((byte) 0);
+      }
+      return this;
+    }
+
+    /**
+     * Adds the content of a library to the key. Unlike {@link #putFile(File)}, the hash of the
+     * file is remembered for as long as its path, size and modification time stay the same,
+     * which suits the large JARs that are shared by most builds.
+     */
+    public Key putLibrary(File file) throws IOException {
+      checkOpen();
+      if (file.isDirectory()) {
+        return putTree(file);
+      } else if (file.isFile()) {
+        hasher.putBytes(hashLibrary(file).asBytes());
+      } else {
+        hasher.putByte((byte) 0);
+      }
+      return this;
+    }
+
+    /**
+     * Adds the relative paths and contents of all files under {@code dir} to the key.
+     */
+    public Key putTree(File dir) throws IOException {
+      checkOpen();
+      putTree(dir, "");
+      hasher.putByte((byte) 0);
+      return this;
+    }
+
+    private void putTree(File dir, String prefix) throws IOException {
+      File[] children = dir.listFiles();
+      if (children == null) {
+        return;
+      }
+      Arrays.sort(children);
+      for (File child : children) {
+        String path = prefix + child.getName();
+        if (child.isDirectory()) {
+          putTree(child, path + "/");
+        } else {
+          hasher.putString(path, StandardCharsets.UTF_8);
+          hasher.putByte((byte) 0);
+          hasher.putBytes(Files.hash(child, Hashing.sha256()).asBytes());
+        }
+      }
+    }
+
+    /**
+     * Gets the name of the cache entry for this key. No more inputs can be added afterward.
+     */
+    public String getName() {
+      if (name == null) {
+        name = stage + "-" + hasher.hash();
+      }
+      return name;
+    }
+
+    private void checkOpen() {
+      Preconditions.checkState(name == null, "Key has already been used");
+    }
+  }
+}
@@ -0,0 +1,200 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver.util;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs d8 inside the build server process through its programmatic API.
+ *
+ * <p>Launching a JVM for every d8 run costs JVM startup and loading d8 itself, which dominates
+ * the pre-dexing of small libraries. The pool loads d8.jar once in its own class loader and runs
+ * compilations on up to {@code maxWorkers} worker threads. Because at most {@code maxWorkers}
+ * compilations run at once, memory use is bounded without the global Kawa/DX lock, and the
+ * independent pre-dex jobs of a build can run in parallel.</p>
+ */
+public final class D8CompilerPool {
+  private static final Logger LOG = Logger.getLogger(D8CompilerPool.class.getName());
+
+  // d8 recurses deeply on large methods; matches the -Xss8m given to d8 child processes.
+  private static final long WORKER_STACK_SIZE = 8L * 1024 * 1024;
+
+  private static volatile D8CompilerPool instance;
+
+  private final int maxWorkers;
+  private final ExecutorService workers;
+  private final ThreadGroup workerGroup = new ThreadGroup("d8-workers");
+  private final Map<String, D8> compilers = new HashMap<>();
+
+  private final AtomicInteger compilations = new AtomicInteger(0);
+  private final AtomicInteger failures = new AtomicInteger(0);
+
+  /**
+   * Installs the process-wide pool. A size of 0 disables the pool, in which case callers fall
+   * back to launching one d8 process per compilation.
+   *
+   * @param maxWorkers the maximum number of concurrent d8 compilations
+   */
+  public static synchronized void install(int maxWorkers) {
+    if (instance != null) {
+      instance.shutdown();
+      instance = null;
+    }
+    if (maxWorkers > 0) {
+      instance = new D8CompilerPool(maxWorkers);
+    }
+  }
+
+  /**
+   * Gets the process-wide pool.
+   *
+   * @return the pool, or null if none has been installed
+   */
+  public static D8CompilerPool getInstance() {
+    return instance;
+  }
+
+  D8CompilerPool(int maxWorkers) {
+    this.maxWorkers = maxWorkers;
+    final AtomicInteger threadCount = new AtomicInteger(0);
+    this.workers = Executors.newFixedThreadPool(maxWorkers, r -> {
+      Thread t = new Thread(workerGroup, r, "d8-worker-" + threadCount.incrementAndGet(),
+          WORKER_STACK_SIZE);
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /**
+   * Runs a task on a worker thread. Tasks that call {@link #compile(String, List)} run d8 on
+   * their own thread, so a build can hand over one task per library to dex them in parallel.
+   *
+   * @param task the task to run
+   */
+  public void execute(Runnable task) {
+    workers.execute(task);
+  }
+
+  /**
+   * Runs d8 with the given command line arguments. Called from a worker thread, d8 runs on that
+   * thread; otherwise the compilation is handed to a worker and this waits for it.
+   *
+   * @param d8Jar the path of d8.jar
+   * @param args the arguments that would follow {@code com.android.tools.r8.D8} on the command
+   *             line of a d8 process
+   * @return true if the compilation succeeded, otherwise false
+   * @throws InterruptedException if the thread is interrupted while waiting for a worker
+   */
+  public boolean compile(final String d8Jar, final List<String> args)
+      throws InterruptedException {
+    if (Thread.currentThread().getThreadGroup() == workerGroup) {
+      return run(d8Jar, args);
+    }
+    Future<Boolean> result = workers.submit(() -> run(d8Jar, args));
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      LOG.log(Level.WARNING, "d8 worker failed", e.getCause());
+      return false;
+    } catch (InterruptedException e) {
+      result.cancel(true);
+      throw e;
+    }
+  }
+
+  public int getMaxWorkers() {
+    return maxWorkers;
+  }
+
+  public int getCompilations() {
+    return compilations.get();
+  }
+
+  public int getFailures() {
+    return failures.get();
+  }
+
+  /**
+   * Stops the workers. Compilations in progress are interrupted.
+   */
+  public void shutdown() {
+    workers.shutdownNow();
+  }
+
+  private boolean run(String d8Jar, List<String> args) {
+    boolean success;
+    try {
+      success = getCompiler(d8Jar).run(args.toArray(new String[0]));
+    } catch (ReflectiveOperationException | MalformedURLException e) {
+      LOG.log(Level.SEVERE, "Unable to load d8 from " + d8Jar, e);
+      success = false;
+    }
+    compilations.incrementAndGet();
+    if (!success) {
+      failures.incrementAndGet();
+    }
+    return success;
+  }
+
+  private synchronized D8 getCompiler(String d8Jar)
+      throws ReflectiveOperationException, MalformedURLException {
+    D8 d8 = compilers.get(d8Jar);
+    if (d8 == null) {
+      d8 = new D8(new File(d8Jar));
+      compilers.put(d8Jar, d8);
+    }
+    return d8;
+  }
+
+  /**
+   * The entry points of a copy of d8, loaded in a class loader of its own so that its
+   * dependencies cannot clash with those of the build server.
+   */
+  private static final class D8 {
+    private final Object origin;
+    private final Method parse;
+    private final Method build;
+    private final Method run;
+
+    D8(File jar) throws ReflectiveOperationException, MalformedURLException {
+      ClassLoader loader = new URLClassLoader(new URL[] { jar.toURI().toURL() },
+          ClassLoader.getSystemClassLoader().getParent());
+      Class<?> commandClass = loader.loadClass("com.android.tools.r8.D8Command");
+      Class<?> originClass = loader.loadClass("com.android.tools.r8.origin.Origin");
+      origin = originClass.getMethod("root").invoke(null);
+      parse = commandClass.getMethod("parse", String[].class, originClass);
+      build = loader.loadClass("com.android.tools.r8.BaseCommand$Builder").getMethod("build");
+      run = loader.loadClass("com.android.tools.r8.D8").getMethod("run", commandClass);
+    }
+
+    boolean run(String[] args) throws IllegalAccessException {
+      try {
+        Object builder = parse.invoke(null, args, origin);
+        run.invoke(null, build.invoke(builder));
+        return true;
+      } catch (InvocationTargetException e) {
+        // d8 has already reported its diagnostics on System.err.
+        LOG.log(Level.WARNING, "d8 failed", e.getCause());
+        return false;
+      }
+    }
+  }
+}
@@ -0,0 +1,354 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver.util;
+
+import com.google.common.base.Joiner;
+import com.google.common.io.Files;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A pool of resident Kawa compiler processes.
+ *
+ * <p>Launching a fresh JVM for every YAIL compilation costs JVM startup, Kawa bootstrap and
+ * loading runtime.scm on every build. The pool keeps up to {@code maxWorkers} child JVMs running
+ * {@link KawaCompilerWorker} that have already paid those costs, and hands each compilation to
+ * an idle worker whose class path matches the build. Because at most {@code maxWorkers}
+ * compilations run at once, memory use is bounded without the global Kawa/DX lock.</p>
+ *
+ * <p>Workers are keyed by their class path, heap size and runtime.scm location. When no idle
+ * worker matches and the pool is full, the least recently used idle worker is retired to make
+ * room. A worker that fails a compilation (Kawa exits on error) or that has served
+ * {@link #MAX_COMPILES_PER_WORKER} requests is discarded, and a replacement with the same key is
+ * warmed up in the background.</p>
+ */
+public final class KawaCompilerPool {
+  private static final Logger LOG = Logger.getLogger(KawaCompilerPool.class.getName());
+
+  // Kawa retains module metadata for every file it compiles, so recycle workers periodically.
+  static final int MAX_COMPILES_PER_WORKER = 50;
+
+  private static volatile KawaCompilerPool instance;
+
+  private final int maxWorkers;
+  private final Semaphore permits;
+  private final LinkedList<Worker> idleWorkers = new LinkedList<>();
+  private final ExecutorService warmer = Executors.newSingleThreadExecutor(r -> {
+    Thread t = new Thread(r, "kawa-warmer");
+    t.setDaemon(true);
+    return t;
+  });
+  private int liveWorkers = 0;
+
+  private final AtomicInteger compilations = new AtomicInteger(0);
+  private final AtomicInteger warmHits = new AtomicInteger(0);
+  private final AtomicInteger workersStarted = new AtomicInteger(0);
+
+  /**
+   * Installs the process-wide pool. A size of 0 disables the pool, in which case callers fall
+   * back to launching one Kawa process per build.
+   *
+   * @param maxWorkers the maximum number of resident compiler processes
+   */
+  public static synchronized void install(int maxWorkers) {
+    if (instance != null) {
+      instance.shutdown();
+      instance = null;
+    }
+    if (maxWorkers > 0) {
+      instance = new KawaCompilerPool(maxWorkers);
+      Runtime.getRuntime().addShutdownHook(new Thread() {
+        @Override
+        public void run() {
+          KawaCompilerPool pool = instance;
+          if (pool != null) {
+            pool.shutdown();
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Gets the process-wide pool.
+   *
+   * @return the pool, or null if none has been installed
+   */
+  public static KawaCompilerPool getInstance() {
+    return instance;
+  }
+
+  KawaCompilerPool(int maxWorkers) {
+    this.maxWorkers = maxWorkers;
+    this.permits = new Semaphore(maxWorkers, true);
+  }
+
+  /**
+   * Compiles YAIL sources using a resident Kawa process.
+   *
+   * @param classpath the class path the compiler needs to resolve component classes
+   * @param heapMb the maximum heap size of the compiler process, in MB
+   * @param yailRuntime the path to runtime.scm
+   * @param kawaArgs the compiler arguments following {@code -f runtime.scm} on the command line
+   *                 of a one-shot compiler
+   * @param err the stream that receives the compiler's diagnostics
+   * @return true if the compilation succeeded, otherwise false
+   */
+  public boolean compile(String classpath, int heapMb, String yailRuntime, List<String> kawaArgs,
+      PrintStream err) throws InterruptedException {
+    String key = heapMb + File.pathSeparator + yailRuntime + File.pathSeparator + classpath;
+    permits.acquire();
+    Worker worker = null;
+    File log = null;
+    try {
+      worker = checkout(key, classpath, heapMb, yailRuntime);
+      log = File.createTempFile("kawa", ".log");
+      boolean success = worker.compile(log, kawaArgs);
+      err.print(Files.toString(log, StandardCharsets.UTF_8));
+      compilations.incrementAndGet();
+      return success;
+    } catch (IOException e) {
+      LOG.log(Level.WARNING, "Kawa worker failed", e);
+      if (log != null && log.exists()) {
+        try {
+          err.print(Files.toString(log, StandardCharsets.UTF_8));
+        } catch (IOException ignored) {
+          // Nothing more we can report
+        }
+      }
+      return false;
+    } finally {
+      if (log != null && !log.delete()) {
+        log.deleteOnExit();
+      }
+      if (worker != null) {
+        checkin(worker);
+      }
+      permits.release();
+    }
+  }
+
+  public int getMaxWorkers() {
+    return maxWorkers;
+  }
+
+  public synchronized int getLiveWorkers() {
+    return liveWorkers;
+  }
+
+  public synchronized int getIdleWorkers() {
+    return idleWorkers.size();
+  }
+
+  public int getCompilations() {
+    return compilations.get();
+  }
+
+  public int getWarmHits() {
+    return warmHits.get();
+  }
+
+  public int getWorkersStarted() {
+    return workersStarted.get();
+  }
+
+  /**
+   * Terminates all idle workers. Busy workers are terminated when they are checked in.
+   */
+  public void shutdown() {
+    warmer.shutdownNow();
+    List<Worker> workers;
+    synchronized (this) {
+      workers = new ArrayList<>(idleWorkers);
+      idleWorkers.clear();
+      liveWorkers -= workers.size();
+    }
+    for (Worker worker : workers) {
+      worker.destroy();
+    }
+  }
+
+  private Worker checkout(String key, String classpath, int heapMb, String yailRuntime)
+      throws IOException {
+    Worker victim = null;
+    synchronized (this) {
+      for (Iterator<Worker> it = idleWorkers.iterator(); it.hasNext(); ) {
+        Worker worker = it.next();
+        if (!worker.isAlive()) {
+          it.remove();
+          liveWorkers--;
+        } else if (worker.key.equals(key)) {
+          it.remove();
+          warmHits.incrementAndGet();
+          return worker;
+        }
+      }
+      if (liveWorkers >= maxWorkers && !idleWorkers.isEmpty()) {
+        // The head of the list is the least recently used idle worker.
+        victim = idleWorkers.removeFirst();
+        liveWorkers--;
+      }
+      liveWorkers++;
+    }
+    if (victim != null) {
+      victim.destroy();
+    }
+    try {
+      return startWorker(key, classpath, heapMb, yailRuntime);
+    } catch (IOException e) {
+      synchronized (this) {
+        liveWorkers--;
+      }
+      throw e;
+    }
+  }
+
+  private void checkin(final Worker worker) {
+    boolean healthy = worker.isAlive() && worker.compiles < MAX_COMPILES_PER_WORKER;
+    boolean replace;
+    synchronized (this) {
+      if (healthy && !warmer.isShutdown()) {
+        idleWorkers.addLast(worker);
+        return;
+      }
+      liveWorkers--;
+      replace = !warmer.isShutdown();
+    }
+    worker.destroy();
+    if (replace) {
+      warmer.submit(new Runnable() {
+        @Override
+        public void run() {
+          synchronized (KawaCompilerPool.this) {
+            if (liveWorkers >= maxWorkers) {
+              return;
+            }
+            liveWorkers++;
+          }
+          try {
+            Worker fresh = startWorker(worker.key, worker.classpath, worker.heapMb,
+                worker.yailRuntime);
+            synchronized (KawaCompilerPool.this) {
+              idleWorkers.addLast(fresh);
+            }
+          } catch (IOException e) {
+            LOG.log(Level.WARNING, "Unable to warm up replacement Kawa worker", e);
+            synchronized (KawaCompilerPool.this) {
+              liveWorkers--;
+            }
+          }
+        }
+      });
+    }
+  }
+
+  private Worker startWorker(String key, String classpath, int heapMb, String yailRuntime)
+      throws IOException {
+    String workerPath;
+    try {
+      workerPath = new File(KawaCompilerWorker.class.getProtectionDomain().getCodeSource()
+          .getLocation().toURI()).getAbsolutePath();
+    } catch (URISyntaxException e) {
+      throw new IOException(e);
+    }
+    List<String> command = new ArrayList<>();
+    Collections.addAll(command,
+        System.getProperty("java.home") + "/bin/java",
+        "-Dfile.encoding=UTF-8",
+        "-mx" + heapMb + "M",
+        "-cp", workerPath + File.pathSeparator + classpath,
+        KawaCompilerWorker.class.getName(),
+        yailRuntime);
+    LOG.info("Starting Kawa worker: " + Joiner.on(" ").join(command));
+    Process process = new ProcessBuilder(command)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+    Worker worker = new Worker(key, classpath, heapMb, yailRuntime, process);
+    worker.awaitReady();
+    workersStarted.incrementAndGet();
+    return worker;
+  }
+
+  private static final class Worker {
+    private final String key;
+    private final String classpath;
+    private final int heapMb;
+    private final String yailRuntime;
+    private final Process process;
+    private final DataOutputStream requests;
+    private final DataInputStream responses;
+    private int compiles = 0;
+
+    Worker(String key, String classpath, int heapMb, String yailRuntime, Process process) {
+      this.key = key;
+      this.classpath = classpath;
+      this.heapMb = heapMb;
+      this.yailRuntime = yailRuntime;
+      this.process = process;
+      this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+      this.responses = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+    }
+
+    void awaitReady() throws IOException {
+      try {
+        if (responses.readInt() != KawaCompilerWorker.STATUS_OK) {
+          throw new IOException("Kawa worker failed to load runtime");
+        }
+      } catch (IOException e) {
+        destroy();
+        throw e;
+      }
+    }
+
+    boolean compile(File log, List<String> kawaArgs) throws IOException {
+      compiles++;
+      requests.writeInt(kawaArgs.size() + 1);
+      requests.writeUTF(log.getAbsolutePath());
+      for (String arg : kawaArgs) {
+        requests.writeUTF(arg);
+      }
+      requests.flush();
+      // Kawa terminates the worker on a compile error, which surfaces here as EOF.
+      try {
+        return responses.readInt() == KawaCompilerWorker.STATUS_OK;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+
+    boolean isAlive() {
+      return process.isAlive();
+    }
+
+    void destroy() {
+      try {
+        requests.close();
+      } catch (IOException e) {
+        // Ignored, we're tearing down the worker anyway
+      }
+      process.destroy();
+    }
+  }
+}
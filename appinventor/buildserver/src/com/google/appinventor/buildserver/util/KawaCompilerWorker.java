@@ -0,0 +1,116 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Entry point for a resident Kawa compiler process managed by {@link KawaCompilerPool}.
+ *
+ * <p>The worker loads the YAIL runtime once at startup and then serves compile requests read
+ * from its standard input until the stream is closed. Each request is a count of arguments
+ * followed by the arguments themselves, the first of which names the file that receives the
+ * compiler's diagnostics. The remaining arguments are handed to {@code kawa.repl} exactly as
+ * they would be on the command line of a one-shot compiler process. The worker answers each
+ * request with a single status int on its standard output: 0 for success, anything else for
+ * failure.</p>
+ *
+ * <p>Kawa exits the JVM when it encounters a compile error. The pool treats an unexpected end
+ * of stream as a failed compilation and discards the worker, so that case needs no handling
+ * here.</p>
+ *
+ * <p>This class must not depend on anything other than the JDK since it runs in a child JVM
+ * whose class path contains only the build server jar and the Kawa class path. Kawa itself is
+ * reached through reflection because it is not on the build server's compile class path.</p>
+ */
+public final class KawaCompilerWorker {
+  static final int STATUS_OK = 0;
+  static final int STATUS_FAILED = 1;
+
+  private KawaCompilerWorker() {
+  }
+
+  /**
+   * Starts the worker.
+   *
+   * @param args a single argument, the path to runtime.scm
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: KawaCompilerWorker <runtime.scm>");
+      System.exit(2);
+    }
+
+    // Keep hold of the real stdout for the protocol. Anything Kawa prints to stdout is routed to
+    // our stderr, which the build server forwards to its own log.
+    PrintStream protocolOut = System.out;
+    PrintStream logOut = System.err;
+    System.setOut(logOut);
+
+    Method processArgs;
+    try {
+      processArgs = Class.forName("kawa.repl")
+          .getMethod("processArgs", String[].class, int.class, int.class);
+      processArgs.invoke(null, new String[] { "-f", args[0] }, 0, 2);
+    } catch (ReflectiveOperationException e) {
+      e.printStackTrace(logOut);
+      System.exit(2);
+      return;
+    }
+
+    DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(protocolOut));
+    // Signal readiness so the pool knows runtime.scm has been loaded.
+    out.writeInt(STATUS_OK);
+    out.flush();
+
+    while (true) {
+      String[] request;
+      try {
+        request = readRequest(in);
+      } catch (EOFException e) {
+        return;  // The pool closed our stdin.
+      }
+      int status = STATUS_OK;
+      try (PrintStream err = new PrintStream(new FileOutputStream(request[0]), true, "UTF-8")) {
+        System.setErr(err);
+        String[] kawaArgs = new String[request.length - 1];
+        System.arraycopy(request, 1, kawaArgs, 0, kawaArgs.length);
+        try {
+          processArgs.invoke(null, kawaArgs, 0, kawaArgs.length);
+        } catch (InvocationTargetException e) {
+          e.getCause().printStackTrace(err);
+          status = STATUS_FAILED;
+        } catch (ReflectiveOperationException e) {
+          e.printStackTrace(err);
+          status = STATUS_FAILED;
+        }
+      } finally {
+        System.setErr(logOut);
+      }
+      out.writeInt(status);
+      out.flush();
+    }
+  }
+
+  private static String[] readRequest(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    String[] request = new String[count];
+    for (int i = 0; i < count; i++) {
+      request[i] = in.readUTF();
+    }
+    return request;
+  }
+}
@@ -0,0 +1,143 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver;
+
+import com.google.appinventor.buildserver.context.AndroidCompilerContext;
+import com.google.appinventor.buildserver.context.AndroidPaths;
+import com.google.appinventor.buildserver.context.CompilerContext;
+import com.google.appinventor.buildserver.interfaces.CommonTask;
+import com.google.appinventor.buildserver.stats.NullStatReporter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the scheduling of tasks by the Compiler class.
+ */
+public class CompilerTest extends TestCase {
+  private static final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+  private static CyclicBarrier barrier;
+
+  @Override
+  protected void setUp() {
+    events.clear();
+    barrier = new CyclicBarrier(2);
+  }
+
+  public void testIndependentTasksRunConcurrently() {
+    Compiler<AndroidPaths, AndroidCompilerContext> compiler = makeCompiler(4);
+    compiler.add(First.class);
+    compiler.add(Left.class);
+    compiler.add(Right.class);
+    compiler.add(Last.class);
+    assertTrue(compiler.call());
+    assertEquals("First", events.get(0));
+    assertEquals("Last", events.get(3));
+    assertTrue(events.containsAll(Arrays.asList("Left", "Right")));
+  }
+
+  public void testSequentialWithoutParallelism() {
+    Compiler<AndroidPaths, AndroidCompilerContext> compiler = makeCompiler(1);
+    compiler.add(First.class);
+    compiler.add(Last.class);
+    assertTrue(compiler.call());
+    assertEquals(Arrays.asList("First", "Last"), events);
+  }
+
+  public void testFailureStopsDependents() {
+    Compiler<AndroidPaths, AndroidCompilerContext> compiler = makeCompiler(4);
+    compiler.add(First.class);
+    compiler.add(Failing.class);
+    compiler.add(Last.class);
+    assertFalse(compiler.call());
+    assertFalse(events.contains("Last"));
+  }
+
+  private static Compiler<AndroidPaths, AndroidCompilerContext> makeCompiler(int parallelism) {
+    AndroidCompilerContext context =
+        new CompilerContext.Builder<AndroidPaths, AndroidCompilerContext>(null, "apk")
+            .withClass(AndroidCompilerContext.class)
+            .withTypes(Collections.<String>emptySet())
+            .withBlocks(Collections.<String, Set<String>>emptyMap())
+            .withReporter(new Reporter(null))
+            .withStatReporter(new NullStatReporter())
+            .withKeystore("test.keystore")
+            .withParallelism(parallelism)
+            .build();
+    return new Compiler.Builder<AndroidPaths, AndroidCompilerContext>()
+        .withContext(context)
+        .withType(BuildType.APK_EXTENSION)
+        .build();
+  }
+
+  @BuildType(apk = true)
+  public static class First implements CommonTask {
+    @Override
+    public TaskResult execute(CompilerContext<?> context) {
+      events.add("First");
+      return TaskResult.generateSuccess();
+    }
+  }
+
+  /*
+   * Left and Right each wait for the other at the barrier, which only succeeds if the compiler
+   * runs them at the same time.
+   */
+  @BuildType(apk = true)
+  @DependsOn(First.class)
+  public static class Left implements CommonTask {
+    @Override
+    public TaskResult execute(CompilerContext<?> context) {
+      try {
+        barrier.await(5, TimeUnit.SECONDS);
+      } catch (Exception e) {
+        return TaskResult.generateError(e);
+      }
+      events.add("Left");
+      return TaskResult.generateSuccess();
+    }
+  }
+
+  @BuildType(apk = true)
+  @DependsOn(First.class)
+  public static class Right implements CommonTask {
+    @Override
+    public TaskResult execute(CompilerContext<?> context) {
+      try {
+        barrier.await(5, TimeUnit.SECONDS);
+      } catch (Exception e) {
+        return TaskResult.generateError(e);
+      }
+      events.add("Right");
+      return TaskResult.generateSuccess();
+    }
+  }
+
+  @BuildType(apk = true)
+  public static class Last implements CommonTask {
+    @Override
+    public TaskResult execute(CompilerContext<?> context) {
+      events.add("Last");
+      return TaskResult.generateSuccess();
+    }
+  }
+
+  @BuildType(apk = true)
+  @DependsOn(First.class)
+  public static class Failing implements CommonTask {
+    @Override
+    public TaskResult execute(CompilerContext<?> context) {
+      return TaskResult.generateError("expected failure");
+    }
+  }
+}
@@ -0,0 +1,154 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+package com.google.appinventor.buildserver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests FairQueuingExecutor class.
+ */
+public class FairQueuingExecutorTest extends TestCase {
+  private static final LongSupplier UNLIMITED_MEMORY = new LongSupplier() {
+    @Override
+    public long getAsLong() {
+      return Long.MAX_VALUE;
+    }
+  };
+
+  public void testTasksAreQueuedThenRejected() throws Exception {
+    FairQueuingExecutor executor = new FairQueuingExecutor(1, 2, 0, UNLIMITED_MEMORY);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(3);
+
+    assertEquals(0, executor.submit("a", new Blocker(release, done)).getPosition());
+    assertEquals(1, executor.submit("b", new Blocker(release, done)).getPosition());
+    FairQueuingExecutor.Admission third = executor.submit("c", new Blocker(release, done));
+    assertEquals(2, third.getPosition());
+    assertTrue(third.getEstimatedWaitMillis() > 0);
+    assertEquals(1, executor.getActiveTaskCount());
+    assertEquals(2, executor.getQueuedTaskCount());
+
+    try {
+      executor.submit("d", new Blocker(release, done));
+      fail();
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+
+    release.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+  }
+
+  public void testUsersAreServedRoundRobin() throws Exception {
+    FairQueuingExecutor executor = new FairQueuingExecutor(1, 10, 0, UNLIMITED_MEMORY);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(5);
+    List<String> order = Collections.synchronizedList(new ArrayList<String>());
+
+    executor.submit("blocker", new Blocker(release, done));
+    executor.submit("a", new Recorder("a1", order, done));
+    executor.submit("a", new Recorder("a2", order, done));
+    FairQueuingExecutor.Admission a3 = executor.submit("a", new Recorder("a3", order, done));
+    FairQueuingExecutor.Admission b1 = executor.submit("b", new Recorder("b1", order, done));
+    // b1 arrived last but is only behind a1, since user b has had no turn yet.
+    assertEquals(3, a3.getPosition());
+    assertEquals(2, b1.getPosition());
+
+    release.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("a1", "b1", "a2", "a3"), order);
+  }
+
+  public void testBuildWaitsForMemory() throws Exception {
+    final AtomicLong memory = new AtomicLong(100);
+    FairQueuingExecutor executor = new FairQueuingExecutor(0, 10, 100, new LongSupplier() {
+      @Override
+      public long getAsLong() {
+        return memory.get();
+      }
+    });
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(2);
+
+    // The first build always starts, but it is assumed to claim the memory that is free now.
+    assertEquals(0, executor.submit("a", new Blocker(release, done)).getPosition());
+    assertEquals(1, executor.submit("b", new Blocker(release, done)).getPosition());
+    assertEquals(1, executor.getMemoryDeferrals());
+
+    release.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(0, executor.getQueuedTaskCount());
+  }
+
+  public void testMemoryDeferralsCountEachBuildOnce() throws Exception {
+    FairQueuingExecutor executor = new FairQueuingExecutor(0, 10, 100, new LongSupplier() {
+      @Override
+      public long getAsLong() {
+        return 0;
+      }
+    });
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(3);
+
+    executor.submit("a", new Blocker(release, done));
+    executor.submit("b", new Blocker(release, done));
+    executor.submit("c", new Blocker(release, done));
+    // Only b, the next build to start, has been held back so far.
+    assertEquals(1, executor.getMemoryDeferrals());
+
+    release.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    // b starts once a finishes, since nothing else is running, and c waits for b.
+    assertEquals(2, executor.getMemoryDeferrals());
+  }
+
+  private static class Blocker implements Runnable {
+    private final CountDownLatch release;
+    private final CountDownLatch done;
+
+    Blocker(CountDownLatch release, CountDownLatch done) {
+      this.release = release;
+      this.done = done;
+    }
+
+    @Override
+    public void run() {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        // ignored
+      }
+      done.countDown();
+    }
+  }
+
+  private static class Recorder implements Runnable {
+    private final String name;
+    private final List<String> order;
+    private final CountDownLatch done;
+
+    Recorder(String name, List<String> order, CountDownLatch done) {
+      this.name = name;
+      this.order = order;
+      this.done = done;
+    }
+
+    @Override
+    public void run() {
+      order.add(name);
+      done.countDown();
+    }
+  }
+}
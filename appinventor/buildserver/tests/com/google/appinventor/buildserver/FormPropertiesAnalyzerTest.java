@@ -57,4 +57,21 @@ public class FormPropertiesAnalyzerTest {
   public void testGetComponentTypesFromFormFileThrows() {
     FormPropertiesAnalyzer.getComponentTypesFromFormFile("#|\n$JSON\n{}\n|$\n");
   }
+
+  @Test
+  public void testAnalyzeFormFile() {
+    FormPropertiesAnalyzer.FormInfo info = FormPropertiesAnalyzer.analyzeFormFile(
+        "#|\n$JSON\n{\"Properties\":{\"$Type\":\"Form\",\"ScreenOrientation\":\"portrait\","
+        + "\"$Components\":[{\"$Type\":\"Button\",\"Text\":\"Hi\"}]}}\n|#\n");
+    assertEquals(2, info.getComponentTypes().size());
+    assertTrue(info.getComponentTypes().contains("Button"));
+    assertTrue(info.getComponentProperties().get("Form").contains("ScreenOrientation"));
+    assertTrue(info.getComponentProperties().get("Button").contains("Text"));
+    assertEquals("portrait", info.getOrientation());
+  }
+
+  @Test
+  public void testAnalyzeFormFileDefaultOrientation() {
+    assertEquals("unspecified", FormPropertiesAnalyzer.analyzeFormFile(TEST_DATA).getOrientation());
+  }
 }
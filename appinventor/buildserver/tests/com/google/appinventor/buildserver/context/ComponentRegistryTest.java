@@ -0,0 +1,77 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver.context;
+
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Tests the ComponentRegistry class.
+ */
+public class ComponentRegistryTest extends TestCase {
+  private static final String EXTENSION = "com.example.Ext";
+  private static final String BUILD_INFO = "[{\"type\":\"" + EXTENSION + "\","
+      + "\"permissions\":[\"android.permission.INTERNET\",\"\"],"
+      + "\"libraries\":[],"
+      + "\"conditionals\":{\"permissions\":{\"Start\":[\"android.permission.CAMERA\"]},"
+      + "\"permissionConstraints\":{\"Start\":{\"android.permission.CAMERA\":"
+      + "{\"maxSdkVersion\":28}}}}}]";
+
+  private File tmpDir;
+
+  @Override
+  protected void setUp() {
+    tmpDir = Files.createTempDir();
+  }
+
+  @Override
+  protected void tearDown() {
+    FileUtils.deleteQuietly(tmpDir);
+  }
+
+  public void testExtensionInfo() throws Exception {
+    ComponentRegistry registry = ComponentRegistry.forExtension(write("a.json", BUILD_INFO));
+    assertEquals(Collections.singleton(EXTENSION), registry.getTypes());
+
+    ComponentRegistry.Component component = registry.get(EXTENSION);
+    assertEquals(Collections.singleton("android.permission.INTERNET"),
+        component.getInfo("permissions"));
+    assertTrue(component.getInfo("libraries").isEmpty());
+    assertNull(component.getInfo("assets"));
+    assertEquals(Collections.singleton("android.permission.CAMERA"),
+        component.getConditionals("permissions").get("Start"));
+    assertNull(component.getConditionals("permissionConstraints"));
+    assertNotNull(component.getConditionalPermissionConstraints().optJSONObject("Start"));
+    assertNull(component.getPermissionConstraints());
+  }
+
+  public void testExtensionsAreSharedByContent() throws Exception {
+    ComponentRegistry first = ComponentRegistry.forExtension(write("a.json", BUILD_INFO));
+    ComponentRegistry second = ComponentRegistry.forExtension(write("b.json", BUILD_INFO));
+    assertSame(first, second);
+
+    ComponentRegistry single = ComponentRegistry.forExtension(write("c.json",
+        "{\"type\":\"com.example.Other\"}"));
+    assertNotSame(first, single);
+    ComponentRegistry merged = ComponentRegistry.merge(Arrays.asList(first, single));
+    assertEquals(2, merged.getTypes().size());
+    assertNotNull(merged.get("com.example.Other"));
+  }
+
+  private File write(String name, String content) throws IOException {
+    File file = new File(tmpDir, name);
+    Files.write(content, file, StandardCharsets.UTF_8);
+    return file;
+  }
+}
@@ -0,0 +1,123 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver.util;
+
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Tests the BuildCache class.
+ */
+public class BuildCacheTest extends TestCase {
+  private File tmpDir;
+  private File cacheDir;
+
+  @Override
+  protected void setUp() {
+    tmpDir = Files.createTempDir();
+    cacheDir = new File(tmpDir, "cache");
+  }
+
+  @Override
+  protected void tearDown() {
+    FileUtils.deleteQuietly(tmpDir);
+  }
+
+  public void testStoreAndRestore() throws Exception {
+    BuildCache cache = new BuildCache(cacheDir, 1024 * 1024);
+    File input = write("input.yail", "(define x 1)");
+    File output = write("out/classes/Screen1.class", "compiled");
+
+    BuildCache.Key key = cache.newKey("test").putFile(input);
+    assertFalse(cache.restore(key, outputs(new File(tmpDir, "restored"))));
+    cache.store(cache.newKey("test").putFile(input), outputs(new File(tmpDir, "out")));
+
+    File restored = new File(tmpDir, "restored");
+    assertTrue(cache.restore(cache.newKey("test").putFile(input), outputs(restored)));
+    assertEquals("compiled", read(new File(restored, "classes/Screen1.class")));
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertTrue(output.exists());
+  }
+
+  public void testChangedInputMisses() throws Exception {
+    BuildCache cache = new BuildCache(cacheDir, 1024 * 1024);
+    File input = write("input.yail", "(define x 1)");
+    write("out/Screen1.class", "compiled");
+    cache.store(cache.newKey("test").putFile(input), outputs(new File(tmpDir, "out")));
+
+    write("input.yail", "(define x 2)");
+    assertFalse(cache.restore(cache.newKey("test").putFile(input),
+        outputs(new File(tmpDir, "restored"))));
+    assertFalse(cache.restore(cache.newKey("other").putString("(define x 1)"),
+        outputs(new File(tmpDir, "restored"))));
+  }
+
+  public void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+    BuildCache cache = new BuildCache(cacheDir, 25);
+    File out = new File(tmpDir, "out");
+    write("out/data", "0123456789");
+    cache.store(cache.newKey("test").putString("a"), outputs(out));
+    cache.store(cache.newKey("test").putString("b"), outputs(out));
+    assertTrue(cache.restore(cache.newKey("test").putString("a"), outputs(out)));
+
+    cache.store(cache.newKey("test").putString("c"), outputs(out));
+    assertEquals(2, cache.getEntryCount());
+    assertEquals(1, cache.getEvictions());
+    assertTrue(cache.restore(cache.newKey("test").putString("a"), outputs(out)));
+    assertFalse(cache.restore(cache.newKey("test").putString("b"), outputs(out)));
+    assertTrue(cache.restore(cache.newKey("test").putString("c"), outputs(out)));
+  }
+
+  public void testEntriesSurviveRestart() throws Exception {
+    write("out/data", "0123456789");
+    new BuildCache(cacheDir, 1024).store(new BuildCache(cacheDir, 1024).newKey("test"),
+        outputs(new File(tmpDir, "out")));
+    BuildCache reopened = new BuildCache(cacheDir, 1024);
+    assertEquals(1, reopened.getEntryCount());
+    assertEquals(10, reopened.getSizeBytes());
+    assertTrue(reopened.restore(reopened.newKey("test"), outputs(new File(tmpDir, "restored"))));
+  }
+
+  public void testLinkSurvivesEviction() throws Exception {
+    BuildCache cache = new BuildCache(cacheDir, 15);
+    write("out/res/values.xml", "0123456789");
+    cache.store(cache.newKey("test").putString("a"), outputs(new File(tmpDir, "out")));
+
+    File linked = new File(tmpDir, "linked");
+    write("linked/res/values.xml", "stale");
+    assertTrue(cache.link(cache.newKey("test").putString("a"), outputs(linked)));
+    assertEquals("0123456789", read(new File(linked, "res/values.xml")));
+    assertEquals(1, cache.getHits());
+
+    cache.store(cache.newKey("test").putString("b"), outputs(new File(tmpDir, "out")));
+    assertEquals(1, cache.getEvictions());
+    assertEquals("0123456789", read(new File(linked, "res/values.xml")));
+  }
+
+  private File write(String path, String content) throws IOException {
+    File file = new File(tmpDir, path);
+    Files.createParentDirs(file);
+    Files.write(content, file, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private static String read(File file) throws IOException {
+    return Files.toString(file, StandardCharsets.UTF_8);
+  }
+
+  private static Map<String, File> outputs(File dir) {
+    return Collections.singletonMap("files", dir);
+  }
+}
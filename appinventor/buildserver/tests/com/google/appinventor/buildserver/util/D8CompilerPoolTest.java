@@ -0,0 +1,58 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver.util;
+
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.FutureTask;
+
+import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Tests the D8CompilerPool class.
+ */
+public class D8CompilerPoolTest extends TestCase {
+  private File tmpDir;
+
+  @Override
+  protected void setUp() {
+    tmpDir = Files.createTempDir();
+  }
+
+  @Override
+  protected void tearDown() {
+    FileUtils.deleteQuietly(tmpDir);
+  }
+
+  public void testMissingD8Fails() throws Exception {
+    D8CompilerPool pool = new D8CompilerPool(1);
+    try {
+      String d8Jar = new File(tmpDir, "d8.jar").getAbsolutePath();
+      assertFalse(pool.compile(d8Jar, Collections.singletonList("--version")));
+      assertEquals(1, pool.getCompilations());
+      assertEquals(1, pool.getFailures());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  public void testCompileFromWorkerDoesNotDeadlock() throws Exception {
+    final D8CompilerPool pool = new D8CompilerPool(1);
+    try {
+      final String d8Jar = new File(tmpDir, "d8.jar").getAbsolutePath();
+      FutureTask<Boolean> task = new FutureTask<>(
+          () -> pool.compile(d8Jar, Collections.singletonList("--version")));
+      pool.execute(task);
+      assertFalse(task.get());
+      assertEquals(1, pool.getCompilations());
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
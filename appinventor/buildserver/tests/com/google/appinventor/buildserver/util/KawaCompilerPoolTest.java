@@ -0,0 +1,70 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.buildserver.util;
+
+import com.google.common.io.Files;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the KawaCompilerPool class.
+ */
+public class KawaCompilerPoolTest extends TestCase {
+  private File tmpDir;
+  private String kawaClasspath;
+  private File runtime;
+
+  @Override
+  protected void setUp() throws Exception {
+    tmpDir = Files.createTempDir();
+    kawaClasspath = new File(Class.forName("kawa.repl").getProtectionDomain().getCodeSource()
+        .getLocation().toURI()).getAbsolutePath();
+    runtime = new File(tmpDir, "runtime.scm");
+    Files.write("(define (helper) 42)\n", runtime, StandardCharsets.UTF_8);
+  }
+
+  public void testWorkerIsReused() throws Exception {
+    File source = new File(tmpDir, "good.scm");
+    Files.write("(module-name test.good)\n(define (f) (+ 1 2))\n", source,
+        StandardCharsets.UTF_8);
+    KawaCompilerPool pool = new KawaCompilerPool(1);
+    try {
+      for (int i = 0; i < 2; i++) {
+        File out = new File(tmpDir, "out" + i);
+        assertTrue(pool.compile(kawaClasspath, 256, runtime.getAbsolutePath(),
+            Arrays.asList("-d", out.getAbsolutePath(), "-C", source.getAbsolutePath()),
+            new PrintStream(new ByteArrayOutputStream())));
+        assertTrue(new File(out, "test/good.class").exists());
+      }
+      assertEquals(1, pool.getWorkersStarted());
+      assertEquals(1, pool.getWarmHits());
+      assertEquals(1, pool.getIdleWorkers());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  public void testCompileErrorIsReported() throws Exception {
+    File source = new File(tmpDir, "bad.scm");
+    Files.write("(module-name test.bad)\n(define (g)\n", source, StandardCharsets.UTF_8);
+    KawaCompilerPool pool = new KawaCompilerPool(1);
+    try {
+      ByteArrayOutputStream err = new ByteArrayOutputStream();
+      assertFalse(pool.compile(kawaClasspath, 256, runtime.getAbsolutePath(),
+          Arrays.asList("-d", tmpDir.getAbsolutePath(), "-C", source.getAbsolutePath()),
+          new PrintStream(err)));
+      assertTrue(err.toString("UTF-8").contains("bad.scm:"));
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -603,7 +603,16 @@ public class YaVersion {
   // - LISTVIEW_COMPONENT_VERSION was incremented to 8.
   // For YOUNG_ANDROID_VERSION 231:
   // - LISTVIEW_COMPONENT_VERSION was incremented to 9.
-  public static final int YOUNG_ANDROID_VERSION = 231;
+  // For YOUNG_ANDROID_VERSION 232:
+  // - WEB_COMPONENT_VERSION was incremented to 10.
+  // For YOUNG_ANDROID_VERSION 233:
+  // - TINYDB_COMPONENT_VERSION was incremented to 4.
+  // For YOUNG_ANDROID_VERSION 234:
+  // - CLOUDDB_COMPONENT_VERSION was incremented to 3.
+  // For YOUNG_ANDROID_VERSION 235:
+  // - BLUETOOTHCLIENT_COMPONENT_VERSION was incremented to 9.
+  // - BLUETOOTHSERVER_COMPONENT_VERSION was incremented to 6.
+  public static final int YOUNG_ANDROID_VERSION = 235;
 
   // ............................... Blocks Language Version Number ...............................
 
@@ -808,7 +817,10 @@ public class YaVersion {
   // - The BluetoothClient.PollingRate property was added.
   // For BLUETOOTHCLIENT_COMPONENT_VERSION 8:
   // - The BluetoothClient.NoLocationNeeded property was added.
-  public static final int BLUETOOTHCLIENT_COMPONENT_VERSION = 8;
+  // For BLUETOOTHCLIENT_COMPONENT_VERSION 9:
+  // - The BluetoothClient.StartStreaming and StopStreaming methods, BytesDropped property and
+  //   DataReceived event were added.
+  public static final int BLUETOOTHCLIENT_COMPONENT_VERSION = 9;
 
   // For BLUETOOTHSERVER_COMPONENT_VERSION 2:
   // - The BluetoothServer.Enabled property was added.
@@ -818,7 +830,10 @@ public class YaVersion {
   // - The BluetoothServer.DelimiterByte property was added.
   // For BLUETOOTHSERVER_COMPONENT_VERSION 5:
   // - The BluetoothServer.Secure property was added.
-  public static final int BLUETOOTHSERVER_COMPONENT_VERSION = 5;
+  // For BLUETOOTHSERVER_COMPONENT_VERSION 6:
+  // - The BluetoothServer.StartStreaming and StopStreaming methods, BytesDropped property and
+  //   DataReceived event were added.
+  public static final int BLUETOOTHSERVER_COMPONENT_VERSION = 6;
 
   // For BUTTON_COMPONENT_VERSION 2:
   // - The Alignment property was renamed to TextAlignment.
@@ -1483,7 +1498,9 @@ public class YaVersion {
   // - Added Property: Namespace
   // For TINYDB_COMPONENT_VERSION 3:
   // - Added GetEntries method
-  public static final int TINYDB_COMPONENT_VERSION = 3;
+  // For TINYDB_COMPONENT_VERSION 4:
+  // - Added FlushInterval property and Flush method
+  public static final int TINYDB_COMPONENT_VERSION = 4;
 
   // For TINYWEBDB_COMPONENT_VERSION 2:
   // - The TinyWebDB.ShowAlert method was removed. Notifier.ShowAlert should be used instead.
@@ -1503,7 +1520,9 @@ public class YaVersion {
   // For CLOUDDB_COMPONENT_VERSION 2:
   // - Added the UpdateDone event
   //   to control its use
-  public static final int CLOUDDB_COMPONENT_VERSION = 2;
+  // For CLOUDDB_COMPONENT_VERSION 3:
+  // - Added the CacheValues property
+  public static final int CLOUDDB_COMPONENT_VERSION = 3;
 
   // For TRENDLINE_COMPONENT_VERSION 1:
   // - Initial implementation
@@ -1590,7 +1609,9 @@ public class YaVersion {
   // - PATCH methods added (PatchText, PatchTextWithEncoding, and PatchFile).
   // For WEB_COMPONENT_VERSION 9:
   // - Added property ResponseTextEncoding
-  public static final int WEB_COMPONENT_VERSION = 9;
+  // For WEB_COMPONENT_VERSION 10:
+  // - Added property CacheResponses and method ClearCache
+  public static final int WEB_COMPONENT_VERSION = 10;
 
   // For WEBVIEWER_COMPONENT_VERSION 2:
   // - The CanGoForward and CanGoBack methods were added
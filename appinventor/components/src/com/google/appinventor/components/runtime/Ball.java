@@ -20,7 +20,6 @@ import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.util.PaintUtil;
-import com.google.appinventor.components.runtime.util.Vector2D;
 
 /**
  * A round 'sprite' that can be placed on a {@link Canvas}, where it can react to touches and drags,
@@ -84,25 +83,6 @@ public final class Ball extends Sprite {
     }
   }
 
-  // Get the vector to the center of the circle
-  Vector2D getCenterVector() {
-    double xCenter = xLeft + Width() / 2.0;
-    double yCenter = yTop + Height() / 2.0;
-    return new Vector2D(xCenter, yCenter);
-  }
-
-  // The min projection is the projection of the center minus the radius. We consider dot product
-  // values as the projection so the radius needs to be multiplied by the axis's magnitude.
-  double getMinProjection(Vector2D axis) {
-    return Vector2D.dotProduct(getCenterVector(), axis) - Radius() * axis.magnitude();
-  }
-
-  // The max projection is the projection of the center plus the radius. We consider dot product
-  // values as the projection so the radius needs to be multiplied by the axis's magnitude.
-  double getMaxProjection(Vector2D axis) {
-    return Vector2D.dotProduct(getCenterVector(), axis) + Radius() * axis.magnitude();
-  }
-
   // The following four methods are required by abstract superclass
   // VisibleComponent.  Because we don't want to expose them to the Simple
   // programmer, we omit the SimpleProperty and DesignerProperty pragmas.
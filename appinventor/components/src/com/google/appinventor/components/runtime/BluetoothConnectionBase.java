@@ -9,6 +9,8 @@ package com.google.appinventor.components.runtime;
 import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothSocket;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.google.appinventor.components.annotations.DesignerProperty;
@@ -20,6 +22,7 @@ import com.google.appinventor.components.annotations.SimpleProperty;
 
 import com.google.appinventor.components.common.PropertyTypeConstants;
 
+import com.google.appinventor.components.runtime.util.ByteRingBuffer;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
 import com.google.appinventor.components.runtime.util.SUtil;
 import com.google.appinventor.components.runtime.util.YailList;
@@ -34,6 +37,7 @@ import java.io.UnsupportedEncodingException;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * An abstract base class for the BluetoothClient and BluetoothServer
@@ -60,6 +64,32 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
   private InputStream inputStream;
   private OutputStream outputStream;
 
+  // The size of the buffer between the streaming reader thread and the DataReceived event.
+  private static final int STREAM_BUFFER_SIZE = 16384;
+
+  private final Handler uiHandler;
+  // The thread reading from inputStream into streamBuffer, or null if streaming has not been
+  // started since the connection was made. Once started, it owns the input stream until the
+  // connection is closed.
+  private volatile Thread readerThread;
+  private volatile ByteRingBuffer streamBuffer;
+  // Whether frames are delivered by DataReceived, rather than left for the Receive blocks.
+  private volatile boolean streaming;
+  private int streamFrameLength;
+  private boolean streamFramesAsText;
+  private long bytesDroppedAtStart;
+  // The error that ended the reader thread, reported by the Receive blocks.
+  private volatile int readerErrorNumber;
+  private volatile Object[] readerErrorArgs;
+  // Whether deliverFrames has been posted to the UI thread and not run yet.
+  private final AtomicBoolean deliveryPosted = new AtomicBoolean();
+  private final Runnable deliverFrames = new Runnable() {
+    @Override
+    public void run() {
+      deliverFrames();
+    }
+  };
+
   /**
    * Creates a new BluetoothConnectionBase.
    */
@@ -73,6 +103,7 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     this.logTag = logTag;
     this.disconnectOnError = false;
     this.adapter = SUtil.getAdapter(form);
+    this.uiHandler = new Handler(Looper.getMainLooper());
 
     HighByteFirst(false); // Lego Mindstorms NXT is low-endian, so false is a good default.
     CharacterEncoding("UTF-8");
@@ -163,6 +194,8 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
   }
 
   protected final void setConnection(BluetoothSocket bluetoothSocket) throws IOException {
+    // A reader left from an earlier connection must not deliver data as if from this one.
+    stopReader();
     socket = bluetoothSocket;
     inputStream = new BufferedInputStream(socket.getInputStream());
     outputStream = new BufferedOutputStream(socket.getOutputStream());
@@ -174,6 +207,7 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
    */
   @SimpleFunction(description = "Disconnect from the connected Bluetooth device.")
   public final void Disconnect() {
+    stopReader();
     if (socket != null) {
       fireBeforeDisconnectEvent();
       try {
@@ -564,6 +598,10 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
       return 0;
     }
 
+    if (readerThread != null) {
+      return streamBuffer.size();
+    }
+
     try {
       return inputStream.available();
     } catch (IOException e) {
@@ -777,6 +815,15 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
       return new byte[0];
     }
 
+    if (readerThread != null) {
+      // The reader thread owns the input stream.
+      if (streaming) {
+        bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_STREAMING);
+        return new byte[0];
+      }
+      return readStreamBuffer(functionName, numberOfBytes);
+    }
+
     ByteArrayOutputStream buffer = new ByteArrayOutputStream();
 
     if (numberOfBytes >= 0) {
@@ -832,6 +879,238 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     return buffer.toByteArray();
   }
 
+  /**
+   * Starts receiving data in the background. Incoming bytes are read as soon as they arrive,
+   * split into frames, and delivered in batches by the `DataReceived` event, so that the app
+   * does not have to poll `BytesAvailableToReceive` with a `Clock`.
+   *
+   *   If `frameLength` is positive, each frame is that many bytes. If it is negative, each frame
+   * ends with the `DelimiterByte`, which is not included in the frame. If it is 0, all of the
+   * bytes received since the last event form one frame. If `asText` is `true`{:.logic.block},
+   * frames are delivered as text in the `CharacterEncoding`, otherwise as lists of unsigned
+   * byte values.
+   *
+   *   While streaming, the Receive blocks cannot be used, and `BytesAvailableToReceive` returns
+   * the number of bytes received but not yet delivered. Data keeps being received in the
+   * background until the connection is closed, so after `StopStreaming` the Receive blocks
+   * return the data received in the meantime.
+   *
+   *   A fixed frame can be at most 16384 bytes, the size of the buffer that holds the data
+   * received but not yet delivered. Longer delimited frames are dropped.
+   *
+   * @param frameLength the number of bytes in each frame, at most 16384, a negative number to
+   *        end frames with the delimiter byte, or 0 to deliver bytes as they arrive
+   * @param asText whether to deliver frames as text rather than as lists of bytes
+   */
+  @SimpleFunction(description = "Start receiving data in the background and delivering it "
+      + "with the DataReceived event. If frameLength is positive, each frame is that many bytes, "
+      + "up to 16384. If it is negative, each frame ends with the delimiter byte. If it is 0, all "
+      + "of the bytes received since the last event form one frame. If asText is true, frames are "
+      + "text, otherwise they are lists of unsigned byte values.")
+  public void StartStreaming(int frameLength, boolean asText) {
+    if (!IsConnected()) {
+      bluetoothError("StartStreaming",
+          ErrorMessages.ERROR_BLUETOOTH_NOT_CONNECTED_TO_DEVICE);
+      return;
+    }
+    if (frameLength > STREAM_BUFFER_SIZE) {
+      // The buffer could never hold a whole frame, so nothing would ever be delivered.
+      bluetoothError("StartStreaming",
+          ErrorMessages.ERROR_BLUETOOTH_FRAME_TOO_LONG, frameLength, STREAM_BUFFER_SIZE);
+      return;
+    }
+    if (readerThread == null) {
+      final InputStream stream = inputStream;
+      final ByteRingBuffer buffer = new ByteRingBuffer(STREAM_BUFFER_SIZE);
+      streamBuffer = buffer;
+      Thread reader = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          readStream(stream, buffer);
+        }
+      }, "BluetoothReader");
+      reader.setDaemon(true);
+      readerThread = reader;
+      reader.start();
+    } else if (streamBuffer.isClosed()) {
+      bluetoothError("StartStreaming", readerErrorNumber, readerErrorArgs);
+      return;
+    }
+    streamFrameLength = frameLength;
+    streamFramesAsText = asText;
+    bytesDroppedAtStart = streamBuffer.getBytesDropped();
+    streaming = true;
+    // Deliver the data received while streaming was stopped.
+    postDelivery();
+  }
+
+  /**
+   * Stops delivering received data with the `DataReceived` event. Data that has not been
+   * delivered yet, and data received afterwards, can be read with the Receive blocks.
+   */
+  @SimpleFunction(description = "Stop delivering received data with the DataReceived event. "
+      + "Data that has not been delivered can be read with the Receive blocks.")
+  public void StopStreaming() {
+    streaming = false;
+  }
+
+  /**
+   * Returns the number of received bytes that were dropped since streaming was last started,
+   * because the app did not handle the `DataReceived` event as fast as data arrived, or because a
+   * frame was longer than the receive buffer.
+   */
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "The number of received bytes that were dropped since streaming was last "
+      + "started, because data arrived faster than it was handled or a frame was too long.")
+  public long BytesDropped() {
+    ByteRingBuffer buffer = streamBuffer;
+    return buffer == null ? 0 : buffer.getBytesDropped() - bytesDroppedAtStart;
+  }
+
+  /**
+   * Indicates that data was received while streaming.
+   *
+   * @param frames the frames received since the last event, each a text or a list of unsigned
+   *        byte values
+   */
+  @SimpleEvent(description = "Indicates that data was received while streaming. Frames is the "
+      + "list of frames received since the last event.")
+  public void DataReceived(YailList frames) {
+    EventDispatcher.dispatchEvent(this, "DataReceived", frames);
+  }
+
+  private void stopReader() {
+    Thread reader = readerThread;
+    if (reader != null) {
+      // The reader thread is blocked in a read until the socket is closed. Once the buffer is
+      // closed, whatever that read returns is discarded.
+      readerThread = null;
+      streaming = false;
+      streamBuffer.close();
+    }
+  }
+
+  private void readStream(InputStream stream, ByteRingBuffer buffer) {
+    byte[] bytes = new byte[1024];
+    while (true) {
+      int count;
+      try {
+        count = stream.read(bytes);
+      } catch (final IOException e) {
+        if (readerThread == Thread.currentThread()) {
+          Log.e(logTag, "IO Exception during Streaming " + e.getMessage());
+          readerFailed(buffer, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_READ, e.getMessage());
+        }
+        return;
+      }
+      if (count == -1) {
+        if (readerThread == Thread.currentThread()) {
+          readerFailed(buffer, ErrorMessages.ERROR_BLUETOOTH_END_OF_STREAM);
+        }
+        return;
+      }
+      if (buffer.write(bytes, 0, count) > 0 && streaming) {
+        postDelivery();
+      }
+    }
+  }
+
+  private void readerFailed(ByteRingBuffer buffer, int errorNumber, Object... messageArgs) {
+    readerErrorNumber = errorNumber;
+    readerErrorArgs = messageArgs;
+    buffer.close();
+    if (streaming) {
+      streamingFailed(errorNumber, messageArgs);
+    }
+  }
+
+  /**
+   * Reads a number of bytes that the reader thread has received, as {@link #read} does.
+   */
+  private byte[] readStreamBuffer(String functionName, int numberOfBytes) {
+    ByteRingBuffer buffer = streamBuffer;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    int remaining = numberOfBytes;
+    try {
+      while (numberOfBytes < 0 || remaining > 0) {
+        // A frame can be no longer than the buffer, so long reads take several frames.
+        byte[] frame = buffer.awaitFrame(
+            numberOfBytes < 0 ? -1 : Math.min(remaining, STREAM_BUFFER_SIZE), delimiter);
+        if (frame == null) {
+          // The connection failed. Return the bytes received before it did.
+          frame = buffer.nextFrame(0, delimiter);
+          if (frame != null) {
+            bytes.write(frame, 0, frame.length);
+          }
+          if (disconnectOnError
+              && readerErrorNumber == ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_READ) {
+            Disconnect();
+          }
+          bluetoothError(functionName, readerErrorNumber, readerErrorArgs);
+          break;
+        }
+        bytes.write(frame, 0, frame.length);
+        if (numberOfBytes < 0) {
+          // The delimiter byte is included in the returned array.
+          bytes.write(delimiter);
+          break;
+        }
+        remaining -= frame.length;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return bytes.toByteArray();
+  }
+
+  private void postDelivery() {
+    if (deliveryPosted.compareAndSet(false, true)) {
+      uiHandler.post(deliverFrames);
+    }
+  }
+
+  private void streamingFailed(final int errorNumber, final Object... messageArgs) {
+    uiHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        StopStreaming();
+        if (disconnectOnError) {
+          Disconnect();
+        }
+        bluetoothError("StartStreaming", errorNumber, messageArgs);
+      }
+    });
+  }
+
+  private void deliverFrames() {
+    deliveryPosted.set(false);
+    ByteRingBuffer buffer = streamBuffer;
+    if (!streaming || buffer == null) {
+      return;
+    }
+    List<Object> frames = new ArrayList<Object>();
+    byte[] frame;
+    while ((frame = buffer.nextFrame(streamFrameLength, delimiter)) != null) {
+      if (streamFramesAsText) {
+        try {
+          frames.add(new String(frame, encoding));
+        } catch (UnsupportedEncodingException e) {
+          Log.w(logTag, "UnsupportedEncodingException: " + e.getMessage());
+          frames.add(new String(frame));
+        }
+      } else {
+        List<Integer> values = new ArrayList<Integer>(frame.length);
+        for (byte b : frame) {
+          values.add(b & 0xFF);
+        }
+        frames.add(YailList.makeList(values));
+      }
+    }
+    if (!frames.isEmpty()) {
+      DataReceived(YailList.makeList(frames));
+    }
+  }
+
   // OnDestroyListener implementation
 
   @Override
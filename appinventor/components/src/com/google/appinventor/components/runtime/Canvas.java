@@ -179,6 +179,15 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
   // sorted by increasing sprite.Z().
   private final List<Sprite> sprites;
 
+  // Finds the sprites near a moved sprite, so that only those need to be
+  // tested for collisions.
+  private final SpriteGrid spriteGrid = new SpriteGrid();
+
+  // Lists of collision candidates, one for each nested call to
+  // findSpriteCollisions(), since event handlers may move other sprites.
+  private final List<List<Sprite>> collisionCandidates = new ArrayList<List<Sprite>>();
+  private int collisionDepth = 0;
+
   // Handle touches and drags
   private final MotionEventParser motionEventParser;
 
@@ -834,15 +843,15 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
     // ordered by creation time.  While we don't wish to guarantee
     // this behavior going forward, it does provide consistency
     // with how things worked before Z layering was added.
-    for (int i = 0; i < sprites.size(); i++) {
-      if (sprites.get(i).Z() > sprite.Z()) {
-        sprites.add(i, sprite);
-        return;
-      }
+    int index = 0;
+    while (index < sprites.size() && sprites.get(index).Z() <= sprite.Z()) {
+      index++;
     }
 
-    // Add to end if it has the highest Z value.
-    sprites.add(sprite);
+    // This adds to the end if it has the highest Z value.
+    sprites.add(index, sprite);
+    spriteGrid.add(sprite);
+    spriteGrid.setOrder(sprites);
   }
 
   /**
@@ -852,6 +861,8 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
    */
   void removeSprite(Sprite sprite) {
     sprites.remove(sprite);
+    spriteGrid.remove(sprite);
+    spriteGrid.setOrder(sprites);
   }
 
   /**
@@ -863,6 +874,7 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
   void changeSpriteLayer(Sprite sprite) {
     removeSprite(sprite);
     addSprite(sprite);
+    spriteGrid.update(sprite);
     view.invalidate();
   }
 
@@ -906,9 +918,21 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
    */
   void registerChange(Sprite sprite) {
     view.invalidate();
+    spriteGrid.update(sprite);
     findSpriteCollisions(sprite);
   }
 
+  /**
+   * Indicates that a sprite has changed before it was initialized, which
+   * triggers invalidation of the view but no check for collisions.
+   *
+   * @param sprite the sprite whose location, size, or appearance has changed
+   */
+  void registerChangeBeforeInitialize(Sprite sprite) {
+    view.invalidate();
+    spriteGrid.update(sprite);
+  }
+
 
   // Methods for detecting collisions
 
@@ -925,10 +949,29 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
    * and
    * {@link com.google.appinventor.components.runtime.Sprite#Enabled()}.
    *
+   * <p>Only the sprites whose bounding boxes overlap that of the moved
+   * sprite, and those it is currently colliding with, can change their
+   * collision state, so the others are skipped. The rest are checked in
+   * Z order, as if all sprites were.</p>
+   *
    * @param movedSprite the sprite that has just changed position
    */
   protected void findSpriteCollisions(Sprite movedSprite) {
-    for (Sprite sprite : sprites) {
+    if (collisionDepth == collisionCandidates.size()) {
+      collisionCandidates.add(new ArrayList<Sprite>());
+    }
+    List<Sprite> candidates = collisionCandidates.get(collisionDepth++);
+    try {
+      spriteGrid.findCandidates(movedSprite, movedSprite.getRegisteredCollisions(), candidates);
+      checkSpriteCollisions(movedSprite, candidates);
+    } finally {
+      candidates.clear();
+      collisionDepth--;
+    }
+  }
+
+  private void checkSpriteCollisions(Sprite movedSprite, List<Sprite> candidates) {
+    for (Sprite sprite : candidates) {
       if (sprite != movedSprite) {
         // Check whether we already raised an event for their collision.
         if (movedSprite.CollidingWith(sprite)) {
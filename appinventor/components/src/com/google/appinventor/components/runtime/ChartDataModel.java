@@ -11,6 +11,7 @@ import com.github.mikephil.charting.data.DataSet;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.PieEntry;
 import com.github.mikephil.charting.interfaces.datasets.IDataSet;
+import com.google.appinventor.components.runtime.util.RingBufferList;
 import com.google.appinventor.components.runtime.util.YailList;
 
 import java.util.ArrayList;
@@ -50,7 +51,9 @@ public abstract class ChartDataModel<
     this.data = data;
     this.view = view;
 
-    entries = new ArrayList<>();
+    // Time entries are added at the end and evicted from the front, which a
+    // ring buffer does in constant time.
+    entries = new RingBufferList<>();
   }
 
   /**
@@ -20,7 +20,9 @@ import com.github.mikephil.charting.data.Entry;
 
 import com.github.mikephil.charting.interfaces.datasets.IDataSet;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Base class to represent Chart Views. The class (and subclasses)
@@ -52,6 +54,21 @@ public abstract class ChartView<
 
   protected Handler uiHandler = new Handler(Looper.myLooper());
 
+  // Data models changed on the UI thread whose refresh is pending. Changes
+  // that arrive before the refresh runs join it, so fast data sources do not
+  // queue up a refresh (and a copy of all entries) for every value.
+  private final Set<ChartDataModel<E, T, D, C, V>> pendingModels = new LinkedHashSet<>();
+  private final Runnable refreshPendingModels = new Runnable() {
+    @Override
+    public void run() {
+      List<ChartDataModel<E, T, D, C, V>> models = new ArrayList<>(pendingModels);
+      pendingModels.clear();
+      for (ChartDataModel<E, T, D, C, V> model : models) {
+        refresh(model, new ArrayList<>(model.getEntries()));
+      }
+    }
+  };
+
   /**
    * Creates a new Chart View with the specified Chart component
    * instance as the parent of the View.
@@ -135,6 +152,17 @@ public abstract class ChartView<
    * @param model Chart Data Model to update & refresh
    */
   public void refresh(final ChartDataModel<E, T, D, C, V> model) {
+    if (Looper.myLooper() == Looper.getMainLooper()) {
+      // Changes made on the UI thread, such as real-time data, are shown
+      // with the entries the model has when the refresh runs.
+      boolean scheduled = !pendingModels.isEmpty();
+      pendingModels.add(model);
+      if (!scheduled) {
+        uiHandler.post(refreshPendingModels);
+      }
+      return;
+    }
+
     // Create a new RefreshTask with the model's current List of Entries
     RefreshTask refreshTask = new RefreshTask(model.getEntries());
 
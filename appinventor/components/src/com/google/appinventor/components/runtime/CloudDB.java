@@ -55,13 +55,18 @@ import java.security.cert.X509Certificate;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.net.ssl.SSLContext;
@@ -74,6 +79,8 @@ import org.json.JSONException;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.exceptions.JedisException;
@@ -249,6 +256,25 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
   // iterates over the queue until it is drained.
   private final List<storedValue> storeQueue = Collections.synchronizedList(new ArrayList());
 
+  // GetValue requests that have not been sent yet. They are sent together
+  // with a single MGET. The batch is closed whenever an update is queued so
+  // that values are still read in the order the blocks ran.
+  private final Object getBatchLock = new Object();
+  private List<PendingGet> getBatch = null;
+
+  // The connection on which the pipelined scripts have been loaded. Only
+  // used by the background thread.
+  private Jedis scriptsLoadedOn = null;
+
+  // Values of tags, as JSON, known to be current on the server. The cache is
+  // only valid while the listener is subscribed, because it is kept up to
+  // date from the values the listener is told about.
+  private volatile boolean cacheValues = false;
+  private volatile boolean cacheValid = false;
+  private final AtomicLong cacheGeneration = new AtomicLong();
+  private final ConcurrentHashMap<String, String> valueCache =
+      new ConcurrentHashMap<String, String>();
+
   private ConnectivityManager cm;
 
   // Set of observers
@@ -271,6 +297,16 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
     }
   }
 
+  private static class PendingGet {
+    private final String tag;
+    private final Object valueIfTagNotThere;
+
+    PendingGet(String tag, Object valueIfTagNotThere) {
+      this.tag = tag;
+      this.valueIfTagNotThere = valueIfTagNotThere;
+    }
+  }
+
   /**
    * Creates a new CloudDB component.
    * @param container the Form that this component is contained in.
@@ -317,6 +353,7 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
       currentListener = null;
       listenerRunning = false;
     }
+    resetCache(false);          // Without the listener we miss updates
   }
 
   /*
@@ -392,6 +429,7 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
             }
           }
           listenerRunning = false;
+          resetCache(false);
           if (!dead && !shutdown) {
             startListener();
           } else {
@@ -561,6 +599,33 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
     return useSSL;
   }
 
+  /**
+   * If `true`{:.logic.block}, `CloudDB` keeps the values it has read or stored, and answers
+   * {@link #GetValue(String, Object)} for those tags without asking the server. The kept values
+   * are updated as {@link #DataChanged(String, Object)} reports changes. A
+   * {@link #ClearTag(String)} made by another device is not reported, so do not turn this on if
+   * other devices clear tags that this app reads.
+   *
+   * @param cacheValues true if values should be kept on the device
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN,
+      defaultValue = "False")
+  @SimpleProperty
+  public void CacheValues(boolean cacheValues) {
+    this.cacheValues = cacheValues;
+    if (!cacheValues) {
+      valueCache.clear();
+    }
+  }
+
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "If true, values read or stored are kept on the device and GetValue "
+          + "answers from them while CloudDB is listening for changes. Do not use this if "
+          + "other devices clear tags that this app reads.")
+  public boolean CacheValues() {
+    return cacheValues;
+  }
+
   private static final String SET_SUB_SCRIPT =
     "local key = KEYS[1];" +
     "local value = ARGV[1];" +
@@ -608,6 +673,7 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
       if (DEBUG) {
         Log.d(LOG_TAG,"Device is online...");
       }
+      closeGetBatch();
       synchronized(storeQueue) {
         boolean kickit = false;
         if (storeQueue.size() == 0) { // Need to kick off the background task
@@ -631,94 +697,7 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
         if (kickit) {
           background.submit(new Runnable() {
               public void run() {
-                JSONArray pendingValueList = null;
-                String pendingTag = null;
-                String pendingValue = null;
-                try {
-                  storedValue work;
-                  if (DEBUG) {
-                    Log.d(LOG_TAG, "store background task running.");
-                  }
-                  while (true) {
-                    synchronized(storeQueue) {
-                      if (DEBUG) {
-                        Log.d(LOG_TAG, "store: In background synchronized block");
-                      }
-                      int size = storeQueue.size();
-                      if (size == 0) {
-                        if (DEBUG) {
-                          Log.d(LOG_TAG, "store background task exiting.");
-                        }
-                        work = null;
-                      } else {
-                        if (DEBUG) {
-                          Log.d(LOG_TAG, "store: storeQueue.size() == " + size);
-                        }
-                        work = storeQueue.remove(0);
-                        if (DEBUG) {
-                          Log.d(LOG_TAG, "store: got work.");
-                        }
-                      }
-                    }
-                    if (DEBUG) {
-                      Log.d(LOG_TAG, "store: left synchronized block");
-                    }
-                    if (work == null) {
-                      try {
-                        if (pendingTag != null) {
-                          String jsonValueList = pendingValueList.toString();
-                          if (DEBUG) {
-                            Log.d(LOG_TAG, "Workqueue empty, sending pendingTag, valueListLength = " + pendingValueList.length());
-                          }
-                          jEval(SET_SUB_SCRIPT, SET_SUB_SCRIPT_SHA1, 1, pendingTag, pendingValue, jsonValueList, projectID);
-                          UpdateDone(pendingTag, "StoreValue");
-                        }
-                      } catch (JedisException e) {
-                        CloudDBError(e.getMessage());
-                        flushJedis(true);
-                      }
-                      return;
-                    }
-
-                    String tag = work.getTag();
-                    JSONArray valueList = work.getValueList();
-                    if (tag == null || valueList == null) {
-                      if (DEBUG) {
-                        Log.d(LOG_TAG, "Either tag or value is null!");
-                      }
-                    } else {
-                      if (DEBUG) {
-                        Log.d(LOG_TAG, "Got Work: tag = " + tag + " value = " + valueList.get(0));
-                      }
-                    }
-                    if (pendingTag == null) { // First time through this invocation
-                      pendingTag = tag;
-                      pendingValueList = valueList;
-                      pendingValue = valueList.getString(0);
-                    } else if (pendingTag.equals(tag)) { // work is for the same tag
-                      pendingValue = valueList.getString(0);
-                      pendingValueList.put(pendingValue);
-                    } else {    // Work is for a different tag, send what we have
-                      try {     // and add the new tag,incoming valuelist for the next round
-                        String jsonValueList = pendingValueList.toString();
-                        if (DEBUG) {
-                          Log.d(LOG_TAG, "pendingTag changed sending pendingTag, valueListLength = " + pendingValueList.length());
-                        }
-                        jEval(SET_SUB_SCRIPT, SET_SUB_SCRIPT_SHA1, 1, pendingTag, pendingValue, jsonValueList, projectID);
-                      } catch (JedisException e) {
-                        CloudDBError(e.getMessage());
-                        flushJedis(true);
-                        storeQueue.clear(); // Flush pending changes, we are in
-                        return;             // an error state
-                      }
-                      pendingTag = tag;
-                      pendingValueList = valueList;
-                      pendingValue = valueList.getString(0);
-                    }
-                  }
-                } catch (Exception e) {
-                Log.e(LOG_TAG, "Exception in store worker!", e);
-                }
+                sendPendingStores();
               }
             });
         }
@@ -728,6 +707,91 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
     }
   }
 
+  /*
+   * Drains the store queue. Each pass takes every queued request at once.
+   * Consecutive stores to the same tag are combined into a single script
+   * call whose publication carries all of the values, and the calls of a
+   * pass are sent as one pipeline, so a burst of StoreValue calls costs a
+   * single round trip to the server rather than one per tag.
+   */
+  private void sendPendingStores() {
+    String lastTag = null;
+    try {
+      while (true) {
+        List<storedValue> batch;
+        synchronized(storeQueue) {
+          if (storeQueue.isEmpty()) {
+            if (DEBUG) {
+              Log.d(LOG_TAG, "store background task exiting.");
+            }
+            break;
+          }
+          batch = new ArrayList<storedValue>(storeQueue);
+          storeQueue.clear();
+        }
+        if (DEBUG) {
+          Log.d(LOG_TAG, "store: sending " + batch.size() + " queued values");
+        }
+        Jedis jedis = getJedis();
+        ensureScriptsLoaded(jedis);
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<Object>> responses = new ArrayList<Response<Object>>();
+        Map<String, String> storedValues = new HashMap<String, String>();
+        String pendingTag = null;
+        JSONArray pendingValueList = null;
+        String pendingValue = null;
+        for (storedValue work : batch) {
+          String tag = work.getTag();
+          JSONArray valueList = work.getValueList();
+          if (pendingTag != null && pendingTag.equals(tag)) { // work is for the same tag
+            pendingValue = valueList.getString(0);
+            pendingValueList.put(pendingValue);
+            continue;
+          }
+          if (pendingTag != null) {
+            responses.add(pipeline.evalsha(SET_SUB_SCRIPT_SHA1, 1, pendingTag, pendingValue,
+                pendingValueList.toString(), projectID));
+            storedValues.put(pendingTag, pendingValue);
+          }
+          pendingTag = tag;
+          pendingValueList = valueList;
+          pendingValue = valueList.getString(0);
+        }
+        responses.add(pipeline.evalsha(SET_SUB_SCRIPT_SHA1, 1, pendingTag, pendingValue,
+            pendingValueList.toString(), projectID));
+        storedValues.put(pendingTag, pendingValue);
+        pipeline.sync();
+        for (Response<Object> response : responses) {
+          response.get();       // Throws if the script failed
+        }
+        for (Map.Entry<String, String> stored : storedValues.entrySet()) {
+          updateCachedValue(stored.getKey(), stored.getValue());
+        }
+        lastTag = pendingTag;
+      }
+      if (lastTag != null) {
+        UpdateDone(lastTag, "StoreValue");
+      }
+    } catch (JedisException e) {
+      CloudDBError(e.getMessage());
+      storeQueue.clear();       // Flush pending changes, we are in
+      flushJedis(true);         // an error state
+    } catch (Exception e) {
+      Log.e(LOG_TAG, "Exception in store worker!", e);
+    }
+  }
+
+  /*
+   * Makes sure the server knows the scripts that are sent by their SHA1 in a
+   * pipeline, where we cannot fall back to EVAL the way jEval does.
+   */
+  private void ensureScriptsLoaded(Jedis jedis) {
+    if (scriptsLoadedOn != jedis) {
+      jedis.scriptLoad(SET_SUB_SCRIPT);
+      scriptsLoadedOn = jedis;
+    }
+  }
+
   /**
    * `GetValue` asks `CloudDB` to get the value stored under the given tag.
    * It will pass the result to the {@link #GotValue(String, Object) event.
@@ -753,25 +817,27 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
     boolean isConnected = networkInfo != null && networkInfo.isConnected();
 
     if (isConnected) {
-      // Set value to either the JSON from the CloudDB
-      // or the JSON representation of valueIfTagNotThere
+      // Requests made before the background thread gets to them are
+      // answered together, see sendGetBatch.
+      PendingGet get = new PendingGet(tag, valueIfTagNotThere);
+      final List<PendingGet> batch;
+      synchronized(getBatchLock) {
+        if (getBatch != null) {
+          getBatch.add(get);
+          return;
+        }
+        batch = new ArrayList<PendingGet>();
+        batch.add(get);
+        getBatch = batch;
+      }
       background.submit(new Runnable() {
           public void run() {
-            final AtomicReference<Object> value = getValueByTag(tag, valueIfTagNotThere);
-
-            // Value stored is null; Return
-            if (value.get() == null) {
-              return;
+            synchronized(getBatchLock) {
+              if (getBatch == batch) {
+                getBatch = null;
+              }
             }
-
-            androidUIHandler.post(new Runnable() {
-                public void run() {
-                  // Signal an event to indicate that the value was
-                  // received.  We post this to run in the Application's main
-                  // UI thread.
-                  GotValue(tag, value.get());
-                }
-              });
+            sendGetBatch(batch);
           }
         });
     } else {
@@ -805,19 +871,7 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
       if (DEBUG) {
         Log.d(LOG_TAG, "finished call jedis.get()");
       }
-      if (returnValue != null) {
-        String val = JsonUtil.getJsonRepresentationIfValueFileName(form, returnValue);
-        if (val != null) {
-          value.set(val);
-        } else {
-          value.set(returnValue);
-        }
-      } else {
-        if (DEBUG) {
-          Log.d(CloudDB.LOG_TAG,"Value retrieved is null");
-        }
-        value.set(JsonUtil.getJsonRepresentation(valueIfTagNotThere));
-      }
+      value.set(toResultValue(returnValue, valueIfTagNotThere));
     } catch (JSONException e) {
       CloudDBError("JSON conversion error for " + tag);
       value.set(null);
@@ -834,7 +888,128 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
 
     return value;
   }
- 
+
+  /*
+   * Converts a value read from Redis into the value given to GotValue, using
+   * valueIfTagNotThere if the tag was missing.
+   */
+  private Object toResultValue(String returnValue, Object valueIfTagNotThere)
+      throws JSONException {
+    if (returnValue == null) {
+      if (DEBUG) {
+        Log.d(CloudDB.LOG_TAG,"Value retrieved is null");
+      }
+      return JsonUtil.getJsonRepresentation(valueIfTagNotThere);
+    }
+    String val = JsonUtil.getJsonRepresentationIfValueFileName(form, returnValue);
+    return val != null ? val : returnValue;
+  }
+
+  /*
+   * Answers a batch of GetValue requests. Tags held by the value cache are
+   * answered locally and the rest are fetched with a single MGET. The
+   * GotValue events are raised in the order the requests were made.
+   */
+  private void sendGetBatch(List<PendingGet> batch) {
+    boolean useCache = cacheValues && cacheValid;
+    long generation = cacheGeneration.get();
+    Map<String, String> found = new HashMap<String, String>();
+    Set<String> toFetch = new LinkedHashSet<String>();
+    for (PendingGet get : batch) {
+      String cached = useCache ? valueCache.get(get.tag) : null;
+      if (cached != null) {
+        found.put(get.tag, cached);
+      } else {
+        toFetch.add(get.tag);
+      }
+    }
+    toFetch.removeAll(found.keySet());
+    if (!toFetch.isEmpty()) {
+      String[] keys = new String[toFetch.size()];
+      int i = 0;
+      for (String tag : toFetch) {
+        keys[i++] = projectID + ":" + tag;
+      }
+      List<String> values;
+      try {
+        values = getJedis().mget(keys);
+      } catch (NullPointerException e) {
+        CloudDBError("System Error getting tags " + toFetch);
+        flushJedis(true);
+        return;
+      } catch (JedisException e) {
+        Log.e(LOG_TAG, "Exception in GetValue", e);
+        CloudDBError(e.getMessage());
+        flushJedis(true);
+        return;
+      }
+      i = 0;
+      for (String tag : toFetch) {
+        String value = values.get(i++);
+        found.put(tag, value);
+        // A value read while the cache was being reset may be out of date.
+        if (useCache && value != null && cacheGeneration.get() == generation) {
+          valueCache.putIfAbsent(tag, value);
+        }
+      }
+    }
+    for (PendingGet get : batch) {
+      final String tag = get.tag;
+      final Object value;
+      try {
+        value = toResultValue(found.get(tag), get.valueIfTagNotThere);
+      } catch (JSONException e) {
+        CloudDBError("JSON conversion error for " + tag);
+        continue;
+      }
+      androidUIHandler.post(new Runnable() {
+          public void run() {
+            // Signal an event to indicate that the value was
+            // received.  We post this to run in the Application's main
+            // UI thread.
+            GotValue(tag, value);
+          }
+        });
+    }
+  }
+
+  /*
+   * Ends the current batch of GetValue requests, so that requests made after
+   * an update are answered after it.
+   */
+  private void closeGetBatch() {
+    synchronized(getBatchLock) {
+      getBatch = null;
+    }
+  }
+
+  /**
+   * Records a value that the server is known to hold for a tag.
+   *
+   * @param tag the tag
+   * @param value the JSON representation of the value, as stored in Redis
+   */
+  public void updateCachedValue(String tag, String value) {
+    if (cacheValues && cacheValid) {
+      valueCache.put(tag, value);
+    }
+  }
+
+  /**
+   * Called by the listener once it is subscribed to the project's updates.
+   * From then on changes made by other devices are seen by the listener, so
+   * the value cache can be used.
+   */
+  public void onListenerSubscribed() {
+    resetCache(true);
+  }
+
+  private void resetCache(boolean valid) {
+    cacheValid = valid;
+    cacheGeneration.incrementAndGet();
+    valueCache.clear();
+  }
+
   /**
    * Returns `true`{:.logic.block} if we are on the network and will likely be able to connect to
    * the `CloudDB` server.
@@ -923,11 +1098,14 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
 
     final String key = tag;
 
+    closeGetBatch();
     background.submit(new Runnable() {
         public void run() {
           Jedis jedis = getJedis();
           try {
-            FirstRemoved(jEval(POP_FIRST_SCRIPT, POP_FIRST_SCRIPT_SHA1, 1, key, projectID));
+            Object removed = jEval(POP_FIRST_SCRIPT, POP_FIRST_SCRIPT_SHA1, 1, key, projectID);
+            valueCache.remove(key);
+            FirstRemoved(removed);
           } catch (JedisException e) {
             CloudDBError(e.getMessage());
             flushJedis(true);
@@ -981,11 +1159,13 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
     final String item = (String) itemObject;
     final String key = tag;
 
+    closeGetBatch();
     background.submit(new Runnable() {
         public void run() {
           Jedis jedis = getJedis();
           try {
             jEval(APPEND_SCRIPT, APPEND_SCRIPT_SHA1, 1, key, item, projectID);
+            valueCache.remove(key);
             UpdateDone(key, "AppendValueToList");
           } catch(JedisException e) {
             CloudDBError(e.getMessage());
@@ -1042,11 +1222,13 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
   @SimpleFunction(description = "Remove the tag from CloudDB.")
   public void ClearTag(final String tag) {
     checkProjectIDNotBlank();
+    closeGetBatch();
     background.submit(new Runnable() {
         public void run() {
           try {
             Jedis jedis = getJedis();
             jedis.del(projectID + ":" + tag);
+            valueCache.remove(tag);
             // Notify all the Data Source observers of the change
             notifyDataObservers(tag, null);
             UpdateDone(tag, "ClearTag");
@@ -1281,6 +1463,8 @@ public class CloudDB extends AndroidNonvisibleComponent implements Component,
       // XXX
     }
     INSTANCE = null;
+    scriptsLoadedOn = null;
+    closeGetBatch();            // Its task may be killed below
     // We are now going to kill the executor, as it may
     // have hung tasks. We do this on the UI thread as a
     // way to synchronize things.
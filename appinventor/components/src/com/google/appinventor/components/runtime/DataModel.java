@@ -8,6 +8,7 @@ package com.google.appinventor.components.runtime;
 import com.github.mikephil.charting.data.Entry;
 import com.google.appinventor.components.runtime.util.ChartDataSourceUtil;
 import com.google.appinventor.components.runtime.util.YailList;
+import com.google.appinventor.components.runtime.util.RingBufferList;
 import gnu.mapping.Symbol;
 
 import java.util.ArrayList;
@@ -43,7 +44,7 @@ public abstract class DataModel<E> {
    * Initializes a new DataModel object instance.
    */
   protected DataModel() {
-    entries = new ArrayList<>();
+    entries = new RingBufferList<>();
   }
 
   /**
@@ -8,10 +8,12 @@ package com.google.appinventor.components.runtime;
 
 import android.util.Log;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Dispatches events to component event handlers.
@@ -59,6 +61,9 @@ public class EventDispatcher {
   /*
    * Each EventRegistry is associated with one dispatchDelegate.
    * It contains all the event closures for a single form.
+   *
+   * The registry is changed only while holding the EventDispatcher lock, and the sets in it are
+   * replaced rather than modified, so that events can be dispatched without taking the lock.
    */
   private static final class EventRegistry {
     private final HandlesEventDispatching dispatchDelegate;
@@ -67,8 +72,15 @@ public class EventDispatcher {
     // Note that by using a Set here, we'll only have one closure corresponding to a
     // given componentId-eventName.  We do not support invoking multiple handlers for a
     // single event.
-    private final HashMap<String, Set<EventClosure>> eventClosuresMap =
-        new HashMap<String, Set<EventClosure>>();
+    private final Map<String, Set<EventClosure>> eventClosuresMap =
+        new ConcurrentHashMap<String, Set<EventClosure>>();
+
+    // For each component and event name, the event closure that last handled the event from that
+    // component, so that later events from the component are dispatched to it directly.
+    // The components are weakly held so that components deleted from the form, for example by
+    // the REPL, can be collected.
+    private final Map<Component, Map<String, EventClosure>> dispatchTable =
+        Collections.synchronizedMap(new WeakHashMap<Component, Map<String, EventClosure>>());
 
     EventRegistry(HandlesEventDispatching dispatchDelegate) {
       this.dispatchDelegate = dispatchDelegate;
@@ -78,7 +90,8 @@ public class EventDispatcher {
   private static final boolean DEBUG = false;
 
   private static final Map<HandlesEventDispatching, EventRegistry>
-      mapDispatchDelegateToEventRegistry = new HashMap<HandlesEventDispatching, EventRegistry>();
+      mapDispatchDelegateToEventRegistry =
+          new ConcurrentHashMap<HandlesEventDispatching, EventRegistry>();
 
   private EventDispatcher() {
   }
@@ -149,6 +162,14 @@ public class EventDispatcher {
       }
     }
     er.eventClosuresMap.put(eventName, updated);
+    synchronized (er.dispatchTable) {
+      for (Map<String, EventClosure> componentClosures : er.dispatchTable.values()) {
+        EventClosure last = componentClosures.get(eventName);
+        if (last != null && last.componentId.equals(componentId)) {
+          componentClosures.remove(eventName);
+        }
+      }
+    }
   }
 
   /**
@@ -159,6 +180,7 @@ public class EventDispatcher {
   public static synchronized void unregisterAllEventsForDelegation() {
     for (EventRegistry er : mapDispatchDelegateToEventRegistry.values()) {
       er.eventClosuresMap.clear();
+      er.dispatchTable.clear();
     }
   }
 
@@ -173,6 +195,7 @@ public class EventDispatcher {
     EventRegistry er = removeEventRegistry(dispatchDelegate);
     if (er != null) {
       er.eventClosuresMap.clear();
+      er.dispatchTable.clear();
     }
   }
 
@@ -183,7 +206,7 @@ public class EventDispatcher {
    * @param eventName  name of event being raised
    * @param args  arguments to the event handler
    */
-  public static synchronized boolean dispatchEvent(Component component, String eventName, Object...args) {
+  public static boolean dispatchEvent(Component component, String eventName, Object...args) {
     return Boolean.TRUE == dispatchFallibleEvent(component, eventName, args);
   }
 
@@ -196,7 +219,7 @@ public class EventDispatcher {
    * @return `Boolean.TRUE` if the event was dispatched, `Boolean.FALSE` if no event handler was
    * found, or an Exception if the event handler threw an Exception
    */
-  public static synchronized Object dispatchFallibleEvent(Component component, String eventName, Object... args) {
+  public static Object dispatchFallibleEvent(Component component, String eventName, Object... args) {
     if (DEBUG) {
       Log.i("EventDispatcher", "Trying to dispatch event " + eventName);
     }
@@ -205,10 +228,10 @@ public class EventDispatcher {
       args = OptionHelper.optionListsFromValues(component, eventName, args);
       HandlesEventDispatching dispatchDelegate = component.getDispatchDelegate();
       if (dispatchDelegate.canDispatchEvent(component, eventName)) {
-        EventRegistry er = getEventRegistry(dispatchDelegate);
-        Set<EventClosure> eventClosures = er.eventClosuresMap.get(eventName);
+        EventRegistry er = mapDispatchDelegateToEventRegistry.get(dispatchDelegate);
+        Set<EventClosure> eventClosures = er == null ? null : er.eventClosuresMap.get(eventName);
         if (eventClosures != null && eventClosures.size() > 0) {
-          dispatched = delegateDispatchEvent(dispatchDelegate, eventClosures, component, args);
+          dispatched = delegateDispatchEvent(er, eventClosures, component, eventName, args);
         }
         dispatchDelegate.dispatchGenericEvent(component, eventName, !dispatched, args);
       }
@@ -221,19 +244,38 @@ public class EventDispatcher {
   /**
    * Delegates the dispatch of an event to the dispatch delegate.
    *
+   * @param er the event registry of the dispatch delegate
    * @param eventClosures set of event closures matching the event name
    * @param component the component that generated the event
+   * @param eventName name of the event
    * @param args  arguments to event handler
    */
-  private static synchronized boolean delegateDispatchEvent(HandlesEventDispatching dispatchDelegate,
-                                               Set<EventClosure> eventClosures,
-                                               Component component, Object... args) {
+  private static boolean delegateDispatchEvent(EventRegistry er, Set<EventClosure> eventClosures,
+                                               Component component, String eventName,
+                                               Object... args) {
     // The event closures set will contain all event closures matching the event name.
     // We depend on the delegate's dispatchEvent method to check the registered event closure and
     // only dispatch the event if the registered component matches the component that generated the
-    // event.  This should only be true for one (or zero) of the closures.
+    // event.  This should only be true for one (or zero) of the closures, so the closure that
+    // handled the component's last event is tried first, and the others only if it fails.
+    HandlesEventDispatching dispatchDelegate = er.dispatchDelegate;
+    Map<String, EventClosure> componentClosures = er.dispatchTable.get(component);
+    EventClosure last = componentClosures == null ? null : componentClosures.get(eventName);
+    if (last != null && eventClosures.contains(last)) {
+      if (dispatchDelegate.dispatchEvent(component, last.componentId, eventName, args)) {
+        return true;
+      }
+      // Either the component name is now bound to another component or the handler failed.
+      // Try the other closures, but don't run this handler a second time.
+      componentClosures.remove(eventName);
+    } else {
+      last = null;
+    }
     boolean dispatched = false;
     for (EventClosure eventClosure : eventClosures) {
+      if (eventClosure.equals(last)) {
+        continue;
+      }
       if (dispatchDelegate.dispatchEvent(component,
                                          eventClosure.componentId,
                                          eventClosure.eventName,
@@ -242,6 +284,11 @@ public class EventDispatcher {
           Log.i("EventDispatcher", "Successfully dispatched event " +
               eventClosure.componentId + "." + eventClosure.eventName);
         }
+        if (componentClosures == null) {
+          componentClosures = new ConcurrentHashMap<String, EventClosure>();
+          er.dispatchTable.put(component, componentClosures);
+        }
+        componentClosures.put(eventName, eventClosure);
         dispatched = true;  // break here or keep iterating through loop?
       }
     }
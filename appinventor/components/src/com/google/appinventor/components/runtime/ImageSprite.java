@@ -23,10 +23,8 @@ import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 
 import com.google.appinventor.components.runtime.util.MediaUtil;
-import com.google.appinventor.components.runtime.util.Vector2D;
 
 import java.io.IOException;
-import java.util.ArrayList;
 
 /**
  * A 'sprite' that can be placed on a {@link Canvas}, where it can react to touches and drags,
@@ -117,102 +115,49 @@ public class ImageSprite extends Sprite {
     }
   }
 
-  // get the vector to the center of the image sprite
-  protected Vector2D getCenterVector() {
-    double xCenter = xLeft + Width() / 2.0;
-    double yCenter = yTop + Height() / 2.0;
-
-    Vector2D center = new Vector2D(xCenter, yCenter);
-
-    return getVectorRotated(center);
-  }
-
-  // Get all non - parallel axes normal to the edges of the sprite. We need to consider only two
-  // axes as the other two would be parallel to these.
-  protected java.util.List<Vector2D> getNormalAxes() {
-    java.util.List<Vector2D> corners = getExtremityVectors();
-
-    java.util.List<Vector2D> normalAxes = new ArrayList<>();
-
-    Vector2D leftRightEdge = Vector2D.difference(corners.get(0), corners.get(1));
-    Vector2D topDownEdge = Vector2D.difference(corners.get(1), corners.get(2));
-
-    Vector2D leftRightNormal = leftRightEdge.getNormalVector();
-    Vector2D topDownNormal = topDownEdge.getNormalVector();
-
-    normalAxes.add(leftRightNormal);
-    normalAxes.add(topDownNormal);
-
-    return normalAxes;
-  }
-
-  // The minimum projection will be that of one of the corners. Note this is the minimum dot product
-  // i.e. the axis is not guaranteed to be a unit vector. As we only do comparisons on these values,
-  // calculating the unit vector is a waster of time.
-  protected double getMinProjection(Vector2D axis) {
-    java.util.List<Vector2D> corners = getExtremityVectors();
-    double minimum = Vector2D.dotProduct(axis, corners.get(0));
-
-    for (Vector2D point : corners) {
-      double projectionMagnitude = Vector2D.dotProduct(axis, point);
-      if (projectionMagnitude < minimum) {
-        minimum = projectionMagnitude;
-      }
-    }
-
-    return minimum;
-  }
-
-  // The maximum projection will be that of one of the corners. Note this is the maximum dot product
-  // i.e. the axis is not guaranteed to be a unit vector. As we only do comparisons on these values,
-  // calculating the unit vector is a waster of time.
-  protected double getMaxProjection(Vector2D axis) {
-    java.util.List<Vector2D> corners = getExtremityVectors();
-    double maximum = Vector2D.dotProduct(axis, corners.get(0));
-
-    for (Vector2D point : corners) {
-      double projectionMagnitude = Vector2D.dotProduct(axis, point);
-      if (projectionMagnitude > maximum) {
-        maximum = projectionMagnitude;
+  // Scratch space for getCollisionBounds(). Sprites are only moved on the UI thread.
+  private static final double[] boundsXs = new double[4];
+  private static final double[] boundsYs = new double[4];
+
+  // Computes the corners of the sprite as drawn, in clockwise order starting from the top left
+  // corner of the unrotated image, without allocating. If the sprite rotates, each corner u is
+  // rotated about the origin v by Heading() degrees: v + rotate(u - v).
+  void getCorners(double[] xs, double[] ys) {
+    int width = Width();
+    int height = Height();
+    xs[0] = xLeft;
+    ys[0] = yTop;
+    xs[1] = xLeft + width;
+    ys[1] = yTop;
+    xs[2] = xLeft + width;
+    ys[2] = yTop + height;
+    xs[3] = xLeft;
+    ys[3] = yTop + height;
+    if (rotates) {
+      double cos = Math.cos(headingRadians);
+      double sin = Math.sin(headingRadians);
+      for (int i = 0; i < 4; i++) {
+        double dx = xs[i] - xOrigin;
+        double dy = ys[i] - yOrigin;
+        xs[i] = xOrigin + (dx * cos - dy * sin);
+        ys[i] = yOrigin + (dx * sin + dy * cos);
       }
     }
-
-    return maximum;
-  }
-
-  // To get the extremity vectors for the rotated image sprite, first calculate the the extremity
-  // vectors for the un-rotated image sprite and rotate them about the origin.
-  // Let v be the vector fot the origin. This does not change on rotation.
-  // Let u be the vector for some corner. After rotation u changes as follows:
-  // v - u is the vector from origin to the corner. Rotate v - u by Heading() degrees and say it
-  // becomes w. Then the vector for the corner after rotation will be v + w.
-  protected java.util.List<Vector2D> getExtremityVectors() {
-    java.util.List<Vector2D> corners = new ArrayList<>();
-
-    // [u, v] values of the four corners, taken in clockwise direction starting from top - left
-    final int[][] delta = new int[][] {{0, 0}, {1, 0}, {1, 1}, {0, 1}};
-
-    // add all corners to corners
-    for (int[] d : delta) {
-      double dx = d[0] * Width();
-      double dy = d[1] * Height();
-      Vector2D corner = new Vector2D(xLeft + dx, yTop + dy);
-      corners.add(getVectorRotated(corner));
-    }
-
-    return corners;
   }
 
-  // If the image is rotated return the vector toRotate after rotation
-  private Vector2D getVectorRotated(Vector2D toRotate) {
-    if (rotates) {
-      Vector2D origin = new Vector2D(xOrigin, yOrigin);
-      Vector2D originToPoint = Vector2D.difference(toRotate, origin);
-      originToPoint.rotate(headingRadians);
-      return Vector2D.addition(origin, originToPoint);
-    } else {
-      return toRotate;
+  @Override
+  void getCollisionBounds(double[] bounds) {
+    if (!rotates) {
+      super.getCollisionBounds(bounds);
+      return;
     }
+    double[] xs = boundsXs;
+    double[] ys = boundsYs;
+    getCorners(xs, ys);
+    bounds[0] = Math.min(Math.min(xs[0], xs[1]), Math.min(xs[2], xs[3]));
+    bounds[1] = Math.min(Math.min(ys[0], ys[1]), Math.min(ys[2], ys[3]));
+    bounds[2] = Math.max(Math.max(xs[0], xs[1]), Math.max(xs[2], xs[3]));
+    bounds[3] = Math.max(Math.max(ys[0], ys[1]), Math.max(ys[2], ys[3]));
   }
 
   /**
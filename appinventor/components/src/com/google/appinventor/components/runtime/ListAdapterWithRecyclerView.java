@@ -5,7 +5,10 @@
 
 package com.google.appinventor.components.runtime;
 
+import android.graphics.Color;
+
 import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 
 import android.util.Log;
@@ -26,14 +29,14 @@ import androidx.core.view.ViewCompat;
 
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.appinventor.components.runtime.util.AsyncCallbackPair;
 import com.google.appinventor.components.runtime.util.MediaUtil;
 import com.google.appinventor.components.runtime.util.TextViewUtil;
 import com.google.appinventor.components.runtime.util.ViewUtil;
 import com.google.appinventor.components.runtime.util.YailDictionary;
 
-import java.io.IOException;
-
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class ListAdapterWithRecyclerView
@@ -55,61 +58,167 @@ public class ListAdapterWithRecyclerView
   private int imageWidth;
   private float radius;
   private List<Object> items = new ArrayList<>();
-  private List<Object> originalItems = new ArrayList<>();
   private List<Integer> originalPositions = new ArrayList<>();
   protected final ComponentContainer container;
   private List<Integer> selectedItems = new ArrayList<>();
   private String lastQuery = "";
+  // Shown in place of a row's image while it is loading.
+  private final Drawable placeholder = new ColorDrawable(Color.TRANSPARENT);
+
+  /**
+   * The items of the list together with the text that the filter searches in each of them.
+   * An index is built whenever the data changes and is never modified, so that the filter
+   * thread can search it while the list is being changed.
+   */
+  private static final class FilterIndex {
+    final Object[] items;
+    final String[] texts;
+
+    FilterIndex(List<Object> data) {
+      items = data.toArray();
+      texts = new String[items.length];
+      for (int index = 0; index < items.length; index++) {
+        texts[index] = filterText(items[index]).toLowerCase();
+      }
+    }
+
+    private static String filterText(Object item) {
+      if (item instanceof YailDictionary
+          && ((YailDictionary) item).containsKey(Component.LISTVIEW_KEY_MAIN_TEXT)) {
+        Object o = ((YailDictionary) item).get(Component.LISTVIEW_KEY_DESCRIPTION);
+        String filterString =
+            ((YailDictionary) item).get(Component.LISTVIEW_KEY_MAIN_TEXT).toString();
+        if (o != null) {
+          filterString += " " + o.toString();
+        }
+        return filterString;
+      }
+      return item.toString();
+    }
+  }
+
+  /**
+   * The items matching a query, by their positions in a filter index.
+   */
+  private static final class FilterMatches {
+    final FilterIndex index;
+    final String query;
+    final int[] positions;
+
+    FilterMatches(FilterIndex index, String query, int[] positions) {
+      this.index = index;
+      this.query = query;
+      this.positions = positions;
+    }
+  }
+
+  private volatile FilterIndex filterIndex = new FilterIndex(new ArrayList<Object>());
+  // The matches shown in the list.
+  private FilterMatches shownMatches = null;
 
   protected final Filter filter = new Filter() {
+    // The matches for the previous query, used only on the filtering thread.
+    private FilterMatches lastMatches = null;
+
     @Override
     protected FilterResults performFiltering(CharSequence charSequence) {
       lastQuery = charSequence.toString().toLowerCase();
-      FilterResults results = new FilterResults();
-      List<Object> filteredList = new ArrayList<>();
-      originalPositions = new ArrayList<>();
-      if (lastQuery == null || lastQuery.length() == 0) {
-        filteredList = new ArrayList<>(originalItems);
-        items = new ArrayList<>(originalItems);
+      String query = lastQuery;
+      FilterIndex index = filterIndex;
+      int[] positions;
+      if (query.length() == 0) {
+        positions = allPositions(index);
       } else {
-        for (int index = 0; index < originalItems.size(); index++) {
-          Object item = originalItems.get(index);
-          String filterString;
-          if (item instanceof YailDictionary) {
-            if (((YailDictionary) item).containsKey(Component.LISTVIEW_KEY_MAIN_TEXT)) {
-              Object o = ((YailDictionary) item).get(Component.LISTVIEW_KEY_DESCRIPTION);
-              filterString = ((YailDictionary) item).get(Component.LISTVIEW_KEY_MAIN_TEXT).toString();
-              if (o != null) {
-                filterString += " " + o.toString();
-              }
-            } else {
-              filterString = item.toString();
-            }
-          } else {
-            filterString = item.toString();
-          }
-          if (filterString.toLowerCase().contains(lastQuery)) {
-            filteredList.add(item);
-            originalPositions.add(index);
+        // Every item that contains the query also contains the previous query if the query
+        // contains it, as it does while the user types, so only the previous matches are
+        // searched.
+        int[] candidates = lastMatches != null && lastMatches.index == index
+            && query.contains(lastMatches.query) ? lastMatches.positions : allPositions(index);
+        int[] matched = new int[candidates.length];
+        int count = 0;
+        for (int position : candidates) {
+          if (index.texts[position].contains(query)) {
+            matched[count++] = position;
           }
         }
+        positions = Arrays.copyOf(matched, count);
       }
-      results.count = filteredList.size();
-      results.values = filteredList;
+      lastMatches = new FilterMatches(index, query, positions);
+      FilterResults results = new FilterResults();
+      results.count = positions.length;
+      results.values = lastMatches;
       return results;
     }
 
     @Override
     protected void publishResults(CharSequence charSequence, FilterResults filterResults) {
-      items = new ArrayList<>((List<Object>) filterResults.values);
+      FilterMatches matches = (FilterMatches) filterResults.values;
+      FilterMatches oldMatches = shownMatches;
+      items = new ArrayList<>(matches.positions.length);
+      originalPositions = new ArrayList<>();
+      for (int position : matches.positions) {
+        items.add(matches.index.items[position]);
+        if (matches.query.length() > 0) {
+          originalPositions.add(position);
+        }
+      }
+      shownMatches = matches;
+      for (int position : selectedItems) {
+        notifyItemChanged(position);
+      }
       clearSelections();
-      notifyDataSetChanged();
-      // We store the original data in the originalItems variable
+      if (oldMatches != null && oldMatches.index == matches.index) {
+        notifyMatchesChanged(oldMatches.positions, matches.positions);
+      } else {
+        notifyDataSetChanged();
+      }
       // We store the original item indexes in the originalPositions variable
       // We have eliminated hiding/showing CardView to improve performance
     }
   };
 
+  private static int[] allPositions(FilterIndex index) {
+    int[] positions = new int[index.items.length];
+    for (int position = 0; position < positions.length; position++) {
+      positions[position] = position;
+    }
+    return positions;
+  }
+
+  /**
+   * Notifies the list of the rows removed and inserted when the matches of one query are
+   * replaced by those of another. Since both are in the order of the same filter index, the
+   * rows that stay are the positions in both, and the others form ranges between them.
+   */
+  private void notifyMatchesChanged(int[] oldPositions, int[] newPositions) {
+    int i = 0;
+    int j = 0;
+    int row = 0;
+    while (i < oldPositions.length || j < newPositions.length) {
+      if (j == newPositions.length
+          || (i < oldPositions.length && oldPositions[i] < newPositions[j])) {
+        int start = i;
+        while (i < oldPositions.length
+            && (j == newPositions.length || oldPositions[i] < newPositions[j])) {
+          i++;
+        }
+        notifyItemRangeRemoved(row, i - start);
+      } else if (i == oldPositions.length || newPositions[j] < oldPositions[i]) {
+        int start = j;
+        while (j < newPositions.length
+            && (i == oldPositions.length || newPositions[j] < oldPositions[i])) {
+          j++;
+        }
+        notifyItemRangeInserted(row, j - start);
+        row += j - start;
+      } else {
+        i++;
+        j++;
+        row++;
+      }
+    }
+  }
+
   public ListAdapterWithRecyclerView(ComponentContainer container, List<Object> data,
       int layoutType, int textMainColor, int textDetailColor, float textMainSize,
       float textDetailSize, String textMainFont, String textDetailFont, int backgroundColor,
@@ -131,9 +240,11 @@ public class ListAdapterWithRecyclerView
   }
 
   public void updateData(List<Object> newItems) {
-    this.originalItems = newItems;
+    FilterIndex index = new FilterIndex(newItems);
+    filterIndex = index;
     if (originalPositions.isEmpty()) {
       this.items = new ArrayList<>(newItems);
+      shownMatches = new FilterMatches(index, "", allPositions(index));
     } else {
       filter.filter(lastQuery);
     }
@@ -261,24 +372,12 @@ public class ListAdapterWithRecyclerView
       holder.textViewFirst.setText(first);
       holder.textViewSecond.setText(second);
     } else if (layoutType == Component.LISTVIEW_LAYOUT_IMAGE_SINGLE_TEXT) {
-      Drawable drawable = new BitmapDrawable();
-      try {
-        drawable = MediaUtil.getBitmapDrawable(container.$form(), imageName);
-      } catch (IOException ioe) {
-        Log.e(LOG_TAG, "onBindViewHolder Unable to load image " + imageName + ": " + ioe.getMessage());
-      }
       holder.textViewFirst.setText(first);
-      ViewUtil.setImage(holder.imageVieww, drawable);
+      bindImage(holder, imageName);
     } else if (layoutType == Component.LISTVIEW_LAYOUT_IMAGE_TWO_TEXT) {
-      Drawable drawable = new BitmapDrawable();
-      try {
-        drawable = MediaUtil.getBitmapDrawable(container.$form(), imageName);
-      } catch (IOException ioe) {
-        Log.e(LOG_TAG, "onBindViewHolder Unable to load image " + imageName + ": " + ioe.getMessage());
-      }
       holder.textViewFirst.setText(first);
       holder.textViewSecond.setText(second);
-      ViewUtil.setImage(holder.imageVieww, drawable);
+      bindImage(holder, imageName);
     } else {
       Log.e(LOG_TAG, "onBindViewHolder Layout not recognized: " + layoutType);
     }
@@ -289,6 +388,55 @@ public class ListAdapterWithRecyclerView
     }
   }
 
+  @Override
+  public void onViewRecycled(RvViewHolder holder) {
+    if (holder.imageVieww != null) {
+      // Ignore the image if it is still loading, and let go of it if it is shown.
+      holder.imageName = null;
+      holder.imageVieww.setImageDrawable(null);
+    }
+  }
+
+  /**
+   * Shows an image in a row. The image is decoded on another thread, at no more than the
+   * resolution needed for the row, while the placeholder is shown. Images already decoded for
+   * another row come from the {@link com.google.appinventor.components.runtime.util.BitmapCache}
+   * and are shown at once.
+   */
+  private void bindImage(final RvViewHolder holder, final String imageName) {
+    if (imageName.equals(holder.imageName)) {
+      // The row is already showing or loading this image, such as when its selection changes.
+      return;
+    }
+    holder.imageName = imageName;
+    ViewUtil.setImage(holder.imageVieww, placeholder);
+    MediaUtil.getBitmapDrawableForViewAsync(container.$form(), imageName, imageWidth, imageHeight,
+        new AsyncCallbackPair<BitmapDrawable>() {
+          @Override
+          public void onFailure(String message) {
+            Log.e(LOG_TAG, "onBindViewHolder Unable to load image " + imageName + ": " + message);
+          }
+
+          @Override
+          public void onSuccess(BitmapDrawable result) {
+            showImage(holder, imageName, result);
+          }
+        });
+  }
+
+  private void showImage(final RvViewHolder holder, final String imageName,
+      final Drawable drawable) {
+    container.$form().runOnUiThread(new Runnable() {
+      @Override
+      public void run() {
+        // The holder may have been recycled or bound to another row while the image loaded.
+        if (imageName.equals(holder.imageName)) {
+          ViewUtil.setImage(holder.imageVieww, drawable);
+        }
+      }
+    });
+  }
+
   @Override
   public int getItemCount() {
     return (items.size());
@@ -332,6 +480,8 @@ public class ListAdapterWithRecyclerView
     public TextView textViewSecond;
     public ImageView imageVieww;
     public CardView cardView;
+    // The image the row is showing or loading, if any.
+    String imageName;
 
     public RvViewHolder(View view, int idCard, int idFirst, int idSecond, int idImages) {
       super(view);
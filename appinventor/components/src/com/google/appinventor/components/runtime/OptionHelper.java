@@ -15,6 +15,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Includes helper methods for getting the abstract enum value associated with a concrete value for
@@ -24,7 +25,18 @@ import java.util.Map;
 public class OptionHelper {
 
   private static final Map<String, Map<String, Method>> componentMethods =
-      new HashMap<String, Map<String, Method>>();
+      new ConcurrentHashMap<String, Map<String, Method>>();
+
+  // The OptionList class of each parameter of a method, or null for parameters without one.
+  private static final Map<Method, Class<?>[]> parameterOptionLists =
+      new ConcurrentHashMap<Method, Class<?>[]>();
+
+  // Marks methods without any OptionList parameters in parameterOptionLists.
+  private static final Class<?>[] NO_OPTION_LISTS = new Class<?>[0];
+
+  // The OptionList class of the return value of a method, or Void.TYPE if it has none.
+  private static final Map<Method, Class<?>> returnOptionLists =
+      new ConcurrentHashMap<Method, Class<?>>();
     
   /**
    * Returns the OptionList version of the value if the function's return type has an @Options
@@ -41,11 +53,15 @@ public class OptionHelper {
       // Doesn't exist or not relevant.
       return value;
     }
-    Options annotation = calledFunc.getAnnotation(Options.class);
-    if (annotation == null) {
+    Class<?> optionListClass = returnOptionLists.get(calledFunc);
+    if (optionListClass == null) {
+      Options annotation = calledFunc.getAnnotation(Options.class);
+      optionListClass = annotation == null ? Void.TYPE : annotation.value();
+      returnOptionLists.put(calledFunc, optionListClass);
+    }
+    if (optionListClass == Void.TYPE) {
       return value;
     }
-    Class<?> optionListClass = annotation.value();
     try {
       Method fromValue = optionListClass.getMethod("fromUnderlyingValue", value.getClass());
       // Java generally shouldn't return values that aren't defined in the OptionList, but
@@ -82,37 +98,60 @@ public class OptionHelper {
     if (calledFunc == null) {
       return args;
     }
-    Annotation[][] paramAnnotations = calledFunc.getParameterAnnotations();
-    int i = 0;
-    for (Annotation[] annotations : paramAnnotations) {
-      for (Annotation annotation : annotations) {
-        if (annotation.annotationType() == Options.class) {
-          Options castAnnotation = (Options) annotation;
-          Class<?> optionListClass = castAnnotation.value();
-          try {
-            Method fromValue = optionListClass.getMethod("fromUnderlyingValue", args[i].getClass());
-            // Extensions might send values to events which aren't covered by the OptionList
-            // definition. In that case send the concrete value. See here for an example:
-            // https://github.com/BeksOmega/appinventor-sources/pull/24#discussion_r480355676
-            Object abstractVal = fromValue.invoke(optionListClass, args[i]);
-            if (abstractVal != null) {
-              args[i] = abstractVal;
-            }
-          } catch (NoSuchMethodException e) {
-            // If it doesn't exist just continue.
-          } catch (IllegalAccessException e) {
-            // If it's not accessible just continue.
-          } catch (InvocationTargetException e) {
-            // If it doesn't work just continue.
-          }
-          break;
+    Class<?>[] optionListClasses = getParameterOptionLists(calledFunc);
+    for (int i = 0; i < optionListClasses.length && i < args.length; i++) {
+      Class<?> optionListClass = optionListClasses[i];
+      if (optionListClass == null) {
+        continue;
+      }
+      try {
+        Method fromValue = optionListClass.getMethod("fromUnderlyingValue", args[i].getClass());
+        // Extensions might send values to events which aren't covered by the OptionList
+        // definition. In that case send the concrete value. See here for an example:
+        // https://github.com/BeksOmega/appinventor-sources/pull/24#discussion_r480355676
+        Object abstractVal = fromValue.invoke(optionListClass, args[i]);
+        if (abstractVal != null) {
+          args[i] = abstractVal;
         }
+      } catch (NoSuchMethodException e) {
+        // If it doesn't exist just continue.
+      } catch (IllegalAccessException e) {
+        // If it's not accessible just continue.
+      } catch (InvocationTargetException e) {
+        // If it doesn't work just continue.
       }
-      i++;
     }
     return args;
   }
 
+  /**
+   * Returns the OptionList classes of the parameters of the given method, reading the method's
+   * annotations only the first time, since events are dispatched far more often than there are
+   * distinct events. Returns an empty array if no parameter has an @Options annotation.
+   */
+  private static Class<?>[] getParameterOptionLists(Method method) {
+    Class<?>[] optionListClasses = parameterOptionLists.get(method);
+    if (optionListClasses == null) {
+      Annotation[][] paramAnnotations = method.getParameterAnnotations();
+      optionListClasses = new Class<?>[paramAnnotations.length];
+      boolean any = false;
+      for (int i = 0; i < paramAnnotations.length; i++) {
+        for (Annotation annotation : paramAnnotations[i]) {
+          if (annotation.annotationType() == Options.class) {
+            optionListClasses[i] = ((Options) annotation).value();
+            any = true;
+            break;
+          }
+        }
+      }
+      if (!any) {
+        optionListClasses = NO_OPTION_LISTS;
+      }
+      parameterOptionLists.put(method, optionListClasses);
+    }
+    return optionListClasses;
+  }
+
   /**
    * Returns the Method associated with the given component and function name. Returns null if the
    * Method does not exist or shouldn't be operated on in this context (e.g. a void method).
@@ -14,6 +14,7 @@ import com.github.mikephil.charting.data.DataSet;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.interfaces.datasets.IBarLineScatterCandleBubbleDataSet;
 import com.github.mikephil.charting.interfaces.datasets.IDataSet;
+import com.github.mikephil.charting.utils.Utils;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
 import com.google.appinventor.components.runtime.util.YailList;
 
@@ -45,6 +46,46 @@ public abstract class PointChartDataModel<
     super(data, view);
   }
 
+  /**
+   * Finds the index of the specified Entry in the Data Series.
+   * Returns -1 if the Entry does not exist.
+   *
+   * <p>Point chart entries are kept sorted by x value, so only the
+   * entries with the same x value as the specified one are compared.
+   *
+   * @param entry Entry to find
+   * @return index of the entry, or -1 if entry is not found
+   */
+  @Override
+  public int findEntryIndex(Entry entry) {
+    float x = entry.getX();
+    if (Float.isNaN(x)) {
+      // NaN values are not ordered
+      return super.findEntryIndex(entry);
+    }
+
+    // Binary search for the first entry that may be equal
+    int low = 0;
+    int high = entries.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (entries.get(middle).getX() < x - Utils.FLOAT_EPSILON) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    for (int i = low; i < entries.size() && entries.get(i).getX() <= x + Utils.FLOAT_EPSILON;
+        ++i) {
+      if (areEntriesEqual(entries.get(i), entry)) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
   @Override
   public Entry getEntryFromTuple(YailList tuple) {
     try {
@@ -20,7 +20,6 @@ import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.runtime.errors.IllegalArgumentError;
 import com.google.appinventor.components.runtime.util.BoundingBox;
 import com.google.appinventor.components.runtime.util.TimerInternal;
-import com.google.appinventor.components.runtime.util.Vector2D;
 import com.google.appinventor.components.runtime.util.YailList;
 
 import java.util.HashSet;
@@ -62,6 +61,13 @@ public abstract class Sprite extends VisibleComponent
   // are removed when they no longer collide.
   private final Set<Sprite> registeredCollisions;
 
+  // Corners of the sprites being tested for collision. Collisions are only
+  // checked on the UI thread, so the tests can share these.
+  private static final double[] xs1 = new double[4];
+  private static final double[] ys1 = new double[4];
+  private static final double[] xs2 = new double[4];
+  private static final double[] ys2 = new double[4];
+
   // This variable prevents events from being raised before construction of
   // all components has taken place.  This was added to fix bug 2262218.
   protected boolean initialized = false;
@@ -726,6 +732,14 @@ public abstract class Sprite extends VisibleComponent
     return registeredCollisions.contains(other);
   }
 
+  /**
+   * Returns the sprites a collision has been registered with. The set is
+   * live, so callers that raise events must copy it first.
+   */
+  Set<Sprite> getRegisteredCollisions() {
+    return registeredCollisions;
+  }
+
   /**
    * Moves the sprite back in bounds if part of it extends out of bounds,
    * having no effect otherwise. If the sprite is too wide to fit on the
@@ -823,7 +837,7 @@ public abstract class Sprite extends VisibleComponent
     // before all components had been constructed.
     if (!initialized) {
       // During REPL, components are not initalized, but we still want to repaint the canvas.
-      canvas.getView().invalidate();
+      canvas.registerChangeBeforeInitialize(this);
       return;
     }
     Direction edge = hitEdgeAbstract();
@@ -1064,49 +1078,91 @@ public abstract class Sprite extends VisibleComponent
   // Get the normal axes for both of the sprites and after that check the projections of the sprites
   // on those axes.
   private static boolean collidingImageSprites(ImageSprite sprite1, ImageSprite sprite2) {
+    sprite1.getCorners(xs1, ys1);
+    sprite2.getCorners(xs2, ys2);
+    return !separatedByNormals(xs1, ys1) && !separatedByNormals(xs2, ys2);
+  }
 
-    // axes to project the sprites on
-    java.util.List<Vector2D> axes = sprite1.getNormalAxes();
-    axes.addAll(sprite2.getNormalAxes());
-
-    for (Vector2D a : axes) {
-      double minA = sprite1.getMinProjection(a);
-      double maxA = sprite1.getMaxProjection(a);
-      double minB = sprite2.getMinProjection(a);
-      double maxB = sprite2.getMaxProjection(a);
-      if (maxA < minB || maxB < minA) {
-        return false;
-      }
+  // Checks the two image sprites whose corners are in xs1, ys1 and xs2, ys2 against the two axes
+  // normal to the edges of the image sprite with the given corners. We need to consider only two
+  // axes as the other two would be parallel to these.
+  private static boolean separatedByNormals(double[] xs, double[] ys) {
+    return separated(ys[0] - ys[1], -(xs[0] - xs[1]))
+        || separated(ys[1] - ys[2], -(xs[1] - xs[2]));
+  }
+
+  private static boolean separated(double axisX, double axisY) {
+    return max(axisX, axisY, xs1, ys1) < min(axisX, axisY, xs2, ys2)
+        || max(axisX, axisY, xs2, ys2) < min(axisX, axisY, xs1, ys1);
+  }
+
+  // The minimum projection will be that of one of the corners. Note this is the minimum dot product
+  // i.e. the axis is not guaranteed to be a unit vector. As we only do comparisons on these values,
+  // calculating the unit vector is a waste of time.
+  private static double min(double axisX, double axisY, double[] xs, double[] ys) {
+    double minimum = axisX * xs[0] + axisY * ys[0];
+    for (int i = 1; i < 4; i++) {
+      minimum = Math.min(minimum, axisX * xs[i] + axisY * ys[i]);
     }
+    return minimum;
+  }
 
-    return true;
+  private static double max(double axisX, double axisY, double[] xs, double[] ys) {
+    double maximum = axisX * xs[0] + axisY * ys[0];
+    for (int i = 1; i < 4; i++) {
+      maximum = Math.max(maximum, axisX * xs[i] + axisY * ys[i]);
+    }
+    return maximum;
   }
 
   // Use the SAT collision detection algorithm for checking collisions between an image sprite and a
   // ball. The axes to project the sprites onto are the vectors normal to the image sprites and the
   // vector that connects the center of the ball to the closest vertex of the image sprite.
   private static boolean collidingBallAndImageSprite(Ball ball, ImageSprite imageSprite) {
-    java.util.List<Vector2D> axes = imageSprite.getNormalAxes();
-
-    java.util.List<Vector2D> imageCorners = imageSprite.getExtremityVectors();
-
-    Vector2D ballCenter = ball.getCenterVector();
-
-    Vector2D closestCorner = ballCenter.getClosestVector(imageCorners);
-    Vector2D ballCenterToClosestCorner = Vector2D.difference(closestCorner, ballCenter);
-    axes.add(ballCenterToClosestCorner);
-
-    for (Vector2D a : axes) {
-      double minA = imageSprite.getMinProjection(a);
-      double maxA = imageSprite.getMaxProjection(a);
-      double minB = ball.getMinProjection(a);
-      double maxB = ball.getMaxProjection(a);
-      if (maxA < minB || maxB < minA) {
-        return false;
+    imageSprite.getCorners(xs1, ys1);
+    double xCenter = ball.xLeft + ball.Width() / 2.0;
+    double yCenter = ball.yTop + ball.Height() / 2.0;
+
+    int closest = 0;
+    double minDistance = Double.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      double dx = xCenter - xs1[i];
+      double dy = yCenter - ys1[i];
+      double distance = dx * dx + dy * dy;
+      if (distance < minDistance) {
+        minDistance = distance;
+        closest = i;
       }
     }
 
-    return true;
+    return !separatedFromBall(ys1[0] - ys1[1], -(xs1[0] - xs1[1]), ball, xCenter, yCenter)
+        && !separatedFromBall(ys1[1] - ys1[2], -(xs1[1] - xs1[2]), ball, xCenter, yCenter)
+        && !separatedFromBall(xs1[closest] - xCenter, ys1[closest] - yCenter, ball, xCenter,
+            yCenter);
+  }
+
+  // The projection of the ball is the projection of its center plus or minus the radius. We
+  // consider dot product values as the projection so the radius needs to be multiplied by the
+  // axis's magnitude.
+  private static boolean separatedFromBall(double axisX, double axisY, Ball ball,
+      double xCenter, double yCenter) {
+    double center = xCenter * axisX + yCenter * axisY;
+    double radius = ball.Radius() * Math.sqrt(axisX * axisX + axisY * axisY);
+    return max(axisX, axisY, xs1, ys1) < center - radius
+        || center + radius < min(axisX, axisY, xs1, ys1);
+  }
+
+  /**
+   * Computes the smallest axis-aligned box that contains this sprite as
+   * drawn, for a quick check before the exact collision test.
+   *
+   * @param bounds receives the left, top, right and bottom coordinates
+   */
+  void getCollisionBounds(double[] bounds) {
+    bounds[0] = xLeft;
+    bounds[1] = yTop;
+    bounds[2] = xLeft + Width();
+    bounds[3] = yTop + Height();
   }
 
   /**
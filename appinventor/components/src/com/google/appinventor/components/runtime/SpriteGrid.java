@@ -0,0 +1,274 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A spatial hash of the sprites on a {@link Canvas}, used to find the
+ * sprites that may be colliding with a sprite without testing every
+ * sprite on the canvas.
+ *
+ * <p>The plane is divided into square cells, and each sprite is
+ * recorded in the cells overlapped by its bounding box. Cells are
+ * hashed into a fixed number of buckets, so sprites can be tracked
+ * anywhere on or off the canvas, and moving a sprite within its cells
+ * costs nothing. Sprites too big to record cell by cell are kept in a
+ * separate list that every lookup checks.</p>
+ *
+ * @see Canvas#findSpriteCollisions(Sprite)
+ */
+final class SpriteGrid {
+  private static final int CELL_SIZE = 64;
+
+  // Must be a power of 2.
+  private static final int BUCKET_COUNT = 1024;
+
+  // Sprites covering more cells than this go in the oversized list.
+  private static final int MAX_CELLS_PER_SPRITE = 64;
+
+  // Bounding boxes are grown by this many pixels, so that rounding in
+  // the exact collision tests can't make two sprites collide without
+  // their boxes overlapping.
+  private static final double MARGIN = 1;
+
+  private static final class Entry {
+    private final Sprite sprite;
+    // The position of the sprite in the canvas's Z order.
+    private int order;
+    private double left;
+    private double top;
+    private double right;
+    private double bottom;
+    // The cells the sprite is recorded in, if it is not oversized.
+    private boolean placed;
+    private boolean oversized;
+    private int minColumn;
+    private int minRow;
+    private int maxColumn;
+    private int maxRow;
+    // The lookup that last reported this sprite, to report it only once.
+    private int lookup;
+
+    Entry(Sprite sprite) {
+      this.sprite = sprite;
+    }
+
+    boolean overlaps(Entry other) {
+      return left <= other.right && other.left <= right
+          && top <= other.bottom && other.top <= bottom;
+    }
+  }
+
+  private final List<Entry>[] buckets;
+  private final List<Entry> oversized = new ArrayList<Entry>();
+  private final Map<Sprite, Entry> entries = new IdentityHashMap<Sprite, Entry>();
+  private final List<Entry> found = new ArrayList<Entry>();
+  private final double[] bounds = new double[4];
+  private int lookup;
+
+  @SuppressWarnings("unchecked")
+  SpriteGrid() {
+    buckets = new List[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] = new ArrayList<Entry>();
+    }
+  }
+
+  /**
+   * Starts tracking a sprite. Sprites are added while they are being
+   * constructed, so until its first {@link #update} the sprite is
+   * reported by every lookup.
+   *
+   * @param sprite the sprite added to the canvas
+   */
+  void add(Sprite sprite) {
+    Entry entry = entries.get(sprite);
+    if (entry == null) {
+      entry = new Entry(sprite);
+      entries.put(sprite, entry);
+    }
+    unplace(entry);
+    entry.left = Double.NEGATIVE_INFINITY;
+    entry.top = Double.NEGATIVE_INFINITY;
+    entry.right = Double.POSITIVE_INFINITY;
+    entry.bottom = Double.POSITIVE_INFINITY;
+    // No cell range matches this one, so the next update places the sprite.
+    entry.minColumn = Integer.MAX_VALUE;
+    entry.maxColumn = Integer.MIN_VALUE;
+    entry.placed = true;
+    entry.oversized = true;
+    oversized.add(entry);
+  }
+
+  /**
+   * Stops tracking a sprite.
+   *
+   * @param sprite the sprite removed from the canvas
+   */
+  void remove(Sprite sprite) {
+    Entry entry = entries.remove(sprite);
+    if (entry != null) {
+      unplace(entry);
+    }
+  }
+
+  /**
+   * Records the Z order of the sprites, which is the order in which
+   * {@link #findCandidates} reports them.
+   *
+   * @param sprites the sprites on the canvas, sorted by Z
+   */
+  void setOrder(List<Sprite> sprites) {
+    int order = 0;
+    for (Sprite sprite : sprites) {
+      Entry entry = entries.get(sprite);
+      if (entry != null) {
+        entry.order = order++;
+      }
+    }
+  }
+
+  /**
+   * Records the current position, size and heading of a sprite.
+   *
+   * @param sprite the sprite that has changed
+   */
+  void update(Sprite sprite) {
+    Entry entry = entries.get(sprite);
+    if (entry == null) {
+      return;
+    }
+    sprite.getCollisionBounds(bounds);
+    entry.left = bounds[0] - MARGIN;
+    entry.top = bounds[1] - MARGIN;
+    entry.right = bounds[2] + MARGIN;
+    entry.bottom = bounds[3] + MARGIN;
+    int minColumn = cell(entry.left);
+    int minRow = cell(entry.top);
+    int maxColumn = cell(entry.right);
+    int maxRow = cell(entry.bottom);
+    if (entry.placed && minColumn == entry.minColumn && minRow == entry.minRow
+        && maxColumn == entry.maxColumn && maxRow == entry.maxRow) {
+      return;
+    }
+    unplace(entry);
+    entry.minColumn = minColumn;
+    entry.minRow = minRow;
+    entry.maxColumn = maxColumn;
+    entry.maxRow = maxRow;
+    entry.placed = true;
+    long cells = ((long) maxColumn - minColumn + 1) * ((long) maxRow - minRow + 1);
+    entry.oversized = cells > MAX_CELLS_PER_SPRITE;
+    if (entry.oversized) {
+      oversized.add(entry);
+      return;
+    }
+    for (int column = minColumn; column <= maxColumn; column++) {
+      for (int row = minRow; row <= maxRow; row++) {
+        List<Entry> bucket = buckets[bucket(column, row)];
+        // Several cells of a sprite may share a bucket.
+        if (!bucket.contains(entry)) {
+          bucket.add(entry);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the sprites that may be colliding with a sprite, that is,
+   * those whose bounding boxes overlap its own, plus the given sprites.
+   * Sprites are reported once each, in Z order.
+   *
+   * @param sprite the sprite to check
+   * @param others sprites to report whether or not they are near, such
+   *               as the ones currently colliding with the sprite
+   * @param result receives the sprites other than {@code sprite}
+   */
+  void findCandidates(Sprite sprite, Collection<Sprite> others, List<Sprite> result) {
+    Entry entry = entries.get(sprite);
+    if (entry == null) {
+      return;
+    }
+    lookup++;
+    entry.lookup = lookup;
+    if (entry.oversized) {
+      // Checking the boxes of all sprites is cheaper than all the cells.
+      for (Entry other : entries.values()) {
+        addIfOverlapping(entry, other);
+      }
+    } else {
+      for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+        for (int row = entry.minRow; row <= entry.maxRow; row++) {
+          List<Entry> bucket = buckets[bucket(column, row)];
+          for (int i = 0, n = bucket.size(); i < n; i++) {
+            addIfOverlapping(entry, bucket.get(i));
+          }
+        }
+      }
+      for (int i = 0, n = oversized.size(); i < n; i++) {
+        addIfOverlapping(entry, oversized.get(i));
+      }
+    }
+    for (Sprite other : others) {
+      Entry otherEntry = entries.get(other);
+      if (otherEntry != null && otherEntry.lookup != lookup) {
+        otherEntry.lookup = lookup;
+        found.add(otherEntry);
+      }
+    }
+
+    // Few sprites are found, so an insertion sort is fast and does not allocate.
+    for (int i = 1; i < found.size(); i++) {
+      Entry next = found.get(i);
+      int j = i - 1;
+      while (j >= 0 && found.get(j).order > next.order) {
+        found.set(j + 1, found.get(j));
+        j--;
+      }
+      found.set(j + 1, next);
+    }
+    for (int i = 0, n = found.size(); i < n; i++) {
+      result.add(found.get(i).sprite);
+    }
+    found.clear();
+  }
+
+  private void addIfOverlapping(Entry entry, Entry other) {
+    if (other.lookup != lookup && entry.overlaps(other)) {
+      other.lookup = lookup;
+      found.add(other);
+    }
+  }
+
+  private void unplace(Entry entry) {
+    if (!entry.placed) {
+      return;
+    }
+    entry.placed = false;
+    if (entry.oversized) {
+      oversized.remove(entry);
+      return;
+    }
+    for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+      for (int row = entry.minRow; row <= entry.maxRow; row++) {
+        buckets[bucket(column, row)].remove(entry);
+      }
+    }
+  }
+
+  private static int cell(double coordinate) {
+    return (int) Math.floor(coordinate / CELL_SIZE);
+  }
+
+  private static int bucket(int column, int row) {
+    return (column * 73856093 ^ row * 19349663) & (BUCKET_COUNT - 1);
+  }
+}
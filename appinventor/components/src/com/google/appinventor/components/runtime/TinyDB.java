@@ -9,6 +9,8 @@ package com.google.appinventor.components.runtime;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import android.os.Handler;
+
 import android.util.Log;
 
 import com.google.appinventor.components.annotations.DesignerComponent;
@@ -22,6 +24,7 @@ import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 
+import com.google.appinventor.components.runtime.errors.IllegalArgumentError;
 import com.google.appinventor.components.runtime.errors.YailRuntimeError;
 
 import com.google.appinventor.components.runtime.util.JsonUtil;
@@ -29,7 +32,9 @@ import com.google.appinventor.components.runtime.util.YailDictionary;
 import com.google.appinventor.components.runtime.util.YailList;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -86,12 +91,74 @@ import org.json.JSONException;
 
 @SimpleObject
 public class TinyDB extends AndroidNonvisibleComponent implements Component, Deleteable,
-    ObservableDataSource<String, YailList> {
+    ObservableDataSource<String, YailList>, OnPauseListener {
 
   public static final String DEFAULT_NAMESPACE = "TinyDB1";
 
+  /**
+   * The state shared by all TinyDB components that use the same data store: the values that have
+   * been stored but not yet written to the SharedPreferences, and the values already decoded from
+   * JSON. It is only used on the UI thread.
+   */
+  private static class NamespaceCache implements Runnable {
+    private final SharedPreferences sharedPreferences;
+    // The JSON of the values waiting to be written, or null for tags waiting to be removed.
+    private final Map<String, String> pendingWrites = new LinkedHashMap<>();
+    private final Map<String, Object> decodedValues = new HashMap<>();
+    private boolean flushScheduled = false;
+
+    NamespaceCache(SharedPreferences sharedPreferences) {
+      this.sharedPreferences = sharedPreferences;
+    }
+
+    String getJson(String tag) {
+      if (pendingWrites.containsKey(tag)) {
+        String json = pendingWrites.get(tag);
+        return json == null ? "" : json;
+      }
+      return sharedPreferences.getString(tag, "");
+    }
+
+    /**
+     * Writes the pending values in one batch.
+     *
+     * @param durable true to wait until the data store, including any earlier writes that are
+     *                still in progress, is saved to storage
+     */
+    void flush(boolean durable) {
+      if (pendingWrites.isEmpty() && !durable) {
+        return;
+      }
+      final SharedPreferences.Editor sharedPrefsEditor = sharedPreferences.edit();
+      for (Map.Entry<String, String> write : pendingWrites.entrySet()) {
+        if (write.getValue() == null) {
+          sharedPrefsEditor.remove(write.getKey());
+        } else {
+          sharedPrefsEditor.putString(write.getKey(), write.getValue());
+        }
+      }
+      pendingWrites.clear();
+      if (durable) {
+        sharedPrefsEditor.commit();
+      } else {
+        sharedPrefsEditor.apply();
+      }
+    }
+
+    @Override
+    public void run() {
+      flushScheduled = false;
+      flush(false);
+    }
+  }
+
+  private static final Map<SharedPreferences, NamespaceCache> caches = new HashMap<>();
+
   private SharedPreferences sharedPreferences;
+  private NamespaceCache cache;
   private String namespace;
+  private int flushInterval = 0;
+  private final Handler androidUIHandler = new Handler();
 
   private Context context;  // this was a local in constructor and final not private
 
@@ -114,12 +181,19 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
     sharedPreferenceChangeListener = new SharedPreferences.OnSharedPreferenceChangeListener() {
       @Override
       public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+        // The decoded value, if any, is out of date. A null key means the data store was cleared.
+        if (key == null) {
+          cache.decodedValues.clear();
+        } else {
+          cache.decodedValues.remove(key);
+        }
         // Upon value change, notify the observers with the key and the value
         notifyDataObservers(key, GetValue(key, null));
       }
     };
 
     Namespace(DEFAULT_NAMESPACE);
+    form.registerForOnPause(this);
   }
 
   /**
@@ -144,6 +218,11 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
     }
 
     sharedPreferences = context.getSharedPreferences(namespace, Context.MODE_PRIVATE);
+    cache = caches.get(sharedPreferences);
+    if (cache == null) {
+      cache = new NamespaceCache(sharedPreferences);
+      caches.put(sharedPreferences, cache);
+    }
 
     // Register the SharedPreferences change listener
     sharedPreferences.registerOnSharedPreferenceChangeListener(sharedPreferenceChangeListener);
@@ -154,6 +233,33 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
     return namespace;
   }
 
+  /**
+   * The number of milliseconds that values stored with `StoreValue` or cleared with `ClearTag`
+   * are held in memory before they are written to the data store. Values written within that time
+   * are saved together, which is much faster than saving them one at a time. If set to 0 (the
+   * default), each value is saved before `StoreValue` returns. Values held in memory are visible
+   * to all `TinyDB` components right away, and are saved when the app is paused or when `Flush`
+   * is called.
+   *
+   * @param flushInterval the delay in milliseconds
+   */
+  @SimpleProperty(description = "The number of milliseconds that stored values are held in "
+      + "memory before they are written to the data store, or 0 to write each value right away.",
+      category = PropertyCategory.BEHAVIOR)
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER,
+      defaultValue = "0")
+  public void FlushInterval(int flushInterval) {
+    if (flushInterval < 0) {
+      throw new IllegalArgumentError("TinyDB FlushInterval must be a non-negative integer.");
+    }
+    this.flushInterval = flushInterval;
+  }
+
+  @SimpleProperty
+  public int FlushInterval() {
+    return flushInterval;
+  }
+
   /**
    * Store the given `valueToStore`{:.variable.block} under the given `tag`{:.text.block}.
    * The storage persists on the phone when the app is restarted.
@@ -165,10 +271,8 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
   @SimpleFunction(description = "Store the given value under the given tag.  The storage persists "
       + "on the phone when the app is restarted.")
   public void StoreValue(final String tag, final Object valueToStore) {
-    final SharedPreferences.Editor sharedPrefsEditor = sharedPreferences.edit();
     try {
-      sharedPrefsEditor.putString(tag, JsonUtil.getJsonRepresentation(valueToStore));
-      sharedPrefsEditor.commit();
+      write(tag, JsonUtil.getJsonRepresentation(valueToStore));
     } catch (JSONException e) {
       throw new YailRuntimeError("Value failed to convert to JSON.", "JSON Creation Error.");
     }
@@ -186,16 +290,40 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
   @SimpleFunction(description = "Retrieve the value stored under the given tag. If there's no "
       + "such tag, then return valueIfTagNotThere.")
   public Object GetValue(final String tag, final Object valueIfTagNotThere) {
+    if (cache.decodedValues.containsKey(tag)) {
+      return copyValue(cache.decodedValues.get(tag));
+    }
     try {
-      String value = sharedPreferences.getString(tag, "");
+      String value = cache.getJson(tag);
       // If there's no entry with tag as a key then return the empty string.
       //    was  return (value.length() == 0) ? "" : JsonUtil.getObjectFromJson(value);
-      return (value.length() == 0) ? valueIfTagNotThere : JsonUtil.getObjectFromJson(value, true);
+      if (value.length() == 0) {
+        return valueIfTagNotThere;
+      }
+      Object decoded = JsonUtil.getObjectFromJson(value, true);
+      cache.decodedValues.put(tag, decoded);
+      return copyValue(decoded);
     } catch (JSONException e) {
       throw new YailRuntimeError("Value failed to convert from JSON.", "JSON Creation Error.");
     }
   }
 
+  /**
+   * Writes all values held in memory by the `TinyDB` components of the app to the data store,
+   * and waits until the data store is saved on the device.
+   */
+  @SimpleFunction(description = "Save all values held in memory to the data store and wait "
+      + "until they are written to the device.")
+  public void Flush() {
+    cache.flush(true);
+  }
+
+  @Override
+  public void onPause() {
+    // Android makes sure the write started here finishes before the app can be killed.
+    cache.flush(false);
+  }
+
    /**
    * Return a list of all the tags in the data store.
    *
@@ -203,6 +331,7 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
    */
   @SimpleFunction(description = "Return a list of all the tags in the data store.")
   public Object GetTags() {
+    cache.flush(false);
     List<String> keyList = new ArrayList<String>();
     Map<String, ?> keyValues = sharedPreferences.getAll();
     // here is the simple way to get keys
@@ -217,6 +346,8 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
    */
   @SimpleFunction(description = "Clear the entire data store.")
   public void ClearAll() {
+    cache.pendingWrites.clear();
+    cache.decodedValues.clear();
     final SharedPreferences.Editor sharedPrefsEditor = sharedPreferences.edit();
     sharedPrefsEditor.clear();
     sharedPrefsEditor.commit();
@@ -230,13 +361,13 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
    */
   @SimpleFunction(description = "Clear the entry with the given tag.")
   public void ClearTag(final String tag) {
-    final SharedPreferences.Editor sharedPrefsEditor = sharedPreferences.edit();
-    sharedPrefsEditor.remove(tag);
-    sharedPrefsEditor.commit();
+    write(tag, null);
   }
 
   @Override
   public void onDelete() {
+    cache.pendingWrites.clear();
+    cache.decodedValues.clear();
     final SharedPreferences.Editor sharedPrefsEditor = sharedPreferences.edit();
     sharedPrefsEditor.clear();
     sharedPrefsEditor.commit();
@@ -291,6 +422,7 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
    */
   @SimpleFunction(description = "Retrieves all data entries of TinyDB in form of Dictionaries")
   public YailDictionary GetEntries() {
+    cache.flush(false);
     Map<String, ?> keyValues = sharedPreferences.getAll();
     List<String> keyList = new ArrayList<>(keyValues.keySet());
 
@@ -305,4 +437,40 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
     return dictionary;
   }
 
+  /**
+   * Stores the JSON for a value, or removes the tag if json is null, either now or after the
+   * flush interval.
+   */
+  private void write(String tag, String json) {
+    cache.decodedValues.remove(tag);
+    cache.pendingWrites.put(tag, json);
+    if (flushInterval == 0) {
+      // Also writes any values other components are holding, so that writes stay in order.
+      cache.flush(true);
+    } else if (!cache.flushScheduled) {
+      cache.flushScheduled = true;
+      androidUIHandler.postDelayed(cache, flushInterval);
+    }
+  }
+
+  /**
+   * Returns a copy of a decoded value. Blocks can change lists and dictionaries, so each caller
+   * of GetValue gets its own.
+   */
+  private static Object copyValue(Object value) {
+    if (value instanceof YailList) {
+      Object[] items = ((YailList) value).toArray();
+      for (int i = 0; i < items.length; i++) {
+        items[i] = copyValue(items[i]);
+      }
+      return YailList.makeList(items);
+    } else if (value instanceof YailDictionary) {
+      YailDictionary copy = new YailDictionary();
+      for (Map.Entry<Object, Object> entry : ((YailDictionary) value).entrySet()) {
+        copy.put(entry.getKey(), copyValue(entry.getValue()));
+      }
+      return copy;
+    }
+    return value;
+  }
 }
@@ -53,17 +53,19 @@ import com.google.appinventor.components.runtime.util.GingerbreadUtil;
 import com.google.appinventor.components.runtime.util.JsonUtil;
 import com.google.appinventor.components.runtime.util.MediaUtil;
 import com.google.appinventor.components.runtime.util.SdkLevel;
+import com.google.appinventor.components.runtime.util.WebCache;
 import com.google.appinventor.components.runtime.util.XmlParser;
 import com.google.appinventor.components.runtime.util.YailDictionary;
 import com.google.appinventor.components.runtime.util.YailList;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 
@@ -78,6 +80,7 @@ import java.net.URLDecoder;
 import java.net.URLEncoder;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -85,6 +88,9 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
@@ -166,8 +172,12 @@ public class Web extends AndroidNonvisibleComponent implements Component,
     final boolean saveResponse;
     final String responseFileName;
     final int timeout;
+    final boolean cacheResponses;
     final Map<String, List<String>> requestHeaders;
     final Map<String, List<String>> cookies;
+    // Whether we ask for a compressed response, and so must decompress it. We don't if the app
+    // sets its own Accept-Encoding header.
+    final boolean acceptCompression;
 
     CapturedProperties(Web web) throws MalformedURLException, InvalidRequestHeadersException {
       urlString = web.urlString;
@@ -176,7 +186,13 @@ public class Web extends AndroidNonvisibleComponent implements Component,
       saveResponse = web.saveResponse;
       responseFileName = web.responseFileName;
       timeout = web.timeout;
+      cacheResponses = web.cacheResponses;
       requestHeaders = processRequestHeaders(web.requestHeaders);
+      boolean hasAcceptEncoding = false;
+      for (String name : requestHeaders.keySet()) {
+        hasAcceptEncoding |= name.equalsIgnoreCase("Accept-Encoding");
+      }
+      acceptCompression = !hasAcceptEncoding;
 
       Map<String, List<String>> cookiesTemp = null;
       if (allowCookies && web.cookieHandler != null) {
@@ -194,6 +210,11 @@ public class Web extends AndroidNonvisibleComponent implements Component,
 
   private static final String LOG_TAG = "Web";
 
+  // The directory, under the app's cache directory, and the number of bytes used by the response
+  // cache shared by all Web components.
+  private static final String CACHE_DIRECTORY = "web";
+  private static final long CACHE_SIZE = 10 * 1024 * 1024;
+
   private static final Map<String, String> mimeTypeToExtension;
   static {
     mimeTypeToExtension = Maps.newHashMap();
@@ -221,6 +242,7 @@ public class Web extends AndroidNonvisibleComponent implements Component,
   private boolean saveResponse;
   private String responseFileName = "";
   private int timeout = 0;
+  private boolean cacheResponses = false;
 
   // whether we have permission to manipulate external storage (read and write, separately)
   // requests may need different combinations of permissions, so consider these independently.
@@ -435,6 +457,38 @@ public class Web extends AndroidNonvisibleComponent implements Component,
     this.timeout = timeout;
   }
 
+  /**
+   * Returns whether responses to GET requests are cached on the device.
+   */
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "Whether responses to GET requests should be cached on the device. A cached " +
+      "response is reused while the server says it is fresh, and is revalidated with the " +
+      "server, without downloading it again if it has not changed, once it is stale. Responses " +
+      "saved to a file are not cached.")
+  public boolean CacheResponses() {
+    return cacheResponses;
+  }
+
+  /**
+   * Specifies whether responses to GET requests are cached on the device.
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN,
+      defaultValue = "false")
+  @SimpleProperty
+  public void CacheResponses(boolean cacheResponses) {
+    this.cacheResponses = cacheResponses;
+  }
+
+  @SimpleFunction(description = "Removes all responses cached by the Web components of the app.")
+  public void ClearCache() {
+    AsynchUtil.runAsynchronously(this, new Runnable() {
+      @Override
+      public void run() {
+        getCache().clear();
+      }
+    });
+  }
+
   @SimpleFunction(description = "Clears all cookies for this Web component.")
   public void ClearCookies() {
     if (cookieHandler != null) {
@@ -473,7 +527,7 @@ public class Web extends AndroidNonvisibleComponent implements Component,
       }
     }, null);
 
-    AsynchUtil.runAsynchronously(lastTask);
+    AsynchUtil.runAsynchronously(this, lastTask);
   }
 
   /**
@@ -559,7 +613,7 @@ public class Web extends AndroidNonvisibleComponent implements Component,
       }
     }, null);
 
-    AsynchUtil.runAsynchronously(lastTask);
+    AsynchUtil.runAsynchronously(this, lastTask);
   }
   
   /**
@@ -638,7 +692,7 @@ public class Web extends AndroidNonvisibleComponent implements Component,
       return;
     }
 
-    AsynchUtil.runAsynchronously(new Runnable() {
+    AsynchUtil.runAsynchronously(this, new Runnable() {
       @Override
       public void run() {
         performRequest(webProps, null, path, "PATCH", METHOD);
@@ -729,7 +783,7 @@ public class Web extends AndroidNonvisibleComponent implements Component,
       }
     }, null);
 
-    AsynchUtil.runAsynchronously(lastTask);
+    AsynchUtil.runAsynchronously(this, lastTask);
   }
 
   /**
@@ -760,7 +814,7 @@ public class Web extends AndroidNonvisibleComponent implements Component,
       }
     }, null);
 
-    AsynchUtil.runAsynchronously(lastTask);
+    AsynchUtil.runAsynchronously(this, lastTask);
   }
 
   /*
@@ -809,7 +863,7 @@ public class Web extends AndroidNonvisibleComponent implements Component,
       }
     }, null);
 
-    AsynchUtil.runAsynchronously(lastTask);
+    AsynchUtil.runAsynchronously(this, lastTask);
   }
 
   /**
@@ -1222,7 +1276,7 @@ public class Web extends AndroidNonvisibleComponent implements Component,
             }
             // onGranted is running on the UI thread, and we are about to do network i/o, so
             // we have to run this asynchronously to get off the UI thread!
-            AsynchUtil.runAsynchronously(new Runnable() {
+            AsynchUtil.runAsynchronously(me, new Runnable() {
                 @Override
                 public void run() {
                   me.performRequest(webProps, postData, postFile, httpVerb, method);
@@ -1234,10 +1288,35 @@ public class Web extends AndroidNonvisibleComponent implements Component,
     }
 
     try {
+      // Use a cached response while it is fresh, and revalidate it once it is stale.
+      String cacheKey = null;
+      WebCache.Entry cached = null;
+      if (webProps.cacheResponses && !saveResponse && httpVerb.equals("GET")
+          && postData == null && postFile == null) {
+        cacheKey = getCacheKey(webProps);
+        cached = getCache().get(cacheKey);
+        if (cached != null && cached.isFresh(System.currentTimeMillis())) {
+          deliverText(webProps, cached.getResponseCode(), cached.getResponseType(),
+              new String(cached.getBody(), "UTF-8"));
+          return;
+        }
+      }
+
       // Open the connection.
       HttpURLConnection connection = openConnection(webProps, httpVerb);
       if (connection != null) {
+        // Whether the response has been read completely, in which case the connection can be
+        // kept alive and reused for the next request to the same server.
+        boolean reusable = false;
         try {
+          if (cached != null) {
+            if (!cached.getEtag().isEmpty()) {
+              connection.setRequestProperty("If-None-Match", cached.getEtag());
+            }
+            if (!cached.getLastModified().isEmpty()) {
+              connection.setRequestProperty("If-Modified-Since", cached.getLastModified());
+            }
+          }
           if (postData != null) {
             writeRequestData(connection, postData);
           } else if (postFile != null) {
@@ -1249,9 +1328,21 @@ public class Web extends AndroidNonvisibleComponent implements Component,
           final String responseType = getResponseType(connection);
           processResponseCookies(connection);
 
-          if (saveResponse) {
+          if (cached != null && responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            readResponseBody(connection, webProps.acceptCompression);
+            reusable = true;
+            long expires = getExpires(connection);
+            if (expires < 0) {
+              getCache().remove(cacheKey);
+            } else {
+              getCache().refresh(cacheKey, cached, expires);
+            }
+            deliverText(webProps, cached.getResponseCode(), cached.getResponseType(),
+                new String(cached.getBody(), "UTF-8"));
+          } else if (saveResponse) {
             final String path = saveResponseContent(connection, webProps.responseFileName,
-              responseType);
+              responseType, webProps.acceptCompression);
+            reusable = true;
 
             // Dispatch the event.
             activity.runOnUiThread(new Runnable() {
@@ -1261,30 +1352,13 @@ public class Web extends AndroidNonvisibleComponent implements Component,
                 }
               });
           } else {
-            final String responseContent = getResponseContent(connection, responseTextEncoding);
-
-            // Dispatch the event.
-            activity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                  GotText(webProps.urlString, responseCode, responseType, responseContent);
-                }
-              });
-
-            // Update the locally stored columns list with the contents of the
-            // retrieved response & response type.
-            // TODO: Optimizations are possible here. Currently for projects which
-            // TODO: do not make use of Chart components, this will create extra overhead
-            // TODO: due to JSON/CSV parsing.
-            updateColumns(responseContent, responseType);
-
-            // Notify all data observers with null key and null value.
-            // Key and value are unused, hence it does not matter here.
-            // TODO: Since the Web component is rather irregular in the
-            // TODO: sense that the key and value do not matter for notification,
-            // TODO: perhaps it would be worthwhile for the Web component to
-            // TODO: have a different interface?
-            notifyDataObservers(null, null);
+            final String responseContent = getResponseContent(connection,
+                readResponseBody(connection, webProps.acceptCompression), responseTextEncoding);
+            reusable = true;
+            if (cacheKey != null && responseCode == HttpURLConnection.HTTP_OK) {
+              storeResponse(cacheKey, connection, responseCode, responseType, responseContent);
+            }
+            deliverText(webProps, responseCode, responseType, responseContent);
           }
         } catch (SocketTimeoutException e) {
           // Dispatch timeout event.
@@ -1296,7 +1370,9 @@ public class Web extends AndroidNonvisibleComponent implements Component,
             });
           throw new RequestTimeoutException();
         } finally {
-          connection.disconnect();
+          if (!reusable) {
+            connection.disconnect();
+          }
         }
       }
     } catch (PermissionException e) {
@@ -1340,6 +1416,68 @@ public class Web extends AndroidNonvisibleComponent implements Component,
     }
   }
 
+  /**
+   * Dispatches the GotText event for a response and makes its contents available to charts.
+   */
+  private void deliverText(final CapturedProperties webProps, final int responseCode,
+      final String responseType, final String responseContent) {
+    // Dispatch the event.
+    activity.runOnUiThread(new Runnable() {
+        @Override
+        public void run() {
+          GotText(webProps.urlString, responseCode, responseType, responseContent);
+        }
+      });
+
+    // Update the locally stored columns list with the contents of the
+    // retrieved response & response type.
+    // TODO: Optimizations are possible here. Currently for projects which
+    // TODO: do not make use of Chart components, this will create extra overhead
+    // TODO: due to JSON/CSV parsing.
+    updateColumns(responseContent, responseType);
+
+    // Notify all data observers with null key and null value.
+    // Key and value are unused, hence it does not matter here.
+    // TODO: Since the Web component is rather irregular in the
+    // TODO: sense that the key and value do not matter for notification,
+    // TODO: perhaps it would be worthwhile for the Web component to
+    // TODO: have a different interface?
+    notifyDataObservers(null, null);
+  }
+
+  private WebCache getCache() {
+    return WebCache.getInstance(new File(form.getCacheDir(), CACHE_DIRECTORY), CACHE_SIZE);
+  }
+
+  private static String getCacheKey(CapturedProperties webProps) {
+    // Cookies are sent as headers, and may change the response just like other headers.
+    Map<String, List<String>> headers = new HashMap<String, List<String>>(webProps.requestHeaders);
+    if (webProps.cookies != null) {
+      headers.putAll(webProps.cookies);
+    }
+    return WebCache.key(webProps.urlString, headers);
+  }
+
+  private static long getExpires(HttpURLConnection connection) {
+    return WebCache.computeExpires(System.currentTimeMillis(),
+        connection.getHeaderField("Cache-Control"), connection.getHeaderField("Expires"),
+        connection.getHeaderField("Date"), connection.getHeaderField("Last-Modified"));
+  }
+
+  private void storeResponse(String cacheKey, HttpURLConnection connection, int responseCode,
+      String responseType, String responseContent) throws UnsupportedEncodingException {
+    long expires = getExpires(connection);
+    WebCache.Entry entry = new WebCache.Entry(responseCode, responseType,
+        connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"), expires,
+        responseContent.getBytes("UTF-8"));
+    if (expires < 0 || (!entry.isFresh(System.currentTimeMillis()) && !entry.hasValidator())) {
+      // The response must not be stored, or could never be used again.
+      getCache().remove(cacheKey);
+    } else {
+      getCache().put(cacheKey, entry);
+    }
+  }
+
   /**
    * Open a connection to the resource and set the HTTP action to PUT or DELETE if it is one of
    * them. GET would be the default, and POST is set in writeRequestData or writeRequestFile
@@ -1371,6 +1509,11 @@ public class Web extends AndroidNonvisibleComponent implements Component,
       }
     }
 
+    // Ask for a compressed response, which getConnectionStream decompresses.
+    if (webProps.acceptCompression) {
+      connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+    }
+
     // Cookies
     if (webProps.cookies != null) {
       for (Map.Entry<String, List<String>> cookie : webProps.cookies.entrySet()) {
@@ -1417,13 +1560,7 @@ public class Web extends AndroidNonvisibleComponent implements Component,
       connection.setChunkedStreamingMode(0);
       BufferedOutputStream out = new BufferedOutputStream(connection.getOutputStream());
       try {
-        while (true) {
-          int b = in.read();
-          if (b == -1) {
-            break;
-          }
-          out.write(b);
-        }
+        copy(in, out);
         out.flush();
       } finally {
         out.close();
@@ -1451,35 +1588,38 @@ public class Web extends AndroidNonvisibleComponent implements Component,
     }
   }
 
-  private static String getResponseContent(HttpURLConnection connection, String encodingProperty) throws IOException {
-    // Use the content encoding to convert bytes to characters.
+  private static String getResponseContent(HttpURLConnection connection, byte[] body,
+      String encodingProperty) throws IOException {
+    // Use the content encoding to convert bytes to characters, unless it names the compression
+    // that getConnectionStream has already undone.
     String encoding = connection.getContentEncoding();
-    if (encoding == null) {
+    if (encoding == null || isCompression(encoding)) {
       if (encodingProperty == null || encodingProperty.isEmpty()) {
         encoding = "UTF-8";
       } else {
         encoding = encodingProperty;
       }
     }
-    InputStreamReader reader = new InputStreamReader(getConnectionStream(connection), encoding);
-    try {
-      int contentLength = connection.getContentLength();
-      StringBuilder sb = (contentLength != -1)
-          ? new StringBuilder(contentLength)
-          : new StringBuilder();
-      char[] buf = new char[1024];
-      int read;
-      while ((read = reader.read(buf)) != -1) {
-        sb.append(buf, 0, read);
+    return new String(body, encoding);
+  }
+
+  private static byte[] readResponseBody(HttpURLConnection connection, boolean decompress)
+      throws IOException {
+    int contentLength = connection.getContentLength();
+    ByteArrayOutputStream body = new ByteArrayOutputStream(contentLength > 0 ? contentLength : 0x1000);
+    InputStream in = getConnectionStream(connection, decompress);
+    if (in != null) {
+      try {
+        copy(in, body);
+      } finally {
+        in.close();
       }
-      return sb.toString();
-    } finally {
-      reader.close();
     }
+    return body.toByteArray();
   }
 
   private String saveResponseContent(HttpURLConnection connection,
-      String responseFileName, String responseType) throws IOException {
+      String responseFileName, String responseType, boolean decompress) throws IOException {
     File file = createFile(responseFileName, responseType);
 
     // Ensure the parent directory exists
@@ -1489,41 +1629,63 @@ public class Web extends AndroidNonvisibleComponent implements Component,
           parent.getAbsolutePath());
     }
 
-    BufferedInputStream in = new BufferedInputStream(getConnectionStream(connection), 0x1000);
+    InputStream in = getConnectionStream(connection, decompress);
     try {
       BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(file), 0x1000);
       try {
         // Copy the contents from the input stream to the output stream.
-        while (true) {
-          int b = in.read();
-          if (b == -1) {
-            break;
-          }
-          out.write(b);
+        if (in != null) {
+          copy(in, out);
         }
         out.flush();
       } finally {
         out.close();
       }
     } finally {
-      in.close();
+      if (in != null) {
+        in.close();
+      }
     }
 
     return file.getAbsolutePath();
   }
 
-  private static InputStream getConnectionStream(HttpURLConnection connection) throws SocketTimeoutException {
+  private static void copy(InputStream in, OutputStream out) throws IOException {
+    byte[] buffer = new byte[0x2000];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+  }
+
+  private static boolean isCompression(String contentEncoding) {
+    return contentEncoding.equalsIgnoreCase("gzip") || contentEncoding.equalsIgnoreCase("deflate")
+        || contentEncoding.equalsIgnoreCase("identity");
+  }
+
+  private static InputStream getConnectionStream(HttpURLConnection connection, boolean decompress)
+      throws IOException {
+    InputStream in;
     // According to the Android reference documentation for HttpURLConnection: If the HTTP response
     // indicates that an error occurred, getInputStream() will throw an IOException. Use
     // getErrorStream() to read the error response.
     try {
-      return connection.getInputStream();
+      in = connection.getInputStream();
     } catch (SocketTimeoutException e) {
       throw e; //Rethrow exception - should not attempt to read stream for timeouts
     } catch (IOException e1) {
       // Use the error response for all other IO Exceptions.
-      return connection.getErrorStream();
+      in = connection.getErrorStream();
+    }
+    String contentEncoding = connection.getContentEncoding();
+    if (in == null || !decompress || contentEncoding == null) {
+      return in;
+    } else if (contentEncoding.equalsIgnoreCase("gzip")) {
+      return new GZIPInputStream(in, 0x2000);
+    } else if (contentEncoding.equalsIgnoreCase("deflate")) {
+      return new InflaterInputStream(in, new Inflater(), 0x2000);
     }
+    return in;
   }
 
   private File createFile(String fileName, String responseType)
@@ -1650,7 +1812,7 @@ public class Web extends AndroidNonvisibleComponent implements Component,
         });
 
     // Run and return the getDataValue FutureTask
-    AsynchUtil.runAsynchronously(getDataValueTask);
+    AsynchUtil.runAsynchronously(this, getDataValueTask);
     return getDataValueTask;
   }
 
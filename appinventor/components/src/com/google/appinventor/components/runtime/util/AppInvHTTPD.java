@@ -49,6 +49,7 @@ public class AppInvHTTPD extends NanoHTTPD {
 
   private File rootDir;
   private Language scheme;
+  private YailEvalCache evalCache;
   private ReplForm form;
   private boolean secure;       // Should we only accept from 127.0.0.1?
 
@@ -65,6 +66,7 @@ public class AppInvHTTPD extends NanoHTTPD {
     super(port, wwwroot);
     this.rootDir = wwwroot;
     this.scheme = Scheme.getInstance("scheme");
+    this.evalCache = new YailEvalCache(scheme);
     this.form = form;
     this.secure = secure;
     gnu.expr.ModuleExp.mustNeverCompile();
@@ -194,7 +196,7 @@ public class AppInvHTTPD extends NanoHTTPD {
         if (input_code.equals("#f")) {
           Log.e(LOG_TAG, "Skipping evaluation of #f");
         } else {
-          scheme.eval(code);
+          evalCache.eval(code);
         }
         res = new Response(HTTP_OK, MIME_JSON, RetValManager.fetch(false));
       } catch (Throwable ex) {
@@ -354,6 +356,9 @@ public class AppInvHTTPD extends NanoHTTPD {
       }
       try {
         form.loadComponents(extensionsToLoad);
+        // Code compiled before the extensions were loaded may have resolved their names
+        // differently.
+        evalCache.clear();
       } catch (Exception e) {
         return error(e);
       }
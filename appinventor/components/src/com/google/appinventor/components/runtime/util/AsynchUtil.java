@@ -13,9 +13,28 @@ import android.util.Log;
 
 import com.google.appinventor.components.runtime.errors.YailRuntimeError;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Utilities for handling asynchronous calls.
  *
+ * <p>Calls run on a shared pool of worker threads rather than on a new thread each. The pool
+ * starts a thread for a call whenever no thread is idle, up to a limit, after which calls wait
+ * in a queue.</p>
+ *
  * @author markf@google.com (Mark Friedman)
  */
 
@@ -23,16 +42,205 @@ public class AsynchUtil {
 
   private static final String LOG_TAG = AsynchUtil.class.getSimpleName();
 
+  private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+
+  // Threads kept alive between tasks.
+  private static final int CORE_POOL_SIZE = Math.max(2, Math.min(CPU_COUNT, 4));
+
+  // Tasks beyond this many running at once wait in the queue. Some tasks block for a long time,
+  // such as a BluetoothServer waiting for a connection, so this is generous.
+  private static final int MAX_POOL_SIZE = 32;
+
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  // The number of tasks of one owner that may run at once. The rest wait for their turn, in order.
+  static final int MAX_TASKS_PER_OWNER = 4;
+
+  private static final AtomicInteger threadCount = new AtomicInteger();
+
+  // Tasks that have been handed to the executor but have not finished.
+  private static final AtomicInteger pendingCount = new AtomicInteger();
+  private static final AtomicInteger activeCount = new AtomicInteger();
+  private static final AtomicLong completedCount = new AtomicLong();
+  private static final AtomicLong totalWaitNanos = new AtomicLong();
+  private static final AtomicLong totalRunNanos = new AtomicLong();
+
+  // The tasks of each owner, for owners that have tasks queued or running.
+  private static final Map<Object, OwnerQueue> owners = new HashMap<Object, OwnerQueue>();
+
+  private static ThreadPoolExecutor executor;
+
+  /**
+   * The tasks submitted by one owner. {@code running} tasks have been given to the executor, and
+   * the {@code waiting} ones will be as the running ones finish.
+   */
+  private static class OwnerQueue {
+    private final Deque<Task> waiting = new ArrayDeque<Task>();
+    private int running = 0;
+  }
+
+  /**
+   * Wraps each call to keep the statistics and to start the next task of its owner.
+   */
+  private static class Task implements Runnable {
+    private final Object owner;
+    private final Runnable call;
+    private long submitTime;
+
+    Task(Object owner, Runnable call) {
+      this.owner = owner;
+      this.call = call;
+    }
+
+    @Override
+    public void run() {
+      long startTime = System.nanoTime();
+      totalWaitNanos.addAndGet(startTime - submitTime);
+      activeCount.incrementAndGet();
+      try {
+        call.run();
+      } finally {
+        activeCount.decrementAndGet();
+        totalRunNanos.addAndGet(System.nanoTime() - startTime);
+        completedCount.incrementAndGet();
+        pendingCount.decrementAndGet();
+        if (owner != null) {
+          startNext(owner);
+        }
+      }
+    }
+  }
+
+  /**
+   * A queue that makes the executor start a new thread, up to its maximum, whenever no thread is
+   * idle. A plain queue would only start threads beyond the core ones once it was full.
+   */
+  private static class WorkQueue extends LinkedBlockingQueue<Runnable> {
+    private ThreadPoolExecutor executor;
+
+    @Override
+    public boolean offer(Runnable runnable) {
+      if (pendingCount.get() > executor.getPoolSize()
+          && executor.getPoolSize() < executor.getMaximumPoolSize()) {
+        return false;  // the executor will start a thread for the task
+      }
+      return super.offer(runnable);
+    }
+
+    boolean enqueue(Runnable runnable) {
+      return super.offer(runnable);
+    }
+  }
+
+  private static synchronized ThreadPoolExecutor getExecutor() {
+    if (executor == null) {
+      final WorkQueue queue = new WorkQueue();
+      executor = new ThreadPoolExecutor(CORE_POOL_SIZE, MAX_POOL_SIZE, KEEP_ALIVE_SECONDS,
+          TimeUnit.SECONDS, queue, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+              return new Thread(runnable, "AsynchUtil-" + threadCount.incrementAndGet());
+            }
+          }, new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+              // All threads are busy, so the task waits for one.
+              queue.enqueue(runnable);
+            }
+          });
+      queue.executor = executor;
+      executor.allowCoreThreadTimeOut(true);
+    }
+    return executor;
+  }
+
+  private static void execute(Task task) {
+    task.submitTime = System.nanoTime();
+    pendingCount.incrementAndGet();
+    getExecutor().execute(task);
+  }
+
+  private static void submit(Task task, boolean replacePending) {
+    List<Task> replaced = null;
+    boolean start;
+    synchronized (owners) {
+      OwnerQueue queue = owners.get(task.owner);
+      if (queue == null) {
+        queue = new OwnerQueue();
+        owners.put(task.owner, queue);
+      }
+      if (replacePending && !queue.waiting.isEmpty()) {
+        replaced = new ArrayList<Task>(queue.waiting);
+        queue.waiting.clear();
+      }
+      start = queue.running < MAX_TASKS_PER_OWNER;
+      if (start) {
+        queue.running++;
+      } else {
+        queue.waiting.add(task);
+      }
+    }
+    if (replaced != null) {
+      for (Task old : replaced) {
+        // Don't leave anyone waiting for the result of a task that will never run.
+        if (old.call instanceof Future) {
+          ((Future<?>) old.call).cancel(false);
+        }
+      }
+    }
+    if (start) {
+      execute(task);
+    }
+  }
+
+  private static void startNext(Object owner) {
+    Task next;
+    synchronized (owners) {
+      OwnerQueue queue = owners.get(owner);
+      next = queue.waiting.poll();
+      if (next == null) {
+        queue.running--;
+        if (queue.running == 0) {
+          owners.remove(owner);
+        }
+        return;
+      }
+    }
+    execute(next);
+  }
+
   /**
-   * Make an asynchronous call in a separate thread.
+   * Make an asynchronous call in a background thread.
    * @param call a {@link Runnable} to run in the thread.
    */
   public static void runAsynchronously(final Runnable call) {
-    Thread thread = new Thread(call);
-    thread.start();
+    execute(new Task(null, call));
+  }
+
+  /**
+   * Make an asynchronous call in a background thread on behalf of {@code owner}, which is
+   * typically a component. At most {@link #MAX_TASKS_PER_OWNER} calls of one owner run at once;
+   * later calls start in the order they were made as earlier ones finish.
+   * @param owner the object making the call
+   * @param call a {@link Runnable} to run in the thread.
+   */
+  public static void runAsynchronously(Object owner, Runnable call) {
+    submit(new Task(owner, call), false);
+  }
+
+  /**
+   * Like {@link #runAsynchronously(Object, Runnable)}, but first drops the calls of
+   * {@code owner} that have not started yet, for requests whose results are only of interest
+   * until a newer request is made. Dropped calls that are {@link Future}s are cancelled.
+   * @param owner the object making the call
+   * @param call a {@link Runnable} to run in the thread.
+   */
+  public static void replaceAsynchronously(Object owner, Runnable call) {
+    submit(new Task(owner, call), true);
   }
+
   /**
-   * Make an asynchronous call in a separate thread, with a callback that's run on the current
+   * Make an asynchronous call in a background thread, with a callback that's run on the current
    * Android UI thread.
    * @param androidUIHandler  the Handler from the current Android context
    * @param call a {@link Runnable} to run in the thread.
@@ -53,8 +261,52 @@ public class AsynchUtil {
         }
       }
     };
-    Thread thread = new Thread(runnable);
-    thread.start();
+    execute(new Task(null, runnable));
+  }
+
+  /**
+   * Returns the number of calls waiting to run, including those held back by the limit on
+   * calls per owner.
+   */
+  public static int getQueuedTaskCount() {
+    int count = pendingCount.get() - activeCount.get();
+    synchronized (owners) {
+      for (OwnerQueue queue : owners.values()) {
+        count += queue.waiting.size();
+      }
+    }
+    return Math.max(count, 0);
+  }
+
+  /**
+   * Returns the number of calls currently running.
+   */
+  public static int getActiveTaskCount() {
+    return activeCount.get();
+  }
+
+  /**
+   * Returns the number of calls that have finished.
+   */
+  public static long getCompletedTaskCount() {
+    return completedCount.get();
+  }
+
+  /**
+   * Returns the average time, in milliseconds, that finished calls waited for a thread. Time
+   * spent held back by the limit on calls per owner is not included.
+   */
+  public static double getAverageQueueLatencyMillis() {
+    long completed = completedCount.get();
+    return completed == 0 ? 0 : totalWaitNanos.get() / 1e6 / completed;
+  }
+
+  /**
+   * Returns the average time, in milliseconds, that finished calls took to run.
+   */
+  public static double getAverageRunTimeMillis() {
+    long completed = completedCount.get();
+    return completed == 0 ? 0 : totalRunNanos.get() / 1e6 / completed;
   }
 
   public static boolean isUiThread() {
@@ -0,0 +1,225 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import android.graphics.Bitmap;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A process-wide cache of the bitmaps decoded by {@link MediaUtil}, so that components showing
+ * the same image, such as many ImageSprites with the same Picture, share one bitmap instead of
+ * each decoding and holding its own copy.
+ *
+ * <p>The most recently used bitmaps are held up to a given number of bytes. A bitmap evicted
+ * from the cache stays shared for as long as any component still uses it, since the cache keeps
+ * a weak reference to every bitmap it has handed out. Bitmaps are never recycled by the cache:
+ * the garbage collector counts the references to a bitmap, so one is only freed once no
+ * component refers to it.</p>
+ *
+ * <p>Only one decode per key runs at a time. Requests for a bitmap that is being decoded wait
+ * for that decode to finish rather than starting their own.</p>
+ */
+public final class BitmapCache {
+  private static final BitmapCache INSTANCE =
+      new BitmapCache(Runtime.getRuntime().maxMemory() / 8);
+
+  private final long maxSize;
+  private long size = 0;
+
+  // Recently used bitmaps, least recently used first.
+  private final LinkedHashMap<String, Bitmap> recent =
+      new LinkedHashMap<String, Bitmap>(16, 0.75f, true);
+
+  // Every bitmap handed out, so that ones evicted from recent but still in use are shared.
+  private final Map<String, WeakReference<Bitmap>> shared =
+      new HashMap<String, WeakReference<Bitmap>>();
+
+  // The requests waiting for each decode in progress.
+  private final Map<String, List<AsyncCallbackPair<Bitmap>>> decoding =
+      new HashMap<String, List<AsyncCallbackPair<Bitmap>>>();
+
+  private int hits = 0;
+  private int misses = 0;
+
+  public static BitmapCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Creates a cache that holds at most {@code maxSize} bytes of bitmaps that are not in use.
+   */
+  BitmapCache(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Gets a cached bitmap.
+   *
+   * @param key the key of the bitmap
+   * @return the bitmap, or null if it is not cached
+   */
+  public synchronized Bitmap get(String key) {
+    Bitmap bitmap = lookup(key);
+    if (bitmap != null) {
+      hits++;
+    }
+    return bitmap;
+  }
+
+  /**
+   * Requests a bitmap that {@link #get(String)} did not find. If the bitmap has been cached or
+   * is being decoded in the meantime, the callback receives it once it is available, and this
+   * returns false. Otherwise the caller must decode the bitmap and report the result with
+   * {@link #put(String, Bitmap)} or {@link #fail(String, String)}, which also notify the
+   * callback.
+   *
+   * @param key the key of the bitmap
+   * @param callback receives the bitmap or the error message of the decode
+   * @return true if the caller must decode the bitmap, otherwise false
+   */
+  public boolean request(String key, AsyncCallbackPair<Bitmap> callback) {
+    Bitmap bitmap;
+    synchronized (this) {
+      bitmap = lookup(key);
+      if (bitmap == null) {
+        List<AsyncCallbackPair<Bitmap>> waiting = decoding.get(key);
+        if (waiting != null) {
+          hits++;
+          waiting.add(callback);
+          return false;
+        }
+        misses++;
+        waiting = new ArrayList<AsyncCallbackPair<Bitmap>>();
+        waiting.add(callback);
+        decoding.put(key, waiting);
+        return true;
+      }
+      hits++;
+    }
+    callback.onSuccess(bitmap);
+    return false;
+  }
+
+  /**
+   * Stores a decoded bitmap and hands it to the requests waiting for it.
+   *
+   * @param key the key of the bitmap
+   * @param bitmap the bitmap, which must not be modified afterwards, or null if the image
+   *               could not be decoded, in which case nothing is cached
+   */
+  public void put(String key, Bitmap bitmap) {
+    List<AsyncCallbackPair<Bitmap>> waiting;
+    synchronized (this) {
+      if (bitmap != null) {
+        Bitmap old = recent.put(key, bitmap);
+        if (old != null) {
+          size -= sizeOf(old);
+        }
+        size += sizeOf(bitmap);
+        shared.put(key, new WeakReference<Bitmap>(bitmap));
+        trim();
+      }
+      waiting = decoding.remove(key);
+    }
+    if (waiting != null) {
+      for (AsyncCallbackPair<Bitmap> callback : waiting) {
+        callback.onSuccess(bitmap);
+      }
+    }
+  }
+
+  /**
+   * Reports that a bitmap could not be decoded to the requests waiting for it.
+   *
+   * @param key the key of the bitmap
+   * @param message the error message
+   */
+  public void fail(String key, String message) {
+    List<AsyncCallbackPair<Bitmap>> waiting;
+    synchronized (this) {
+      waiting = decoding.remove(key);
+    }
+    if (waiting != null) {
+      for (AsyncCallbackPair<Bitmap> callback : waiting) {
+        callback.onFailure(message);
+      }
+    }
+  }
+
+  /**
+   * Drops all of the bitmaps from the cache. Bitmaps in use are not affected.
+   */
+  public synchronized void clear() {
+    recent.clear();
+    shared.clear();
+    size = 0;
+  }
+
+  public synchronized int getHits() {
+    return hits;
+  }
+
+  public synchronized int getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of bytes held by the recently used bitmaps.
+   */
+  public synchronized long size() {
+    return size;
+  }
+
+  private Bitmap lookup(String key) {
+    Bitmap bitmap = recent.get(key);
+    if (bitmap == null) {
+      WeakReference<Bitmap> ref = shared.get(key);
+      if (ref != null) {
+        bitmap = ref.get();
+        if (bitmap == null) {
+          shared.remove(key);
+        } else {
+          // Still in use; make it recent again.
+          recent.put(key, bitmap);
+          size += sizeOf(bitmap);
+          trim();
+        }
+      }
+    }
+    return bitmap;
+  }
+
+  private void trim() {
+    boolean evicted = false;
+    Iterator<Map.Entry<String, Bitmap>> it = recent.entrySet().iterator();
+    while (size > maxSize && it.hasNext()) {
+      size -= sizeOf(it.next().getValue());
+      it.remove();
+      evicted = true;
+    }
+    if (evicted) {
+      // Forget the evicted bitmaps that are no longer in use.
+      Iterator<WeakReference<Bitmap>> refs = shared.values().iterator();
+      while (refs.hasNext()) {
+        if (refs.next().get() == null) {
+          refs.remove();
+        }
+      }
+    }
+  }
+
+  private static long sizeOf(Bitmap bitmap) {
+    // Bitmap.getByteCount needs API level 12.
+    return (long) bitmap.getRowBytes() * bitmap.getHeight();
+  }
+}
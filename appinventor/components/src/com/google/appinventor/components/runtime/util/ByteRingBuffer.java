@@ -0,0 +1,149 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+/**
+ * A fixed-size buffer of bytes that one thread writes and another reads as frames, either of
+ * a fixed length or ended by a delimiter byte.
+ *
+ * <p>The buffer never grows. Bytes written while it is full are dropped and counted, as are
+ * the bytes of a delimited frame that is too long to ever fit in the buffer. Fixed-length
+ * frames can be no longer than the buffer. Once the buffer is closed, nothing more can be
+ * written to it, and readers waiting for a frame are woken.</p>
+ */
+public final class ByteRingBuffer {
+  private final byte[] buffer;
+  // The index of the oldest byte.
+  private int head = 0;
+  private int size = 0;
+  // The number of bytes from head already searched for scannedDelimiter.
+  private int scanned = 0;
+  private byte scannedDelimiter = 0;
+  private long bytesDropped = 0;
+  private boolean closed = false;
+
+  public ByteRingBuffer(int capacity) {
+    buffer = new byte[capacity];
+  }
+
+  /**
+   * Adds bytes to the end of the buffer, dropping those that do not fit. Nothing is added once
+   * the buffer is closed.
+   *
+   * @return the number of bytes added
+   */
+  public synchronized int write(byte[] bytes, int offset, int length) {
+    if (closed) {
+      return 0;
+    }
+    int count = Math.min(length, buffer.length - size);
+    int tail = (head + size) % buffer.length;
+    int first = Math.min(count, buffer.length - tail);
+    System.arraycopy(bytes, offset, buffer, tail, first);
+    System.arraycopy(bytes, offset + first, buffer, 0, count - first);
+    size += count;
+    bytesDropped += length - count;
+    if (count > 0) {
+      notifyAll();
+    }
+    return count;
+  }
+
+  /**
+   * Removes the next complete frame from the buffer.
+   *
+   * @param frameLength the length of each frame, at most the capacity of the buffer, or a
+   *        negative number if frames end with the delimiter, or 0 to take all of the bytes in the
+   *        buffer as one frame
+   * @param delimiter the byte that ends each frame, which is not included in the frame
+   * @return the frame, or null if the buffer does not hold a complete frame
+   * @throws IllegalArgumentException if frameLength is more than the buffer can hold
+   */
+  public synchronized byte[] nextFrame(int frameLength, byte delimiter) {
+    if (frameLength > buffer.length) {
+      throw new IllegalArgumentException("Frame length " + frameLength
+          + " is more than the buffer's capacity of " + buffer.length);
+    } else if (frameLength > 0) {
+      return size >= frameLength ? take(frameLength, 0) : null;
+    } else if (frameLength == 0) {
+      return size > 0 ? take(size, 0) : null;
+    }
+    if (delimiter != scannedDelimiter) {
+      scanned = 0;
+      scannedDelimiter = delimiter;
+    }
+    for (; scanned < size; scanned++) {
+      if (buffer[(head + scanned) % buffer.length] == delimiter) {
+        return take(scanned, 1);
+      }
+    }
+    if (size == buffer.length) {
+      // The frame can never be completed. Drop it, so that framing resumes after the next
+      // delimiter.
+      bytesDropped += size;
+      head = 0;
+      size = 0;
+      scanned = 0;
+    }
+    return null;
+  }
+
+  /**
+   * Removes the next complete frame from the buffer, waiting for it to arrive if necessary.
+   *
+   * @param frameLength the length of the frame, at most the capacity of the buffer, or a
+   *        negative number if it ends with the delimiter
+   * @param delimiter the byte that ends the frame, which is not included in the frame
+   * @return the frame, or null if the buffer was closed before the frame was complete
+   * @throws InterruptedException if the thread is interrupted while waiting
+   * @throws IllegalArgumentException if frameLength is more than the buffer can hold
+   */
+  public synchronized byte[] awaitFrame(int frameLength, byte delimiter)
+      throws InterruptedException {
+    byte[] frame;
+    while ((frame = nextFrame(frameLength, delimiter)) == null && !closed) {
+      wait();
+    }
+    return frame;
+  }
+
+  /**
+   * Closes the buffer. The bytes in it can still be read.
+   */
+  public synchronized void close() {
+    closed = true;
+    notifyAll();
+  }
+
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Returns the number of bytes in the buffer.
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of bytes that have been dropped because the buffer was full.
+   */
+  public synchronized long getBytesDropped() {
+    return bytesDropped;
+  }
+
+  private byte[] take(int length, int skip) {
+    byte[] frame = new byte[length];
+    int first = Math.min(length, buffer.length - head);
+    System.arraycopy(buffer, head, frame, 0, first);
+    System.arraycopy(buffer, 0, frame, first, length - first);
+    head = (head + length + skip) % buffer.length;
+    size -= length + skip;
+    scanned = 0;
+    return frame;
+  }
+}
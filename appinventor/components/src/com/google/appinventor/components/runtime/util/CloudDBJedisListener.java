@@ -38,6 +38,7 @@ public class CloudDBJedisListener extends JedisPubSub {
     if (DEBUG) {
       Log.d(LOG_TAG, "onSubscribe " + channel + " " + subscribedChannels);
     }
+    cloudDB.onListenerSubscribed();
   }
 
   @Override
@@ -64,6 +65,9 @@ public class CloudDBJedisListener extends JedisPubSub {
           cloudDB.DataChanged(tag, retValue);
         }
       }
+      if (!valueList.isEmpty() && valueList.get(valueList.size() - 1) instanceof String) {
+        cloudDB.updateCachedValue(tag, (String) valueList.get(valueList.size() - 1));
+      }
     } catch (JSONException e) {
       Log.e(LOG_TAG, "onMessage: JSONException", e);
       // CloudDBError arranges to generate the error UI on the
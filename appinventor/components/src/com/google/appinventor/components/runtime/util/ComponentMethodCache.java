@@ -0,0 +1,201 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import gnu.kawa.reflect.Invoke;
+import gnu.mapping.Values;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calls component property getters, setters and methods for runtime.scm.
+ *
+ * <p>Kawa's {@code invoke} looks up and chooses among the methods of the component's class on
+ * every call. This class looks up the method for a class, name and number of arguments once,
+ * and then calls it directly, converting the arguments the way {@code invoke} does. Calls whose
+ * method is overloaded, or whose arguments need a conversion that is not handled here, go
+ * through {@code invoke} as before.</p>
+ */
+public final class ComponentMethodCache {
+
+  /**
+   * A method bound for calls with a given number of arguments.
+   */
+  private static final class Binding {
+    final Method method;
+    final Class<?>[] parameterTypes;
+    final boolean isVoid;
+
+    Binding(Method method) {
+      this.method = method;
+      this.parameterTypes = method.getParameterTypes();
+      this.isVoid = method.getReturnType() == Void.TYPE;
+    }
+  }
+
+  // For each class and method name, the bindings indexed by number of arguments, with null for
+  // the numbers of arguments for which no method can be bound.
+  private static final Map<Class<?>, Map<String, Binding[]>> bindings =
+      new ConcurrentHashMap<Class<?>, Map<String, Binding[]>>();
+
+  private ComponentMethodCache() {
+  }
+
+  /**
+   * Calls the method with the given name on a component, as {@code (invoke component name
+   * arg ...)} does.
+   *
+   * @param component the component
+   * @param name the name of the method, as a string or symbol
+   * @param args the arguments to the method
+   * @return the value returned by the method, or {@code #!void} for a void method
+   * @throws Throwable any exception thrown by the method
+   */
+  public static Object invoke(Object component, Object name, Object... args) throws Throwable {
+    Binding binding = component == null
+        ? null : getBinding(component.getClass(), name.toString(), args.length);
+    if (binding != null) {
+      Object[] converted = convertArgs(binding.parameterTypes, args);
+      if (converted != null) {
+        Object result;
+        try {
+          result = binding.method.invoke(component, converted);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+        return binding.isVoid ? Values.empty : result;
+      }
+    }
+    Object[] invokeArgs = new Object[args.length + 2];
+    invokeArgs[0] = component;
+    invokeArgs[1] = name;
+    System.arraycopy(args, 0, invokeArgs, 2, args.length);
+    return Invoke.invoke.applyN(invokeArgs);
+  }
+
+  private static Binding getBinding(Class<?> clazz, String name, int argCount) {
+    Map<String, Binding[]> classBindings = bindings.get(clazz);
+    if (classBindings == null) {
+      classBindings = new ConcurrentHashMap<String, Binding[]>();
+      bindings.put(clazz, classBindings);
+    }
+    Binding[] byArgCount = classBindings.get(name);
+    if (byArgCount == null) {
+      byArgCount = bind(clazz, name);
+      classBindings.put(name, byArgCount);
+    }
+    return argCount < byArgCount.length ? byArgCount[argCount] : null;
+  }
+
+  /**
+   * Binds the public methods of a class with the given name, by number of arguments. Numbers of
+   * arguments for which the method is overloaded are left unbound, since choosing among the
+   * overloads depends on the arguments.
+   */
+  private static Binding[] bind(Class<?> clazz, String name) {
+    Method[] found = new Method[0];
+    boolean[] ambiguous = new boolean[0];
+    for (Method method : clazz.getMethods()) {
+      if (!method.getName().equals(name) || method.isBridge()) {
+        continue;
+      }
+      int argCount = method.getParameterTypes().length;
+      if (argCount >= found.length) {
+        Method[] grownFound = new Method[argCount + 1];
+        System.arraycopy(found, 0, grownFound, 0, found.length);
+        found = grownFound;
+        boolean[] grownAmbiguous = new boolean[argCount + 1];
+        System.arraycopy(ambiguous, 0, grownAmbiguous, 0, ambiguous.length);
+        ambiguous = grownAmbiguous;
+      }
+      if (found[argCount] != null) {
+        ambiguous[argCount] = true;
+      }
+      found[argCount] = method;
+    }
+    Binding[] result = new Binding[found.length];
+    for (int i = 0; i < found.length; i++) {
+      result[i] = found[i] == null || ambiguous[i] ? null : bindMethod(found[i]);
+    }
+    return result;
+  }
+
+  private static Binding bindMethod(Method method) {
+    if (method.getReturnType() == Character.TYPE) {
+      // invoke returns characters as Kawa characters.
+      return null;
+    }
+    try {
+      // The method may be declared by a class that is not public.
+      method.setAccessible(true);
+    } catch (SecurityException e) {
+      return null;
+    }
+    return new Binding(method);
+  }
+
+  /**
+   * Converts arguments to the parameter types of a method, as invoke would.
+   *
+   * @return the converted arguments, or null if an argument needs a conversion that is left to
+   *     invoke
+   */
+  private static Object[] convertArgs(Class<?>[] parameterTypes, Object[] args) {
+    Object[] converted = args;
+    for (int i = 0; i < args.length; i++) {
+      Object arg = args[i];
+      Class<?> type = parameterTypes[i];
+      Object value;
+      if (type.isPrimitive()) {
+        value = convertPrimitive(type, arg);
+        if (value == null) {
+          return null;
+        }
+      } else if (arg == null || type.isInstance(arg)) {
+        value = arg;
+      } else if (type == String.class && arg instanceof CharSequence) {
+        value = arg.toString();
+      } else {
+        return null;
+      }
+      if (value != arg) {
+        if (converted == args) {
+          converted = args.clone();
+        }
+        converted[i] = value;
+      }
+    }
+    return converted;
+  }
+
+  private static Object convertPrimitive(Class<?> type, Object arg) {
+    if (type == Boolean.TYPE) {
+      return arg instanceof Boolean ? arg : null;
+    }
+    if (!(arg instanceof Number)) {
+      return null;
+    }
+    Number number = (Number) arg;
+    if (type == Integer.TYPE) {
+      return arg instanceof Integer ? arg : Integer.valueOf(number.intValue());
+    } else if (type == Double.TYPE) {
+      return arg instanceof Double ? arg : Double.valueOf(number.doubleValue());
+    } else if (type == Float.TYPE) {
+      return arg instanceof Float ? arg : Float.valueOf(number.floatValue());
+    } else if (type == Long.TYPE) {
+      return arg instanceof Long ? arg : Long.valueOf(number.longValue());
+    } else if (type == Short.TYPE) {
+      return arg instanceof Short ? arg : Short.valueOf(number.shortValue());
+    } else if (type == Byte.TYPE) {
+      return arg instanceof Byte ? arg : Byte.valueOf(number.byteValue());
+    }
+    // Characters are left to invoke.
+    return null;
+  }
+}
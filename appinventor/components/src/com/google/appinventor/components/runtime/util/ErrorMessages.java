@@ -90,6 +90,8 @@ public final class ErrorMessages {
   public static final int ERROR_BLUETOOTH_UNABLE_TO_READ = 517;
   public static final int ERROR_BLUETOOTH_END_OF_STREAM = 518;
   public static final int ERROR_BLUETOOTH_UNSUPPORTED_ENCODING = 519;
+  public static final int ERROR_BLUETOOTH_STREAMING = 520;
+  public static final int ERROR_BLUETOOTH_FRAME_TOO_LONG = 521;
   // ActivityStarter errors
   public static final int ERROR_ACTIVITY_STARTER_NO_CORRESPONDING_ACTIVITY = 601;
   public static final int ERROR_ACTIVITY_STARTER_NO_ACTION_INFO = 602;
@@ -479,6 +481,10 @@ public final class ErrorMessages {
         "End of stream has been reached.");
     errorMessages.put(ERROR_BLUETOOTH_UNSUPPORTED_ENCODING,
         "The encoding %s is not supported.");
+    errorMessages.put(ERROR_BLUETOOTH_STREAMING,
+        "Data cannot be received with this block while streaming. Use the DataReceived event.");
+    errorMessages.put(ERROR_BLUETOOTH_FRAME_TOO_LONG,
+        "The frame length %d is longer than the %d bytes that can be buffered.");
     // ActivityStarter errors
     errorMessages.put(ERROR_ACTIVITY_STARTER_NO_CORRESPONDING_ACTIVITY,
         "No corresponding activity was found.");
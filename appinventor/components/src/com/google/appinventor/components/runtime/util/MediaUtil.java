@@ -486,6 +486,32 @@ public class MediaUtil {
   public static void getBitmapDrawableAsync(final Form form, final String mediaPath,
       final int desiredWidth, final int desiredHeight,
       final AsyncCallbackPair<BitmapDrawable> continuation) {
+    loadBitmapDrawableAsync(form, mediaPath, desiredWidth, desiredHeight, -1, -1, continuation);
+  }
+
+  /**
+   * Loads the image specified by mediaPath, to be shown in a view of the given size, and returns
+   * a Drawable. An image much larger than the view is decoded at a lower resolution, but never
+   * smaller than the view.
+   *
+   * <p/>If mediaPath is null or empty, null is returned.
+   *
+   * @param form the Form
+   * @param mediaPath the path to the media
+   * @param viewWidth the width of the view in pixels, or 0 if it is not known
+   * @param viewHeight the height of the view in pixels, or 0 if it is not known
+   * @param continuation An AsyncCallbackPair that will receive a BitmapDrawable on success.
+   *                     On exception or failure the appropriate handler will be triggered.
+   */
+  public static void getBitmapDrawableForViewAsync(final Form form, final String mediaPath,
+      final int viewWidth, final int viewHeight,
+      final AsyncCallbackPair<BitmapDrawable> continuation) {
+    loadBitmapDrawableAsync(form, mediaPath, -1, -1, viewWidth, viewHeight, continuation);
+  }
+
+  private static void loadBitmapDrawableAsync(final Form form, final String mediaPath,
+      final int desiredWidth, final int desiredHeight, final int viewWidth, final int viewHeight,
+      final AsyncCallbackPair<BitmapDrawable> continuation) {
     if (mediaPath == null || mediaPath.length() == 0) {
       continuation.onSuccess(null);
       return;
@@ -493,6 +519,49 @@ public class MediaUtil {
 
     final MediaSource mediaSource = determineMediaSource(form, mediaPath);
 
+    // Each request gets its own drawable, since drawables have state of their own, but the
+    // bitmap is shared with the other requests for the same image.
+    final AsyncCallbackPair<Bitmap> decoded = new AsyncCallbackPair<Bitmap>() {
+      @Override
+      public void onFailure(String message) {
+        continuation.onFailure(message);
+      }
+
+      @Override
+      public void onSuccess(Bitmap bitmap) {
+        BitmapDrawable drawable = new BitmapDrawable(form.getResources(), bitmap);
+        drawable.setTargetDensity(form.getResources().getDisplayMetrics());
+        continuation.onSuccess(drawable);
+      }
+    };
+    final String cacheKey =
+        getBitmapCacheKey(form, mediaPath, mediaSource, desiredWidth, desiredHeight, viewWidth,
+            viewHeight);
+    final AsyncCallbackPair<Bitmap> result;
+    if (cacheKey == null) {
+      result = decoded;
+    } else {
+      final BitmapCache cache = BitmapCache.getInstance();
+      Bitmap bitmap = cache.get(cacheKey);
+      if (bitmap != null) {
+        decoded.onSuccess(bitmap);
+        return;
+      } else if (!cache.request(cacheKey, decoded)) {
+        return;
+      }
+      result = new AsyncCallbackPair<Bitmap>() {
+        @Override
+        public void onFailure(String message) {
+          cache.fail(cacheKey, message);
+        }
+
+        @Override
+        public void onSuccess(Bitmap bitmap) {
+          cache.put(cacheKey, bitmap);
+        }
+      };
+    }
+
     Runnable loadImage = new Runnable() {
       @Override
       public void run() {
@@ -514,11 +583,12 @@ public class MediaUtil {
           }
           buf = bos.toByteArray();
         } catch (PermissionException e) {
-          continuation.onFailure("PERMISSION_DENIED:" + e.getPermissionNeeded());
+          result.onFailure("PERMISSION_DENIED:" + e.getPermissionNeeded());
           return;
         } catch (IOException e) {
           if (mediaSource == MediaSource.CONTACT_URI) {
-            // There's no photo for this contact, return a placeholder image.
+            // There's no photo for this contact, return a placeholder image. Contact photos
+            // are never cached, so this goes straight to the continuation.
             BitmapDrawable drawable = new BitmapDrawable(form.getResources(),
                 BitmapFactory.decodeResource(form.getResources(),
                 android.R.drawable.picture_frame, null));
@@ -526,7 +596,7 @@ public class MediaUtil {
             return;
           }
           Log.d(LOG_TAG, "IOException reading file.", e);
-          continuation.onFailure(e.getMessage());
+          result.onFailure(e.getMessage());
           return;
         } finally {
           if (is != null) {
@@ -550,7 +620,8 @@ public class MediaUtil {
         buf = null;
         try {
           bis.mark(read);
-          BitmapFactory.Options options = getBitmapOptions(form, bis, mediaPath);
+          BitmapFactory.Options options = getBitmapOptions(form, bis, mediaPath, viewWidth,
+              viewHeight);
           bis.reset();
           BitmapDrawable originalBitmapDrawable = new BitmapDrawable(form.getResources(),
               decodeStream(bis, null, options));
@@ -570,7 +641,7 @@ public class MediaUtil {
           originalBitmapDrawable.setTargetDensity(form.getResources().getDisplayMetrics());
           boolean needsResize = desiredWidth > 0 && desiredHeight >= 0;
           if (!needsResize && (options.inSampleSize != 1 || form.deviceDensity() == 1.0f)) {
-            continuation.onSuccess(originalBitmapDrawable);
+            result.onSuccess(originalBitmapDrawable.getBitmap());
             return;
           }
           int scaledWidth = (int) (form.deviceDensity()
@@ -584,15 +655,12 @@ public class MediaUtil {
               + originalBitmapDrawable.getIntrinsicHeight());
           Bitmap scaledBitmap = Bitmap.createScaledBitmap(originalBitmapDrawable.getBitmap(),
               scaledWidth, scaledHeight, false);
-          BitmapDrawable scaledBitmapDrawable =
-              new BitmapDrawable(form.getResources(), scaledBitmap);
-          scaledBitmapDrawable.setTargetDensity(form.getResources().getDisplayMetrics());
           originalBitmapDrawable = null; // So it will get GC'd on the next line
           System.gc();                   // We likely used a lot of memory, so gc now.
-          continuation.onSuccess(scaledBitmapDrawable);
+          result.onSuccess(scaledBitmap);
         } catch (Exception e) {
           Log.w(LOG_TAG, "Exception while loading media.", e);
-          continuation.onFailure(e.getMessage());
+          result.onFailure(e.getMessage());
         } finally {
           if (bis != null) {
             try {
@@ -608,6 +676,56 @@ public class MediaUtil {
     AsynchUtil.runAsynchronously(loadImage);
   }
 
+  /**
+   * Returns the key of the decoded image in the {@link BitmapCache}, or null if the image should
+   * not be cached. Images from the web, content providers and contacts may change at any time,
+   * so they are always loaded again. Files are keyed by their modification time and length, so
+   * that an image replaced by the app or by the companion is decoded again.
+   */
+  private static String getBitmapCacheKey(Form form, String mediaPath, MediaSource mediaSource,
+      int desiredWidth, int desiredHeight, int viewWidth, int viewHeight) {
+    File file;
+    try {
+      switch (mediaSource) {
+        case ASSET:
+          file = null;
+          break;
+        case REPL_ASSET:
+          file = new File(URI.create(form.getAssetPath(mediaPath)));
+          break;
+        case SDCARD:
+        case PRIVATE_DATA:
+          file = new File(mediaPath);
+          break;
+        case FILE_URL:
+          file = new File(fileUrlToFilePath(mediaPath));
+          break;
+        default:
+          return null;
+      }
+    } catch (Exception e) {
+      // Let the loader report the problem with the path.
+      return null;
+    }
+    StringBuilder key = new StringBuilder(mediaSource.name()).append(':').append(mediaPath);
+    if (file != null) {
+      if (!file.exists()) {
+        return null;
+      }
+      key.append('@').append(file.lastModified()).append(',').append(file.length());
+    }
+    // The sample size chosen by getBitmapOptions depends on the screen and the view size, and the
+    // scaling on the density and the desired size.
+    Display display = ((WindowManager) form.getSystemService(Context.WINDOW_SERVICE)).
+        getDefaultDisplay();
+    key.append('|').append(desiredWidth).append('x').append(desiredHeight)
+        .append('|').append(viewWidth).append('x').append(viewHeight)
+        .append('|').append(form.deviceDensity())
+        .append('|').append(form.getCompatibilityMode())
+        .append('|').append(display.getWidth()).append('x').append(display.getHeight());
+    return key.toString();
+  }
+
   private static Bitmap decodeStream(InputStream is, Rect outPadding, BitmapFactory.Options opts) {
     // We wrap a FlushedInputStream around the given InputStream. This works around a problem in
     // BitmapFactory.decodeStream where it fails to load the image if the InputStream's skip method
@@ -641,7 +759,8 @@ public class MediaUtil {
     }
   }
 
-  private static BitmapFactory.Options getBitmapOptions(Form form, InputStream is, String mediaPath) {
+  private static BitmapFactory.Options getBitmapOptions(Form form, InputStream is, String mediaPath,
+      int viewWidth, int viewHeight) {
     // Get the size of the image.
     BitmapFactory.Options options = new BitmapFactory.Options();
     options.inJustDecodeBounds = true;
@@ -669,10 +788,8 @@ public class MediaUtil {
       maxHeight = (int) (display.getHeight() / form.deviceDensity());
     }
 
-    int sampleSize = 1;
-    while ((imageWidth / sampleSize > maxWidth) && (imageHeight / sampleSize > maxHeight)) {
-      sampleSize *= 2;
-    }
+    int sampleSize = getSampleSize(imageWidth, imageHeight, maxWidth, maxHeight, viewWidth,
+        viewHeight);
     options = new BitmapFactory.Options();
     Log.d(LOG_TAG, "getBitmapOptions: sampleSize = " + sampleSize + " mediaPath = " + mediaPath
       + " maxWidth = " + maxWidth + " maxHeight = " + maxHeight +
@@ -681,6 +798,35 @@ public class MediaUtil {
     return options;
   }
 
+  /**
+   * Returns the factor by which to scale down an image when decoding it. An image wider and
+   * taller than the maximum size is scaled down until one of its sides fits. If the size of the
+   * view showing the image is known, the image is also scaled down as long as it stays at least
+   * as large as the view.
+   *
+   * @param imageWidth the width of the image
+   * @param imageHeight the height of the image
+   * @param maxWidth the maximum width
+   * @param maxHeight the maximum height
+   * @param viewWidth the width of the view, or 0 or less if it is not known
+   * @param viewHeight the height of the view, or 0 or less if it is not known
+   * @return the sample size, a power of 2
+   */
+  static int getSampleSize(int imageWidth, int imageHeight, int maxWidth, int maxHeight,
+      int viewWidth, int viewHeight) {
+    int sampleSize = 1;
+    while ((imageWidth / sampleSize > maxWidth) && (imageHeight / sampleSize > maxHeight)) {
+      sampleSize *= 2;
+    }
+    if (viewWidth > 0 && viewHeight > 0) {
+      while ((imageWidth / (sampleSize * 2) >= viewWidth)
+          && (imageHeight / (sampleSize * 2) >= viewHeight)) {
+        sampleSize *= 2;
+      }
+    }
+    return sampleSize;
+  }
+
   // SoundPool related methods
 
   /**
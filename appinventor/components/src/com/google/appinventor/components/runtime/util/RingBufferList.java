@@ -0,0 +1,135 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A List backed by a circular array. Like an ArrayList it offers
+ * constant time access by index, but adding or removing elements at
+ * either end also takes constant (amortized) time. Elements inserted or
+ * removed in the middle shift whichever side of the list is shorter.
+ *
+ * <p>This suits data series that receive a stream of new values at the
+ * end while the oldest values are dropped from the front.</p>
+ *
+ * @param <E> the type of the elements
+ */
+public class RingBufferList<E> extends AbstractList<E> implements RandomAccess {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private Object[] elements;
+  // The array index of element 0.
+  private int head = 0;
+  private int size = 0;
+
+  public RingBufferList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public RingBufferList(int initialCapacity) {
+    elements = new Object[Math.max(initialCapacity, 1)];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    checkIndex(index);
+    return (E) elements[slot(index)];
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E set(int index, E element) {
+    checkIndex(index);
+    int slot = slot(index);
+    E previous = (E) elements[slot];
+    elements[slot] = element;
+    return previous;
+  }
+
+  @Override
+  public void add(int index, E element) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    if (size == elements.length) {
+      grow();
+    }
+    if (index < size / 2) {
+      // Shift the elements before index one slot to the left.
+      head = slot(elements.length - 1);
+      for (int i = 0; i < index; i++) {
+        elements[slot(i)] = elements[slot(i + 1)];
+      }
+    } else {
+      // Shift the elements from index on one slot to the right.
+      for (int i = size; i > index; i--) {
+        elements[slot(i)] = elements[slot(i - 1)];
+      }
+    }
+    elements[slot(index)] = element;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E remove(int index) {
+    checkIndex(index);
+    E removed = (E) elements[slot(index)];
+    if (index < size / 2) {
+      for (int i = index; i > 0; i--) {
+        elements[slot(i)] = elements[slot(i - 1)];
+      }
+      elements[head] = null;
+      head = slot(1);
+    } else {
+      for (int i = index; i < size - 1; i++) {
+        elements[slot(i)] = elements[slot(i + 1)];
+      }
+      elements[slot(size - 1)] = null;
+    }
+    size--;
+    modCount++;
+    return removed;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(elements, null);
+    head = 0;
+    size = 0;
+    modCount++;
+  }
+
+  private int slot(int index) {
+    int slot = head + index;
+    return slot >= elements.length ? slot - elements.length : slot;
+  }
+
+  private void grow() {
+    Object[] grown = new Object[elements.length * 2];
+    for (int i = 0; i < size; i++) {
+      grown[i] = elements[slot(i)];
+    }
+    elements = grown;
+    head = 0;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
@@ -0,0 +1,395 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+/**
+ * A cache of HTTP responses on disk, used by the Web component. The cache
+ * holds at most a given number of bytes, evicting the least recently used
+ * responses to make room for new ones.
+ *
+ * <p>Responses are stored with the freshness lifetime given by their
+ * Cache-Control, Expires and Last-Modified headers, and with their ETag
+ * and Last-Modified validators, so that a stale response can be
+ * revalidated with a conditional request rather than downloaded again.</p>
+ */
+public final class WebCache {
+  private static final String LOG_TAG = WebCache.class.getSimpleName();
+
+  private static final int FORMAT_VERSION = 1;
+
+  // The fraction of a response's age (since Last-Modified) that it is
+  // considered fresh for when the server gives no explicit lifetime.
+  private static final int HEURISTIC_LIFETIME_DIVISOR = 10;
+
+  private static final Map<File, WebCache> caches = new HashMap<File, WebCache>();
+
+  /**
+   * A cached response.
+   */
+  public static final class Entry {
+    private final int responseCode;
+    private final String responseType;
+    private final String etag;
+    private final String lastModified;
+    private final long expires;
+    private final byte[] body;
+
+    public Entry(int responseCode, String responseType, String etag, String lastModified,
+        long expires, byte[] body) {
+      this.responseCode = responseCode;
+      this.responseType = responseType == null ? "" : responseType;
+      this.etag = etag == null ? "" : etag;
+      this.lastModified = lastModified == null ? "" : lastModified;
+      this.expires = expires;
+      this.body = body;
+    }
+
+    public int getResponseCode() {
+      return responseCode;
+    }
+
+    public String getResponseType() {
+      return responseType;
+    }
+
+    /**
+     * Returns the ETag of the response, or the empty string if it had none.
+     */
+    public String getEtag() {
+      return etag;
+    }
+
+    /**
+     * Returns the Last-Modified header of the response, or the empty string
+     * if it had none.
+     */
+    public String getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * Returns the time, in milliseconds since the epoch, when the response
+     * stops being fresh.
+     */
+    public long getExpires() {
+      return expires;
+    }
+
+    public byte[] getBody() {
+      return body;
+    }
+
+    /**
+     * Returns whether the response can be used without asking the server.
+     */
+    public boolean isFresh(long now) {
+      return now < expires;
+    }
+
+    /**
+     * Returns whether the response can be revalidated with a conditional
+     * request.
+     */
+    public boolean hasValidator() {
+      return !etag.isEmpty() || !lastModified.isEmpty();
+    }
+
+    /**
+     * Returns a copy of this entry with a new lifetime, after the server has
+     * confirmed that it is still valid.
+     */
+    public Entry withExpires(long expires) {
+      return new Entry(responseCode, responseType, etag, lastModified, expires, body);
+    }
+  }
+
+  private final File directory;
+  private final long maxSize;
+  // Sizes of the cached responses, from the least to the most recently used.
+  private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<String, Long>(16, 0.75f, true);
+  private long size = 0;
+
+  /**
+   * Returns the cache kept in the given directory, opening it if needed.
+   *
+   * @param directory the directory holding the cached responses
+   * @param maxSize the number of bytes the cache may use
+   */
+  public static WebCache getInstance(File directory, long maxSize) {
+    synchronized (caches) {
+      WebCache cache = caches.get(directory);
+      if (cache == null) {
+        cache = new WebCache(directory, maxSize);
+        caches.put(directory, cache);
+      }
+      return cache;
+    }
+  }
+
+  WebCache(File directory, long maxSize) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    // Files are touched when they are used, which restores the LRU order.
+    Arrays.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(File a, File b) {
+        return Long.compare(a.lastModified(), b.lastModified());
+      }
+    });
+    for (File file : files) {
+      if (file.getName().endsWith(".tmp")) {
+        file.delete();
+      } else {
+        sizes.put(file.getName(), file.length());
+        size += file.length();
+      }
+    }
+    trim();
+  }
+
+  /**
+   * Returns the key of the response to a GET request. Requests made with
+   * different headers, such as different credentials, have different keys.
+   *
+   * @param url the URL of the request
+   * @param requestHeaders the headers of the request
+   */
+  public static String key(String url, Map<String, List<String>> requestHeaders) {
+    StringBuilder sb = new StringBuilder(url);
+    for (Map.Entry<String, List<String>> header
+        : new TreeMap<String, List<String>>(requestHeaders).entrySet()) {
+      sb.append('\n').append(header.getKey()).append(':').append(header.getValue());
+    }
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-1").digest(sb.toString().getBytes("UTF-8"));
+      StringBuilder key = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return key.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns the cached response with the given key, or null if there is
+   * none.
+   */
+  public synchronized Entry get(String key) {
+    // Looking the key up, rather than just checking for it, marks it as recently used.
+    if (sizes.get(key) == null) {
+      return null;
+    }
+    File file = new File(directory, key);
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      try {
+        if (in.readInt() != FORMAT_VERSION) {
+          throw new IOException("Unknown cache format");
+        }
+        int responseCode = in.readInt();
+        String responseType = in.readUTF();
+        String etag = in.readUTF();
+        String lastModified = in.readUTF();
+        long expires = in.readLong();
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        file.setLastModified(System.currentTimeMillis());
+        return new Entry(responseCode, responseType, etag, lastModified, expires, body);
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      Log.w(LOG_TAG, "Unable to read cached response", e);
+      remove(key);
+      return null;
+    }
+  }
+
+  /**
+   * Stores a response, replacing any response with the same key.
+   */
+  public synchronized void put(String key, Entry entry) {
+    remove(key);
+    if (!directory.exists() && !directory.mkdirs()) {
+      return;
+    }
+    File temp = new File(directory, key + ".tmp");
+    File file = new File(directory, key);
+    try {
+      DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(temp)));
+      try {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(entry.responseCode);
+        out.writeUTF(entry.responseType);
+        out.writeUTF(entry.etag);
+        out.writeUTF(entry.lastModified);
+        out.writeLong(entry.expires);
+        out.writeInt(entry.body.length);
+        out.write(entry.body);
+      } finally {
+        out.close();
+      }
+      if (!temp.renameTo(file)) {
+        throw new IOException("Unable to rename " + temp);
+      }
+    } catch (IOException e) {
+      Log.w(LOG_TAG, "Unable to cache response", e);
+      temp.delete();
+      return;
+    }
+    sizes.put(key, file.length());
+    size += file.length();
+    trim();
+  }
+
+  /**
+   * Updates the lifetime of a cached response that the server has confirmed
+   * is still valid.
+   */
+  public synchronized void refresh(String key, Entry entry, long expires) {
+    if (sizes.containsKey(key)) {
+      put(key, entry.withExpires(expires));
+    }
+  }
+
+  /**
+   * Removes the response with the given key, if any.
+   */
+  public synchronized void remove(String key) {
+    Long removed = sizes.remove(key);
+    if (removed != null) {
+      size -= removed;
+      new File(directory, key).delete();
+    }
+  }
+
+  /**
+   * Removes all cached responses.
+   */
+  public synchronized void clear() {
+    for (String key : sizes.keySet()) {
+      new File(directory, key).delete();
+    }
+    sizes.clear();
+    size = 0;
+  }
+
+  /**
+   * Returns the number of bytes used by the cached responses.
+   */
+  public synchronized long size() {
+    return size;
+  }
+
+  private void trim() {
+    Iterator<Map.Entry<String, Long>> it = sizes.entrySet().iterator();
+    while (size > maxSize && it.hasNext()) {
+      Map.Entry<String, Long> eldest = it.next();
+      size -= eldest.getValue();
+      new File(directory, eldest.getKey()).delete();
+      it.remove();
+    }
+  }
+
+  /**
+   * Computes when a response stops being fresh, from its headers.
+   *
+   * @param now the time the response was received
+   * @param cacheControl the Cache-Control header, or null
+   * @param expires the Expires header, or null
+   * @param date the Date header, or null
+   * @param lastModified the Last-Modified header, or null
+   * @return the expiry time in milliseconds since the epoch, or -1 if the
+   *     response must not be stored
+   */
+  public static long computeExpires(long now, String cacheControl, String expires, String date,
+      String lastModified) {
+    if (cacheControl != null) {
+      long maxAge = -1;
+      for (String directive : cacheControl.toLowerCase(Locale.US).split(",")) {
+        directive = directive.trim();
+        if (directive.equals("no-store")) {
+          return -1;
+        } else if (directive.equals("no-cache")) {
+          // The response may be stored but must be revalidated before each use.
+          return now;
+        } else if (directive.startsWith("max-age=")) {
+          try {
+            maxAge = Long.parseLong(directive.substring("max-age=".length()).trim());
+          } catch (NumberFormatException e) {
+            maxAge = 0;
+          }
+        }
+      }
+      if (maxAge >= 0) {
+        return now + maxAge * 1000;
+      }
+    }
+    long serverNow = date == null ? -1 : parseDate(date);
+    if (serverNow < 0) {
+      serverNow = now;
+    }
+    if (expires != null) {
+      long expiresTime = parseDate(expires);
+      // An invalid date, such as "0", means already expired.
+      return expiresTime < 0 ? now : now + Math.max(expiresTime - serverNow, 0);
+    }
+    if (lastModified != null) {
+      long lastModifiedTime = parseDate(lastModified);
+      if (lastModifiedTime >= 0 && lastModifiedTime < serverNow) {
+        return now + (serverNow - lastModifiedTime) / HEURISTIC_LIFETIME_DIVISOR;
+      }
+    }
+    return now;
+  }
+
+  private static long parseDate(String value) {
+    SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+    format.setTimeZone(TimeZone.getTimeZone("GMT"));
+    try {
+      Date date = format.parse(value);
+      return date.getTime();
+    } catch (ParseException e) {
+      return -1;
+    }
+  }
+}
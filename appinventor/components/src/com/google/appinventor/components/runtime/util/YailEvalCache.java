@@ -0,0 +1,183 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import gnu.expr.Compilation;
+import gnu.expr.Declaration;
+import gnu.expr.Language;
+import gnu.expr.ModuleExp;
+import gnu.mapping.CallContext;
+import gnu.mapping.CharArrayInPort;
+import gnu.mapping.Environment;
+import gnu.text.SourceMessages;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Evaluates the YAIL that the blocks editor sends to the companion, keeping the parsed and
+ * analyzed form of each piece of code so that the same code is not read and macro-expanded
+ * again.
+ *
+ * <p>The blocks editor sends each top-level block as a separate form, and sends all of them
+ * again whenever the companion's form is cleared, such as when switching screens or
+ * reconnecting. Reading and expanding a form costs far more than interpreting it, so forms
+ * are cached by a hash of their code. A cached form is still evaluated on every request,
+ * since clearing the form discards its definitions, but only a changed block is parsed
+ * again.</p>
+ *
+ * <p>Kawa binds the procedures that a module defines at top level only the first time the
+ * module is run, so evaluating a cached {@code (define (f) ...)} again would not undo a later
+ * redefinition of {@code f}. Code that defines top-level procedures, such as event handlers,
+ * is therefore evaluated without being cached. The blocks editor reaches the app's own
+ * procedures, variables and components through the form environment, so the rest of its
+ * YAIL is safe to cache, but the cache is not a general replacement for
+ * {@link Language#eval(String)}.</p>
+ */
+public final class YailEvalCache {
+  // Limits on the code whose compiled form is kept, in entries and in characters of source.
+  private static final int MAX_ENTRIES = 256;
+  private static final int MAX_CHARS = 1 << 20;
+
+  private final Language language;
+  private final LinkedHashMap<String, Entry> entries =
+      new LinkedHashMap<String, Entry>(16, 0.75f, true);
+  private int chars = 0;
+  private int hits = 0;
+  private int misses = 0;
+
+  private static final class Entry {
+    final Compilation compilation;
+    final int length;
+
+    Entry(Compilation compilation, int length) {
+      this.compilation = compilation;
+      this.length = length;
+    }
+  }
+
+  public YailEvalCache(Language language) {
+    this.language = language;
+  }
+
+  /**
+   * Evaluates a piece of code, as {@link Language#eval(String)} does.
+   *
+   * @param code the code to evaluate
+   * @return the value of the code
+   * @throws Throwable any exception thrown while evaluating the code, or a RuntimeException if
+   *     the code has syntax errors
+   */
+  public Object eval(String code) throws Throwable {
+    String key = hash(code);
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry != null) {
+        hits++;
+      }
+    }
+    Language saveLanguage = Language.setSaveCurrent(language);
+    try {
+      Environment env = language.getEnvironment();
+      if (entry == null) {
+        Compilation comp = compile(env, code);
+        entry = new Entry(comp, code.length());
+        synchronized (this) {
+          misses++;
+          if (!definesProcedures(comp)) {
+            add(key, entry);
+          }
+        }
+      }
+      CallContext ctx = CallContext.getInstance();
+      int oldIndex = ctx.startFromContext();
+      try {
+        // The module is interpreted, which is not known to be safe for two threads at once.
+        synchronized (entry) {
+          ModuleExp.evalModule2(env, ctx, language, entry.compilation.getModule(), Boolean.TRUE);
+        }
+        return ctx.getFromContext(oldIndex);
+      } catch (Throwable e) {
+        ctx.cleanupFromContext(oldIndex);
+        throw e;
+      }
+    } finally {
+      Language.restoreCurrent(saveLanguage);
+    }
+  }
+
+  public synchronized int getHits() {
+    return hits;
+  }
+
+  public synchronized int getMisses() {
+    return misses;
+  }
+
+  /**
+   * Drops the compiled code, for instance when the definitions it was compiled against change.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    chars = 0;
+  }
+
+  private Compilation compile(Environment env, String code) throws Throwable {
+    SourceMessages messages = new SourceMessages();
+    Compilation comp =
+        language.parse(new CharArrayInPort(code), messages, Language.PARSE_FOR_EVAL);
+    // With compilation turned off, this only analyzes the module, leaving it ready to be
+    // interpreted any number of times by evalModule2.
+    if (ModuleExp.evalModule1(env, comp, null, null) == null || messages.seenErrors()) {
+      throw new RuntimeException("invalid syntax in eval form:\n" + messages.toString(20));
+    }
+    return comp;
+  }
+
+  private static boolean definesProcedures(Compilation comp) {
+    for (Declaration decl = comp.getModule().firstDecl(); decl != null; decl = decl.nextDecl()) {
+      if (decl.isProcedureDecl()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void add(String key, Entry entry) {
+    Entry old = entries.put(key, entry);
+    if (old != null) {
+      chars -= old.length;
+    }
+    chars += entry.length;
+    Iterator<Entry> it = entries.values().iterator();
+    while ((chars > MAX_CHARS || entries.size() > MAX_ENTRIES) && it.hasNext()) {
+      chars -= it.next().length;
+      it.remove();
+    }
+  }
+
+  private static String hash(String code) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      byte[] bytes = digest.digest(code.getBytes("UTF-8"));
+      StringBuilder sb = new StringBuilder(bytes.length * 2);
+      for (byte b : bytes) {
+        sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+        sb.append(Character.forDigit(b & 0xf, 16));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform provides SHA-1.
+      throw new IllegalStateException(e);
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -11,6 +11,7 @@ import gnu.lists.LList;
 import gnu.lists.Pair;
 import gnu.math.IntNum;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -21,6 +22,15 @@ import org.json.JSONException;
  * by the Kawa framework. YailList is the main list primitive used
  * by App Inventor components.
  *
+ * <p>The elements are stored in the chain of Pairs following the
+ * header, which Kawa code may walk and modify directly. To make
+ * indexed access fast, the list also keeps an index of the Pairs
+ * holding its elements. The index is built when first needed and
+ * kept up to date by the mutators below, which runtime.scm uses to
+ * modify lists. It is rebuilt if the chain is changed in a way it
+ * can detect, i.e. the contents are replaced or extended at the end
+ * through the Pair API.</p>
+ *
  */
 @SuppressWarnings("rawtypes")
 public class YailList extends Pair implements YailObject {
@@ -35,6 +45,15 @@ public class YailList extends Pair implements YailObject {
   // legitimate Yail data types.  See the definition of sanitization
   // in runtime.scm.
 
+  private static final Pair[] NO_CELLS = new Pair[0];
+
+  // cells[i] is the Pair holding element i. Only the first cellCount
+  // entries are used, and the index is stale if the contents are no
+  // longer indexedContents.
+  private transient Pair[] cells = NO_CELLS;
+  private transient int cellCount = -1;
+  private transient Object indexedContents;
+
   /**
    * Create an empty YailList.
    */
@@ -112,10 +131,10 @@ public class YailList extends Pair implements YailObject {
    */
 
   public String[] toStringArray() {
-    int size = this.size();
-    String[] objects = new String[size];
-    for (int i = 1; i <= size; i++) {
-      objects[i - 1] = YailListElementToString(get(i));
+    ensureIndex();
+    String[] objects = new String[cellCount];
+    for (int i = 0; i < cellCount; i++) {
+      objects[i] = YailListElementToString(cells[i].getCar());
     }
     return objects;
   }
@@ -150,9 +169,9 @@ public class YailList extends Pair implements YailObject {
       StringBuilder json = new StringBuilder();
       String separator = "";
       json.append('[');
-      int size = this.size();
-      for (int i = 1; i <= size; i++) {
-        Object value = get(i);
+      ensureIndex();
+      for (int i = 0; i < cellCount; i++) {
+        Object value = cells[i].getCar();
         json.append(separator).append(JsonUtil.getJsonRepresentation(value));
         separator = ",";
       }
@@ -170,7 +189,20 @@ public class YailList extends Pair implements YailObject {
    */
   @Override
   public int size() {
-    return super.size() - 1;
+    ensureIndex();
+    return cellCount;
+  }
+
+  /**
+   * Return the item at the given position, where position 0 is the
+   * list header and position 1 is the first element.
+   */
+  @Override
+  public Object get(int index) {
+    if (index == 0) {
+      return car;
+    }
+    return getCell(index - 1).getCar();
   }
 
   /**
@@ -200,4 +232,99 @@ public class YailList extends Pair implements YailObject {
   public Object getObject(int index) {
     return get(index + 1);
   }
+
+  /**
+   * Replace the Object at the given index.
+   */
+  public void setObject(int index, Object value) {
+    getCell(index).setCar(value);
+  }
+
+  /**
+   * Insert an Object so that it ends up at the given index, which
+   * may be from 0 through the size of the list.
+   */
+  public void insertObject(int index, Object value) {
+    ensureIndex();
+    if (index < 0 || index > cellCount) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + cellCount);
+    }
+    Pair previous = index == 0 ? this : cells[index - 1];
+    Pair cell = new Pair(value, previous.getCdr());
+    previous.setCdr(cell);
+    growIndex(cellCount + 1);
+    System.arraycopy(cells, index, cells, index + 1, cellCount - index);
+    cells[index] = cell;
+    cellCount++;
+    indexedContents = cdr;
+  }
+
+  /**
+   * Remove the Object at the given index.
+   */
+  public void removeObject(int index) {
+    Pair cell = getCell(index);
+    Pair previous = index == 0 ? this : cells[index - 1];
+    previous.setCdr(cell.getCdr());
+    System.arraycopy(cells, index + 1, cells, index, cellCount - index - 1);
+    cells[--cellCount] = null;
+    indexedContents = cdr;
+  }
+
+  /**
+   * Append the elements of another list to the end of this one. The
+   * elements themselves are shared, not copied.
+   */
+  public void appendList(YailList other) {
+    other.ensureIndex();
+    int count = other.cellCount;
+    if (count == 0) {
+      return;
+    }
+    Pair[] source = other == this ? Arrays.copyOf(cells, count) : other.cells;
+    ensureIndex();
+    growIndex(cellCount + count);
+    Pair last = cellCount == 0 ? this : cells[cellCount - 1];
+    for (int i = 0; i < count; i++) {
+      Pair cell = new Pair(source[i].getCar(), LList.Empty);
+      last.setCdr(cell);
+      cells[cellCount++] = cell;
+      last = cell;
+    }
+    indexedContents = cdr;
+  }
+
+  private Pair getCell(int index) {
+    ensureIndex();
+    if (index < 0 || index >= cellCount) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + cellCount);
+    }
+    return cells[index];
+  }
+
+  /**
+   * Make sure the index matches the chain of Pairs. Checking the
+   * first and last Pair keeps this O(1) when nothing has changed.
+   */
+  private void ensureIndex() {
+    if (cellCount >= 0 && cdr == indexedContents
+        && (cellCount == 0 || cells[cellCount - 1].getCdr() == LList.Empty)) {
+      return;
+    }
+    cellCount = 0;
+    Object rest = cdr;
+    while (rest instanceof Pair) {
+      growIndex(cellCount + 1);
+      cells[cellCount++] = (Pair) rest;
+      rest = ((Pair) rest).getCdr();
+    }
+    Arrays.fill(cells, cellCount, cells.length, null);
+    indexedContents = cdr;
+  }
+
+  private void growIndex(int capacity) {
+    if (capacity > cells.length) {
+      cells = Arrays.copyOf(cells, Math.max(capacity, cells.length * 2 + 8));
+    }
+  }
 }
@@ -17,6 +17,7 @@ import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -36,12 +37,14 @@ public class BluetoothConnectionBaseTest extends RobolectricTestBase {
   private ByteArrayOutputStream outputStream;
   private int recordedErrorNumber;
   private PipedOutputStream pipe;
+  private List<Object> receivedFrames;
 
   @Override
   public void setUp() {
     super.setUp();
 
     outputStream = new ByteArrayOutputStream();
+    receivedFrames = new ArrayList<Object>();
     pipe = new PipedOutputStream();
     PipedInputStream inputStream;
     try {
@@ -80,9 +83,92 @@ public class BluetoothConnectionBaseTest extends RobolectricTestBase {
       public boolean IsConnected() {
         return true;
       }
+
+      @Override
+      public void DataReceived(YailList frames) {
+        receivedFrames.addAll(Arrays.asList(frames.toArray()));
+      }
     };
   }
 
+  private void waitForFrames(int count) throws InterruptedException {
+    for (int i = 0; i < 500 && receivedFrames.size() < count; i++) {
+      Thread.sleep(10);
+      runAllEvents();
+    }
+  }
+
+  @Test
+  public void testStreamingDeliversFrames() throws InterruptedException {
+    connection.DelimiterByte(10);
+    connection.StartStreaming(-1, true);
+    connection.SendText("12,34\n56,");
+    connection.SendText("78\n9");
+    waitForFrames(2);
+    connection.StopStreaming();
+    assertEquals(Arrays.<Object>asList("12,34", "56,78"), receivedFrames);
+    assertEquals(0, connection.BytesDropped());
+    assertEquals(0, recordedErrorNumber);
+  }
+
+  @Test
+  public void testStreamingDeliversByteFrames() throws InterruptedException {
+    connection.StartStreaming(2, false);
+    connection.SendBytes(YailList.makeList(Arrays.asList("1", "255", "3")));
+    waitForFrames(1);
+    connection.StopStreaming();
+    assertEquals(1, receivedFrames.size());
+    assertEquals(Arrays.<Object>asList(1, 255),
+        Arrays.asList(((YailList) receivedFrames.get(0)).toArray()));
+  }
+
+  @Test
+  public void testStopStreamingLeavesDataForReceive() throws InterruptedException {
+    connection.DelimiterByte(10);
+    connection.StartStreaming(-1, true);
+    connection.SendText("a\n");
+    waitForFrames(1);
+    connection.StopStreaming();
+    connection.SendText("hello\nworld");
+    assertEquals("hello\n", connection.ReceiveText(-1));
+    assertEquals("wor", connection.ReceiveText(3));
+    Thread.sleep(50);
+    runAllEvents();
+    assertEquals(Arrays.<Object>asList("a"), receivedFrames);
+    assertEquals(0, recordedErrorNumber);
+  }
+
+  @Test
+  public void testStartStreamingDeliversDataReceivedWhileStopped()
+      throws InterruptedException {
+    connection.DelimiterByte(10);
+    connection.StartStreaming(-1, true);
+    connection.StopStreaming();
+    connection.SendText("b\n");
+    assertEquals(2, connection.ReceiveText(-1).length());
+    connection.SendText("c\n");
+    connection.StartStreaming(-1, true);
+    waitForFrames(1);
+    connection.StopStreaming();
+    assertEquals(Arrays.<Object>asList("c"), receivedFrames);
+  }
+
+  @Test
+  public void testReceiveIsRejectedWhileStreaming() {
+    connection.StartStreaming(0, false);
+    connection.ReceiveText(1);
+    assertEquals(ErrorMessages.ERROR_BLUETOOTH_STREAMING, recordedErrorNumber);
+    connection.StopStreaming();
+  }
+
+  @Test
+  public void testFrameLongerThanBufferIsRejected() {
+    connection.StartStreaming(16385, false);
+    assertEquals(ErrorMessages.ERROR_BLUETOOTH_FRAME_TOO_LONG, recordedErrorNumber);
+    connection.SendText("a");
+    assertEquals(1, connection.ReceiveText(1).length());
+  }
+
   @Test
   public void testSendAndReceiveText() {
     connection.SendText("Hello");
@@ -0,0 +1,54 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime;
+
+import com.google.appinventor.components.runtime.EventDispatcherTest.TestComponent;
+import com.google.appinventor.components.runtime.EventDispatcherTest.TestDelegate;
+
+/**
+ * Measures how many events per second EventDispatcher dispatches as the number of components
+ * handling the same event grows. Not run as part of the tests; run its main method directly.
+ *
+ */
+public class EventDispatcherBenchmark {
+  private static final int EVENTS = 2000000;
+
+  public static void main(String[] args) {
+    int[] counts = { 1, 10, 100, 1000 };
+    if (args.length > 0) {
+      counts = new int[args.length];
+      for (int i = 0; i < args.length; i++) {
+        counts[i] = Integer.parseInt(args[i]);
+      }
+    }
+    for (int count : counts) {
+      TestDelegate delegate = new TestDelegate();
+      TestComponent[] components = new TestComponent[count];
+      for (int i = 0; i < count; i++) {
+        components[i] = new TestComponent(delegate);
+        delegate.environment.put("Button" + i, components[i]);
+        EventDispatcher.registerEventForDelegation(delegate, "Button" + i, "Click");
+      }
+      // Warm up until the JIT has compiled the dispatch path, then measure.
+      run(components, EVENTS);
+      delegate.attempts = 0;
+      delegate.handled.clear();
+      long start = System.nanoTime();
+      run(components, EVENTS);
+      long elapsed = System.nanoTime() - start;
+      System.out.println(count + " components: "
+          + (long) (EVENTS / (elapsed / 1e9)) + " events/s, "
+          + delegate.attempts / delegate.handled.size() + " delegate calls/event");
+      EventDispatcher.removeDispatchDelegate(delegate);
+    }
+  }
+
+  private static void run(TestComponent[] components, int events) {
+    for (int i = 0; i < events; i++) {
+      EventDispatcher.dispatchEvent(components[i % components.length], "Click");
+    }
+  }
+}
@@ -0,0 +1,148 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests EventDispatcher.java.
+ *
+ */
+public class EventDispatcherTest extends TestCase {
+
+  /**
+   * A dispatch delegate that, like the form in runtime.scm, only runs a handler if the name it
+   * was registered under is bound to the component raising the event.
+   */
+  static class TestDelegate implements HandlesEventDispatching {
+    final Map<String, Component> environment = new HashMap<String, Component>();
+    final List<String> handled = new ArrayList<String>();
+    long attempts = 0;
+    boolean failHandlers = false;
+
+    @Override
+    public boolean canDispatchEvent(Component component, String eventName) {
+      return true;
+    }
+
+    @Override
+    public boolean dispatchEvent(Component component, String componentName, String eventName,
+        Object[] args) {
+      attempts++;
+      if (environment.get(componentName) != component) {
+        return false;
+      }
+      handled.add(componentName + "$" + eventName);
+      return !failHandlers;
+    }
+
+    @Override
+    public void dispatchErrorOccurredEvent(Component component, String functionName,
+        int errorCode, Object... args) {
+    }
+
+    @Override
+    public void dispatchGenericEvent(Component component, String eventName,
+        boolean notAlreadyHandled, Object[] args) {
+    }
+  }
+
+  static class TestComponent implements Component {
+    private final HandlesEventDispatching delegate;
+
+    TestComponent(HandlesEventDispatching delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public HandlesEventDispatching getDispatchDelegate() {
+      return delegate;
+    }
+  }
+
+  private TestDelegate delegate;
+
+  @Override
+  protected void setUp() {
+    delegate = new TestDelegate();
+  }
+
+  @Override
+  protected void tearDown() {
+    EventDispatcher.removeDispatchDelegate(delegate);
+  }
+
+  private TestComponent addComponent(String name) {
+    TestComponent component = new TestComponent(delegate);
+    delegate.environment.put(name, component);
+    EventDispatcher.registerEventForDelegation(delegate, name, "Click");
+    return component;
+  }
+
+  public void testRepeatedEventsGoStraightToHandler() {
+    List<TestComponent> components = new ArrayList<TestComponent>();
+    for (int i = 0; i < 10; i++) {
+      components.add(addComponent("Button" + i));
+    }
+    TestComponent button = components.get(5);
+    assertTrue(EventDispatcher.dispatchEvent(button, "Click"));
+    delegate.attempts = 0;
+    assertTrue(EventDispatcher.dispatchEvent(button, "Click"));
+    assertEquals(1, delegate.attempts);
+    assertEquals(2, delegate.handled.size());
+    assertEquals("Button5$Click", delegate.handled.get(1));
+  }
+
+  public void testRenamedComponentIsFoundAgain() {
+    TestComponent first = addComponent("Button1");
+    addComponent("Button2");
+    assertTrue(EventDispatcher.dispatchEvent(first, "Click"));
+
+    // Bind the component to a new name, as the REPL does after a rename.
+    delegate.environment.remove("Button1");
+    delegate.environment.put("Button3", first);
+    EventDispatcher.registerEventForDelegation(delegate, "Button3", "Click");
+    assertTrue(EventDispatcher.dispatchEvent(first, "Click"));
+    assertEquals("Button3$Click", delegate.handled.get(1));
+  }
+
+  public void testUnregisteredHandlerIsNotRun() {
+    TestComponent button = addComponent("Button1");
+    assertTrue(EventDispatcher.dispatchEvent(button, "Click"));
+    EventDispatcher.unregisterEventForDelegation(delegate, "Button1", "Click");
+    assertFalse(EventDispatcher.dispatchEvent(button, "Click"));
+    assertEquals(1, delegate.handled.size());
+  }
+
+  public void testFailedHandlerIsRunOnce() {
+    TestComponent button = addComponent("Button1");
+    addComponent("Button2");
+    assertTrue(EventDispatcher.dispatchEvent(button, "Click"));
+    delegate.failHandlers = true;
+    assertFalse(EventDispatcher.dispatchEvent(button, "Click"));
+    assertEquals(2, delegate.handled.size());
+  }
+
+  public void testDeletedComponentIsNotHeld() {
+    TestComponent button = addComponent("Button1");
+    assertTrue(EventDispatcher.dispatchEvent(button, "Click"));
+
+    // Delete the component, as the REPL's remove-component does, without unregistering its events.
+    WeakReference<TestComponent> ref = new WeakReference<TestComponent>(button);
+    delegate.environment.remove("Button1");
+    button = null;
+    for (int i = 0; i < 10 && ref.get() != null; i++) {
+      System.gc();
+    }
+    assertNull(ref.get());
+  }
+}
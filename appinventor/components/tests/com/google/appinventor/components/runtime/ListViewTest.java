@@ -94,6 +94,23 @@ public class ListViewTest extends RobolectricTestBase {
     assertEquals(2, count);
   }
 
+  /**
+   * Test that refining and then clearing the filter shows the matching items.
+   */
+  @Test
+  public void testFilterRefinement() throws InterruptedException {
+    ListView listView1 = new ListView(getForm());
+    listView1.ElementsFromString("apple,banana,cantaloupe,date");
+    listView1.Height(200);
+    listView1.Width(320);
+    EditText filterBox = (EditText) ((LinearLayout) listView1.getView()).getChildAt(0);
+    assertEquals(4, filterAndCount(listView1, filterBox, "a"));
+    assertEquals(2, filterAndCount(listView1, filterBox, "an"));
+    assertEquals(1, filterAndCount(listView1, filterBox, "ana"));
+    assertEquals(2, filterAndCount(listView1, filterBox, "an"));
+    assertEquals(4, filterAndCount(listView1, filterBox, ""));
+  }
+
   /**
    * Test removal of the selection for a list containing dictionary based elements.
    *
@@ -116,6 +133,16 @@ public class ListViewTest extends RobolectricTestBase {
     assertEquals(0, listView1.SelectionIndex());
   }
 
+  private int filterAndCount(ListView listView, EditText filterBox, String query)
+      throws InterruptedException {
+    filterBox.setText(query);
+    Thread.sleep(100);  // Filtering runs on a separate thread for performance reasons
+    runAllEvents();
+    LinearLayout listLayout = (LinearLayout) ((LinearLayout) listView.getView()).getChildAt(1);
+    RecyclerView rv = (RecyclerView) listLayout.getChildAt(0);
+    return rv.getAdapter().getItemCount();
+  }
+
   private View getViewForPosition(ListView listView, int position) {
     LinearLayout listLayout = (LinearLayout) ((LinearLayout) listView.getView()).getChildAt(1);
     RecyclerView rv = (RecyclerView) listLayout.getChildAt(0);
@@ -0,0 +1,59 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime;
+
+import static com.google.appinventor.components.runtime.SpriteCollisionTest.createSprites;
+import static com.google.appinventor.components.runtime.SpriteCollisionTest.moveAll;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * Measures how long moving every sprite on a canvas takes, collision checks included, as the
+ * number of sprites grows at a fixed density. The time per sprite should stay about flat; it grows
+ * with the number of sprites if every pair is checked. The sprites need a Form, so the measurement
+ * runs under Robolectric. Not run as part of the tests; run its main method directly.
+ *
+ */
+public class SpriteCollisionBenchmark extends RobolectricTestBase {
+  private static final int FRAMES = 200;
+  private static int[] counts = { 100, 200, 400, 800 };
+
+  public static void main(String[] args) {
+    if (args.length > 0) {
+      counts = new int[args.length];
+      for (int i = 0; i < args.length; i++) {
+        counts[i] = Integer.parseInt(args[i]);
+      }
+    }
+    JUnitCore.main(SpriteCollisionBenchmark.class.getName());
+  }
+
+  @Test
+  public void measure() {
+    for (int count : counts) {
+      Canvas canvas = new Canvas(getForm());
+      List<Sprite> sprites = createSprites(canvas, count, new Random(42));
+      Random random = new Random(7);
+      // Warm up until the JIT has compiled the collision checks, then measure.
+      run(sprites, random);
+      long start = System.nanoTime();
+      run(sprites, random);
+      long elapsed = System.nanoTime() - start;
+      System.out.println(count + " sprites: " + elapsed / FRAMES / 1000 + " us/frame, "
+          + elapsed / FRAMES / count + " ns/sprite");
+    }
+  }
+
+  private static void run(List<Sprite> sprites, Random random) {
+    for (int frame = 0; frame < FRAMES; frame++) {
+      moveAll(sprites, random);
+    }
+  }
+}
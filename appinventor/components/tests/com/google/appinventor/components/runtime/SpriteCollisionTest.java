@@ -5,9 +5,14 @@
 
 package com.google.appinventor.components.runtime;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -434,4 +439,54 @@ public class SpriteCollisionTest extends RobolectricTestBase {
 
     assertFalse(Sprite.colliding(ball2, ball1));
   }
+
+  @Test
+  public void testRegisteredCollisionsMatchPairwiseCheck() {
+    Canvas canvas = new Canvas(getForm());
+    List<Sprite> sprites = createSprites(canvas, 120, new Random(42));
+    Random random = new Random(7);
+    for (int frame = 0; frame < 20; frame++) {
+      moveAll(sprites, random);
+      for (Sprite a : sprites) {
+        for (Sprite b : sprites) {
+          if (a != b) {
+            assertEquals(Sprite.colliding(a, b), a.CollidingWith(b));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates sprites of random sizes at a fixed density, so that each has about as many neighbors
+   * however many there are.
+   */
+  static List<Sprite> createSprites(Canvas canvas, int count, Random random) {
+    int side = (int) Math.sqrt(count * 2500.0);
+    List<Sprite> sprites = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Sprite sprite;
+      if (i % 2 == 0) {
+        Ball ball = new Ball(canvas);
+        ball.Radius(5 + random.nextInt(10));
+        sprite = ball;
+      } else {
+        ImageSprite imageSprite = new ImageSprite(canvas);
+        imageSprite.Width(10 + random.nextInt(20));
+        imageSprite.Height(10 + random.nextInt(20));
+        imageSprite.Heading(random.nextInt(360));
+        sprite = imageSprite;
+      }
+      sprite.MoveTo(random.nextInt(side), random.nextInt(side));
+      sprite.Initialize();
+      sprites.add(sprite);
+    }
+    return sprites;
+  }
+
+  static void moveAll(List<Sprite> sprites, Random random) {
+    for (Sprite sprite : sprites) {
+      sprite.MoveTo(sprite.X() + random.nextInt(21) - 10, sprite.Y() + random.nextInt(21) - 10);
+    }
+  }
 }
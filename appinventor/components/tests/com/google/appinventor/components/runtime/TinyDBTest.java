@@ -7,9 +7,16 @@ package com.google.appinventor.components.runtime;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.appinventor.components.runtime.util.YailList;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
@@ -79,4 +86,35 @@ public class TinyDBTest extends RobolectricTestBase {
     assertEquals("Invalid TinyDB StoreValue","test-value-3",
         aTinyDB.GetValue("test-tag-3", "tag-not-found"));
   }
+
+  @Test
+  public void testFlushIntervalBatchesWrites() {
+    SharedPreferences preferences =
+        getForm().getSharedPreferences(TinyDB.DEFAULT_NAMESPACE, Context.MODE_PRIVATE);
+    aTinyDB.FlushInterval(1000);
+    aTinyDB.StoreValue("test-tag-3", "test-value-3");
+    aTinyDB.ClearTag("test-tag-1");
+
+    // The writes are visible to every TinyDB at once, but only reach the data store later.
+    TinyDB otherTinyDB = new TinyDB(getForm());
+    assertEquals("test-value-3", otherTinyDB.GetValue("test-tag-3", "tag-not-found"));
+    assertEquals("tag-not-found", otherTinyDB.GetValue("test-tag-1", "tag-not-found"));
+    assertNull(preferences.getString("test-tag-3", null));
+    advance(1000);
+    assertEquals("\"test-value-3\"", preferences.getString("test-tag-3", null));
+    assertNull(preferences.getString("test-tag-1", null));
+
+    aTinyDB.StoreValue("test-tag-4", "test-value-4");
+    aTinyDB.Flush();
+    assertEquals("\"test-value-4\"", preferences.getString("test-tag-4", null));
+  }
+
+  @Test
+  public void testGetValueReturnsCopy() {
+    aTinyDB.StoreValue("test-list", YailList.makeList(Arrays.asList("a", "b")));
+    YailList list = (YailList) aTinyDB.GetValue("test-list", "tag-not-found");
+    list.setObject(1, "changed");
+    assertEquals(YailList.makeList(Arrays.asList("a", "b")),
+        aTinyDB.GetValue("test-list", "tag-not-found"));
+  }
 }
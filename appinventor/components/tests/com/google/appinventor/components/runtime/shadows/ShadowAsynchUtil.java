@@ -49,6 +49,16 @@ public class ShadowAsynchUtil {
     runnables.add(call);
   }
 
+  @Implementation
+  public static void runAsynchronously(Object owner, final Runnable call) {
+    runnables.add(call);
+  }
+
+  @Implementation
+  public static void replaceAsynchronously(Object owner, final Runnable call) {
+    runnables.add(call);
+  }
+
   @Implementation
   public static void runAsynchronously(final Handler androidUIHandler,
                                        final Runnable call,
@@ -0,0 +1,116 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests AsynchUtil class.
+ *
+ */
+public class AsynchUtilTest extends TestCase {
+  public void testCallsPerOwnerAreLimited() throws Exception {
+    final Object owner = new Object();
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch started = new CountDownLatch(AsynchUtil.MAX_TASKS_PER_OWNER);
+    final CountDownLatch done = new CountDownLatch(10);
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+    for (int i = 0; i < 10; i++) {
+      final int number = i;
+      AsynchUtil.runAsynchronously(owner, new Runnable() {
+        @Override
+        public void run() {
+          int now = running.incrementAndGet();
+          synchronized (maxRunning) {
+            maxRunning.set(Math.max(maxRunning.get(), now));
+          }
+          order.add(number);
+          started.countDown();
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            // ignored
+          }
+          running.decrementAndGet();
+          done.countDown();
+        }
+      });
+    }
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    assertTrue(AsynchUtil.getQueuedTaskCount() >= 10 - AsynchUtil.MAX_TASKS_PER_OWNER);
+    release.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(AsynchUtil.MAX_TASKS_PER_OWNER, maxRunning.get());
+    assertEquals(10, order.size());
+  }
+
+  public void testPendingCallsAreReplaced() throws Exception {
+    final Object owner = new Object();
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch started = new CountDownLatch(AsynchUtil.MAX_TASKS_PER_OWNER);
+    for (int i = 0; i < AsynchUtil.MAX_TASKS_PER_OWNER; i++) {
+      AsynchUtil.runAsynchronously(owner, new Runnable() {
+        @Override
+        public void run() {
+          started.countDown();
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            // ignored
+          }
+        }
+      });
+    }
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    FutureTask<Void> superseded = new FutureTask<Void>(new Runnable() {
+      @Override
+      public void run() {
+        fail("superseded call ran");
+      }
+    }, null);
+    FutureTask<Void> latest = new FutureTask<Void>(new Runnable() {
+      @Override
+      public void run() {
+      }
+    }, null);
+    AsynchUtil.replaceAsynchronously(owner, superseded);
+    AsynchUtil.replaceAsynchronously(owner, latest);
+    assertTrue(superseded.isCancelled());
+    release.countDown();
+    latest.get(5, TimeUnit.SECONDS);
+    assertTrue(latest.isDone());
+  }
+
+  public void testStatistics() throws Exception {
+    final CountDownLatch done = new CountDownLatch(1);
+    long completed = AsynchUtil.getCompletedTaskCount();
+    AsynchUtil.runAsynchronously(new Runnable() {
+      @Override
+      public void run() {
+        done.countDown();
+      }
+    });
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    long deadline = System.currentTimeMillis() + 5000;
+    while (AsynchUtil.getCompletedTaskCount() == completed
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(AsynchUtil.getCompletedTaskCount() > completed);
+    assertTrue(AsynchUtil.getAverageQueueLatencyMillis() >= 0);
+    assertTrue(AsynchUtil.getAverageRunTimeMillis() >= 0);
+  }
+}
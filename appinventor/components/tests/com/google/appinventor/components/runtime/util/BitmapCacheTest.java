@@ -0,0 +1,92 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Tests BitmapCache class.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BitmapCacheTest {
+
+  private static class Recorder implements AsyncCallbackPair<Bitmap> {
+    final List<Object> results = new ArrayList<Object>();
+
+    @Override
+    public void onFailure(String message) {
+      results.add(message);
+    }
+
+    @Override
+    public void onSuccess(Bitmap result) {
+      results.add(result);
+    }
+  }
+
+  private static Bitmap createBitmap() {
+    return Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+  }
+
+  @Test
+  public void testDecodesAreShared() {
+    BitmapCache cache = new BitmapCache(1 << 20);
+    Recorder first = new Recorder();
+    Recorder second = new Recorder();
+    assertNull(cache.get("a"));
+    assertTrue(cache.request("a", first));
+    assertFalse(cache.request("a", second));
+
+    Bitmap bitmap = createBitmap();
+    cache.put("a", bitmap);
+    assertEquals(1, first.results.size());
+    assertSame(bitmap, first.results.get(0));
+    assertEquals(1, second.results.size());
+    assertSame(bitmap, second.results.get(0));
+    assertSame(bitmap, cache.get("a"));
+    assertEquals(1, cache.getMisses());
+    assertEquals(2, cache.getHits());
+  }
+
+  @Test
+  public void testFailureReachesAllRequests() {
+    BitmapCache cache = new BitmapCache(1 << 20);
+    Recorder first = new Recorder();
+    Recorder second = new Recorder();
+    assertTrue(cache.request("a", first));
+    assertFalse(cache.request("a", second));
+    cache.fail("a", "missing");
+    assertEquals("missing", first.results.get(0));
+    assertEquals("missing", second.results.get(0));
+    assertNull(cache.get("a"));
+    assertTrue(cache.request("a", new Recorder()));
+  }
+
+  @Test
+  public void testEvictedBitmapInUseIsShared() {
+    Bitmap a = createBitmap();
+    BitmapCache cache = new BitmapCache(a.getRowBytes() * a.getHeight());
+    cache.request("a", new Recorder());
+    cache.put("a", a);
+    cache.request("b", new Recorder());
+    cache.put("b", createBitmap());
+    assertEquals(a.getRowBytes() * a.getHeight(), cache.size());
+
+    // a was evicted from the cache, but is still referenced here.
+    assertSame(a, cache.get("a"));
+  }
+}
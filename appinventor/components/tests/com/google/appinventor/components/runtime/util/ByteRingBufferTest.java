@@ -0,0 +1,123 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests ByteRingBuffer class.
+ *
+ */
+public class ByteRingBufferTest extends TestCase {
+  private static byte[] bytes(String s) {
+    return s.getBytes();
+  }
+
+  private static void write(ByteRingBuffer buffer, String s) {
+    buffer.write(bytes(s), 0, s.length());
+  }
+
+  public void testDelimitedFramesWrapAround() {
+    ByteRingBuffer buffer = new ByteRingBuffer(8);
+    for (int i = 0; i < 10; i++) {
+      write(buffer, "ab");
+      assertNull(buffer.nextFrame(-1, (byte) ';'));
+      write(buffer, "c;d");
+      assertTrue(Arrays.equals(bytes("abc"), buffer.nextFrame(-1, (byte) ';')));
+      write(buffer, ";");
+      assertTrue(Arrays.equals(bytes("d"), buffer.nextFrame(-1, (byte) ';')));
+      assertEquals(0, buffer.size());
+    }
+    assertEquals(0, buffer.getBytesDropped());
+  }
+
+  public void testFixedLengthFrames() {
+    ByteRingBuffer buffer = new ByteRingBuffer(8);
+    write(buffer, "abcde");
+    assertTrue(Arrays.equals(bytes("ab"), buffer.nextFrame(2, (byte) 0)));
+    assertTrue(Arrays.equals(bytes("cd"), buffer.nextFrame(2, (byte) 0)));
+    assertNull(buffer.nextFrame(2, (byte) 0));
+    assertTrue(Arrays.equals(bytes("e"), buffer.nextFrame(0, (byte) 0)));
+    assertNull(buffer.nextFrame(0, (byte) 0));
+  }
+
+  public void testOverflowIsCounted() {
+    ByteRingBuffer buffer = new ByteRingBuffer(4);
+    assertEquals(4, buffer.write(bytes("abcdef"), 0, 6));
+    assertEquals(2, buffer.getBytesDropped());
+
+    // A delimited frame longer than the buffer is dropped, and framing starts again.
+    assertNull(buffer.nextFrame(-1, (byte) ';'));
+    assertEquals(6, buffer.getBytesDropped());
+    write(buffer, "gh;");
+    assertTrue(Arrays.equals(bytes("gh"), buffer.nextFrame(-1, (byte) ';')));
+  }
+
+  public void testFixedFrameLongerThanBuffer() {
+    ByteRingBuffer buffer = new ByteRingBuffer(4);
+    write(buffer, "abcd");
+    try {
+      buffer.nextFrame(5, (byte) 0);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    // The buffer is left as it was.
+    assertEquals(4, buffer.size());
+    assertTrue(Arrays.equals(bytes("abcd"), buffer.nextFrame(4, (byte) 0)));
+  }
+
+  public void testDelimiterChange() {
+    ByteRingBuffer buffer = new ByteRingBuffer(8);
+    write(buffer, "ab;c");
+    assertNull(buffer.nextFrame(-1, (byte) ','));
+    assertTrue(Arrays.equals(bytes("ab"), buffer.nextFrame(-1, (byte) ';')));
+  }
+
+  public void testAwaitFrameWaitsForWriter() throws InterruptedException {
+    final ByteRingBuffer buffer = new ByteRingBuffer(8);
+    Thread writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        for (String s : new String[] { "a", "b", "c;" }) {
+          try {
+            Thread.sleep(10);
+          } catch (InterruptedException e) {
+            return;
+          }
+          write(buffer, s);
+        }
+      }
+    });
+    writer.start();
+    assertTrue(Arrays.equals(bytes("abc"), buffer.awaitFrame(-1, (byte) ';')));
+    writer.join();
+  }
+
+  public void testCloseEndsWait() throws InterruptedException {
+    final ByteRingBuffer buffer = new ByteRingBuffer(8);
+    write(buffer, "a");
+    Thread closer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(10);
+        } catch (InterruptedException e) {
+          // Close anyway.
+        }
+        buffer.close();
+      }
+    });
+    closer.start();
+    assertNull(buffer.awaitFrame(2, (byte) 0));
+    closer.join();
+    assertTrue(buffer.isClosed());
+    assertEquals(0, buffer.write(bytes("b"), 0, 1));
+    assertTrue(Arrays.equals(bytes("a"), buffer.nextFrame(0, (byte) 0)));
+  }
+}
@@ -0,0 +1,111 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import gnu.expr.Language;
+import gnu.lists.FString;
+import gnu.math.DFloNum;
+import gnu.math.IntNum;
+import gnu.mapping.Values;
+import kawa.standard.Scheme;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests ComponentMethodCache class.
+ */
+public class ComponentMethodCacheTest extends TestCase {
+
+  public static class TestComponent {
+    private String text = "";
+    private int size;
+    private float width;
+    private boolean enabled;
+
+    public String Text() {
+      return text;
+    }
+
+    public void Text(String text) {
+      this.text = text;
+    }
+
+    public int Size() {
+      return size;
+    }
+
+    public void Size(int size) {
+      this.size = size;
+    }
+
+    public void Width(float width) {
+      this.width = width;
+    }
+
+    public float Width() {
+      return width;
+    }
+
+    public void Enabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public boolean Enabled() {
+      return enabled;
+    }
+
+    public String Describe(int count) {
+      return "int " + count;
+    }
+
+    public String Describe(String name) {
+      return "text " + name;
+    }
+
+    public void Fail() {
+      throw new IllegalStateException("failed");
+    }
+  }
+
+  private final TestComponent component = new TestComponent();
+
+  @Override
+  protected void setUp() {
+    // Calls that are left to Kawa need a current language, as they have in an app.
+    Language.setCurrentLanguage(Scheme.getInstance("scheme"));
+  }
+
+  public void testPropertiesAreSetAndGot() throws Throwable {
+    assertSame(Values.empty, ComponentMethodCache.invoke(component, "Size", IntNum.make(3)));
+    assertEquals(3, ComponentMethodCache.invoke(component, "Size"));
+    ComponentMethodCache.invoke(component, "Width", IntNum.make(2));
+    assertEquals(2.0f, ComponentMethodCache.invoke(component, "Width"));
+    ComponentMethodCache.invoke(component, "Enabled", Boolean.TRUE);
+    assertEquals(Boolean.TRUE, ComponentMethodCache.invoke(component, "Enabled"));
+  }
+
+  public void testArgumentsAreConvertedAsKawaDoes() throws Throwable {
+    // Kawa truncates reals passed to integer parameters.
+    ComponentMethodCache.invoke(component, "Size", DFloNum.make(2.5));
+    assertEquals(2, component.Size());
+    ComponentMethodCache.invoke(component, "Text", new FString("hello"));
+    assertEquals("hello", component.Text());
+  }
+
+  public void testOverloadsAreLeftToKawa() throws Throwable {
+    assertEquals("int 1", ComponentMethodCache.invoke(component, "Describe", IntNum.make(1)));
+    assertEquals("text a", ComponentMethodCache.invoke(component, "Describe", "a"));
+  }
+
+  public void testExceptionsAreRethrown() throws Throwable {
+    try {
+      ComponentMethodCache.invoke(component, "Fail");
+      fail("Expected an exception");
+    } catch (IllegalStateException e) {
+      assertEquals("failed", e.getMessage());
+    }
+  }
+}
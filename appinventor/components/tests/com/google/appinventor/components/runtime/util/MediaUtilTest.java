@@ -87,4 +87,18 @@ public class MediaUtilTest extends TestCase {
       // Expected
     }
   }
+
+  public void testGetSampleSize() throws Exception {
+    // Images are scaled down until one side fits the maximum size.
+    assertEquals(1, MediaUtil.getSampleSize(360, 640, 360, 640, 0, 0));
+    assertEquals(2, MediaUtil.getSampleSize(720, 1280, 360, 640, 0, 0));
+    assertEquals(4, MediaUtil.getSampleSize(1440, 2560, 360, 640, 0, 0));
+    assertEquals(1, MediaUtil.getSampleSize(4000, 100, 360, 640, 0, 0));
+
+    // Without being made smaller than the view showing them.
+    assertEquals(16, MediaUtil.getSampleSize(4000, 3000, 360, 640, 150, 150));
+    assertEquals(8, MediaUtil.getSampleSize(4000, 3000, 360, 640, 150, 200));
+    assertEquals(1, MediaUtil.getSampleSize(100, 100, 360, 640, 150, 150));
+    assertEquals(8, MediaUtil.getSampleSize(4000, 3000, 360, 640, 0, 150));
+  }
 }
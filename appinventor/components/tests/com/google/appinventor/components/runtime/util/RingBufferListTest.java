@@ -0,0 +1,81 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests RingBufferList class.
+ *
+ */
+public class RingBufferListTest extends TestCase {
+  public void testSlidingWindow() {
+    List<Integer> list = new RingBufferList<Integer>(2);
+    for (int i = 0; i < 10; i++) {
+      if (list.size() == 3) {
+        list.remove(0);
+      }
+      list.add(i);
+    }
+    assertEquals(Arrays.asList(7, 8, 9), list);
+  }
+
+  public void testMatchesArrayList() {
+    Random random = new Random(1);
+    List<Integer> list = new RingBufferList<Integer>(1);
+    List<Integer> expected = new ArrayList<Integer>();
+    for (int i = 0; i < 10000; i++) {
+      switch (random.nextInt(4)) {
+        case 0:
+          int index = random.nextInt(expected.size() + 1);
+          list.add(index, i);
+          expected.add(index, i);
+          break;
+        case 1:
+          list.add(i);
+          expected.add(i);
+          break;
+        case 2:
+          if (!expected.isEmpty()) {
+            index = random.nextInt(expected.size());
+            assertEquals(expected.remove(index), list.remove(index));
+          }
+          break;
+        default:
+          if (!expected.isEmpty()) {
+            index = random.nextInt(expected.size());
+            assertEquals(expected.set(index, -i), list.set(index, -i));
+          }
+          break;
+      }
+      assertEquals(expected, list);
+    }
+    list.clear();
+    assertTrue(list.isEmpty());
+  }
+
+  public void testIndexOutOfBounds() {
+    List<Integer> list = new RingBufferList<Integer>();
+    list.add(1);
+    try {
+      list.get(1);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    try {
+      list.add(2, 2);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+}
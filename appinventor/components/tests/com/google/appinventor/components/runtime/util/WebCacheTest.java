@@ -0,0 +1,91 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests WebCache class.
+ *
+ */
+public class WebCacheTest extends TestCase {
+  private static final Map<String, List<String>> NO_HEADERS = Collections.emptyMap();
+
+  private File directory;
+
+  @Override
+  protected void setUp() throws IOException {
+    directory = File.createTempFile("webcache", "");
+    directory.delete();
+    directory.mkdirs();
+  }
+
+  @Override
+  protected void tearDown() {
+    for (File file : directory.listFiles()) {
+      file.delete();
+    }
+    directory.delete();
+  }
+
+  public void testStoreAndReopen() {
+    WebCache cache = new WebCache(directory, 1 << 20);
+    String key = WebCache.key("http://example.com/a", NO_HEADERS);
+    cache.put(key, new WebCache.Entry(200, "application/json", "\"v1\"", "", 1000,
+        "{}".getBytes()));
+
+    WebCache.Entry entry = new WebCache(directory, 1 << 20).get(key);
+    assertNotNull(entry);
+    assertEquals(200, entry.getResponseCode());
+    assertEquals("application/json", entry.getResponseType());
+    assertEquals("\"v1\"", entry.getEtag());
+    assertEquals("{}", new String(entry.getBody()));
+    assertTrue(entry.isFresh(999));
+    assertFalse(entry.isFresh(1000));
+    assertTrue(entry.hasValidator());
+  }
+
+  public void testLeastRecentlyUsedIsEvicted() {
+    WebCache cache = new WebCache(directory, 2500);
+    String a = WebCache.key("http://example.com/a", NO_HEADERS);
+    String b = WebCache.key("http://example.com/b", NO_HEADERS);
+    String c = WebCache.key("http://example.com/c", NO_HEADERS);
+    cache.put(a, new WebCache.Entry(200, "", "", "", 0, new byte[1000]));
+    cache.put(b, new WebCache.Entry(200, "", "", "", 0, new byte[1000]));
+    assertNotNull(cache.get(a));
+    cache.put(c, new WebCache.Entry(200, "", "", "", 0, new byte[1000]));
+    assertNotNull(cache.get(a));
+    assertNull(cache.get(b));
+    assertNotNull(cache.get(c));
+    assertTrue(cache.size() <= 2500);
+  }
+
+  public void testKeyDependsOnHeaders() {
+    assertFalse(WebCache.key("http://example.com/", NO_HEADERS).equals(
+        WebCache.key("http://example.com/", Collections.singletonMap("Authorization",
+            Collections.singletonList("Bearer x")))));
+  }
+
+  public void testComputeExpires() {
+    long now = 1000000;
+    assertEquals(-1, WebCache.computeExpires(now, "public, no-store", null, null, null));
+    assertEquals(now, WebCache.computeExpires(now, "no-cache", null, null, null));
+    assertEquals(now + 60000, WebCache.computeExpires(now, "max-age=60", null, null, null));
+    assertEquals(now + 3600000, WebCache.computeExpires(now, null,
+        "Thu, 01 Jan 1970 01:00:00 GMT", "Thu, 01 Jan 1970 00:00:00 GMT", null));
+    assertEquals(now, WebCache.computeExpires(now, null, "0", null, null));
+    // Without an explicit lifetime, a tenth of the time since the last modification.
+    assertEquals(now + 360000, WebCache.computeExpires(now, null, null,
+        "Thu, 01 Jan 1970 01:00:00 GMT", "Thu, 01 Jan 1970 00:00:00 GMT"));
+    assertEquals(now, WebCache.computeExpires(now, null, null, null, null));
+  }
+}
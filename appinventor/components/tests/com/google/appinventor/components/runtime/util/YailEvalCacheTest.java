@@ -0,0 +1,68 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import gnu.expr.Language;
+import gnu.expr.ModuleExp;
+import gnu.math.IntNum;
+import kawa.standard.Scheme;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests YailEvalCache class.
+ */
+public class YailEvalCacheTest extends TestCase {
+  private Language scheme;
+  private YailEvalCache cache;
+
+  @Override
+  protected void setUp() {
+    ModuleExp.mustNeverCompile();
+    scheme = Scheme.getInstance("scheme");
+    cache = new YailEvalCache(scheme);
+  }
+
+  public void testCachedCodeIsEvaluatedAgain() throws Throwable {
+    cache.eval("(define yail-eval-cache-counter 0)");
+    String code = "(begin (set! yail-eval-cache-counter (+ yail-eval-cache-counter 1)) "
+        + "yail-eval-cache-counter)";
+    assertEquals(IntNum.make(1), cache.eval(code));
+    assertEquals(IntNum.make(2), cache.eval(code));
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+  }
+
+  public void testCachedDefinitionIsDefinedAgain() throws Throwable {
+    String code = "(define (yail-eval-cache-f x) (+ x 1))";
+    cache.eval(code);
+    assertEquals(IntNum.make(2), cache.eval("(yail-eval-cache-f 1)"));
+    cache.eval("(define (yail-eval-cache-f x) (+ x 2))");
+    assertEquals(IntNum.make(4), cache.eval("(yail-eval-cache-f 2)"));
+    cache.eval(code);
+    assertEquals(IntNum.make(4), cache.eval("(yail-eval-cache-f 3)"));
+    assertEquals(0, cache.getHits());
+  }
+
+  public void testCachedValueIsDefinedAgain() throws Throwable {
+    String code = "(define yail-eval-cache-v 1)";
+    cache.eval(code);
+    cache.eval("(define yail-eval-cache-v 2)");
+    cache.eval(code);
+    assertEquals(IntNum.make(1), cache.eval("yail-eval-cache-v"));
+    assertEquals(1, cache.getHits());
+  }
+
+  public void testSyntaxErrorIsReported() throws Throwable {
+    try {
+      cache.eval("(if)");
+      fail("Expected a syntax error");
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage().startsWith("invalid syntax in eval form"));
+    }
+    assertEquals(0, cache.getHits());
+  }
+}
@@ -0,0 +1,55 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2026 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how long reading every item of a YailList by index takes as the list grows. The time
+ * per item should stay flat; it grows with the list's length if each access walks the list. Not
+ * run as part of the tests; run its main method directly.
+ *
+ */
+public class YailListBenchmark {
+  private static final int RUNS = 5;
+
+  public static void main(String[] args) {
+    int[] sizes = { 10000, 20000, 50000, 100000 };
+    if (args.length > 0) {
+      sizes = new int[args.length];
+      for (int i = 0; i < args.length; i++) {
+        sizes[i] = Integer.parseInt(args[i]);
+      }
+    }
+    for (int size : sizes) {
+      List<Object> items = new ArrayList<Object>();
+      for (int i = 0; i < size; i++) {
+        items.add(i);
+      }
+      // Warm up until the JIT has compiled the access path, then measure.
+      run(items);
+      long best = Long.MAX_VALUE;
+      for (int i = 0; i < RUNS; i++) {
+        best = Math.min(best, run(items));
+      }
+      System.out.println(size + " items: " + best / 1000000 + " ms, "
+          + best / size + " ns/item");
+    }
+  }
+
+  private static long run(List<Object> items) {
+    YailList list = YailList.makeList(items);
+    long start = System.nanoTime();
+    for (int i = 0; i < items.size(); i++) {
+      if (list.getObject(i) != items.get(i)) {
+        throw new AssertionError("Wrong item at " + i);
+      }
+    }
+    list.toStringArray();
+    return System.nanoTime() - start;
+  }
+}
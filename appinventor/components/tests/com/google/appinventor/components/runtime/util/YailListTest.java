@@ -14,8 +14,12 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import gnu.lists.LList;
+import gnu.lists.Pair;
+
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -235,4 +239,49 @@ public class YailListTest {
     assertEquals(Long.toString(Long.MAX_VALUE), strings[0]);
     assertEquals(Long.toString(Long.MAX_VALUE), strings[1]);
   }
+
+  @Test
+  public void testMutators() {
+    YailList list = YailList.makeList(new Object[] { "a", "b", "c" });
+    list.setObject(1, "B");
+    list.insertObject(0, "start");
+    list.insertObject(4, "end");
+    list.removeObject(2);
+    assertEquals("(start a c end)", list.toString());
+    assertEquals(4, list.size());
+    list.appendList(list);
+    assertEquals("(start a c end start a c end)", list.toString());
+    assertEquals(8, list.size());
+    assertEquals("end", list.getObject(7));
+  }
+
+  @Test
+  public void testIndexFollowsPairChanges() {
+    YailList list = YailList.makeList(new Object[] { "a", "b" });
+    assertEquals(2, list.size());
+    // Extend and replace the contents the way Kawa code does, behind the index's back.
+    ((Pair) list.getCdr()).lastPair().setCdr(new Pair("c", LList.Empty));
+    assertEquals(3, list.size());
+    assertEquals("c", list.getObject(2));
+    list.setCdr(new Pair("z", LList.Empty));
+    assertEquals(1, list.size());
+    assertEquals("z", list.getObject(0));
+  }
+
+  @Test
+  public void testIndexedAccessOfLongList() {
+    // See YailListBenchmark for how the cost of this access grows with the list's length.
+    List<Object> items = new ArrayList<Object>();
+    for (int i = 0; i < 100000; i++) {
+      items.add(i);
+    }
+    YailList list = YailList.makeList(items);
+    assertEquals(100000, list.size());
+    for (int i = 0; i < 100000; i++) {
+      assertEquals(i, list.getObject(i));
+    }
+    String[] strings = list.toStringArray();
+    assertEquals(100000, strings.length);
+    assertEquals("99999", strings[99999]);
+  }
 }